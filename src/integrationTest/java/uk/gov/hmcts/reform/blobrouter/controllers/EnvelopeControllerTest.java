@@ -1,6 +1,7 @@
 package uk.gov.hmcts.reform.blobrouter.controllers;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -8,11 +9,13 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import reactor.util.function.Tuples;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeCursor;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
 import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEvent;
 import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidRequestParametersException;
 import uk.gov.hmcts.reform.blobrouter.model.out.IncompleteEnvelopeInfo;
+import uk.gov.hmcts.reform.blobrouter.services.EnvelopesPage;
 import uk.gov.hmcts.reform.blobrouter.services.IncompleteEnvelopesService;
 import uk.gov.hmcts.reform.blobrouter.util.DateFormatter;
 
@@ -24,11 +27,13 @@ import static java.time.Instant.now;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -46,6 +51,8 @@ public class EnvelopeControllerTest extends ControllerTestBase {
     @Autowired
     private MockMvc mockMvc;
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     @MockitoBean private IncompleteEnvelopesService incompleteEnvelopesService;
 
     @Test
@@ -58,14 +65,17 @@ public class EnvelopeControllerTest extends ControllerTestBase {
         var eventRecordInDb1 = envelopeEvent(envelopeInDb.id, 1, EventType.FILE_PROCESSING_STARTED);
         var eventRecordInDb2 = envelopeEvent(envelopeInDb.id, 2, EventType.DISPATCHED);
 
-        given(envelopeService.getEnvelopes(fileName, container, null))
-            .willReturn(singletonList(Tuples.of(
-                envelopeInDb,
-                asList(
-                    eventRecordInDb1,
-                    eventRecordInDb2
-                )
-            )));
+        given(envelopeService.getEnvelopes(fileName, container, null, null, DEFAULT_PAGE_SIZE))
+            .willReturn(new EnvelopesPage(
+                singletonList(Tuples.of(
+                    envelopeInDb,
+                    asList(
+                        eventRecordInDb1,
+                        eventRecordInDb2
+                    )
+                )),
+                null
+            ));
 
         mockMvc
             .perform(
@@ -102,8 +112,8 @@ public class EnvelopeControllerTest extends ControllerTestBase {
         final String fileName = "hello.zip";
         final String container = "foo";
 
-        given(envelopeService.getEnvelopes(fileName, container, null))
-            .willReturn(emptyList());
+        given(envelopeService.getEnvelopes(fileName, container, null, null, DEFAULT_PAGE_SIZE))
+            .willReturn(new EnvelopesPage(emptyList(), null));
 
         mockMvc
             .perform(
@@ -128,14 +138,17 @@ public class EnvelopeControllerTest extends ControllerTestBase {
         var envelope2Event1InDb = envelopeEvent(envelope2InDb.id, 3, EventType.FILE_PROCESSING_STARTED);
         var envelope2Event2InDb = envelopeEvent(envelope2InDb.id, 4, EventType.REJECTED);
 
-        given(envelopeService.getEnvelopes("file2.zip", container, LocalDate.of(2020, 5, 11)))
-            .willReturn(singletonList(Tuples.of(
-                envelope2InDb,
-                asList(
-                    envelope2Event1InDb,
-                    envelope2Event2InDb
-                )
-            )));
+        given(envelopeService.getEnvelopes("file2.zip", container, LocalDate.of(2020, 5, 11), null, DEFAULT_PAGE_SIZE))
+            .willReturn(new EnvelopesPage(
+                singletonList(Tuples.of(
+                    envelope2InDb,
+                    asList(
+                        envelope2Event1InDb,
+                        envelope2Event2InDb
+                    )
+                )),
+                null
+            ));
 
         mockMvc
             .perform(
@@ -168,16 +181,19 @@ public class EnvelopeControllerTest extends ControllerTestBase {
 
         Envelope envelope3InDb = envelope("file3.zip", "container3", instant("2020-05-11 10:10:00"));
 
-        given(envelopeService.getEnvelopes(null, null, LocalDate.of(2020, 5, 11)))
-            .willReturn(asList(
-                Tuples.of(
-                    envelope2InDb,
-                    asList(
-                        envelope2Event1InDb,
-                        envelope2Event2InDb
-                    )
+        given(envelopeService.getEnvelopes(null, null, LocalDate.of(2020, 5, 11), null, DEFAULT_PAGE_SIZE))
+            .willReturn(new EnvelopesPage(
+                asList(
+                    Tuples.of(
+                        envelope2InDb,
+                        asList(
+                            envelope2Event1InDb,
+                            envelope2Event2InDb
+                        )
+                    ),
+                    Tuples.of(envelope3InDb, emptyList())
                 ),
-                Tuples.of(envelope3InDb, emptyList())
+                null
             ));
 
         mockMvc.perform(
@@ -198,9 +214,56 @@ public class EnvelopeControllerTest extends ControllerTestBase {
             .andExpect(jsonPath("$.data[1].events", empty()));
     }
 
+    @Test
+    void should_return_next_cursor_and_pass_cursor_of_previous_page() throws Exception {
+        Envelope envelopeInDb = envelope("file1.zip", "container1", instant("2020-05-11 08:10:00"));
+        var cursor = new EnvelopeCursor(instant("2020-05-11 09:00:00"), UUID.randomUUID());
+        var nextCursor = EnvelopeCursor.after(envelopeInDb);
+
+        given(envelopeService.getEnvelopes(eq(null), eq(null), eq(LocalDate.of(2020, 5, 11)), any(), eq(1)))
+            .willReturn(new EnvelopesPage(singletonList(Tuples.of(envelopeInDb, emptyList())), nextCursor));
+
+        mockMvc.perform(
+            get("/envelopes")
+                .queryParam("date", "2020-05-11")
+                .queryParam("cursor", cursor.encode())
+                .queryParam("limit", "1")
+        )
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(1))
+            .andExpect(jsonPath("$.data[0].id").value(envelopeInDb.id.toString()))
+            .andExpect(jsonPath("$.next_cursor").value(nextCursor.encode()));
+
+        var cursorCaptor = ArgumentCaptor.forClass(EnvelopeCursor.class);
+        verify(envelopeService)
+            .getEnvelopes(eq(null), eq(null), eq(LocalDate.of(2020, 5, 11)), cursorCaptor.capture(), eq(1));
+        assertThat(cursorCaptor.getValue().id).isEqualTo(cursor.id);
+        assertThat(cursorCaptor.getValue().createdAt).isEqualTo(cursor.createdAt);
+    }
+
+    @Test
+    public void should_return_400_for_invalid_cursor() throws Exception {
+        mockMvc.perform(
+            get("/envelopes").queryParam("date", "2020-05-11").queryParam("cursor", "not-a-cursor")
+        )
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Invalid 'cursor'"));
+    }
+
+    @Test
+    public void should_return_400_for_too_large_page_size() throws Exception {
+        mockMvc.perform(
+            get("/envelopes").queryParam("date", "2020-05-11").queryParam("limit", "501")
+        )
+            .andDo(print())
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void should_return_400_for_missing_file_name_and_date() throws Exception {
-        given(envelopeService.getEnvelopes(null, null, null))
+        given(envelopeService.getEnvelopes(null, null, null, null, DEFAULT_PAGE_SIZE))
             .willThrow(
                 new InvalidRequestParametersException("'file_name' or 'date' must not be null or empty")
             );
@@ -82,4 +82,33 @@ public class ReportsControllerTest {
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void should_return_result_for_date_range() throws Exception {
+        given(reportService.getCountFor(LocalDate.of(2021, 3, 27), LocalDate.of(2021, 3, 28)))
+            .willReturn(List.of(
+                new EnvelopeCountSummaryReportItem(10, 1, CRIME_CONTAINER, LocalDate.of(2021, 3, 27)),
+                new EnvelopeCountSummaryReportItem(20, 2, CRIME_CONTAINER, LocalDate.of(2021, 3, 28))
+            ));
+
+        mockMvc
+            .perform(get("/reports/count-summary?from=2021-03-27&to=2021-03-28"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total_received").value(30))
+            .andExpect(jsonPath("$.total_rejected").value(3))
+            .andExpect(jsonPath("$.data.length()").value(2));
+    }
+
+    @Test
+    public void should_return_400_if_neither_date_nor_range_is_provided() throws Exception {
+        mockMvc
+            .perform(get("/reports/count-summary?from=2021-03-27"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void should_return_400_if_range_is_reversed() throws Exception {
+        mockMvc
+            .perform(get("/reports/count-summary?from=2021-03-28&to=2021-03-27"))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -28,8 +28,15 @@ public class DbHelper {
      * The `deleteAll` function deletes all records from multiple tables in a database using Spring's JdbcTemplate.
      */
     public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM notification_outbox", new MapSqlParameterSource());
+        jdbcTemplate.update("DELETE FROM envelope_retries", new MapSqlParameterSource());
+        jdbcTemplate.update("DELETE FROM envelope_fingerprints", new MapSqlParameterSource());
+        jdbcTemplate.update("DELETE FROM envelope_dispatches", new MapSqlParameterSource());
         jdbcTemplate.update("DELETE FROM envelope_events", new MapSqlParameterSource());
         jdbcTemplate.update("DELETE FROM envelopes", new MapSqlParameterSource());
+        // lookups of envelopes in dropped partitions
+        jdbcTemplate.update("DELETE FROM envelope_lookup", new MapSqlParameterSource());
+        jdbcTemplate.update("DELETE FROM envelope_daily_counts", new MapSqlParameterSource());
         jdbcTemplate.update("DELETE FROM envelope_supplier_statements", new MapSqlParameterSource());
         jdbcTemplate.update("DELETE FROM envelope_reconciliation_reports", new MapSqlParameterSource());
     }
@@ -0,0 +1,111 @@
+package uk.gov.hmcts.reform.blobrouter.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatch;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatchRepository;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CFT;
+import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CRIME;
+import static uk.gov.hmcts.reform.blobrouter.data.envelopes.Status.CREATED;
+
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+class EnvelopeDispatchRepositoryTest {
+
+    @Autowired
+    private EnvelopeDispatchRepository repository;
+    @Autowired
+    private EnvelopeRepository envelopeRepository;
+    @Autowired
+    private DbHelper dbHelper;
+
+    @BeforeEach
+    void setUp() {
+        dbHelper.deleteAll();
+    }
+
+    @Test
+    void should_save_and_find_dispatches_of_envelope() {
+        // given
+        UUID envelopeId = insertEnvelope("a.zip");
+        Instant dispatchedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        repository.insert(new EnvelopeDispatch(envelopeId, CFT, "bulkscan", "abc123", dispatchedAt));
+        repository.insert(new EnvelopeDispatch(envelopeId, CRIME, "archive", "abc123", dispatchedAt));
+        repository.insert(new EnvelopeDispatch(insertEnvelope("b.zip"), CFT, "bulkscan", "def456", dispatchedAt));
+
+        // when
+        var dispatches = repository.find(envelopeId);
+
+        // then
+        assertThat(dispatches)
+            .extracting(dispatch -> dispatch.targetStorageAccount + "/" + dispatch.targetContainer)
+            .containsExactlyInAnyOrder("CFT/bulkscan", "CRIME/archive");
+        assertThat(dispatches).allSatisfy(dispatch -> {
+            assertThat(dispatch.envelopeId).isEqualTo(envelopeId);
+            assertThat(dispatch.contentSha256).isEqualTo("abc123");
+            assertThat(dispatch.dispatchedAt).isEqualTo(dispatchedAt);
+        });
+    }
+
+    @Test
+    void should_record_dispatch_to_target_only_once() {
+        // given
+        UUID envelopeId = insertEnvelope("a.zip");
+        repository.insert(new EnvelopeDispatch(envelopeId, CFT, "bulkscan", "abc123", Instant.now()));
+
+        // when
+        int inserted = repository.insert(new EnvelopeDispatch(envelopeId, CFT, "bulkscan", "abc123", Instant.now()));
+
+        // then
+        assertThat(inserted).isZero();
+        assertThat(repository.find(envelopeId)).hasSize(1);
+    }
+
+    @Test
+    void should_delete_dispatches_together_with_their_envelope() {
+        // given
+        UUID deletedId = insertEnvelope("a.zip");
+        UUID keptId = insertEnvelope("b.zip");
+        repository.insert(new EnvelopeDispatch(deletedId, CFT, "bulkscan", "abc123", Instant.now()));
+        repository.insert(new EnvelopeDispatch(keptId, CFT, "bulkscan", "def456", Instant.now()));
+
+        // when
+        envelopeRepository.deleteEnvelopesBefore(LocalDateTime.now(), List.of(deletedId));
+
+        // then
+        assertThat(repository.find(deletedId)).isEmpty();
+        assertThat(repository.find(keptId)).hasSize(1);
+    }
+
+    @Test
+    void should_not_record_dispatch_of_unknown_envelope() {
+        // when
+        Throwable exc = catchThrowable(() ->
+            repository.insert(new EnvelopeDispatch(UUID.randomUUID(), CFT, "bulkscan", "abc123", Instant.now()))
+        );
+
+        // then
+        assertThat(exc).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private UUID insertEnvelope(String fileName) {
+        return envelopeRepository.insert(
+            new NewEnvelope("bulkscan", fileName, Instant.now().minusSeconds(60), null, CREATED, 1024L)
+        );
+    }
+}
@@ -18,6 +18,7 @@ import uk.gov.hmcts.reform.blobrouter.data.events.NewEnvelopeEvent;
 import java.util.UUID;
 
 import static java.time.Instant.now;
+import static java.time.temporal.ChronoUnit.HOURS;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -97,7 +98,7 @@ public class EnvelopeEventRepositoryTest {
         var eventId2a = eventRepo.insert(event2a);
         var eventId2b = eventRepo.insert(event2b);
 
-        var eventsInDb = eventRepo.findForEnvelopes(asList(envelopeId1, envelopeId2));
+        var eventsInDb = eventRepo.findForEnvelopes(asList(envelopeId1, envelopeId2), now().minus(1, HOURS));
 
         // then
         assertThat(eventsInDb)
@@ -117,7 +118,7 @@ public class EnvelopeEventRepositoryTest {
         var envelopeId2 = envelopeRepo.insert(new NewEnvelope("c2", "f2", now(), null, Status.CREATED, null));
 
         // when
-        var eventsInDb = eventRepo.findForEnvelopes(asList(envelopeId1, envelopeId2));
+        var eventsInDb = eventRepo.findForEnvelopes(asList(envelopeId1, envelopeId2), now().minus(1, HOURS));
 
         // then
         assertThat(eventsInDb).isEmpty();
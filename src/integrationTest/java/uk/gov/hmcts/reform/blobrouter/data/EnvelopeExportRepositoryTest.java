@@ -0,0 +1,146 @@
+package uk.gov.hmcts.reform.blobrouter.data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
+import uk.gov.hmcts.reform.blobrouter.data.export.EnvelopeExportRepository;
+import uk.gov.hmcts.reform.blobrouter.data.export.ExportFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+public class EnvelopeExportRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.parse("2020-03-10");
+
+    @Autowired private EnvelopeExportRepository exportRepository;
+    @Autowired private EnvelopeRepository envelopeRepository;
+    @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired private DbHelper dbHelper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        dbHelper.deleteAll();
+    }
+
+    @Test
+    void should_export_envelopes_created_within_date_range_as_csv() {
+        // given
+        UUID before = createEnvelope("bulkscan", "before.zip", "2020-03-09T23:59:59Z");
+        UUID first = createEnvelope("bulkscan", "first.zip", "2020-03-10T00:00:00Z");
+        UUID second = createEnvelope("crime", "second,with \"quotes\".zip", "2020-03-11T23:59:59Z");
+        UUID after = createEnvelope("bulkscan", "after.zip", "2020-03-12T00:00:00Z");
+
+        var out = new ByteArrayOutputStream();
+
+        // when
+        long count = exportRepository.copyEnvelopes(DAY, DAY.plusDays(1), emptyList(), ExportFormat.CSV, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines[0]).isEqualTo(
+            "id,container,file_name,file_created_at,dispatched_at,status,is_deleted,"
+                + "pending_notification,file_size,created_at"
+        );
+        assertThat(lines).hasSize(3);
+        assertThat(lines[1]).startsWith(first + ",bulkscan,first.zip,");
+        assertThat(lines[2]).startsWith(second + ",crime,\"second,with \"\"quotes\"\".zip\",");
+        assertThat(out.toString(StandardCharsets.UTF_8)).doesNotContain(before.toString(), after.toString());
+    }
+
+    @Test
+    void should_export_envelopes_from_given_containers_as_ndjson() throws Exception {
+        // given
+        UUID bulkscan = createEnvelope("bulkscan", "a\\b.zip", "2020-03-10T10:00:00Z");
+        createEnvelope("crime", "c.zip", "2020-03-10T11:00:00Z");
+
+        var out = new ByteArrayOutputStream();
+
+        // when
+        long count = exportRepository.copyEnvelopes(DAY, DAY, List.of("bulkscan"), ExportFormat.NDJSON, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(1);
+        assertThat(lines).hasSize(1);
+
+        JsonNode json = objectMapper.readTree(lines[0]);
+        assertThat(json.get("id").asText()).isEqualTo(bulkscan.toString());
+        assertThat(json.get("container").asText()).isEqualTo("bulkscan");
+        assertThat(json.get("file_name").asText()).isEqualTo("a\\b.zip");
+        assertThat(json.get("status").asText()).isEqualTo(Status.DISPATCHED.name());
+        assertThat(json.get("file_size").asLong()).isEqualTo(1024L);
+    }
+
+    @Test
+    void should_export_envelopes_created_within_london_days_during_summer_time() {
+        // given
+        UUID before = createEnvelope("bulkscan", "before.zip", "2020-06-09T22:59:59Z");
+        UUID first = createEnvelope("bulkscan", "first.zip", "2020-06-09T23:00:00Z");
+        UUID last = createEnvelope("bulkscan", "last.zip", "2020-06-10T22:59:59Z");
+        UUID after = createEnvelope("bulkscan", "after.zip", "2020-06-10T23:00:00Z");
+
+        var out = new ByteArrayOutputStream();
+
+        // when
+        var day = LocalDate.parse("2020-06-10");
+        long count = exportRepository.copyEnvelopes(day, day, emptyList(), ExportFormat.CSV, out);
+
+        // then
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(count).isEqualTo(2);
+        assertThat(csv).contains(first.toString(), last.toString());
+        assertThat(csv).doesNotContain(before.toString(), after.toString());
+    }
+
+    @Test
+    void should_reject_container_names_that_cannot_be_inlined() {
+        assertThatThrownBy(
+            () -> exportRepository.copyEnvelopes(
+                DAY,
+                DAY,
+                List.of("x') TO STDOUT; DROP TABLE envelopes; --"),
+                ExportFormat.CSV,
+                new ByteArrayOutputStream()
+            )
+        )
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid container name");
+    }
+
+    private UUID createEnvelope(String container, String fileName, String createdAt) {
+        UUID id = envelopeRepository.insert(
+            new NewEnvelope(container, fileName, Instant.parse(createdAt), null, Status.DISPATCHED, 1024L)
+        );
+        jdbcTemplate.update(
+            "UPDATE envelopes SET created_at = :createdAt WHERE id = :id",
+            new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("createdAt", Timestamp.from(Instant.parse(createdAt)))
+        );
+        return id;
+    }
+}
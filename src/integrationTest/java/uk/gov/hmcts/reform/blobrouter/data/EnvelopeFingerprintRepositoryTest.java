@@ -0,0 +1,98 @@
+package uk.gov.hmcts.reform.blobrouter.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprint;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprintRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.blobrouter.data.envelopes.Status.CREATED;
+
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+class EnvelopeFingerprintRepositoryTest {
+
+    @Autowired
+    private EnvelopeFingerprintRepository repository;
+    @Autowired
+    private EnvelopeRepository envelopeRepository;
+    @Autowired
+    private DbHelper dbHelper;
+
+    @BeforeEach
+    void setUp() {
+        dbHelper.deleteAll();
+    }
+
+    @Test
+    void should_save_and_find_fingerprint() {
+        // given
+        UUID envelopeId = insertEnvelope("a.zip");
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // when
+        int inserted = repository.insert(new EnvelopeFingerprint("abc123", envelopeId, "c1", "a.zip", createdAt));
+
+        // then
+        assertThat(inserted).isEqualTo(1);
+        assertThat(repository.find("abc123")).hasValueSatisfying(fingerprint -> {
+            assertThat(fingerprint.envelopeId).isEqualTo(envelopeId);
+            assertThat(fingerprint.container).isEqualTo("c1");
+            assertThat(fingerprint.fileName).isEqualTo("a.zip");
+            assertThat(fingerprint.createdAt).isEqualTo(createdAt);
+        });
+        assertThat(repository.find("def456")).isEmpty();
+    }
+
+    @Test
+    void should_keep_first_envelope_with_given_content() {
+        // given
+        UUID originalId = insertEnvelope("a.zip");
+        repository.insert(new EnvelopeFingerprint("abc123", originalId, "c1", "a.zip", Instant.now()));
+
+        // when
+        int inserted = repository.insert(
+            new EnvelopeFingerprint("abc123", insertEnvelope("b.zip"), "c1", "b.zip", Instant.now())
+        );
+
+        // then
+        assertThat(inserted).isZero();
+        assertThat(repository.find("abc123")).hasValueSatisfying(fingerprint -> {
+            assertThat(fingerprint.envelopeId).isEqualTo(originalId);
+            assertThat(fingerprint.fileName).isEqualTo("a.zip");
+        });
+    }
+
+    @Test
+    void should_delete_fingerprints_together_with_their_envelope() {
+        // given
+        UUID deletedId = insertEnvelope("a.zip");
+        UUID keptId = insertEnvelope("b.zip");
+        repository.insert(new EnvelopeFingerprint("abc123", deletedId, "c1", "a.zip", Instant.now()));
+        repository.insert(new EnvelopeFingerprint("def456", keptId, "c1", "b.zip", Instant.now()));
+
+        // when
+        envelopeRepository.deleteEnvelopesBefore(LocalDateTime.now(), List.of(deletedId));
+
+        // then
+        assertThat(repository.find("abc123")).isEmpty();
+        assertThat(repository.find("def456")).isPresent();
+    }
+
+    private UUID insertEnvelope(String fileName) {
+        return envelopeRepository.insert(
+            new NewEnvelope("c1", fileName, Instant.now().minusSeconds(60), null, CREATED, 1024L)
+        );
+    }
+}
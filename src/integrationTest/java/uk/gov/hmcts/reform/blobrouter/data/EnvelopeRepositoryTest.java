@@ -4,13 +4,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.test.context.ActiveProfiles;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeCursor;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
+import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEventRepository;
+import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
+import uk.gov.hmcts.reform.blobrouter.data.events.NewEnvelopeEvent;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -20,20 +25,20 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-import static com.google.common.collect.Sets.newHashSet;
 import static java.time.Instant.now;
-import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.util.Collections.emptyMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static uk.gov.hmcts.reform.blobrouter.data.envelopes.Status.CREATED;
 import static uk.gov.hmcts.reform.blobrouter.data.envelopes.Status.DISPATCHED;
 import static uk.gov.hmcts.reform.blobrouter.data.envelopes.Status.REJECTED;
+import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_ID;
 
 @ActiveProfiles({"integration-test", "db-test"})
 @SpringBootTest
 public class EnvelopeRepositoryTest {
 
     @Autowired private EnvelopeRepository repo;
+    @Autowired private EnvelopeEventRepository eventRepo;
     @Autowired private DbHelper dbHelper;
     @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
 
@@ -207,6 +212,24 @@ public class EnvelopeRepositoryTest {
         assertThat(envelopeAfterUpdate).hasValueSatisfying(env -> assertThat(env.pendingNotification).isEqualTo(false));
     }
 
+    @Test
+    void should_update_multiple_envelopes_as_notification_sent() {
+        // given
+        UUID id1 = repo.insert(new NewEnvelope("c", "a.zip", currentTime(), null, REJECTED, 1024L));
+        UUID id2 = repo.insert(new NewEnvelope("c", "b.zip", currentTime(), null, REJECTED, 1024L));
+        UUID id3 = repo.insert(new NewEnvelope("c", "c.zip", currentTime(), null, REJECTED, 1024L));
+        repo.updatePendingNotification(List.of(id1, id2, id3), true);
+
+        // when
+        int updateCount = repo.updatePendingNotification(List.of(id1, id2), false);
+
+        // then
+        assertThat(updateCount).isEqualTo(2);
+        assertThat(repo.find(id1)).hasValueSatisfying(env -> assertThat(env.pendingNotification).isFalse());
+        assertThat(repo.find(id2)).hasValueSatisfying(env -> assertThat(env.pendingNotification).isFalse());
+        assertThat(repo.find(id3)).hasValueSatisfying(env -> assertThat(env.pendingNotification).isTrue());
+    }
+
     @Test
     void should_update_envelopes_status() {
         // given
@@ -238,6 +261,25 @@ public class EnvelopeRepositoryTest {
             .hasValueSatisfying(env -> assertThat(env.dispatchedAt).isEqualTo(newDispatchTime));
     }
 
+    @Test
+    void should_update_content_digest() {
+        // given
+        UUID id = repo.insert(new NewEnvelope("a", "b", currentTime(), null, DISPATCHED, 1024L));
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+        // when
+        repo.updateContentSha256(id, sha256);
+
+        // then
+        assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT content_sha256 FROM envelopes WHERE id = :id",
+                new MapSqlParameterSource("id", id),
+                String.class
+            )
+        ).isEqualTo(sha256);
+    }
+
     @Test
     void should_return_zero_if_no_envelopes_were_marked_as_deleted() {
         // given no envelopes in DB
@@ -390,21 +432,6 @@ public class EnvelopeRepositoryTest {
         assertThat(repo.find("aaa", "C1")).isEmpty();
     }
 
-    @Test
-    void should_return_envelopes_count_for_container_and_time_range() {
-        //given
-        Instant toDate = currentTime();
-        Instant fromDate = toDate.minus(5, MINUTES);
-
-        addEnvelope("C1", "f1", CREATED, fromDate.plusSeconds(60)); // in time range
-        addEnvelope("C3", "f3", DISPATCHED, fromDate.plusSeconds(10)); // in time range
-        addEnvelope("C2", "f2", REJECTED, fromDate.minusSeconds(30)); // not in time range
-        addEnvelope("some-container", "f4", CREATED, fromDate.plusSeconds(30)); // invalid container
-
-        // then
-        assertThat(repo.getEnvelopesCount(newHashSet("C1", "C2", "C3", "C4"), fromDate, toDate)).isEqualTo(2);
-    }
-
     @Test
     void should_return_envelopes_for_the_requested_date() {
         //given
@@ -413,7 +440,7 @@ public class EnvelopeRepositoryTest {
         UUID id3 = addEnvelope("f3", "C2");
 
         // when
-        List<Envelope> envelopes = repo.findEnvelopes(null, null, LocalDate.now());
+        List<Envelope> envelopes = repo.findEnvelopes(null, null, LocalDate.now(EUROPE_LONDON_ZONE_ID));
 
         // then
         assertThat(envelopes).isNotEmpty().hasSize(3);
@@ -428,7 +455,7 @@ public class EnvelopeRepositoryTest {
         addEnvelope("f3", "C2");
 
         // when
-        List<Envelope> envelopes = repo.findEnvelopes(null, "C2", LocalDate.now());
+        List<Envelope> envelopes = repo.findEnvelopes(null, "C2", LocalDate.now(EUROPE_LONDON_ZONE_ID));
 
         // then
         assertThat(envelopes).isNotEmpty().hasSize(1);
@@ -444,7 +471,7 @@ public class EnvelopeRepositoryTest {
         addEnvelope("f3", "C1");
 
         // when
-        List<Envelope> envelopes = repo.findEnvelopes("f1", "C1", LocalDate.now());
+        List<Envelope> envelopes = repo.findEnvelopes("f1", "C1", LocalDate.now(EUROPE_LONDON_ZONE_ID));
 
         // then
         assertThat(envelopes).isNotEmpty().hasSize(1);
@@ -467,6 +494,31 @@ public class EnvelopeRepositoryTest {
         assertThat(envelopes).extracting(env -> env.id).containsExactly(id3, id2, id1); // ordered by created_at
     }
 
+    @Test
+    void should_return_envelopes_page_by_page_using_keyset() {
+        //given
+        UUID id1 = addEnvelope("f1", "C1");
+        UUID id2 = addEnvelope("f2", "C1");
+        UUID id3 = addEnvelope("f3", "C1");
+        UUID id4 = addEnvelope("f4", "C2");
+        UUID id5 = addEnvelope("f5", "C1");
+
+        // when
+        List<Envelope> firstPage = repo.findEnvelopes(null, "C1", LocalDate.now(EUROPE_LONDON_ZONE_ID), null, 2);
+        List<Envelope> secondPage = repo.findEnvelopes(
+            null, "C1", LocalDate.now(EUROPE_LONDON_ZONE_ID), EnvelopeCursor.after(firstPage.get(1)), 2
+        );
+        List<Envelope> lastPage = repo.findEnvelopes(
+            null, "C1", LocalDate.now(EUROPE_LONDON_ZONE_ID), EnvelopeCursor.after(secondPage.get(1)), 2
+        );
+
+        // then
+        assertThat(firstPage).extracting(env -> env.id).containsExactly(id5, id3);
+        assertThat(secondPage).extracting(env -> env.id).containsExactly(id2, id1);
+        assertThat(lastPage).isEmpty();
+        assertThat(firstPage).extracting(env -> env.id).doesNotContain(id4);
+    }
+
     @Test
     void should_return_empty_list_when_no_envelopes_exist_for_the_requested_date() {
         //given
@@ -475,7 +527,7 @@ public class EnvelopeRepositoryTest {
 
         // when
         List<Envelope> envelopes = repo.findEnvelopes(
-            null, null, LocalDate.now().minusDays(1)
+            null, null, LocalDate.now(EUROPE_LONDON_ZONE_ID).minusDays(1)
         ); //query for previous day
 
         // then
@@ -506,6 +558,36 @@ public class EnvelopeRepositoryTest {
             .containsExactlyInAnyOrder("A.zip", "D.zip");
     }
 
+    @Test
+    void should_delete_incomplete_envelopes_in_chunks_oldest_first() {
+        // given
+        Instant now = currentTime();
+        UUID oldest = repo.insert(new NewEnvelope("X", "A.zip", now.minusSeconds(9000), null, CREATED, null));
+        UUID older = repo.insert(new NewEnvelope("Y", "B.zip", now.minusSeconds(8000), null, CREATED, null));
+        UUID old = repo.insert(new NewEnvelope("Z", "C.zip", now.minusSeconds(7200), null, CREATED, null));
+        repo.insert(new NewEnvelope("Z", "D.zip", now.minusSeconds(7200), null, DISPATCHED, null));
+        repo.insert(new NewEnvelope("Z", "E.zip", now.minusSeconds(10), null, CREATED, null));
+        eventRepo.insert(new NewEnvelopeEvent(oldest, EventType.FILE_PROCESSING_STARTED, null, null));
+
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(3600);
+
+        // when
+        List<UUID> firstChunk = repo.deleteIncompleteEnvelopesChunk(cutoff, 2);
+        List<UUID> secondChunk = repo.deleteIncompleteEnvelopesChunk(cutoff, 2);
+        List<UUID> thirdChunk = repo.deleteIncompleteEnvelopesChunk(cutoff, 2);
+
+        // then
+        assertThat(firstChunk).containsExactly(oldest, older);
+        assertThat(secondChunk).containsExactly(old);
+        assertThat(thirdChunk).isEmpty();
+        assertThat(repo.find(oldest)).isEmpty();
+        assertThat(eventRepo.findForEnvelope(oldest)).isEmpty();
+        assertThat(repo.getIncompleteEnvelopesBefore(cutoff)).isEmpty();
+        assertThat(repo.findEnvelopes(null, null, null))
+            .extracting(envelope -> envelope.fileName)
+            .containsExactlyInAnyOrder("D.zip", "E.zip");
+    }
+
     @Test
     void should_return_empty_when_envelope_status_is_created() {
         // given
@@ -560,7 +642,11 @@ public class EnvelopeRepositoryTest {
         repo.insert(new NewEnvelope("B", "41419090.zip", now, null, CREATED, null));
 
         // when
-        List<Envelope> result = repo.findEnvelopesByDcnPrefix("231313", LocalDate.now().minusDays(1),LocalDate.now());
+        List<Envelope> result = repo.findEnvelopesByDcnPrefix(
+            "231313",
+            LocalDate.now(EUROPE_LONDON_ZONE_ID).minusDays(1),
+            LocalDate.now(EUROPE_LONDON_ZONE_ID)
+        );
 
         // then
         assertThat(result)
@@ -568,6 +654,24 @@ public class EnvelopeRepositoryTest {
             .containsExactlyInAnyOrder("231313_x.zip", "2313131.zip");
     }
 
+    @Test
+    void should_treat_like_wildcards_in_dcn_prefix_literally() {
+        // given
+        Instant now = currentTime();
+        repo.insert(new NewEnvelope("X", "1234567890.zip", now, null, CREATED, null));
+        repo.insert(new NewEnvelope("Y", "12345_7890.zip", now, null, CREATED, null));
+
+        // when
+        List<Envelope> result = repo.findEnvelopesByDcnPrefix(
+            "12345_7890",
+            LocalDate.now(EUROPE_LONDON_ZONE_ID),
+            LocalDate.now(EUROPE_LONDON_ZONE_ID)
+        );
+
+        // then
+        assertThat(result).extracting(envelope -> envelope.fileName).containsExactly("12345_7890.zip");
+    }
+
     @Test
     void should_return_empty_list_when_no_envelopes_matching_by_dcn() {
         // given
@@ -579,7 +683,11 @@ public class EnvelopeRepositoryTest {
         repo.insert(new NewEnvelope("B", "41419090.zip", now, null, CREATED, null));
 
         // when
-        List<Envelope> result = repo.findEnvelopesByDcnPrefix("231313", LocalDate.now().minusDays(1), LocalDate.now());
+        List<Envelope> result = repo.findEnvelopesByDcnPrefix(
+            "231313",
+            LocalDate.now(EUROPE_LONDON_ZONE_ID).minusDays(1),
+            LocalDate.now(EUROPE_LONDON_ZONE_ID)
+        );
 
         // then
         assertThat(result).isEmpty();
@@ -0,0 +1,112 @@
+package uk.gov.hmcts.reform.blobrouter.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.gov.hmcts.reform.blobrouter.data.retries.EnvelopeRetry;
+import uk.gov.hmcts.reform.blobrouter.data.retries.EnvelopeRetryRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+class EnvelopeRetryRepositoryTest {
+
+    @Autowired
+    private EnvelopeRetryRepository repository;
+    @Autowired
+    private DbHelper dbHelper;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dbHelper.deleteAll();
+    }
+
+    @Test
+    void should_save_and_replace_retry_state_of_blob() {
+        // given
+        var envelopeId = UUID.randomUUID();
+        Instant firstAttempt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        repository.save(new EnvelopeRetry("c1", "a.zip", envelopeId, "0x1", 1, firstAttempt, false, "error 1"));
+
+        // when
+        Instant secondAttempt = firstAttempt.plusSeconds(120);
+        repository.save(new EnvelopeRetry("c1", "a.zip", envelopeId, "0x2", 2, secondAttempt, true, "error 2"));
+
+        // then
+        assertThat(repository.find("c1", "a.zip")).hasValueSatisfying(retry -> {
+            assertThat(retry.envelopeId).isEqualTo(envelopeId);
+            assertThat(retry.eTag).isEqualTo("0x2");
+            assertThat(retry.attempts).isEqualTo(2);
+            assertThat(retry.nextAttemptAt).isEqualTo(secondAttempt);
+            assertThat(retry.quarantined).isTrue();
+            assertThat(retry.lastError).isEqualTo("error 2");
+        });
+        assertThat(repository.find("c2", "a.zip")).isEmpty();
+    }
+
+    @Test
+    void should_delete_retry_state_of_blob() {
+        // given
+        repository.save(retry("a.zip", UUID.randomUUID()));
+        repository.save(retry("b.zip", UUID.randomUUID()));
+
+        // when
+        int deleted = repository.delete("c1", "a.zip");
+
+        // then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(repository.find("c1", "a.zip")).isEmpty();
+        assertThat(repository.find("c1", "b.zip")).isPresent();
+    }
+
+    @Test
+    void should_delete_retry_state_of_envelope() {
+        // given
+        var envelopeId = UUID.randomUUID();
+        repository.save(retry("a.zip", envelopeId));
+        repository.save(retry("b.zip", UUID.randomUUID()));
+
+        // when
+        int deleted = repository.deleteByEnvelopeId(envelopeId);
+
+        // then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(repository.find("c1", "a.zip")).isEmpty();
+        assertThat(repository.find("c1", "b.zip")).isPresent();
+        assertThat(repository.deleteByEnvelopeId(envelopeId)).isZero();
+    }
+
+    @Test
+    void should_delete_retry_state_not_updated_for_given_number_of_days() {
+        // given
+        repository.save(retry("old.zip", UUID.randomUUID()));
+        repository.save(retry("recent.zip", UUID.randomUUID()));
+        jdbcTemplate.update(
+            "UPDATE envelope_retries SET updated_at = updated_at - INTERVAL '31 days' WHERE file_name = 'old.zip'",
+            new MapSqlParameterSource()
+        );
+
+        // when
+        int deleted = repository.deleteNotUpdatedFor(30);
+
+        // then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(repository.find("c1", "old.zip")).isEmpty();
+        assertThat(repository.find("c1", "recent.zip")).isPresent();
+    }
+
+    private static EnvelopeRetry retry(String fileName, UUID envelopeId) {
+        return new EnvelopeRetry("c1", fileName, envelopeId, "0x1", 1, Instant.now(), false, null);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
@@ -14,8 +15,11 @@ import uk.gov.hmcts.reform.blobrouter.model.out.reports.EnvelopeCountSummaryRepo
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static java.time.format.DateTimeFormatter.ISO_DATE;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -109,7 +113,7 @@ public class EnvelopeSummaryRepositoryTest {
         );
 
         // when
-        List<EnvelopeSummary> result = reportRepository.getEnvelopeSummary(
+        List<EnvelopeSummary> result = streamEnvelopeSummary(
             instant("2019-12-20 00:00:00"),
             instant("2019-12-21 00:00:00")
         );
@@ -168,7 +172,7 @@ public class EnvelopeSummaryRepositoryTest {
         );
 
         // when
-        List<EnvelopeSummary> result = reportRepository.getEnvelopeSummary(
+        List<EnvelopeSummary> result = streamEnvelopeSummary(
             instant("2019-12-20 00:00:00"),
             instant("2019-12-21 00:00:00")
         );
@@ -227,7 +231,7 @@ public class EnvelopeSummaryRepositoryTest {
         );
 
         // when
-        List<EnvelopeSummary> result = reportRepository.getEnvelopeSummary(
+        List<EnvelopeSummary> result = streamEnvelopeSummary(
             instant("2019-12-20 00:00:00"),
             instant("2019-12-21 00:00:00")
         );
@@ -429,4 +433,128 @@ public class EnvelopeSummaryRepositoryTest {
             );
     }
 
+    @Test
+    void should_return_count_summary_for_every_day_of_date_range() {
+        // given
+        Instant day1 = instant("2021-03-16 11:32:26");
+        Instant day3 = instant("2021-03-18 09:10:11");
+        dbHelper.insertWithCreatedAt(
+            new NewEnvelope(CONTAINER_CRIME, CRIME_CREATED_1, day1, null, Status.CREATED, null), day1
+        );
+        dbHelper.insertWithCreatedAt(
+            new NewEnvelope(CONTAINER_CRIME, CRIME_REJECTED_2, day3, null, Status.REJECTED, null), day3
+        );
+        dbHelper.insertWithCreatedAt(
+            new NewEnvelope(CONTAINER_PCQ, PCQ_DISPATCHED_3, day3, null, Status.DISPATCHED, null), day3
+        );
+
+        // when
+        List<EnvelopeCountSummaryReportItem> result = reportRepository.getReportFor(
+            LocalDate.parse("2021-03-16"),
+            LocalDate.parse("2021-03-18"),
+            List.of(CONTAINER_CRIME, CONTAINER_PCQ)
+        );
+
+        // then
+        assertThat(result)
+            .extracting(item -> item.date + " " + item.container + " " + item.received + " " + item.rejected)
+            .containsExactlyInAnyOrder(
+                "2021-03-16 crime 1 0",
+                "2021-03-16 pcq 0 0",
+                "2021-03-17 crime 0 0",
+                "2021-03-17 pcq 0 0",
+                "2021-03-18 crime 1 1",
+                "2021-03-18 pcq 1 0"
+            );
+    }
+
+    @Test
+    void should_update_count_summary_when_envelope_status_changes_or_envelope_is_deleted() {
+        // given
+        var id1 = envelopeRepository.insert(
+            new NewEnvelope(CONTAINER_SSCS, SSCS_CREATED_1, Instant.now(), null, Status.CREATED, null)
+        );
+        var id2 = envelopeRepository.insert(
+            new NewEnvelope(CONTAINER_SSCS, SSCS_REJECTED_2, Instant.now(), null, Status.CREATED, null)
+        );
+
+        // when
+        envelopeRepository.updateStatus(id1, Status.REJECTED);
+        envelopeRepository.updateStatus(id2, Status.REJECTED);
+        envelopeRepository.updateStatus(id2, Status.CREATED);
+
+        // then
+        assertThat(reportRepository.getReportFor(DATE_REPORTED_FOR, List.of(CONTAINER_SSCS)))
+            .singleElement()
+            .satisfies(item -> {
+                assertThat(item.received).isEqualTo(2);
+                assertThat(item.rejected).isEqualTo(1);
+            });
+
+        // when
+        envelopeRepository.deleteEnvelopesBefore(LocalDateTime.now().plusMinutes(1), List.of(id2));
+
+        // then
+        assertThat(reportRepository.getReportFor(DATE_REPORTED_FOR, List.of(CONTAINER_SSCS)))
+            .singleElement()
+            .satisfies(item -> {
+                assertThat(item.received).isEqualTo(1);
+                assertThat(item.rejected).isEqualTo(1);
+            });
+    }
+
+    @Test
+    void should_check_if_envelopes_were_received_since_given_time() {
+        // given
+        Instant receivedAt = instant("2021-03-16 11:32:26");
+        dbHelper.insertWithCreatedAt(
+            new NewEnvelope(CONTAINER_CRIME, CRIME_CREATED_1, receivedAt, null, Status.CREATED, null), receivedAt
+        );
+
+        // when
+        // then
+        assertThat(reportRepository.hasEnvelopesReceivedSince(Set.of(CONTAINER_CRIME), receivedAt.minusSeconds(60)))
+            .isTrue();
+        assertThat(reportRepository.hasEnvelopesReceivedSince(Set.of(CONTAINER_CRIME), receivedAt.plusSeconds(60)))
+            .isFalse();
+        assertThat(reportRepository.hasEnvelopesReceivedSince(Set.of(CONTAINER_PCQ), receivedAt.minusSeconds(60)))
+            .isFalse();
+    }
+
+    @Test
+    @Transactional // cursor based fetching requires a transaction
+    void should_stream_envelope_summaries_within_date_range_in_file_created_order() {
+        // given
+        Instant createdAt1 = instant("2019-12-20 11:32:26");
+        Instant createdAt2 = instant("2019-12-20 10:31:25");
+        Instant createdAt3 = instant("2019-12-21 10:31:25");
+        envelopeRepository.insert(
+            new NewEnvelope(CONTAINER_CRIME, CRIME_CREATED_1, createdAt1, null, Status.CREATED, null)
+        );
+        envelopeRepository.insert(
+            new NewEnvelope(CONTAINER_PCQ, PCQ_REJECTED_2, createdAt2, null, Status.REJECTED, null)
+        );
+        envelopeRepository.insert(
+            new NewEnvelope(CONTAINER_SSCS, SSCS_CREATED_1, createdAt3, null, Status.CREATED, null)
+        );
+
+        // when
+        List<EnvelopeSummary> result = new ArrayList<>();
+        reportRepository.streamEnvelopeSummary(
+            instant("2019-12-20 00:00:00"),
+            instant("2019-12-21 00:00:00"),
+            result::add
+        );
+
+        // then
+        assertThat(result)
+            .extracting(summary -> summary.fileName)
+            .containsExactly(PCQ_REJECTED_2, CRIME_CREATED_1);
+    }
+
+    private List<EnvelopeSummary> streamEnvelopeSummary(Instant from, Instant to) {
+        List<EnvelopeSummary> result = new ArrayList<>();
+        reportRepository.streamEnvelopeSummary(from, to, result::add);
+        return result;
+    }
 }
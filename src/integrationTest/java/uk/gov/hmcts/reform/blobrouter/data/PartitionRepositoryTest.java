@@ -0,0 +1,211 @@
+package uk.gov.hmcts.reform.blobrouter.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
+import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEventRepository;
+import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
+import uk.gov.hmcts.reform.blobrouter.data.events.NewEnvelopeEvent;
+import uk.gov.hmcts.reform.blobrouter.data.partitions.MonthlyPartition;
+import uk.gov.hmcts.reform.blobrouter.data.partitions.PartitionRepository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+public class PartitionRepositoryTest {
+
+    private static final YearMonth OLD_MONTH = YearMonth.of(2001, 2);
+
+    @Autowired private PartitionRepository partitionRepository;
+    @Autowired private EnvelopeRepository envelopeRepository;
+    @Autowired private EnvelopeEventRepository eventRepository;
+    @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired private DbHelper dbHelper;
+
+    @BeforeEach
+    void setUp() {
+        dbHelper.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbHelper.deleteAll();
+        if (partitionExists("envelopes_2001_02")) {
+            partitionRepository.dropMonthlyPartition("envelopes", OLD_MONTH);
+        }
+    }
+
+    @Test
+    void should_create_monthly_partition_only_once() {
+        // when
+        String name = partitionRepository.createMonthlyPartition("envelopes", OLD_MONTH);
+        String nameOfExisting = partitionRepository.createMonthlyPartition("envelopes", OLD_MONTH);
+
+        // then
+        assertThat(name).isEqualTo("envelopes_2001_02");
+        assertThat(nameOfExisting).isEqualTo(name);
+        assertThat(partitionRepository.findMonthlyPartitions("envelopes"))
+            .extracting(partition -> partition.name)
+            .contains(name)
+            .doesNotContain("envelopes_default");
+    }
+
+    @Test
+    void should_route_rows_to_partition_of_their_month() {
+        // given
+        partitionRepository.createMonthlyPartition("envelopes", OLD_MONTH);
+
+        // when
+        UUID id = createEnvelope(OLD_MONTH.atDay(10).atTime(12, 0));
+
+        // then
+        assertThat(partitionOf(id)).isEqualTo("envelopes_2001_02");
+    }
+
+    @Test
+    void should_drop_partition_together_with_its_rows() {
+        // given
+        partitionRepository.createMonthlyPartition("envelopes", OLD_MONTH);
+        UUID oldEnvelope = createEnvelope(OLD_MONTH.atDay(10).atTime(12, 0));
+        UUID currentEnvelope = envelopeRepository.insert(
+            new NewEnvelope("c", "current.zip", Instant.now(), null, Status.CREATED, null)
+        );
+
+        // when
+        partitionRepository.dropMonthlyPartition("envelopes", OLD_MONTH);
+
+        // then
+        assertThat(partitionExists("envelopes_2001_02")).isFalse();
+        assertThat(envelopeRepository.find(oldEnvelope)).isEmpty();
+        assertThat(envelopeRepository.find(currentEnvelope)).isPresent();
+    }
+
+    @Test
+    void should_move_rows_of_month_from_default_partition_when_creating_its_partition() {
+        // given
+        UUID id = createEnvelope(OLD_MONTH.atDay(10).atTime(12, 0));
+        eventRepository.insert(new NewEnvelopeEvent(id, EventType.FILE_PROCESSING_STARTED, null, null));
+        assertThat(partitionOf(id)).isEqualTo("envelopes_default");
+
+        // when
+        partitionRepository.createMonthlyPartition("envelopes", OLD_MONTH);
+
+        // then
+        assertThat(partitionOf(id)).isEqualTo("envelopes_2001_02");
+        assertThat(envelopeRepository.find(id)).isPresent();
+        assertThat(eventRepository.findForEnvelope(id)).hasSize(1);
+    }
+
+    @Test
+    void should_not_allow_envelopes_with_the_same_id_in_different_partitions() {
+        // given
+        partitionRepository.createMonthlyPartition("envelopes", OLD_MONTH);
+        UUID id = createEnvelope(OLD_MONTH.atDay(10).atTime(12, 0));
+
+        // when
+        Throwable exc = catchThrowable(() -> jdbcTemplate.update(
+            "INSERT INTO envelopes (id, container, file_name, file_created_at, status, created_at) "
+                + "VALUES (:id, 'c', 'other.zip', CURRENT_TIMESTAMP, 'CREATED', CURRENT_TIMESTAMP)",
+            new MapSqlParameterSource("id", id)
+        ));
+
+        // then
+        assertThat(exc).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void should_delete_lookups_and_events_of_envelopes_in_dropped_partitions() {
+        // given
+        partitionRepository.createMonthlyPartition("envelopes", OLD_MONTH);
+        UUID oldEnvelope = createEnvelope(OLD_MONTH.atDay(10).atTime(12, 0));
+        eventRepository.insert(new NewEnvelopeEvent(oldEnvelope, EventType.FILE_PROCESSING_STARTED, null, null));
+        UUID currentEnvelope = envelopeRepository.insert(
+            new NewEnvelope("c", "current.zip", Instant.now(), null, Status.CREATED, null)
+        );
+        partitionRepository.dropMonthlyPartition("envelopes", OLD_MONTH);
+
+        // when
+        int deleted = partitionRepository.deleteLookupsOfDroppedEnvelopes(YearMonth.now());
+
+        // then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(eventRepository.findForEnvelope(oldEnvelope)).isEmpty();
+        assertThat(envelopeRepository.find(currentEnvelope)).isPresent();
+    }
+
+    @Test
+    void should_list_partitions_with_their_months() {
+        // when
+        List<MonthlyPartition> partitions = partitionRepository.findMonthlyPartitions("envelope_events");
+
+        // then
+        YearMonth currentMonth = YearMonth.now();
+        assertThat(partitions)
+            .filteredOn(partition -> partition.month.equals(currentMonth))
+            .extracting(partition -> partition.name)
+            .containsExactly("envelope_events_" + currentMonth.toString().replace('-', '_'));
+    }
+
+    @Test
+    void should_delete_events_of_deleted_envelopes() {
+        // given
+        UUID id = envelopeRepository.insert(
+            new NewEnvelope("c", "incomplete.zip", Instant.now().minusSeconds(3600), null, Status.CREATED, null)
+        );
+        eventRepository.insert(new NewEnvelopeEvent(id, EventType.FILE_PROCESSING_STARTED, null, null));
+
+        // when
+        int deleted = envelopeRepository.deleteEnvelopesBefore(LocalDateTime.now(), List.of(id));
+
+        // then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(eventRepository.findForEnvelope(id)).isEmpty();
+    }
+
+    private UUID createEnvelope(LocalDateTime createdAt) {
+        UUID id = envelopeRepository.insert(
+            new NewEnvelope("c", "old.zip", Instant.now(), null, Status.CREATED, null)
+        );
+        jdbcTemplate.update(
+            "UPDATE envelopes SET created_at = :createdAt WHERE id = :id",
+            new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("createdAt", Timestamp.valueOf(createdAt))
+        );
+        return id;
+    }
+
+    private String partitionOf(UUID id) {
+        return jdbcTemplate.queryForObject(
+            "SELECT tableoid::regclass::text FROM envelopes WHERE id = :id",
+            new MapSqlParameterSource("id", id),
+            String.class
+        );
+    }
+
+    private boolean partitionExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT to_regclass(:name) IS NOT NULL",
+            new MapSqlParameterSource("name", name),
+            Boolean.class
+        ));
+    }
+}
@@ -0,0 +1,111 @@
+package uk.gov.hmcts.reform.blobrouter.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReadFromReplica;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReplicaLagMonitor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the application against two databases: the usual one, acting as the primary, and a second, empty one
+ * acting as the read replica. The name of the database a query runs in tells where it has been routed to.
+ */
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+@Testcontainers
+class ReadReplicaRoutingTest {
+
+    private static final String REPLICA_DATABASE = "blob_router_replica";
+
+    @Container
+    private static final PostgreSQLContainer<?> replica =
+        new PostgreSQLContainer<>("postgres:15.0").withDatabaseName(REPLICA_DATABASE);
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("replica-db.enabled", () -> "true");
+        registry.add("replica-db.url", replica::getJdbcUrl);
+        registry.add("replica-db.username", replica::getUsername);
+        registry.add("replica-db.password", replica::getPassword);
+    }
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor.checkLag();
+    }
+
+    @Test
+    void should_run_transactions_marked_for_replica_on_replica() {
+        // given
+        var transactionAttribute = new DefaultTransactionAttribute();
+        transactionAttribute.setReadOnly(true);
+        transactionAttribute.setLabels(List.of(ReadFromReplica.LABEL));
+
+        // when
+        TransactionStatus transaction = transactionManager.getTransaction(transactionAttribute);
+        String database;
+        try {
+            database = currentDatabase();
+        } finally {
+            transactionManager.commit(transaction);
+        }
+
+        // then
+        assertThat(database).isEqualTo(REPLICA_DATABASE);
+        assertThat(currentDatabase()).isEqualTo("blob_router");
+    }
+
+    @Test
+    void should_run_other_read_only_transactions_on_primary() {
+        // given
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        // when
+        String database = transactionTemplate.execute(status -> currentDatabase());
+
+        // then
+        assertThat(database).isEqualTo("blob_router");
+    }
+
+    @Test
+    void should_run_read_write_transactions_on_primary() {
+        // given
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // when
+        String database = transactionTemplate.execute(status -> currentDatabase());
+
+        // then
+        assertThat(database).isEqualTo("blob_router");
+    }
+
+    @Test
+    void should_run_queries_outside_of_transactions_on_primary() {
+        assertThat(currentDatabase()).isEqualTo("blob_router");
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+    }
+}
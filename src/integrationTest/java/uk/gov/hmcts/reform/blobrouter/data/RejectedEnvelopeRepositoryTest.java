@@ -12,6 +12,7 @@ import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEventRepository;
 import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
 import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
 import uk.gov.hmcts.reform.blobrouter.data.events.NewEnvelopeEvent;
+import uk.gov.hmcts.reform.blobrouter.data.outbox.NotificationOutboxRepository;
 import uk.gov.hmcts.reform.blobrouter.data.rejectedenvelope.RejectedEnvelope;
 import uk.gov.hmcts.reform.blobrouter.data.rejectedenvelope.RejectedEnvelopeRepository;
 
@@ -31,6 +32,8 @@ class RejectedEnvelopeRepositoryTest {
     @Autowired
     private RejectedEnvelopeRepository rejectedEnvelopeRepo;
     @Autowired
+    private NotificationOutboxRepository outboxRepo;
+    @Autowired
     private DbHelper dbHelper;
 
     @BeforeEach
@@ -55,15 +58,10 @@ class RejectedEnvelopeRepositoryTest {
         );
 
         eventRepo.insert(new NewEnvelopeEvent(envelopeId2, EventType.DISPATCHED, null, "notes1"));
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId3, EventType.FILE_PROCESSING_STARTED, null, "notes1"));
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId3, EventType.REJECTED, ErrorCode.ERR_AV_FAILED, "notes2"));
-        eventRepo.insert(
-            new NewEnvelopeEvent(envelopeId4, EventType.REJECTED, ErrorCode.ERR_SIG_VERIFY_FAILED, "notes3")
-        );
 
         /* notifications pending */
-        envelopeRepo.updatePendingNotification(envelopeId3, true);
-        envelopeRepo.updatePendingNotification(envelopeId4, true);
+        outboxRepo.insert(envelopeId3, ErrorCode.ERR_AV_FAILED, "notes2");
+        outboxRepo.insert(envelopeId4, ErrorCode.ERR_SIG_VERIFY_FAILED, "notes3");
 
         // when
         List<RejectedEnvelope> rejectedEnvelopes = rejectedEnvelopeRepo.getRejectedEnvelopes();
@@ -72,7 +70,7 @@ class RejectedEnvelopeRepositoryTest {
         assertThat(rejectedEnvelopes)
             .hasSize(2)
             .extracting(e -> tuple(e.envelopeId, e.container, e.fileName, e.errorCode, e.errorDescription))
-            .containsExactlyInAnyOrder(
+            .containsExactly(
                 tuple(envelopeId3, "c1", "file3.zip", ErrorCode.ERR_AV_FAILED, "notes2"),
                 tuple(envelopeId4, "c2", "file4.zip", ErrorCode.ERR_SIG_VERIFY_FAILED, "notes3")
             );
@@ -81,21 +79,14 @@ class RejectedEnvelopeRepositoryTest {
     @Test
     void should_get_empty_results_when_no_rejected_envelopes_with_pending_notifications_found() {
         // given
-        var envelopeId1 = envelopeRepo.insert(
+        envelopeRepo.insert(
             new NewEnvelope("c1", "file1.zip", now(), now().plusSeconds(100), Status.CREATED, null)
         );
         var envelopeId2 = envelopeRepo.insert(
-            new NewEnvelope("c1", "file2.zip", now(), now().plusSeconds(100), Status.DISPATCHED, null)
+            new NewEnvelope("c1", "file2.zip", now(), now().plusSeconds(100), Status.REJECTED, null)
         );
-        var envelopeId3 = envelopeRepo.insert(
-            new NewEnvelope("c1", "file3.zip", now(), now().plusSeconds(100), Status.REJECTED, null)
-        );
-
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId1, EventType.FILE_PROCESSING_STARTED, null, "notes1"));
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId2, EventType.DISPATCHED, null, "notes2"));
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId3, EventType.ERROR, null, "notes3"));
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId3, EventType.REJECTED, ErrorCode.ERR_AV_FAILED, "notes2"));
-        envelopeRepo.updatePendingNotification(envelopeId3, false); // notification sent
+        outboxRepo.insert(envelopeId2, ErrorCode.ERR_AV_FAILED, "notes2");
+        outboxRepo.markAsSent(List.of(envelopeId2)); // notification sent
 
         // when
         List<RejectedEnvelope> rejectedEnvelopes = rejectedEnvelopeRepo.getRejectedEnvelopes();
@@ -111,29 +102,15 @@ class RejectedEnvelopeRepositoryTest {
         var envelopeId1 = envelopeRepo.insert(
             new NewEnvelope("c1", "file1.zip", now(), now().plusSeconds(100), Status.REJECTED, null)
         );
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId1, EventType.REJECTED, ErrorCode.ERR_AV_FAILED, "notes1"));
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId1, EventType.DELETED, null, "notes1"));
-        envelopeRepo.updatePendingNotification(envelopeId1, false);
+        outboxRepo.insert(envelopeId1, ErrorCode.ERR_AV_FAILED, "notes1");
 
         /* rejected but notification not sent */
         var envelopeId2 = envelopeRepo.insert(
             new NewEnvelope("c2", "file2.zip", now(), now().plusSeconds(100), Status.REJECTED, null)
         );
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId2, EventType.FILE_PROCESSING_STARTED, null, "notes1"));
-        eventRepo.insert(new NewEnvelopeEvent(
-            envelopeId2,
-            EventType.REJECTED,
-            ErrorCode.ERR_METAFILE_INVALID,
-            "notes2"
-        ));
-        envelopeRepo.updatePendingNotification(envelopeId2, true);
-
-        /* not rejected */
-        var envelopeId3 = envelopeRepo.insert(
-            new NewEnvelope("c1", "file3.zip", now(), now().plusSeconds(100), Status.DISPATCHED, null)
-        );
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId3, EventType.FILE_PROCESSING_STARTED, null, "notes3"));
-        eventRepo.insert(new NewEnvelopeEvent(envelopeId3, EventType.DISPATCHED, null, null));
+        outboxRepo.insert(envelopeId2, ErrorCode.ERR_METAFILE_INVALID, "notes2");
+
+        outboxRepo.markAsSent(List.of(envelopeId1));
 
         // when
         List<RejectedEnvelope> rejectedEnvelopes = rejectedEnvelopeRepo.getRejectedEnvelopes();
@@ -0,0 +1,167 @@
+package uk.gov.hmcts.reform.blobrouter.data.envelopes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_ID;
+
+/**
+ * Checks that envelope search predicates can be answered from indexes and prune partitions. Sequential scans are
+ * disabled for the transaction, as on a nearly empty table the planner would otherwise always prefer them.
+ * Indexes of the partitioned table are named after the partition they belong to, hence the suffix matching.
+ */
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+@Transactional
+public class EnvelopeQueryPlanTest {
+
+    @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("SET LOCAL enable_seqscan = off", EmptySqlParameterSource.INSTANCE);
+    }
+
+    @Test
+    void should_use_created_at_index_when_searching_by_date() {
+        // when
+        String plan = explain(
+            "SELECT * FROM envelopes WHERE " + EnvelopeRepository.CREATED_ON_DAY_CRITERIA,
+            new MapSqlParameterSource()
+                .addValue("dayStart", Timestamp.from(Instant.parse("2020-05-10T23:00:00Z")))
+                .addValue("dayEnd", Timestamp.from(Instant.parse("2020-05-11T23:00:00Z")))
+        );
+
+        // then
+        assertThat(plan).contains("_created_at_id_idx");
+    }
+
+    @Test
+    void should_use_file_name_pattern_index_when_searching_by_dcn_prefix() {
+        // when
+        String plan = explain(
+            EnvelopeRepository.FIND_BY_DCN_PREFIX_QUERY,
+            new MapSqlParameterSource()
+                .addValue("dcnPrefix", "1234567890%")
+                .addValue("from", Timestamp.from(Instant.parse("2020-05-10T23:00:00Z")))
+                .addValue("to", Timestamp.from(Instant.parse("2020-05-12T23:00:00Z")))
+        );
+
+        // then
+        assertThat(plan).contains("_file_name_file_created_at_idx");
+    }
+
+    @Test
+    void should_only_scan_partition_of_requested_month_when_searching_by_date() {
+        // given
+        YearMonth month = YearMonth.now(EUROPE_LONDON_ZONE_ID);
+
+        // when
+        String plan = explain(
+            "SELECT * FROM envelopes WHERE " + EnvelopeRepository.CREATED_ON_DAY_CRITERIA,
+            new MapSqlParameterSource()
+                .addValue("dayStart", Timestamp.valueOf(month.atDay(2).atStartOfDay()))
+                .addValue("dayEnd", Timestamp.valueOf(month.atDay(3).atStartOfDay()))
+        );
+
+        // then
+        assertThat(plan)
+            .contains("envelopes_" + month.format(DateTimeFormatter.ofPattern("yyyy_MM")))
+            .doesNotContain("envelopes_" + month.plusMonths(1).format(DateTimeFormatter.ofPattern("yyyy_MM")))
+            .doesNotContain("envelopes_default");
+    }
+
+    @Test
+    void should_only_scan_partition_of_envelope_when_finding_it_by_id() {
+        // given
+        UUID id = insertEnvelope("file.zip");
+
+        // when
+        String plan = explain(
+            "ANALYZE SELECT * FROM envelopes WHERE " + EnvelopeRepository.ID_CRITERIA,
+            new MapSqlParameterSource("id", id)
+        );
+
+        // then
+        assertOtherPartitionsNotScanned(plan);
+    }
+
+    @Test
+    void should_only_scan_partition_of_envelope_when_finding_it_by_file() {
+        // given
+        insertEnvelope("file.zip");
+
+        // when
+        String plan = explain(
+            "ANALYZE " + EnvelopeRepository.FIND_BY_FILE_QUERY,
+            new MapSqlParameterSource()
+                .addValue("fileName", "file.zip")
+                .addValue("container", "c")
+        );
+
+        // then
+        assertOtherPartitionsNotScanned(plan);
+    }
+
+    @Test
+    void should_only_scan_partitions_of_envelopes_when_updating_several_of_them() {
+        // given
+        UUID id1 = insertEnvelope("file1.zip");
+        UUID id2 = insertEnvelope("file2.zip");
+
+        // when
+        String plan = explain(
+            "ANALYZE " + EnvelopeRepository.UPDATE_PENDING_NOTIFICATION_BY_IDS_QUERY,
+            new MapSqlParameterSource()
+                .addValue("ids", List.of(id1, id2))
+                .addValue("notificationPending", false)
+        );
+
+        // then
+        assertOtherPartitionsNotScanned(plan);
+    }
+
+    private UUID insertEnvelope(String fileName) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update(
+            "INSERT INTO envelopes (id, container, file_name, file_created_at, status, created_at) "
+                + "VALUES (:id, 'c', :fileName, CURRENT_TIMESTAMP, 'CREATED', CURRENT_TIMESTAMP)",
+            new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("fileName", fileName)
+        );
+        return id;
+    }
+
+    private static void assertOtherPartitionsNotScanned(String plan) {
+        List<String> otherPartitions = plan
+            .lines()
+            .filter(line -> line.contains(" on envelopes_default"))
+            .collect(toList());
+        assertThat(otherPartitions).isNotEmpty().allMatch(line -> line.contains("never executed"));
+    }
+
+    private String explain(String query, MapSqlParameterSource params) {
+        return jdbcTemplate
+            .queryForList("EXPLAIN " + query, params, String.class)
+            .stream()
+            .collect(joining("\n"));
+    }
+}
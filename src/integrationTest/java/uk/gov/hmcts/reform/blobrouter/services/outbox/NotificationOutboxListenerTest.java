@@ -0,0 +1,70 @@
+package uk.gov.hmcts.reform.blobrouter.services.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import uk.gov.hmcts.reform.blobrouter.data.DbHelper;
+import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
+import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+
+import java.time.Duration;
+
+import static java.time.Instant.now;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles({"integration-test", "db-test"})
+@SpringBootTest
+class NotificationOutboxListenerTest {
+
+    @Autowired private DataSourceProperties dataSourceProperties;
+    @Autowired private EnvelopeService envelopeService;
+    @Autowired private DbHelper dbHelper;
+
+    private ApplicationEventPublisher eventPublisher;
+    private NotificationOutboxListener listener;
+
+    @BeforeEach
+    void setUp() {
+        dbHelper.deleteAll();
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        listener = new NotificationOutboxListener(
+            dataSourceProperties,
+            eventPublisher,
+            new SyncTaskExecutor(),
+            Duration.ofMillis(200),
+            Duration.ofSeconds(1)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void should_publish_event_when_envelope_is_rejected() {
+        // given
+        listener.start();
+        // initial catch-up event after subscribing
+        verify(eventPublisher, timeout(5_000)).publishEvent(any(NotificationsPendingEvent.class));
+        clearInvocations(eventPublisher);
+
+        var envelopeId = envelopeService.createNewEnvelope("bulkscan", "blob1.zip", now(), 1024L);
+
+        // when
+        envelopeService.markAsRejected(envelopeId, ErrorCode.ERR_METAFILE_INVALID, "invalid metafile");
+
+        // then
+        verify(eventPublisher, timeout(5_000)).publishEvent(any(NotificationsPendingEvent.class));
+    }
+}
@@ -5,6 +5,7 @@ import com.azure.storage.blob.models.BlobItem;
 import com.azure.storage.blob.models.BlobListDetails;
 import com.azure.storage.blob.models.ListBlobsOptions;
 import com.google.common.io.Resources;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,11 +13,13 @@ import uk.gov.hmcts.reform.blobrouter.util.BlobStorageBaseTest;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Base64;
+import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
 import static com.google.common.io.Resources.getResource;
 import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
 @SuppressWarnings("unchecked")
@@ -118,15 +121,17 @@ class BlobMoverTest extends BlobStorageBaseTest {
             getResource("storage/test1.zip")
         );
 
+        var envelopeId = UUID.randomUUID();
         var expectedBlockIdList = List.of(
-            Base64.getEncoder().encodeToString("0000001".getBytes()),
-            Base64.getEncoder().encodeToString("0000002".getBytes())
+            BlobMover.blockId(envelopeId, 1, content, 260),
+            BlobMover.blockId(envelopeId, 2, Arrays.copyOfRange(content, 260, content.length), content.length - 260)
         );
 
         var blockBlobClient = targetContainer.getBlobClient(targetBlobName).getBlockBlobClient();
 
         List<String> blockIdList = mover
-            .uploadWithChunks(blockBlobClient, new ByteArrayInputStream(content));
+            .uploadWithChunks(blockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true)
+            .blockIds;
 
         // then
         assertSoftly(softly -> {
@@ -140,4 +145,76 @@ class BlobMoverTest extends BlobStorageBaseTest {
                 .containsExactly(targetBlobName);
         });
     }
+
+    @Test
+    void should_resume_upload_from_blocks_staged_by_failed_attempt() throws IOException {
+        // given
+        BlobContainerClient targetContainer = createContainer("sample-container-3");
+        var blockBlobClient = targetContainer.getBlobClient("copy_hello.zip").getBlockBlobClient();
+
+        // size 264 byte
+        byte[] content = Resources.toByteArray(
+            getResource("storage/test1.zip")
+        );
+        var envelopeId = UUID.randomUUID();
+
+        // previous attempt staged the first block only
+        String firstBlockId = BlobMover.blockId(envelopeId, 1, content, 260);
+        blockBlobClient.stageBlock(firstBlockId, new ByteArrayInputStream(content, 0, 260), 260);
+
+        // when
+        UploadedContent uploadedContent = mover
+            .uploadWithChunks(blockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true);
+
+        // then
+        assertSoftly(softly -> {
+            softly
+                .assertThat(uploadedContent.blockIds)
+                .hasSize(2)
+                .startsWith(firstBlockId);
+
+            softly
+                .assertThat(blockBlobClient.downloadContent().toBytes())
+                .as("Committed blob should have the complete content")
+                .isEqualTo(content);
+
+            softly
+                .assertThat(uploadedContent.sha256)
+                .as("Digest should describe the complete content")
+                .isEqualTo(DigestUtils.sha256Hex(content));
+        });
+    }
+
+    @Test
+    void should_recognise_content_committed_by_previous_upload() throws IOException {
+        // given
+        BlobContainerClient targetContainer = createContainer("sample-container-4");
+        var blockBlobClient = targetContainer.getBlobClient("copy_hello.zip").getBlockBlobClient();
+
+        byte[] content = Resources.toByteArray(
+            getResource("storage/test1.zip")
+        );
+        var envelopeId = UUID.randomUUID();
+
+        assertThat(mover.findCommittedContent(blockBlobClient, envelopeId)).isEmpty();
+
+        // when
+        mover.uploadWithChunks(blockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true);
+
+        // then
+        assertSoftly(softly -> {
+            softly
+                .assertThat(blockBlobClient.getProperties().getMetadata())
+                .containsEntry("content_sha256", DigestUtils.sha256Hex(content))
+                .containsEntry("envelope_id", envelopeId.toString());
+
+            softly
+                .assertThat(mover.findCommittedContent(blockBlobClient, envelopeId))
+                .contains(DigestUtils.sha256Hex(content));
+
+            softly
+                .assertThat(mover.findCommittedContent(blockBlobClient, UUID.randomUUID()))
+                .isEmpty();
+        });
+    }
 }
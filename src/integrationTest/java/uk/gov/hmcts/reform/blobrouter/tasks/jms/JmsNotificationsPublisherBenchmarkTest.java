@@ -0,0 +1,148 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.jms;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
+import uk.gov.hmcts.reform.blobrouter.servicebus.notifications.model.NotificationMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares throughput of publishing notifications one by one (a new session and producer per message) with
+ * publishing them in chunks within a single cached, transacted session. Runs against an embedded, non-persistent
+ * ActiveMQ broker and logs messages per second for both approaches. The rates are only reported, as they depend on
+ * the machine running the test, while the messages sent are asserted.
+ */
+class JmsNotificationsPublisherBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JmsNotificationsPublisherBenchmarkTest.class);
+
+    private static final String BROKER_URL = "vm://benchmark?create=false";
+    private static final int MESSAGE_COUNT = 2_000;
+    private static final int CHUNK_SIZE = 50;
+
+    private static BrokerService broker;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startBroker() throws Exception {
+        broker = new BrokerService();
+        broker.setBrokerName("benchmark");
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.start();
+        broker.waitUntilStarted();
+    }
+
+    @AfterAll
+    static void stopBroker() throws Exception {
+        broker.stop();
+        broker.waitUntilStopped();
+    }
+
+    @AfterEach
+    void drainQueue() {
+        drain(new ActiveMQConnectionFactory(BROKER_URL));
+    }
+
+    @Test
+    void should_publish_all_messages_in_chunks_and_report_rates() throws Exception {
+        // given
+        List<NotificationMsg> messages = IntStream
+            .range(0, MESSAGE_COUNT)
+            .mapToObj(i -> new NotificationMsg(i + ".zip", "c", null, ErrorCode.ERR_AV_FAILED, "notes", "blob_router"))
+            .collect(toList());
+
+        // single message per send, no session caching (previous behaviour)
+        JmsTemplate plainTemplate = new JmsTemplate(new ActiveMQConnectionFactory(BROKER_URL));
+        var singlePublisher = new JmsNotificationsPublisher(plainTemplate, objectMapper);
+
+        long singleStart = System.nanoTime();
+        messages.forEach(msg -> singlePublisher.publish(msg, msg.zipFileName));
+        double singleRate = rate(singleStart);
+
+        assertThat(drain(new ActiveMQConnectionFactory(BROKER_URL))).hasSize(MESSAGE_COUNT);
+
+        // cached session, transacted chunks
+        var cachingFactory = new CachingConnectionFactory(new ActiveMQConnectionFactory(BROKER_URL));
+        cachingFactory.setCacheProducers(true);
+        JmsTemplate transactedTemplate = new JmsTemplate(cachingFactory);
+        transactedTemplate.setSessionTransacted(true);
+        var batchPublisher = new JmsNotificationsPublisher(transactedTemplate, objectMapper);
+
+        List<Integer> committedChunks = new ArrayList<>();
+
+        // when
+        long batchStart = System.nanoTime();
+        int sent = batchPublisher.publishInChunks(
+            messages,
+            Function.identity(),
+            msg -> msg.zipFileName,
+            CHUNK_SIZE,
+            chunk -> committedChunks.add(chunk.size())
+        );
+        double batchRate = rate(batchStart);
+        cachingFactory.destroy();
+
+        log.info(
+            "Published {} notifications. Single: {} msg/s, batched (chunk size {}): {} msg/s",
+            MESSAGE_COUNT,
+            String.format("%.0f", singleRate),
+            CHUNK_SIZE,
+            String.format("%.0f", batchRate)
+        );
+
+        // then
+        assertThat(sent).isEqualTo(MESSAGE_COUNT);
+        assertThat(committedChunks).hasSize(MESSAGE_COUNT / CHUNK_SIZE).containsOnly(CHUNK_SIZE);
+        List<NotificationMsg> received = new ArrayList<>();
+        for (String body : drain(new ActiveMQConnectionFactory(BROKER_URL))) {
+            var json = objectMapper.readTree(body);
+            received.add(new NotificationMsg(
+                json.get("zip_file_name").asText(),
+                json.get("container").asText(),
+                null,
+                ErrorCode.valueOf(json.get("error_code").asText()),
+                json.get("error_description").asText(),
+                json.get("service").asText()
+            ));
+        }
+        assertThat(received)
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(messages);
+    }
+
+    private static double rate(long startNanos) {
+        return MESSAGE_COUNT / ((System.nanoTime() - startNanos) / 1_000_000_000.0);
+    }
+
+    private static List<String> drain(ActiveMQConnectionFactory connectionFactory) {
+        var cachingFactory = new CachingConnectionFactory(connectionFactory);
+        JmsTemplate template = new JmsTemplate(cachingFactory);
+        template.setReceiveTimeout(500);
+
+        List<String> received = new ArrayList<>();
+        Object body;
+        while ((body = template.receiveAndConvert("notifications")) != null) {
+            received.add((String) body);
+        }
+        cachingFactory.destroy();
+        return received;
+    }
+}
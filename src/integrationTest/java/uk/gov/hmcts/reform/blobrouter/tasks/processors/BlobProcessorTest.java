@@ -16,12 +16,19 @@ import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
 import uk.gov.hmcts.reform.blobrouter.data.DbHelper;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
 import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier;
+import uk.gov.hmcts.reform.blobrouter.services.ContentDuplicateService;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.VerificationResultCache;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
 import uk.gov.hmcts.reform.blobrouter.services.storage.BlobContainerClientBuilderProvider;
 import uk.gov.hmcts.reform.blobrouter.services.storage.BlobContainerClientProxy;
 import uk.gov.hmcts.reform.blobrouter.services.storage.BlobDispatcher;
 import uk.gov.hmcts.reform.blobrouter.services.storage.BlobMover;
+import uk.gov.hmcts.reform.blobrouter.services.storage.HedgedBlobReader;
 import uk.gov.hmcts.reform.blobrouter.services.storage.SasTokenCache;
+import uk.gov.hmcts.reform.blobrouter.services.storage.ScratchSpace;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
+import uk.gov.hmcts.reform.blobrouter.services.storage.throttling.TargetThrottlingMonitor;
 import uk.gov.hmcts.reform.blobrouter.util.BlobStorageBaseTest;
 
 import java.io.ByteArrayInputStream;
@@ -48,13 +55,23 @@ class BlobProcessorTest extends BlobStorageBaseTest {
     @Autowired ServiceConfiguration serviceConfiguration;
     @Autowired DbHelper dbHelper;
     @Autowired BlobMover blobMover;
+    @Autowired TargetThrottlingMonitor throttlingMonitor;
+    @Autowired DispatchCircuitBreakers circuitBreakers;
+    @Autowired EnvelopeRetryService envelopeRetryService;
+    @Autowired VerificationResultCache verificationResultCache;
+    @Autowired ContentDuplicateService contentDuplicateService;
+    @Autowired ScratchSpace scratchSpace;
+    @Autowired HedgedBlobReader hedgedBlobReader;
+    @Autowired DispatchWaitRecorder dispatchWaitRecorder;
 
     @BeforeEach
     void setUp() {
         containerClientProvider = new BlobContainerClientProxy(
             mock(BlobContainerClient.class),
             blobContainerClientBuilderProvider,
-            mock(SasTokenCache.class)
+            mock(SasTokenCache.class),
+            throttlingMonitor,
+            circuitBreakers
         );
         dbHelper.deleteAll();
     }
@@ -75,13 +92,20 @@ class BlobProcessorTest extends BlobStorageBaseTest {
         given(blobContainerClientBuilder.containerName(any())).willReturn(blobContainerClientBuilder);
         given(blobContainerClientBuilder.buildClient()).willReturn(targetContainerClient);
 
-        var dispatcher = new BlobDispatcher(containerClientProvider, blobMover);
+        var dispatcher = new BlobDispatcher(containerClientProvider, blobMover, hedgedBlobReader);
 
         var blobProcessor =
             new BlobProcessor(
                 dispatcher,
                 envelopeService,
                 new BlobVerifier("signing/test_public_key.der"),
+                envelopeRetryService,
+                verificationResultCache,
+                contentDuplicateService,
+                scratchSpace,
+                hedgedBlobReader,
+                circuitBreakers,
+                dispatchWaitRecorder,
                 serviceConfiguration
             );
 
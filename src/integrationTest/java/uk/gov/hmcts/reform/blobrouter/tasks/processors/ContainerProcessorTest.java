@@ -13,18 +13,32 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
 import uk.gov.hmcts.reform.blobrouter.data.DbHelper;
+import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier;
+import uk.gov.hmcts.reform.blobrouter.services.ContentDuplicateService;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.VerificationResultCache;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
+import uk.gov.hmcts.reform.blobrouter.services.storage.BlobDispatcher;
+import uk.gov.hmcts.reform.blobrouter.services.storage.BlobPrefetcher;
+import uk.gov.hmcts.reform.blobrouter.services.storage.HedgedBlobReader;
 import uk.gov.hmcts.reform.blobrouter.services.storage.LeaseAcquirer;
+import uk.gov.hmcts.reform.blobrouter.services.storage.ScratchSpace;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
 import uk.gov.hmcts.reform.blobrouter.util.BlobStorageBaseTest;
 
+import java.io.ByteArrayInputStream;
 import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static uk.gov.hmcts.reform.blobrouter.testutils.DirectoryZipper.zipAndSignDir;
 
 @SpringBootTest
 @ExtendWith(MockitoExtension.class)
@@ -32,12 +46,23 @@ import static org.mockito.Mockito.verify;
 class ContainerProcessorTest extends BlobStorageBaseTest {
 
     private static final String CONTAINER_NAME = "my-container";
+    private static final String CONFIGURED_CONTAINER_NAME = "bulkscan";
 
     @Autowired EnvelopeService envelopeService;
     @Autowired LeaseAcquirer leaseAcquirer;
     @Autowired DbHelper dbHelper;
+    @Autowired DispatchCircuitBreakers circuitBreakers;
+    @Autowired EnvelopeRetryService envelopeRetryService;
+    @Autowired BlobPrefetcher blobPrefetcher;
+    @Autowired ServiceConfiguration serviceConfiguration;
+    @Autowired VerificationResultCache verificationResultCache;
+    @Autowired ContentDuplicateService contentDuplicateService;
+    @Autowired ScratchSpace scratchSpace;
+    @Autowired HedgedBlobReader hedgedBlobReader;
+    @Autowired DispatchWaitRecorder dispatchWaitRecorder;
 
     @Mock BlobProcessor blobProcessor;
+    @Mock BlobDispatcher blobDispatcher;
 
     private ContainerProcessor containerProcessor;
     private BlobContainerClient containerClient;
@@ -45,10 +70,12 @@ class ContainerProcessorTest extends BlobStorageBaseTest {
     @BeforeEach
     void setUp() {
         containerProcessor = new ContainerProcessor(
-            storageClient,
             blobProcessor,
             leaseAcquirer,
-            envelopeService
+            envelopeService,
+            circuitBreakers,
+            envelopeRetryService,
+            blobPrefetcher
         );
         containerClient = createContainer(CONTAINER_NAME);
     }
@@ -60,21 +87,20 @@ class ContainerProcessorTest extends BlobStorageBaseTest {
     }
 
     @Test
-    void should_read_files_from_provided_container_and_call_blob_processor_for_each_ready_blob() {
+    void should_lease_ready_blob_and_call_blob_processor_for_it() {
         // given
         upload(containerClient, "1.zip");
-        upload(containerClient, "2.zip");
 
         // when
-        containerProcessor.process(CONTAINER_NAME);
+        containerProcessor.processBlob(containerClient.getBlobClient("1.zip"));
 
         // then
         var blobArgCaptor = ArgumentCaptor.forClass(BlobClient.class);
-        verify(blobProcessor, times(2)).process(blobArgCaptor.capture());
+        verify(blobProcessor).process(blobArgCaptor.capture());
 
-        assertThat(blobArgCaptor.getAllValues())
-            .extracting(BlobClientBase::getBlobName)
-            .containsExactly("1.zip", "2.zip");
+        assertThat(blobArgCaptor.getValue())
+            .extracting(BlobClientBase::getBlobName, BlobClientBase::getContainerName)
+            .containsExactly("1.zip", CONTAINER_NAME);
     }
 
     @Test
@@ -86,12 +112,106 @@ class ContainerProcessorTest extends BlobStorageBaseTest {
         );
 
         // when
-        containerProcessor.process(CONTAINER_NAME);
+        containerProcessor.processBlob(containerClient.getBlobClient("4.zip"));
 
         // then
         verify(blobProcessor, never()).process(any());
     }
 
+    @Test
+    void should_not_process_blob_again_before_its_next_attempt_is_due_although_leasing_changed_its_etag()
+        throws Exception {
+        // given
+        BlobContainerClient sourceContainerClient = createContainer(CONFIGURED_CONTAINER_NAME);
+        uploadSigned(sourceContainerClient, "5.zip");
+        willThrow(new RuntimeException("Upload failed"))
+            .given(blobDispatcher)
+            .dispatch(any(), any(), any(), any(), any(), any());
+        var processor = containerProcessorWith(new BlobVerifier("signing/test_public_key.der"));
+
+        // when
+        processor.processBlob(sourceContainerClient.getBlobClient("5.zip"));
+        processor.processBlob(sourceContainerClient.getBlobClient("5.zip"));
+
+        // then
+        verify(blobDispatcher, times(1)).dispatch(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_process_failed_blob_again_straight_away_once_uploaded_again() throws Exception {
+        // given
+        BlobContainerClient sourceContainerClient = createContainer(CONFIGURED_CONTAINER_NAME);
+        uploadSigned(sourceContainerClient, "6.zip");
+        willThrow(new RuntimeException("Upload failed"))
+            .given(blobDispatcher)
+            .dispatch(any(), any(), any(), any(), any(), any());
+        var processor = containerProcessorWith(new BlobVerifier("signing/test_public_key.der"));
+        processor.processBlob(sourceContainerClient.getBlobClient("6.zip"));
+
+        // when
+        uploadSigned(sourceContainerClient, "6.zip");
+        processor.processBlob(sourceContainerClient.getBlobClient("6.zip"));
+
+        // then
+        verify(blobDispatcher, times(2)).dispatch(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_not_verify_blob_again_when_retrying_its_failed_dispatch_although_leasing_changed_its_etag()
+        throws Exception {
+        // given
+        BlobContainerClient sourceContainerClient = createContainer(CONFIGURED_CONTAINER_NAME);
+        uploadSigned(sourceContainerClient, "7.zip");
+        willThrow(new RuntimeException("Upload failed"))
+            .willReturn(null)
+            .given(blobDispatcher)
+            .dispatch(any(), any(), any(), any(), any(), any());
+        var blobVerifier = spy(new BlobVerifier("signing/test_public_key.der"));
+        var processor = containerProcessorWith(blobVerifier);
+        processor.processBlob(sourceContainerClient.getBlobClient("7.zip"));
+        // the next attempt is due
+        envelopeRetryService.clear(CONFIGURED_CONTAINER_NAME, "7.zip");
+
+        // when
+        processor.processBlob(sourceContainerClient.getBlobClient("7.zip"));
+
+        // then
+        verify(blobVerifier, times(1)).verifyZip(any(), any());
+        verify(blobDispatcher, times(2)).dispatch(any(), any(), any(), any(), any(), any());
+    }
+
+    private ContainerProcessor containerProcessorWith(BlobVerifier blobVerifier) {
+        var realBlobProcessor = new BlobProcessor(
+            blobDispatcher,
+            envelopeService,
+            blobVerifier,
+            envelopeRetryService,
+            verificationResultCache,
+            contentDuplicateService,
+            scratchSpace,
+            hedgedBlobReader,
+            circuitBreakers,
+            dispatchWaitRecorder,
+            serviceConfiguration
+        );
+        return new ContainerProcessor(
+            realBlobProcessor,
+            leaseAcquirer,
+            envelopeService,
+            circuitBreakers,
+            envelopeRetryService,
+            blobPrefetcher
+        );
+    }
+
+    void uploadSigned(BlobContainerClient containerClient, String fileName) throws Exception {
+        byte[] bytes = zipAndSignDir("storage/valid", "signing/test_private_key.der");
+        containerClient
+            .getBlobClient(fileName)
+            .getBlockBlobClient()
+            .upload(new ByteArrayInputStream(bytes), bytes.length, true);
+    }
+
     void upload(BlobContainerClient containerClient, String fileName) {
         containerClient
             .getBlobClient(fileName)
@@ -0,0 +1,39 @@
+package uk.gov.hmcts.reform.blobrouter.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.BlobOrderingPolicy;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.ListingOrderPolicy;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.OldestFirstPolicy;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.SmallestFirstPolicy;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.WeightedPolicy;
+
+/**
+ * The `BlobOrderingConfig` class selects the policy deciding in which order waiting blobs are dispatched.
+ */
+@Configuration
+public class BlobOrderingConfig {
+
+    /**
+     * The function creates the blob ordering policy with the configured name.
+     *
+     * @param policy The name of the policy: `listing`, `oldest-first`, `smallest-first` or `weighted`.
+     * @param weightedReferenceSize The blob size, in bytes, which doubles the cost of a dispatch for the weighted
+     *                              policy.
+     * @return The blob ordering policy.
+     */
+    @Bean
+    public BlobOrderingPolicy blobOrderingPolicy(
+        @Value("${scheduling.task.scan.ordering.policy:oldest-first}") String policy,
+        @Value("${scheduling.task.scan.ordering.weighted-reference-size:10485760}") long weightedReferenceSize
+    ) {
+        return switch (policy) {
+            case ListingOrderPolicy.NAME -> new ListingOrderPolicy();
+            case OldestFirstPolicy.NAME -> new OldestFirstPolicy();
+            case SmallestFirstPolicy.NAME -> new SmallestFirstPolicy();
+            case WeightedPolicy.NAME -> new WeightedPolicy(weightedReferenceSize);
+            default -> throw new IllegalArgumentException("Unknown blob ordering policy: " + policy);
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package uk.gov.hmcts.reform.blobrouter.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReadReplicaRoutingDataSource;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReplicaLagMonitor;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReplicaTransactionManager;
+
+import java.sql.Connection;
+import java.time.Duration;
+import javax.sql.DataSource;
+
+/**
+ * The `ReadReplicaDataSourceConfig` class replaces the single application data source with one that routes
+ * transactions marked with `@ReadFromReplica` (reports, searches, reconciliation) to a separate connection pool of a
+ * read replica, so that heavy reads never compete with blob dispatching for connections of the primary pool. Marked
+ * transactions fall back to the primary database whenever the replica lags behind by more than the configured
+ * maximum.
+ *
+ * <p>Enabled with `replica-db.enabled=true`. When disabled, Spring Boot's default data source is used.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica-db", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    /**
+     * The function creates the connection pool of the primary database, configured with the standard
+     * `spring.datasource` properties. It is not injected by type, all access goes through the routing data source.
+     *
+     * @param properties The standard `spring.datasource` properties.
+     * @return The primary connection pool.
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * The function creates the connection pool of the read replica, sized independently of the primary pool with
+     * the `replica-db.hikari` properties.
+     *
+     * @param url The JDBC url of the read replica.
+     * @param username The user to connect to the read replica with.
+     * @param password The password to connect to the read replica with.
+     * @return The read replica connection pool.
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("replica-db.hikari")
+    public HikariDataSource replicaDataSource(
+        @Value("${replica-db.url}") String url,
+        @Value("${replica-db.username}") String username,
+        @Value("${replica-db.password}") String password
+    ) {
+        return DataSourceBuilder
+            .create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        MeterRegistry meterRegistry,
+        @Value("${replica-db.max-lag-seconds:30}") long maxLagSeconds
+    ) {
+        return new ReplicaLagMonitor(
+            new JdbcTemplate(replicaDataSource),
+            Duration.ofSeconds(maxLagSeconds),
+            meterRegistry
+        );
+    }
+
+    /**
+     * The function creates the application data source, routing transactions marked with `@ReadFromReplica` to the
+     * read replica. Connections are fetched lazily, once the current transaction has been set up.
+     *
+     * @param primaryDataSource The primary connection pool.
+     * @param replicaDataSource The read replica connection pool.
+     * @param replicaLagMonitor The monitor deciding whether the replica is fresh enough to be used.
+     * @return The data source used by the whole application.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        ReplicaLagMonitor replicaLagMonitor
+    ) {
+        var dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(
+            new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor)
+        );
+        // known upfront, so that no connection has to be opened just to find them out
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    /**
+     * The function creates the transaction manager, which tells the routing data source whether the transactions
+     * it begins have been marked with `@ReadFromReplica`.
+     *
+     * @param dataSource The application data source.
+     * @return The transaction manager used by the whole application.
+     */
+    @Bean
+    public ReplicaTransactionManager transactionManager(DataSource dataSource) {
+        return new ReplicaTransactionManager(dataSource);
+    }
+}
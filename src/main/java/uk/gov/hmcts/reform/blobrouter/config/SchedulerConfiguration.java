@@ -1,7 +1,10 @@
 package uk.gov.hmcts.reform.blobrouter.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
@@ -15,12 +18,21 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * The `SchedulerConfiguration` class in Java configures a custom `ThreadPoolTaskScheduler` for routing tasks with error
+ * The `SchedulerConfiguration` class in Java configures custom `ThreadPoolTaskScheduler`s for routing tasks with error
  * handling and consistent task wrapping.
+ *
+ * <p>Scheduled tasks are split into families, each running on its own scheduler (bulkhead), so that a slow job of
+ * one family, e.g. a long reconciliation run, cannot hold up the threads blob dispatching relies on. Tasks select the
+ * scheduler of their family with `@Scheduled(scheduler = ...)`, any other scheduled method runs on the default one.
  */
 @Configuration
 public class SchedulerConfiguration implements SchedulingConfigurer {
 
+    public static final String DISPATCH_SCHEDULER = "dispatchTaskScheduler";
+    public static final String CLEANUP_SCHEDULER = "cleanupTaskScheduler";
+    public static final String NOTIFICATION_SCHEDULER = "notificationTaskScheduler";
+    public static final String REPORTING_SCHEDULER = "reportingTaskScheduler";
+
     private static final int POOL_SIZE = 10;
     private static final AtomicInteger errorCount = new AtomicInteger(0);
     private static final Logger log = LoggerFactory.getLogger(SchedulerConfiguration.class);
@@ -32,14 +44,79 @@ public class SchedulerConfiguration implements SchedulingConfigurer {
 
     /**
      * The function creates a TaskScheduler bean with a ThreadPoolTaskScheduler implementation for routing tasks.
+     * It runs the scheduled tasks which do not belong to any of the task families.
      *
      * @return An instance of `ThreadPoolTaskScheduler` named `scheduler` is being returned.
      */
     @Bean
     public TaskScheduler routerTaskScheduler() {
+        return createScheduler("ROUTER-", POOL_SIZE);
+    }
+
+    /**
+     * The function creates the scheduler running blob dispatching.
+     *
+     * @param poolSize The number of threads of the scheduler.
+     * @param meterRegistry The registry to publish the scheduler's gauges to.
+     * @return The dispatch scheduler.
+     */
+    @Bean(DISPATCH_SCHEDULER)
+    public ThreadPoolTaskScheduler dispatchTaskScheduler(
+        @Value("${scheduling.pools.dispatch.size:2}") int poolSize,
+        MeterRegistry meterRegistry
+    ) {
+        return monitored(createScheduler("ROUTER-DISPATCH-", poolSize), "dispatch", meterRegistry);
+    }
+
+    /**
+     * The function creates the scheduler running the tasks cleaning up blobs, duplicates and old data.
+     *
+     * @param poolSize The number of threads of the scheduler.
+     * @param meterRegistry The registry to publish the scheduler's gauges to.
+     * @return The cleanup scheduler.
+     */
+    @Bean(CLEANUP_SCHEDULER)
+    public ThreadPoolTaskScheduler cleanupTaskScheduler(
+        @Value("${scheduling.pools.cleanup.size:2}") int poolSize,
+        MeterRegistry meterRegistry
+    ) {
+        return monitored(createScheduler("ROUTER-CLEANUP-", poolSize), "cleanup", meterRegistry);
+    }
+
+    /**
+     * The function creates the scheduler running the tasks sending notifications.
+     *
+     * @param poolSize The number of threads of the scheduler.
+     * @param meterRegistry The registry to publish the scheduler's gauges to.
+     * @return The notification scheduler.
+     */
+    @Bean(NOTIFICATION_SCHEDULER)
+    public ThreadPoolTaskScheduler notificationTaskScheduler(
+        @Value("${scheduling.pools.notification.size:1}") int poolSize,
+        MeterRegistry meterRegistry
+    ) {
+        return monitored(createScheduler("ROUTER-NOTIFICATION-", poolSize), "notification", meterRegistry);
+    }
+
+    /**
+     * The function creates the scheduler running the report and reconciliation tasks.
+     *
+     * @param poolSize The number of threads of the scheduler.
+     * @param meterRegistry The registry to publish the scheduler's gauges to.
+     * @return The reporting scheduler.
+     */
+    @Bean(REPORTING_SCHEDULER)
+    public ThreadPoolTaskScheduler reportingTaskScheduler(
+        @Value("${scheduling.pools.reporting.size:2}") int poolSize,
+        MeterRegistry meterRegistry
+    ) {
+        return monitored(createScheduler("ROUTER-REPORTING-", poolSize), "reporting", meterRegistry);
+    }
+
+    private static ThreadPoolTaskScheduler createScheduler(String threadNamePrefix, int poolSize) {
         ThreadPoolTaskScheduler scheduler = new RouterTaskScheduler();
-        scheduler.setPoolSize(POOL_SIZE);
-        scheduler.setThreadNamePrefix("ROUTER-");
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
         scheduler.setErrorHandler(t -> {
             log.error("Unhandled exception during task. {}: {}", t.getClass(), t.getMessage(), t);
             errorCount.incrementAndGet();
@@ -49,6 +126,34 @@ public class SchedulerConfiguration implements SchedulingConfigurer {
         return scheduler;
     }
 
+    /**
+     * The function publishes the number of busy threads and the number of task executions waiting in the queue of
+     * the given scheduler. Every scheduled task keeps one entry in the queue between its runs, so a queue growing
+     * beyond the number of tasks of the family means executions are delayed by lack of threads.
+     */
+    private static ThreadPoolTaskScheduler monitored(
+        ThreadPoolTaskScheduler scheduler,
+        String pool,
+        MeterRegistry meterRegistry
+    ) {
+        Gauge
+            .builder("scheduler.pool.active", scheduler, s -> s.getScheduledThreadPoolExecutor().getActiveCount())
+            .description("Number of threads of the scheduler currently running a task")
+            .tag("pool", pool)
+            .register(meterRegistry);
+        Gauge
+            .builder("scheduler.pool.queued", scheduler, s -> s.getScheduledThreadPoolExecutor().getQueue().size())
+            .description("Number of task executions waiting in the queue of the scheduler")
+            .tag("pool", pool)
+            .register(meterRegistry);
+        Gauge
+            .builder("scheduler.pool.size", scheduler, ThreadPoolTaskScheduler::getPoolSize)
+            .description("Configured number of threads of the scheduler")
+            .tag("pool", pool)
+            .register(meterRegistry);
+        return scheduler;
+    }
+
     /**
      * Custom {@link ThreadPoolTaskScheduler} that wraps every task consistently.
      */
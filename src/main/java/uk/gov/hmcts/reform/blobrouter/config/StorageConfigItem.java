@@ -1,7 +1,11 @@
 package uk.gov.hmcts.reform.blobrouter.config;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The `StorageConfigItem` class represents a configuration item for storage with properties such as SAS validity,
  * storage accounts, and container names.
@@ -19,8 +23,18 @@ public class StorageConfigItem {
     @NotNull
     private String targetContainer;
 
+    // further destinations every blob of the container is copied to, e.g. an archive container
+    @Valid
+    private List<TargetConfigItem> mirrors = new ArrayList<>();
+
     private boolean isEnabled = true;
 
+    // share of dispatch capacity relative to other containers with waiting blobs, validated by the setter
+    private int weight = 1;
+
+    // number of blobs dispatched from the container at the start of every round, before sharing by weight
+    private int minSlots = 0;
+
     public int getSasValidity() {
         return sasValidity;
     }
@@ -60,4 +74,46 @@ public class StorageConfigItem {
     public void setTargetContainer(String targetContainer) {
         this.targetContainer = targetContainer;
     }
+
+    public List<TargetConfigItem> getMirrors() {
+        return mirrors;
+    }
+
+    public void setMirrors(List<TargetConfigItem> mirrors) {
+        this.mirrors = mirrors == null ? new ArrayList<>() : mirrors;
+    }
+
+    /**
+     * The function `getTargets` returns all destinations blobs of the container are dispatched to.
+     *
+     * @return The primary target (`targetStorageAccount` and `targetContainer`) followed by the mirrors.
+     */
+    public List<TargetConfigItem> getTargets() {
+        List<TargetConfigItem> targets = new ArrayList<>();
+        targets.add(new TargetConfigItem(targetStorageAccount, targetContainer));
+        targets.addAll(mirrors);
+        return targets;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight must be at least 1, got " + weight);
+        }
+        this.weight = weight;
+    }
+
+    public int getMinSlots() {
+        return minSlots;
+    }
+
+    public void setMinSlots(int minSlots) {
+        if (minSlots < 0) {
+            throw new IllegalArgumentException("Min slots must not be negative, got " + minSlots);
+        }
+        this.minSlots = minSlots;
+    }
 }
@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.blobrouter.config;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Objects;
+
+/**
+ * The `TargetConfigItem` class represents a destination blobs of a source container are dispatched to: a container
+ * in one of the target storage accounts.
+ */
+public class TargetConfigItem {
+
+    @NotNull
+    private TargetStorageAccount targetStorageAccount;
+
+    @NotNull
+    private String targetContainer;
+
+    public TargetConfigItem() {
+        // used when binding configuration
+    }
+
+    public TargetConfigItem(TargetStorageAccount targetStorageAccount, String targetContainer) {
+        this.targetStorageAccount = targetStorageAccount;
+        this.targetContainer = targetContainer;
+    }
+
+    public TargetStorageAccount getTargetStorageAccount() {
+        return targetStorageAccount;
+    }
+
+    public void setTargetStorageAccount(TargetStorageAccount targetStorageAccount) {
+        this.targetStorageAccount = targetStorageAccount;
+    }
+
+    public String getTargetContainer() {
+        return targetContainer;
+    }
+
+    public void setTargetContainer(String targetContainer) {
+        this.targetContainer = targetContainer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TargetConfigItem that = (TargetConfigItem) o;
+        return targetStorageAccount == that.targetStorageAccount
+            && Objects.equals(targetContainer, that.targetContainer);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(targetStorageAccount, targetContainer);
+    }
+
+    @Override
+    public String toString() {
+        return targetStorageAccount + "/" + targetContainer;
+    }
+}
@@ -4,7 +4,22 @@ package uk.gov.hmcts.reform.blobrouter.config;
  * Represents destination storage account for blobs.
  */
 public enum TargetStorageAccount {
-    CFT,
-    CRIME,
-    PCQ,
+    // written to with SAS tokens issued by the services owning the account, which only allow writing and listing
+    CFT(false),
+    // written to with the account key
+    CRIME(true),
+    PCQ(false);
+
+    private final boolean readable;
+
+    TargetStorageAccount(boolean readable) {
+        this.readable = readable;
+    }
+
+    /**
+     * Tells whether blobs written to the account can be read back, e.g. to list the blocks staged by a failed upload.
+     */
+    public boolean isReadable() {
+        return readable;
+    }
 }
@@ -37,6 +37,9 @@ public class JmsConfiguration {
     @Value("${jms.application-name}")
     public String clientId;
 
+    @Value("${jms.session-cache-size:10}")
+    private int sessionCacheSize;
+
     /**
      * The function creates and configures a JMS ConnectionFactory bean in Java with specified properties.
      *
@@ -45,7 +48,9 @@ public class JmsConfiguration {
      *      connection. This client ID is typically used to uniquely identify a client connection
      *      when connecting to a JMS provider. It helps in distinguishing different clients that are connected to
      *      the same JMS provider
-     * @return A `CachingConnectionFactory` is being returned from the `connectionFactory` method.
+     * @return A `CachingConnectionFactory` is being returned from the `connectionFactory` method. Sessions and
+     *      their message producers are cached (up to `jms.session-cache-size` sessions) so that repeated sends
+     *      reuse the same physical session instead of opening a new one per message.
      */
     @Bean
     public ConnectionFactory connectionFactory(@Value("${jms.application-name}") final String clientId) {
@@ -57,7 +62,10 @@ public class JmsConfiguration {
         redeliveryPolicy.setMaximumRedeliveries(3);
         activeMQConnectionFactory.setRedeliveryPolicy(redeliveryPolicy);
         activeMQConnectionFactory.setClientID(clientId);
-        return new CachingConnectionFactory(activeMQConnectionFactory);
+        CachingConnectionFactory cachingConnectionFactory = new CachingConnectionFactory(activeMQConnectionFactory);
+        cachingConnectionFactory.setSessionCacheSize(sessionCacheSize);
+        cachingConnectionFactory.setCacheProducers(true);
+        return cachingConnectionFactory;
     }
 
     /**
@@ -69,7 +77,8 @@ public class JmsConfiguration {
      *      necessary for sending and receiving messages to and from a JMS destination.
      *      The `connectionFactory` is typically configured
      * @return A JmsTemplate bean is being returned with the specified configuration settings, including the connection
-     *      factory, default destination name, and receive timeout of 5 seconds.
+     *      factory, default destination name, and receive timeout of 5 seconds. Sessions are transacted so that
+     *      a batch of notifications can be committed to the broker as a single unit.
      */
     @Bean
     public JmsTemplate jmsTemplate(ConnectionFactory connectionFactory) {
@@ -77,6 +86,7 @@ public class JmsConfiguration {
         jmsTemplate.setConnectionFactory(connectionFactory);
         jmsTemplate.setDefaultDestinationName("notifications");
         jmsTemplate.setReceiveTimeout(5000); // Set the receive timeout to 5 seconds
+        jmsTemplate.setSessionTransacted(true);
         return jmsTemplate;
     }
 }
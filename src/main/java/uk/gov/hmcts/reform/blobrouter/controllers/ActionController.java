@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeActionService;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
 
 import java.util.UUID;
 
@@ -24,14 +25,17 @@ public class ActionController {
     private static final Logger logger = getLogger(ActionController.class);
 
     private final EnvelopeActionService envelopeActionService;
+    private final EnvelopeRetryService envelopeRetryService;
 
     private final String apiKey;
 
     public ActionController(
         EnvelopeActionService envelopeActionService,
+        EnvelopeRetryService envelopeRetryService,
         @Value("${actions.api-key}") String apiKey
     ) {
         this.envelopeActionService = envelopeActionService;
+        this.envelopeRetryService = envelopeRetryService;
         this.apiKey = apiKey;
     }
 
@@ -46,4 +50,16 @@ public class ActionController {
         envelopeActionService.completeStaleEnvelope(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @PutMapping(path = "/release/{id}")
+    @Operation(summary = "Release blob of envelope from quarantine, so that it is tried again on the next scan")
+    public ResponseEntity<Void> release(
+        @RequestHeader(value = AUTHORIZATION, required = false) String authHeader,
+        @PathVariable UUID id
+    ) {
+        validateAuthorization(authHeader, apiKey);
+
+        envelopeRetryService.release(id);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 }
@@ -4,8 +4,11 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,18 +18,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeCursor;
+import uk.gov.hmcts.reform.blobrouter.data.export.EnvelopeExportRepository;
+import uk.gov.hmcts.reform.blobrouter.data.export.ExportFormat;
 import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEvent;
 import uk.gov.hmcts.reform.blobrouter.exceptions.EnvelopeNotFoundException;
+import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidRequestParametersException;
 import uk.gov.hmcts.reform.blobrouter.model.out.EnvelopeEventResponse;
 import uk.gov.hmcts.reform.blobrouter.model.out.EnvelopeInfo;
 import uk.gov.hmcts.reform.blobrouter.model.out.IncompleteEnvelopeInfo;
+import uk.gov.hmcts.reform.blobrouter.model.out.PagedSearchResult;
 import uk.gov.hmcts.reform.blobrouter.model.out.SearchResult;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.EnvelopesPage;
 import uk.gov.hmcts.reform.blobrouter.services.IncompleteEnvelopesService;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 import static java.util.stream.Collectors.toList;
@@ -41,6 +54,9 @@ public class EnvelopeController {
     private final IncompleteEnvelopesService incompleteEnvelopesService;
 
     private static final String DEFAULT_STALE_TIME_HOURS = "2";
+    private static final int MAX_EXPORT_RANGE_DAYS = 31;
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final int MAX_PAGE_SIZE = 500;
 
     public EnvelopeController(
         EnvelopeService envelopeService,
@@ -50,20 +66,39 @@ public class EnvelopeController {
         this.incompleteEnvelopesService = incompleteEnvelopesService;
     }
 
+    /**
+     * Searches for envelopes by file name, container and creation date. Results are ordered from the most
+     * recently created and returned in pages of at most `limit` envelopes. The `next_cursor` of a page is
+     * passed as `cursor` to retrieve the following page.
+     *
+     * @param fileName The name of the file to search for.
+     * @param container The container to search in.
+     * @param date The day the envelopes were created on.
+     * @param cursor The `next_cursor` of the previous page, omitted for the first page.
+     * @param limit The maximum number of envelopes on the page.
+     * @return The page of envelopes and the cursor of the next page.
+     * @throws InvalidRequestParametersException when the cursor is invalid
+     */
     @GetMapping()
-    public SearchResult findEnvelopes(
+    public PagedSearchResult findEnvelopes(
         @RequestParam(name = "file_name", required = false) String fileName,
         @RequestParam(name = "container", required = false) String container,
-        @RequestParam(name = "date", required = false) @DateTimeFormat(iso = DATE) LocalDate date
+        @RequestParam(name = "date", required = false) @DateTimeFormat(iso = DATE) LocalDate date,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "limit", required = false, defaultValue = DEFAULT_PAGE_SIZE)
+        @Min(value = 1, message = "limit must be at least 1")
+        @Max(value = MAX_PAGE_SIZE, message = "limit must not be greater than " + MAX_PAGE_SIZE)
+        int limit
     ) {
-        return new SearchResult(
-            envelopeService
-                .getEnvelopes(fileName, container, date)
+        EnvelopesPage page = envelopeService.getEnvelopes(fileName, container, date, decodeCursor(cursor), limit);
+
+        return new PagedSearchResult(
+            page.envelopes
                 .stream()
                 .map(tuple -> toResponse(tuple.getT1(), tuple.getT2()))
-                .collect(toList())
+                .collect(toList()),
+            page.nextCursor == null ? null : page.nextCursor.encode()
         );
-
     }
 
     @GetMapping(params = {"dcn_prefix", "between_dates"})
@@ -92,6 +127,51 @@ public class EnvelopeController {
 
     }
 
+    /**
+     * Streams all envelopes created within a date range, optionally limited to a set of containers, as CSV
+     * or newline-delimited JSON. Rows are copied from the database straight to the response, so the memory
+     * used does not depend on the size of the export.
+     *
+     * @param from The first day of the export (inclusive).
+     * @param to The last day of the export (inclusive).
+     * @param containers The containers to export envelopes from. All containers are exported when not provided.
+     * @param format The format of the export, either `csv` (default) or `ndjson`.
+     * @return The streamed export as an attachment.
+     * @throws InvalidRequestParametersException when the date range, a container name or the format is invalid
+     */
+    @GetMapping(
+        path = "/export",
+        produces = {MediaType.APPLICATION_JSON_VALUE, "text/csv", "application/x-ndjson"}
+    )
+    @Operation(
+        summary = "Exports envelopes created within a date range",
+        description = "Streams envelopes as CSV or newline-delimited JSON (`format=ndjson`)"
+    )
+    @ApiResponse(responseCode = "200", description = "Success")
+    @ApiResponse(responseCode = "400", description = "Invalid date range, container or format")
+    public ResponseEntity<StreamingResponseBody> exportEnvelopes(
+        @RequestParam(name = "from") @DateTimeFormat(iso = DATE) LocalDate from,
+        @RequestParam(name = "to") @DateTimeFormat(iso = DATE) LocalDate to,
+        @RequestParam(name = "containers", required = false) List<String> containers,
+        @RequestParam(name = "format", required = false, defaultValue = "csv") String format
+    ) {
+        validateExportRange(from, to);
+        List<String> exportedContainers = containers == null ? List.of() : List.copyOf(containers);
+        validateContainers(exportedContainers);
+        ExportFormat exportFormat = parseExportFormat(format);
+
+        String fileName = "envelopes-" + from + "-" + to + "." + exportFormat.fileExtension;
+
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.parseMediaType(exportFormat.mediaType))
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName).build().toString()
+            )
+            .body(out -> envelopeService.exportEnvelopes(from, to, exportedContainers, exportFormat, out));
+    }
+
     @GetMapping(path = "/stale-incomplete-envelopes")
     @Operation(
         summary = "Retrieves incomplete stale envelopes",
@@ -145,12 +225,49 @@ public class EnvelopeController {
         @Min(value = 48, message = "stale_time must be at least 48 hours")
         int staleTime
     ) {
-        List<IncompleteEnvelopeInfo> incompleteEnvelopesInfo =
-            incompleteEnvelopesService.getIncompleteEnvelopes(staleTime);
-        List<String> envelopeIds = incompleteEnvelopesInfo.stream().map(s -> s.envelopeId.toString()).toList();
-        incompleteEnvelopesService.deleteIncompleteEnvelopes(staleTime, envelopeIds);
+        return new SearchResult(incompleteEnvelopesService.deleteAllIncompleteEnvelopes(staleTime));
+    }
+
+    private EnvelopeCursor decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return EnvelopeCursor.decode(cursor);
+        } catch (IllegalArgumentException exc) {
+            throw new InvalidRequestParametersException("Invalid 'cursor'");
+        }
+    }
+
+    private void validateExportRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidRequestParametersException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_EXPORT_RANGE_DAYS) {
+            throw new InvalidRequestParametersException(
+                "Date range must not be longer than " + MAX_EXPORT_RANGE_DAYS + " days"
+            );
+        }
+    }
+
+    private void validateContainers(List<String> containers) {
+        containers
+            .stream()
+            .filter(container -> !EnvelopeExportRepository.CONTAINER_NAME_PATTERN.matcher(container).matches())
+            .findFirst()
+            .ifPresent(container -> {
+                throw new InvalidRequestParametersException("Invalid container name: " + container);
+            });
+    }
 
-        return new SearchResult(envelopeIds);
+    private ExportFormat parseExportFormat(String format) {
+        return Arrays
+            .stream(ExportFormat.values())
+            .filter(value -> value.name().equals(format.toUpperCase(Locale.ROOT)))
+            .findFirst()
+            .orElseThrow(() -> new InvalidRequestParametersException(
+                "'format' must be one of: csv, ndjson"
+            ));
     }
 
     private EnvelopeInfo toResponse(Envelope dbEnvelope, List<EnvelopeEvent> dbEventRecords) {
@@ -8,10 +8,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import uk.gov.hmcts.reform.blobrouter.data.reports.EnvelopeCountSummaryReportListResponse;
+import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidRequestParametersException;
 import uk.gov.hmcts.reform.blobrouter.model.out.reports.EnvelopeCountSummaryReportItem;
 import uk.gov.hmcts.reform.blobrouter.services.report.ReportService;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -20,6 +22,8 @@ import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE;
 @RestController
 @RequestMapping(path = "/reports")
 public class ReportsController {
+    private static final int MAX_RANGE_DAYS = 366;
+
     private final ReportService reportService;
 
     public ReportsController(
@@ -28,12 +32,30 @@ public class ReportsController {
         this.reportService = reportService;
     }
 
+    /**
+     * Retrieves the envelope count summary report either for a single day (`date`) or for every day
+     * of a date range (`from` and `to`, both inclusive).
+     *
+     * @param date The day of the report.
+     * @param from The first day of the report range, used when `date` is not provided.
+     * @param to The last day of the report range, used when `date` is not provided.
+     * @return The envelope count summary report.
+     * @throws InvalidRequestParametersException when neither `date` nor a valid `from` - `to` range is provided
+     */
     @GetMapping(path = "/count-summary", produces = MediaType.APPLICATION_JSON_VALUE)
-    @Operation(description = "Retrieves envelope count summary report")
+    @Operation(description = "Retrieves envelope count summary report for a date or a date range")
     public EnvelopeCountSummaryReportListResponse getCountSummary(
-        @RequestParam(name = "date") @DateTimeFormat(iso = DATE) LocalDate date
+        @RequestParam(name = "date", required = false) @DateTimeFormat(iso = DATE) LocalDate date,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DATE) LocalDate to
     ) {
-        List<EnvelopeCountSummaryReportItem> result = this.reportService.getCountFor(date);
+        List<EnvelopeCountSummaryReportItem> result;
+        if (date != null) {
+            result = this.reportService.getCountFor(date);
+        } else {
+            validateRange(from, to);
+            result = this.reportService.getCountFor(from, to);
+        }
         return new EnvelopeCountSummaryReportListResponse(result
                                                               .stream()
                                                               .map(item -> new EnvelopeCountSummaryReportItem(
@@ -44,4 +66,18 @@ public class ReportsController {
                                                               ))
                                                               .collect(toList()));
     }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new InvalidRequestParametersException("'date' or both 'from' and 'to' must be provided");
+        }
+        if (from.isAfter(to)) {
+            throw new InvalidRequestParametersException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new InvalidRequestParametersException(
+                "Date range must not be longer than " + MAX_RANGE_DAYS + " days"
+            );
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package uk.gov.hmcts.reform.blobrouter.data.dispatches;
+
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Dispatch of an envelope to one of the targets of its container.
+ */
+public class EnvelopeDispatch {
+
+    public final UUID envelopeId;
+    public final TargetStorageAccount targetStorageAccount;
+    public final String targetContainer;
+    public final String contentSha256;
+    public final Instant dispatchedAt;
+
+    public EnvelopeDispatch(
+        UUID envelopeId,
+        TargetStorageAccount targetStorageAccount,
+        String targetContainer,
+        String contentSha256,
+        Instant dispatchedAt
+    ) {
+        this.envelopeId = envelopeId;
+        this.targetStorageAccount = targetStorageAccount;
+        this.targetContainer = targetContainer;
+        this.contentSha256 = contentSha256;
+        this.dispatchedAt = dispatchedAt;
+    }
+}
@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.blobrouter.data.dispatches;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+@Component
+public class EnvelopeDispatchMapper implements RowMapper<EnvelopeDispatch> {
+
+    /**
+     * The `mapRow` function maps a row of the `envelope_dispatches` table to an `EnvelopeDispatch` object.
+     *
+     * @param rs The `ResultSet` positioned at the row to map.
+     * @param rowNum The number of the current row.
+     * @return An `EnvelopeDispatch` object is being returned.
+     */
+    @Override
+    public EnvelopeDispatch mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new EnvelopeDispatch(
+            UUID.fromString(rs.getString("envelope_id")),
+            TargetStorageAccount.valueOf(rs.getString("target_storage_account")),
+            rs.getString("target_container"),
+            rs.getString("content_sha256"),
+            rs.getTimestamp("dispatched_at").toInstant()
+        );
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.hmcts.reform.blobrouter.data.dispatches;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The `EnvelopeDispatchRepository` class reads and writes the targets envelopes have been dispatched to, kept in the
+ * `envelope_dispatches` table.
+ */
+@Repository
+public class EnvelopeDispatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EnvelopeDispatchMapper mapper;
+
+    public EnvelopeDispatchRepository(NamedParameterJdbcTemplate jdbcTemplate, EnvelopeDispatchMapper mapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mapper = mapper;
+    }
+
+    /**
+     * The function finds the targets the envelope has already been dispatched to.
+     *
+     * @param envelopeId The ID of the envelope.
+     * @return The dispatches of the envelope, empty if it has not been dispatched to any target yet.
+     */
+    public List<EnvelopeDispatch> find(UUID envelopeId) {
+        return jdbcTemplate.query(
+            "SELECT * FROM envelope_dispatches WHERE envelope_id = :envelopeId",
+            new MapSqlParameterSource("envelopeId", envelopeId),
+            mapper
+        );
+    }
+
+    /**
+     * The function records the dispatch of an envelope to a target, unless it has already been recorded.
+     *
+     * @param dispatch The dispatch to record.
+     * @return The number of rows inserted, 0 if the dispatch was already recorded.
+     */
+    public int insert(EnvelopeDispatch dispatch) {
+        return jdbcTemplate.update(
+            "INSERT INTO envelope_dispatches "
+                + "(envelope_id, target_storage_account, target_container, content_sha256, dispatched_at) "
+                + "VALUES (:envelopeId, :targetStorageAccount, :targetContainer, :contentSha256, :dispatchedAt) "
+                + "ON CONFLICT (envelope_id, target_storage_account, target_container) DO NOTHING",
+            new MapSqlParameterSource()
+                .addValue("envelopeId", dispatch.envelopeId)
+                .addValue("targetStorageAccount", dispatch.targetStorageAccount.name())
+                .addValue("targetContainer", dispatch.targetContainer)
+                .addValue("contentSha256", dispatch.contentSha256)
+                .addValue("dispatchedAt", Timestamp.from(dispatch.dispatchedAt))
+        );
+    }
+}
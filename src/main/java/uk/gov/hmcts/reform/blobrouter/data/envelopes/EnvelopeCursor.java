@@ -0,0 +1,65 @@
+package uk.gov.hmcts.reform.blobrouter.data.envelopes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * The `EnvelopeCursor` class identifies a position in the envelope search results, which are ordered by
+ * `created_at` and `id` descending. The next page starts right after the envelope the cursor points to.
+ */
+public class EnvelopeCursor {
+
+    private static final String SEPARATOR = "|";
+
+    public final Instant createdAt;
+    public final UUID id;
+
+    public EnvelopeCursor(Instant createdAt, UUID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * The `after` function creates a cursor pointing at the given envelope.
+     *
+     * @param envelope The last envelope of a page.
+     * @return The cursor from which the next page starts.
+     */
+    public static EnvelopeCursor after(Envelope envelope) {
+        return new EnvelopeCursor(envelope.createdAt, envelope.id);
+    }
+
+    /**
+     * The `encode` function converts the cursor into an opaque, URL safe token that can be handed to clients.
+     *
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        return Base64
+            .getUrlEncoder()
+            .withoutPadding()
+            .encodeToString((createdAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The `decode` function reads a cursor previously created with `encode`.
+     *
+     * @param token The encoded cursor.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException when the token is not a valid cursor
+     */
+    public static EnvelopeCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = value.indexOf(SEPARATOR);
+            return new EnvelopeCursor(
+                Instant.parse(value.substring(0, separatorIndex)),
+                UUID.fromString(value.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException exc) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, exc);
+        }
+    }
+}
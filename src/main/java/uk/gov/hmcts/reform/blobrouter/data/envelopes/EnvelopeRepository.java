@@ -13,10 +13,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.StringJoiner;
 import java.util.UUID;
 
+import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_ID;
+
 /**
  * The `EnvelopeRepository` class in Java provides methods to interact with a database table storing envelope data,
  * including finding, inserting, updating, and deleting envelope records based on various criteria.
@@ -24,6 +25,29 @@ import java.util.UUID;
 @Repository
 public class EnvelopeRepository {
 
+    // half-open timestamp ranges rather than DATE(...) so that indexes on the timestamp columns can be used
+    static final String CREATED_ON_DAY_CRITERIA = "created_at >= :dayStart AND created_at < :dayEnd";
+
+    // envelopes are partitioned by created_at, which is read from the lookup table so that only the partitions
+    // holding the envelopes are scanned
+    static final String ID_CRITERIA =
+        "id = :id AND created_at = (SELECT created_at FROM envelope_lookup WHERE id = :id)";
+    // partitions are not pruned on created_at = ANY(ARRAY(subquery)), so lookups of several envelopes join the
+    // lookup rows to the envelopes instead: each lookup row only scans the partition holding its envelope
+    static final String LOOKUP_JOIN_CRITERIA = "e.id = l.id AND e.created_at = l.created_at";
+    static final String FIND_BY_FILE_QUERY =
+        "SELECT e.* FROM envelope_lookup l JOIN envelopes e ON " + LOOKUP_JOIN_CRITERIA
+            + " WHERE l.file_name = :fileName AND l.container = :container";
+    static final String UPDATE_PENDING_NOTIFICATION_BY_IDS_QUERY =
+        "UPDATE envelopes e SET pending_notification = :notificationPending FROM envelope_lookup l"
+            + " WHERE l.id IN (:ids) AND " + LOOKUP_JOIN_CRITERIA;
+
+    static final String FIND_BY_DCN_PREFIX_QUERY =
+        "SELECT * FROM envelopes"
+            + " WHERE file_name LIKE :dcnPrefix"
+            + " AND file_created_at >= :from AND file_created_at < :to"
+            + " ORDER BY file_created_at DESC";
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
     private final EnvelopeMapper mapper;
 
@@ -44,7 +68,7 @@ public class EnvelopeRepository {
     public Optional<Envelope> find(UUID id) {
         try {
             Envelope envelope = jdbcTemplate.queryForObject(
-                "SELECT * FROM envelopes WHERE id = :id",
+                "SELECT * FROM envelopes WHERE " + ID_CRITERIA,
                 new MapSqlParameterSource("id", id),
                 this.mapper
             );
@@ -113,7 +137,7 @@ public class EnvelopeRepository {
      */
     public List<Envelope> find(String fileName, String container) {
         return jdbcTemplate.query(
-            "SELECT * FROM envelopes WHERE file_name = :fileName AND container = :container",
+            FIND_BY_FILE_QUERY,
             new MapSqlParameterSource()
                 .addValue("fileName", fileName)
                 .addValue("container", container),
@@ -136,12 +160,10 @@ public class EnvelopeRepository {
     public Optional<Envelope> findEnvelopeNotInCreatedStatus(String fileName, String container) {
         try {
             Envelope envelope = jdbcTemplate.queryForObject(
-                "SELECT * FROM envelopes "
-                    + "WHERE file_name = :fileName "
-                    + "AND container = :container "
-                    + "AND status != 'CREATED' "
-                    + "ORDER BY created_at DESC "
-                    + "LIMIT 1",
+                FIND_BY_FILE_QUERY
+                    + " AND e.status != 'CREATED'"
+                    + " ORDER BY e.created_at DESC"
+                    + " LIMIT 1",
                 new MapSqlParameterSource()
                     .addValue("fileName", fileName)
                     .addValue("container", container),
@@ -167,10 +189,8 @@ public class EnvelopeRepository {
     public Optional<Envelope> findLast(String fileName, String container) {
         try {
             Envelope envelope = jdbcTemplate.queryForObject(
-                "SELECT * FROM envelopes"
-                    + " WHERE file_name = :fileName"
-                    + " AND container = :container"
-                    + " ORDER BY created_at DESC"
+                FIND_BY_FILE_QUERY
+                    + " ORDER BY e.created_at DESC"
                     + " LIMIT 1",
                 new MapSqlParameterSource()
                     .addValue("fileName", fileName)
@@ -227,7 +247,7 @@ public class EnvelopeRepository {
         jdbcTemplate.update(
             "UPDATE envelopes "
                 + "SET status = :newStatus "
-                + "WHERE id = :id",
+                + "WHERE " + ID_CRITERIA,
             new MapSqlParameterSource()
                 .addValue("id", id)
                 .addValue("newStatus", newStatus.name())
@@ -249,13 +269,30 @@ public class EnvelopeRepository {
         jdbcTemplate.update(
             "UPDATE envelopes "
                 + "SET dispatched_at = :dispatchedAt "
-                + "WHERE id = :id",
+                + "WHERE " + ID_CRITERIA,
             new MapSqlParameterSource()
                 .addValue("id", id)
                 .addValue("dispatchedAt", Timestamp.from(dispatchedAt))
         );
     }
 
+    /**
+     * The function stores the SHA-256 digest of the content dispatched for the envelope.
+     *
+     * @param id The ID of the envelope.
+     * @param contentSha256 The hex encoded SHA-256 digest of the content committed on the target storage.
+     */
+    public void updateContentSha256(UUID id, String contentSha256) {
+        jdbcTemplate.update(
+            "UPDATE envelopes "
+                + "SET content_sha256 = :contentSha256 "
+                + "WHERE " + ID_CRITERIA,
+            new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("contentSha256", contentSha256)
+        );
+    }
+
     /**
      * The function updates the "is_deleted" field in the "envelopes" table to True for a specific ID using a UUID
      * parameter.
@@ -268,7 +305,7 @@ public class EnvelopeRepository {
         return jdbcTemplate.update(
             "UPDATE envelopes "
                 + "SET is_deleted = True "
-                + "WHERE id = :id",
+                + "WHERE " + ID_CRITERIA,
             new MapSqlParameterSource("id", id)
         );
     }
@@ -288,7 +325,7 @@ public class EnvelopeRepository {
         return jdbcTemplate.update(
             "UPDATE envelopes "
                 + "SET pending_notification = :notificationPending "
-                + "WHERE id = :id",
+                + "WHERE " + ID_CRITERIA,
             new MapSqlParameterSource()
                 .addValue("id", id)
                 .addValue("notificationPending", notificationPending)
@@ -296,28 +333,19 @@ public class EnvelopeRepository {
     }
 
     /**
-     * The function retrieves the count of envelopes within a specified time range and belonging to a set of containers
-     * using JDBC template in Java.
+     * The function updates the pending notification status of multiple envelopes with a single statement.
      *
-     * @param containers A set of container names that you want to query for envelopes within a specific time range.
-     * @param fromDateTime fromDateTime is the starting date and time from which you want to filter the envelopes.
-     * @param toDateTime toDateTime is the timestamp representing the end date and time for the query.
-     *      It is used to filter the envelopes based on their file creation timestamp, ensuring that only envelopes
-     *      created before this specific date and time are included in the count.
-     * @return The method is returning the count of envelopes that meet the specified criteria.
-     *      It queries the database to count the number of envelopes where the container is in the provided
-     *      set of containers and the file creation timestamp is between the specified fromDateTime and toDateTime.
+     * @param ids The `ids` parameter is a list of UUIDs identifying the envelopes to be updated.
+     * @param notificationPending The `notificationPending` parameter is a Boolean value that indicates whether a
+     *      notification is pending for the given envelopes.
+     * @return The number of rows affected by the update operation in the database table "envelopes".
      */
-    public Integer getEnvelopesCount(Set<String> containers, Instant fromDateTime, Instant toDateTime) {
-        return jdbcTemplate.queryForObject(
-            "SELECT count(*) FROM envelopes "
-                + " WHERE container in (:containers)"
-                + " AND file_created_at BETWEEN :fromDateTime AND :toDateTime",
+    public int updatePendingNotification(List<UUID> ids, Boolean notificationPending) {
+        return jdbcTemplate.update(
+            UPDATE_PENDING_NOTIFICATION_BY_IDS_QUERY,
             new MapSqlParameterSource()
-                .addValue("containers", containers)
-                .addValue("fromDateTime", Timestamp.from(fromDateTime))
-                .addValue("toDateTime", Timestamp.from(toDateTime)),
-            Integer.class
+                .addValue("ids", ids)
+                .addValue("notificationPending", notificationPending)
         );
     }
 
@@ -338,10 +366,64 @@ public class EnvelopeRepository {
      *      and ordering the results by the creation date in descending order.
      */
     public List<Envelope> findEnvelopes(String fileName, String container, LocalDate date) {
-        StringJoiner whereClause = new StringJoiner(" AND ", " WHERE ", "");
-        whereClause.setEmptyValue(""); // default value when all query params are null/empty
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource();
+
+        return jdbcTemplate.query(
+            "SELECT * FROM envelopes"
+                + searchCriteria(fileName, container, date, parameterSource)
+                + " ORDER BY created_at DESC",
+            parameterSource,
+            this.mapper
+        );
+    }
 
+    /**
+     * The function retrieves a single page of envelopes matching the search criteria. Pages are ordered by
+     * creation date and id, both descending, and are located with a keyset rather than an offset, so that
+     * the cost of reading a page does not depend on how many pages precede it.
+     *
+     * @param fileName The name of the file to search for, ignored when empty.
+     * @param container The container to search in, ignored when empty.
+     * @param date The day the envelopes were created on, ignored when null.
+     * @param after The position after which the page starts. The first page is returned when null.
+     * @param limit The maximum number of envelopes on the page.
+     * @return Up to `limit` envelopes that come after the `after` position.
+     */
+    public List<Envelope> findEnvelopes(
+        String fileName,
+        String container,
+        LocalDate date,
+        EnvelopeCursor after,
+        int limit
+    ) {
         MapSqlParameterSource parameterSource = new MapSqlParameterSource();
+        StringJoiner whereClause = searchCriteria(fileName, container, date, parameterSource);
+
+        if (after != null) {
+            whereClause.add("(created_at, id) < (:afterCreatedAt, :afterId)");
+            parameterSource.addValue("afterCreatedAt", Timestamp.from(after.createdAt));
+            parameterSource.addValue("afterId", after.id);
+        }
+        parameterSource.addValue("limit", limit);
+
+        return jdbcTemplate.query(
+            "SELECT * FROM envelopes"
+                + whereClause
+                + " ORDER BY created_at DESC, id DESC"
+                + " LIMIT :limit",
+            parameterSource,
+            this.mapper
+        );
+    }
+
+    private StringJoiner searchCriteria(
+        String fileName,
+        String container,
+        LocalDate date,
+        MapSqlParameterSource parameterSource
+    ) {
+        StringJoiner whereClause = new StringJoiner(" AND ", " WHERE ", "");
+        whereClause.setEmptyValue(""); // default value when all query params are null/empty
 
         if (StringUtils.isNotEmpty(fileName)) {
             whereClause.add("file_name = :fileName");
@@ -354,17 +436,11 @@ public class EnvelopeRepository {
         }
 
         if (date != null) {
-            whereClause.add("DATE(created_at) = :date");
-            parameterSource.addValue("date", date);
+            whereClause.add(CREATED_ON_DAY_CRITERIA);
+            parameterSource.addValue("dayStart", startOfDay(date));
+            parameterSource.addValue("dayEnd", startOfDay(date.plusDays(1)));
         }
-
-        return jdbcTemplate.query(
-            "SELECT * FROM envelopes"
-                + whereClause.toString()
-                + " ORDER BY created_at DESC",
-            parameterSource,
-            this.mapper
-        );
+        return whereClause;
     }
 
     /**
@@ -406,18 +482,27 @@ public class EnvelopeRepository {
     public List<Envelope> findEnvelopesByDcnPrefix(String dcnPrefix, LocalDate fromDate, LocalDate toDate) {
 
         return jdbcTemplate.query(
-            "SELECT * FROM envelopes"
-                + " WHERE file_name like :dcnPrefix"
-                + " AND DATE(file_created_at) BETWEEN :fromDate AND :toDate"
-                + " ORDER BY file_created_at DESC",
+            FIND_BY_DCN_PREFIX_QUERY,
             new MapSqlParameterSource()
-                .addValue("dcnPrefix", dcnPrefix + "%")
-                .addValue("fromDate", fromDate)
-                .addValue("toDate", toDate),
+                .addValue("dcnPrefix", escapeLikePattern(dcnPrefix) + "%")
+                .addValue("from", startOfDay(fromDate))
+                .addValue("to", startOfDay(toDate.plusDays(1))),
             this.mapper
         );
     }
 
+    // days are London days, timestamps in the database are UTC
+    private static Timestamp startOfDay(LocalDate date) {
+        return Timestamp.from(date.atStartOfDay(EUROPE_LONDON_ZONE_ID).toInstant());
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
+
     /**
      * The function deletes envelopes with file creation date before a specified datetime and with status not equal to
      * 'DISPATCHED' based on a list of envelope IDs.
@@ -432,6 +517,7 @@ public class EnvelopeRepository {
      *      affected by the deletion operation in the database table `envelopes`.
      */
     public int deleteEnvelopesBefore(LocalDateTime dateTime, List<UUID> envelopeIds) {
+        // events, notifications, fingerprints and dispatches are removed by foreign key cascades from the lookup table
         return jdbcTemplate.update(
             "DELETE FROM envelopes e WHERE e.file_created_at < :dateTime AND e.status != 'DISPATCHED' "
                 + "AND e.id IN (:envelopeIds)",
@@ -440,4 +526,35 @@ public class EnvelopeRepository {
                 .addValue("envelopeIds", envelopeIds)
         );
     }
+
+    /**
+     * Deletes a bounded chunk of incomplete envelopes (status 'CREATED') whose files were created before the given
+     * datetime, together with their events and pending notifications. Rows locked by other transactions (e.g. an
+     * envelope being dispatched) are skipped rather than waited for, so each call holds its locks only briefly and
+     * never blocks concurrent writers. Callers purge everything by calling this repeatedly, each call in its own
+     * transaction, until fewer than `limit` ids are returned.
+     *
+     * @param dateTime Envelopes with files created before this point in time are considered stale.
+     * @param limit The maximum number of envelopes deleted by this call.
+     * @return The ids of the envelopes deleted by this call, oldest first.
+     */
+    public List<UUID> deleteIncompleteEnvelopesChunk(LocalDateTime dateTime, int limit) {
+        return jdbcTemplate.queryForList(
+            "WITH chunk AS ("
+                + "  SELECT id, created_at FROM envelopes"
+                + "  WHERE file_created_at < :dateTime AND status = 'CREATED'"
+                + "  ORDER BY file_created_at"
+                + "  LIMIT :limit"
+                + "  FOR UPDATE SKIP LOCKED"
+                + "), deleted AS ("
+                + "  DELETE FROM envelopes e USING chunk c WHERE e.id = c.id AND e.created_at = c.created_at"
+                + "  RETURNING e.id, e.file_created_at"
+                + ") "
+                + "SELECT id FROM deleted ORDER BY file_created_at",
+            new MapSqlParameterSource()
+                .addValue("dateTime", dateTime)
+                .addValue("limit", limit),
+            UUID.class
+        );
+    }
 }
@@ -2,10 +2,14 @@ package uk.gov.hmcts.reform.blobrouter.data.events;
 
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.support.SqlArrayValue;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,6 +21,10 @@ import java.util.UUID;
 @Repository
 public class EnvelopeEventRepository {
 
+    private static final String INSERT_SQL =
+        "INSERT INTO envelope_events (envelope_id, type, error_code, notes, created_at) "
+            + "VALUES (:envelopeId, :type, :errorCode, :notes, CURRENT_TIMESTAMP)";
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
     private final EnvelopeEventMapper mapper;
 
@@ -47,14 +55,21 @@ public class EnvelopeEventRepository {
      *
      * @param envelopeIds A list of UUIDs representing envelope IDs for which you want to find corresponding envelope
      *      events.
+     * @param createdSince The creation time of the oldest of the envelopes. Events are never created before their
+     *      envelope, so the lower bound lets the database skip partitions holding older events.
      * @return A list of `EnvelopeEvent` objects corresponding to the envelope IDs provided in the `envelopeIds` list.
      *      The query selects all records from the `envelope_events` table where the `envelope_id` is in the list of
      *      `envelopeIds`, and the results are ordered by the `id` in descending order.
+     *      The ids are bound as a single array parameter, so the statement text does not grow with the number of ids.
      */
-    public List<EnvelopeEvent> findForEnvelopes(List<UUID> envelopeIds) {
+    public List<EnvelopeEvent> findForEnvelopes(List<UUID> envelopeIds, Instant createdSince) {
         return jdbcTemplate.query(
-            "SELECT * FROM envelope_events WHERE envelope_id in (:envelopeIds) ORDER BY id DESC",
-            new MapSqlParameterSource("envelopeIds", envelopeIds),
+            "SELECT * FROM envelope_events "
+                + "WHERE envelope_id = ANY(:envelopeIds) AND created_at >= :createdSince "
+                + "ORDER BY id DESC",
+            new MapSqlParameterSource()
+                .addValue("envelopeIds", new SqlArrayValue("uuid", envelopeIds.toArray()))
+                .addValue("createdSince", Timestamp.from(createdSince)),
             this.mapper
         );
     }
@@ -71,18 +86,33 @@ public class EnvelopeEventRepository {
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(
-            "INSERT INTO envelope_events (envelope_id, type, error_code, notes, created_at) "
-                + "VALUES (:envelopeId, :type, :errorCode, :notes, CURRENT_TIMESTAMP)",
-            new MapSqlParameterSource()
-                .addValue("envelopeId", event.envelopeId)
-                .addValue("type", event.type.name())
-                .addValue("errorCode", event.errorCode != null ? event.errorCode.name() : null)
-                .addValue("notes", event.notes),
+            INSERT_SQL,
+            toParams(event),
             keyHolder,
             new String[]{"id"}
         );
 
         return (long) keyHolder.getKey();
     }
+
+    /**
+     * The function inserts multiple envelope events into the database table using a single JDBC batch.
+     *
+     * @param events The `events` parameter is the list of new envelope events to be inserted.
+     */
+    public void insertAll(List<NewEnvelopeEvent> events) {
+        jdbcTemplate.batchUpdate(
+            INSERT_SQL,
+            events.stream().map(EnvelopeEventRepository::toParams).toArray(SqlParameterSource[]::new)
+        );
+    }
+
+    private static MapSqlParameterSource toParams(NewEnvelopeEvent event) {
+        return new MapSqlParameterSource()
+            .addValue("envelopeId", event.envelopeId)
+            .addValue("type", event.type.name())
+            .addValue("errorCode", event.errorCode != null ? event.errorCode.name() : null)
+            .addValue("notes", event.notes);
+    }
 }
 
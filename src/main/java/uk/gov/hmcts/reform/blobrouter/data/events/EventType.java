@@ -7,6 +7,7 @@ public enum EventType {
     DELETED,
     DELETED_FROM_REJECTED,
     DUPLICATE_REJECTED,
+    DUPLICATE_SKIPPED,
     ERROR,
     NOTIFICATION_SENT,
     MANUALLY_MARKED_AS_REJECTED,
@@ -0,0 +1,112 @@
+package uk.gov.hmcts.reform.blobrouter.data.export;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.joining;
+import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_ID;
+
+/**
+ * The `EnvelopeExportRepository` class streams envelopes straight from the database to an output stream
+ * using Postgres `COPY ... TO STDOUT`, so that large extracts are never mapped to objects or held in memory.
+ */
+@Repository
+public class EnvelopeExportRepository {
+
+    // COPY does not accept bind parameters, so everything inlined into the statement must match this pattern
+    public static final Pattern CONTAINER_NAME_PATTERN = Pattern.compile("^[a-z0-9_-]{1,63}$");
+
+    private static final String ENVELOPES_QUERY =
+        "SELECT id, container, file_name, file_created_at, dispatched_at, status, is_deleted, "
+            + "pending_notification, file_size, created_at "
+            + "FROM envelopes "
+            + "WHERE created_at >= TIMESTAMP '%s' AND created_at < TIMESTAMP '%s'%s "
+            + "ORDER BY created_at, id";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String CSV_COPY = "COPY (%s) TO STDOUT WITH (FORMAT csv, HEADER true)";
+
+    // one JSON document per line; the quote and delimiter characters never appear in row_to_json output,
+    // so the CSV format writes each document verbatim (text format would escape backslashes)
+    private static final String NDJSON_COPY =
+        "COPY (SELECT row_to_json(e) FROM (%s) e) TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EnvelopeExportRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The `copyEnvelopes` function writes all envelopes created within the given date range, optionally limited
+     * to the given containers, to the output stream in the requested format. Days are London days, as in envelope
+     * search, so the same date selects the same envelopes in both.
+     *
+     * @param from The first day of the export (inclusive).
+     * @param to The last day of the export (inclusive).
+     * @param containers The containers to export envelopes from. All containers are exported when the list is empty.
+     *      Every name must match `CONTAINER_NAME_PATTERN`.
+     * @param format The format of the exported rows.
+     * @param out The stream the rows are written to. It is not closed by this method.
+     * @return The number of exported envelopes.
+     * @throws IllegalArgumentException when a container name does not match `CONTAINER_NAME_PATTERN`
+     * @throws UncheckedIOException when writing to the output stream fails
+     */
+    public long copyEnvelopes(
+        LocalDate from,
+        LocalDate to,
+        List<String> containers,
+        ExportFormat format,
+        OutputStream out
+    ) {
+        String sql = buildCopyStatement(from, to, containers, format);
+
+        Long rows = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    static String buildCopyStatement(LocalDate from, LocalDate to, List<String> containers, ExportFormat format) {
+        String containerFilter = "";
+        if (!containers.isEmpty()) {
+            containers.forEach(container -> {
+                if (!CONTAINER_NAME_PATTERN.matcher(container).matches()) {
+                    throw new IllegalArgumentException("Invalid container name: " + container);
+                }
+            });
+            containerFilter = containers
+                .stream()
+                .map(container -> "'" + container + "'")
+                .collect(joining(", ", " AND container IN (", ")"));
+        }
+
+        String query = String.format(ENVELOPES_QUERY, startOfDay(from), startOfDay(to.plusDays(1)), containerFilter);
+
+        return String.format(format == ExportFormat.NDJSON ? NDJSON_COPY : CSV_COPY, query);
+    }
+
+    // days are London days, timestamps in the database are UTC
+    private static String startOfDay(LocalDate date) {
+        return LocalDateTime
+            .ofInstant(date.atStartOfDay(EUROPE_LONDON_ZONE_ID).toInstant(), ZoneOffset.UTC)
+            .format(TIMESTAMP_FORMAT);
+    }
+}
@@ -0,0 +1,19 @@
+package uk.gov.hmcts.reform.blobrouter.data.export;
+
+/**
+ * The `ExportFormat` enum lists the formats in which envelopes can be exported, together with the
+ * media type of the produced content.
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    public final String mediaType;
+    public final String fileExtension;
+
+    ExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+}
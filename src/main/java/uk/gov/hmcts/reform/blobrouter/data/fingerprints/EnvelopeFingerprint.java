@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.blobrouter.data.fingerprints;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Digest of the inner envelope content of a dispatched envelope, identifying the first envelope which had that
+ * content.
+ */
+public class EnvelopeFingerprint {
+
+    public final String contentSha256;
+    public final UUID envelopeId;
+    public final String container;
+    public final String fileName;
+    public final Instant createdAt;
+
+    public EnvelopeFingerprint(
+        String contentSha256,
+        UUID envelopeId,
+        String container,
+        String fileName,
+        Instant createdAt
+    ) {
+        this.contentSha256 = contentSha256;
+        this.envelopeId = envelopeId;
+        this.container = container;
+        this.fileName = fileName;
+        this.createdAt = createdAt;
+    }
+}
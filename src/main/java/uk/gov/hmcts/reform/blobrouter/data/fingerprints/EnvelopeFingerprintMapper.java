@@ -0,0 +1,30 @@
+package uk.gov.hmcts.reform.blobrouter.data.fingerprints;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+@Component
+public class EnvelopeFingerprintMapper implements RowMapper<EnvelopeFingerprint> {
+
+    /**
+     * The `mapRow` function maps a row of the `envelope_fingerprints` table to an `EnvelopeFingerprint` object.
+     *
+     * @param rs The `ResultSet` positioned at the row to map.
+     * @param rowNum The number of the current row.
+     * @return An `EnvelopeFingerprint` object is being returned.
+     */
+    @Override
+    public EnvelopeFingerprint mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new EnvelopeFingerprint(
+            rs.getString("content_sha256"),
+            UUID.fromString(rs.getString("envelope_id")),
+            rs.getString("container"),
+            rs.getString("file_name"),
+            rs.getTimestamp("created_at").toInstant()
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.hmcts.reform.blobrouter.data.fingerprints;
+
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * The `EnvelopeFingerprintRepository` class reads and writes content digests of dispatched envelopes, kept in the
+ * `envelope_fingerprints` table.
+ */
+@Repository
+public class EnvelopeFingerprintRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EnvelopeFingerprintMapper mapper;
+
+    public EnvelopeFingerprintRepository(NamedParameterJdbcTemplate jdbcTemplate, EnvelopeFingerprintMapper mapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mapper = mapper;
+    }
+
+    /**
+     * The function finds the envelope which was first dispatched with the given content.
+     *
+     * @param contentSha256 The hex encoded SHA-256 digest of the inner envelope content.
+     * @return The fingerprint, or an empty Optional if no envelope with that content has been dispatched.
+     */
+    public Optional<EnvelopeFingerprint> find(String contentSha256) {
+        try {
+            return Optional.of(jdbcTemplate.queryForObject(
+                "SELECT * FROM envelope_fingerprints WHERE content_sha256 = :contentSha256",
+                new MapSqlParameterSource("contentSha256", contentSha256),
+                mapper
+            ));
+        } catch (EmptyResultDataAccessException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The function inserts the fingerprint, unless the content is already known. The first envelope with given
+     * content is kept, so that duplicates always point at the original envelope.
+     *
+     * @param fingerprint The fingerprint to insert.
+     * @return The number of rows inserted, 0 if the content was already known.
+     */
+    public int insert(EnvelopeFingerprint fingerprint) {
+        return jdbcTemplate.update(
+            "INSERT INTO envelope_fingerprints (content_sha256, envelope_id, container, file_name, created_at) "
+                + "VALUES (:contentSha256, :envelopeId, :container, :fileName, :createdAt) "
+                + "ON CONFLICT (content_sha256) DO NOTHING",
+            new MapSqlParameterSource()
+                .addValue("contentSha256", fingerprint.contentSha256)
+                .addValue("envelopeId", fingerprint.envelopeId)
+                .addValue("container", fingerprint.container)
+                .addValue("fileName", fingerprint.fileName)
+                .addValue("createdAt", Timestamp.from(fingerprint.createdAt))
+        );
+    }
+}
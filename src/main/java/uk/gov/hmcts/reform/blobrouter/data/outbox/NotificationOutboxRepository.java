@@ -0,0 +1,68 @@
+package uk.gov.hmcts.reform.blobrouter.data.outbox;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The `NotificationOutboxRepository` class provides methods to write rejection notifications to the
+ * `notification_outbox` table and to mark them as sent once they have been published.
+ * Every insert fires a `notification_outbox` Postgres notification (see the table trigger).
+ */
+@Repository
+public class NotificationOutboxRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public NotificationOutboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The function inserts a new pending notification for the given envelope into the outbox table.
+     *
+     * @param envelopeId The `envelopeId` parameter is the UUID of the rejected envelope the notification is about.
+     * @param errorCode The `errorCode` parameter is the error code of the rejection, may be null.
+     * @param errorDescription The `errorDescription` parameter is the description of the rejection reason.
+     * @return The generated id of the outbox row.
+     */
+    public long insert(UUID envelopeId, ErrorCode errorCode, String errorDescription) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(
+            "INSERT INTO notification_outbox (envelope_id, error_code, error_description, created_at) "
+                + "VALUES (:envelopeId, :errorCode, :errorDescription, CURRENT_TIMESTAMP)",
+            new MapSqlParameterSource()
+                .addValue("envelopeId", envelopeId)
+                .addValue("errorCode", errorCode != null ? errorCode.name() : null)
+                .addValue("errorDescription", errorDescription),
+            keyHolder,
+            new String[]{"id"}
+        );
+
+        return (long) keyHolder.getKey();
+    }
+
+    /**
+     * The function marks all pending outbox notifications of the given envelopes as sent.
+     *
+     * @param envelopeIds The `envelopeIds` parameter is the list of envelope UUIDs whose notifications have been
+     *      published.
+     * @return The number of outbox rows updated.
+     */
+    public int markAsSent(List<UUID> envelopeIds) {
+        return jdbcTemplate.update(
+            "UPDATE notification_outbox "
+                + "SET sent_at = CURRENT_TIMESTAMP "
+                + "WHERE envelope_id IN (:envelopeIds) "
+                + "  AND sent_at IS NULL",
+            new MapSqlParameterSource("envelopeIds", envelopeIds)
+        );
+    }
+}
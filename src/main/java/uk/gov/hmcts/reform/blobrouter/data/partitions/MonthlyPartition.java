@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.blobrouter.data.partitions;
+
+import java.time.YearMonth;
+
+/**
+ * The `MonthlyPartition` class represents a partition of a table holding rows created within a single month.
+ */
+public class MonthlyPartition {
+
+    public final String name;
+    public final YearMonth month;
+
+    public MonthlyPartition(String name, YearMonth month) {
+        this.name = name;
+        this.month = month;
+    }
+}
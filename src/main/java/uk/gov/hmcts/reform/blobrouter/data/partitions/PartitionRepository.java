@@ -0,0 +1,121 @@
+package uk.gov.hmcts.reform.blobrouter.data.partitions;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The `PartitionRepository` class manages the monthly partitions of the tables partitioned by `created_at`.
+ * Partitions are named `{table}_{yyyy}_{MM}`, next to each table there is also a `{table}_default` partition
+ * holding rows that do not fall into any monthly partition.
+ */
+@Repository
+public class PartitionRepository {
+
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern SUFFIX_PATTERN = Pattern.compile("^(\\d{4})_(\\d{2})$");
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("^[a-z_]+$");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PartitionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The function creates the partition of the given table for the given month, unless it already exists. Rows of
+     * that month held by the default partition are moved to the new partition.
+     *
+     * @param table The name of the partitioned table.
+     * @param month The month the partition holds rows for.
+     * @return The name of the partition.
+     */
+    public String createMonthlyPartition(String table, YearMonth month) {
+        return jdbcTemplate.queryForObject(
+            "SELECT create_monthly_partition(:table, CAST(:month AS date))",
+            new MapSqlParameterSource()
+                .addValue("table", table)
+                .addValue("month", month.atDay(1).toString()),
+            String.class
+        );
+    }
+
+    /**
+     * The function lists the monthly partitions of the given table, oldest first. The default partition is not
+     * included.
+     *
+     * @param table The name of the partitioned table.
+     * @return The monthly partitions of the table.
+     */
+    public List<MonthlyPartition> findMonthlyPartitions(String table) {
+        List<String> names = jdbcTemplate.queryForList(
+            "SELECT child.relname FROM pg_inherits "
+                + "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent "
+                + "JOIN pg_class child ON child.oid = pg_inherits.inhrelid "
+                + "WHERE parent.oid = to_regclass(:table) "
+                + "ORDER BY child.relname",
+            new MapSqlParameterSource("table", table),
+            String.class
+        );
+
+        return names
+            .stream()
+            .filter(name -> name.startsWith(table + "_"))
+            .map(name -> {
+                Matcher matcher = SUFFIX_PATTERN.matcher(name.substring(table.length() + 1));
+                return matcher.matches()
+                    ? new MonthlyPartition(
+                        name,
+                        YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)))
+                    )
+                    : null;
+            })
+            .filter(Objects::nonNull)
+            .collect(toList());
+    }
+
+    /**
+     * The function detaches the partition of the given table for the given month and drops it, removing all of
+     * its rows at once.
+     *
+     * @param table The name of the partitioned table.
+     * @param month The month of the partition to drop.
+     * @throws IllegalArgumentException when the table name is not a plain lowercase identifier
+     */
+    public void dropMonthlyPartition(String table, YearMonth month) {
+        if (!TABLE_NAME_PATTERN.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + table);
+        }
+        String partition = table + "_" + month.format(SUFFIX_FORMAT);
+
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+        jdbcTemplate.getJdbcTemplate().execute("DROP TABLE " + partition);
+    }
+
+    /**
+     * The function deletes the lookup rows of envelopes created before the given month which are no longer in the
+     * envelopes table, because their partitions have been dropped. Events, outbox notifications, fingerprints and
+     * target dispatches of these envelopes are deleted with them by foreign key cascades.
+     *
+     * @param month The month the retained envelopes start with.
+     * @return The number of deleted lookup rows.
+     */
+    public int deleteLookupsOfDroppedEnvelopes(YearMonth month) {
+        LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+        return jdbcTemplate.update(
+            "DELETE FROM envelope_lookup l WHERE l.created_at < :monthStart "
+                + "AND NOT EXISTS (SELECT 1 FROM envelopes e WHERE e.id = l.id AND e.created_at = l.created_at)",
+            new MapSqlParameterSource("monthStart", monthStart)
+        );
+    }
+}
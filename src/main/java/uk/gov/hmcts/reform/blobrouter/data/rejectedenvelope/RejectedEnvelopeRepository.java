@@ -28,17 +28,18 @@ public class RejectedEnvelopeRepository {
      * from a database using a JDBC template in Java.
      *
      * @return A list of `RejectedEnvelope` objects containing the fields `id`, `file_name`, `container`,
-     *      `error_code`, and `errorDescription` from the database query result. The query selects data from the
-     *      `envelopes` and `envelope_events` tables where the `event.type` is 'REJECTED' and
-     *      `env.pending_notification` is TRUE.
+     *      `error_code`, and `errorDescription` from the database query result. The query reads the unsent rows
+     *      of the `notification_outbox` table (served by a partial index) in insertion order and joins them to
+     *      `envelopes` by primary key.
      */
     public List<RejectedEnvelope> getRejectedEnvelopes() {
         return jdbcTemplate.query(
-            "SELECT env.id, env.file_name, env.container, event.error_code, event.notes as errorDescription "
-                + " FROM envelopes env, envelope_events event "
-                + " WHERE env.id = event.envelope_id "
-                + "     AND event.type = 'REJECTED' "
-                + "     AND env.pending_notification IS TRUE ",
+            "SELECT env.id, env.file_name, env.container, outbox.error_code, "
+                + "     outbox.error_description as errorDescription "
+                + " FROM notification_outbox outbox "
+                + " JOIN envelopes env ON env.id = outbox.envelope_id "
+                + " WHERE outbox.sent_at IS NULL "
+                + " ORDER BY outbox.id",
             this.mapper
         );
     }
@@ -0,0 +1,27 @@
+package uk.gov.hmcts.reform.blobrouter.data.replica;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The `ReadFromReplica` annotation marks reporting and search methods whose reads may be served by the read replica,
+ * when it is enabled and up to date (see `ReadReplicaRoutingDataSource`). Annotated methods run in a read-only
+ * transaction. Plain `@Transactional(readOnly = true)` methods keep reading from the primary database, as the replica
+ * may lag behind: reads deciding what happens to blobs and envelopes must never be marked.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true, label = ReadFromReplica.LABEL)
+public @interface ReadFromReplica {
+
+    /**
+     * The label of transactions which may run on the read replica.
+     */
+    String LABEL = "read-replica";
+}
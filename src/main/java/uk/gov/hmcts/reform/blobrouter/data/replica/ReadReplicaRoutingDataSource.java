@@ -0,0 +1,82 @@
+package uk.gov.hmcts.reform.blobrouter.data.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * The `ReadReplicaRoutingDataSource` class sends connections requested within transactions marked with
+ * `@ReadFromReplica` to the read replica, as long as the replica is not lagging behind, and every other connection,
+ * including those of other read-only transactions, to the primary database.
+ *
+ * <p>Transactions are marked by `ReplicaTransactionManager` when they begin. Connections are only requested once
+ * the transaction has been set up, so this data source must be wrapped in a `LazyConnectionDataSourceProxy`, which
+ * fetches the actual connection on first use.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    // one entry per transaction begun on the thread, innermost first, suspended transactions stay behind it
+    private static final ThreadLocal<Deque<Boolean>> replicaTransactions = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReadReplicaRoutingDataSource(
+        DataSource primaryDataSource,
+        DataSource replicaDataSource,
+        ReplicaLagMonitor replicaLagMonitor
+    ) {
+        this.replicaLagMonitor = replicaLagMonitor;
+
+        setTargetDataSources(Map.of(Target.PRIMARY, primaryDataSource, Target.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isCurrentTransactionOnReplica() && replicaLagMonitor.isReplicaAvailable()
+            ? Target.REPLICA
+            : Target.PRIMARY;
+    }
+
+    /**
+     * The function records that a transaction has begun on the current thread.
+     *
+     * @param onReplica Whether the transaction may run on the read replica.
+     */
+    static void enterTransaction(boolean onReplica) {
+        Deque<Boolean> transactions = replicaTransactions.get();
+        if (transactions == null) {
+            transactions = new ArrayDeque<>();
+            replicaTransactions.set(transactions);
+        }
+        transactions.push(onReplica);
+    }
+
+    /**
+     * The function records that the innermost transaction of the current thread has completed.
+     */
+    static void exitTransaction() {
+        Deque<Boolean> transactions = replicaTransactions.get();
+        if (transactions != null) {
+            transactions.poll();
+            if (transactions.isEmpty()) {
+                replicaTransactions.remove();
+            }
+        }
+    }
+
+    private static boolean isCurrentTransactionOnReplica() {
+        Deque<Boolean> transactions = replicaTransactions.get();
+        return transactions != null && Boolean.TRUE.equals(transactions.peek());
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.hmcts.reform.blobrouter.data.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `ReplicaLagMonitor` class periodically measures how far the read replica is behind the primary database and
+ * decides whether read-only work may be sent to it. The replica is considered unavailable until the first successful
+ * check, when it cannot be queried, or when its replay lag exceeds the configured maximum.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = getLogger(ReplicaLagMonitor.class);
+
+    // a replica which has replayed everything it received is not lagging, even if the primary has been idle for a while
+    static final String LAG_QUERY =
+        "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)"
+            + " END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean replicaAvailable;
+
+    public ReplicaLagMonitor(JdbcTemplate replicaJdbcTemplate, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.maxLag = maxLag;
+
+        Gauge
+            .builder("db.replica.lag", this, monitor -> monitor.lagSeconds)
+            .description("Replay lag of the read replica, NaN when it could not be determined")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge
+            .builder("db.replica.available", this, monitor -> monitor.replicaAvailable ? 1 : 0)
+            .description("Whether read-only queries are currently routed to the read replica")
+            .register(meterRegistry);
+    }
+
+    /**
+     * The function measures the current replay lag of the replica and updates its availability accordingly.
+     */
+    @Scheduled(fixedDelayString = "${replica-db.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        boolean available;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            lagSeconds = lag == null ? Double.NaN : lag;
+            available = lag != null && lag * 1000 <= maxLag.toMillis();
+        } catch (DataAccessException exc) {
+            lagSeconds = Double.NaN;
+            available = false;
+            logger.warn("Failed to check read replica lag", exc);
+        }
+
+        if (available != replicaAvailable) {
+            logger.info(
+                "Read replica is now {} (lag: {} s, max lag: {} s)",
+                available ? "used for read-only queries" : "bypassed",
+                lagSeconds,
+                maxLag.toSeconds()
+            );
+        }
+        replicaAvailable = available;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+}
@@ -0,0 +1,45 @@
+package uk.gov.hmcts.reform.blobrouter.data.replica;
+
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import javax.sql.DataSource;
+
+/**
+ * The `ReplicaTransactionManager` class is the transaction manager used when the read replica is enabled. For every
+ * transaction it begins, it tells `ReadReplicaRoutingDataSource` whether the transaction has been marked with
+ * `@ReadFromReplica`. Transactions joining an existing one run wherever the existing one does.
+ */
+public class ReplicaTransactionManager extends JdbcTransactionManager {
+
+    public ReplicaTransactionManager(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ReadReplicaRoutingDataSource.enterTransaction(isMarkedForReplica(definition));
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error exc) {
+            ReadReplicaRoutingDataSource.exitTransaction();
+            throw exc;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ReadReplicaRoutingDataSource.exitTransaction();
+        }
+    }
+
+    private static boolean isMarkedForReplica(TransactionDefinition definition) {
+        return definition.isReadOnly()
+            && definition instanceof TransactionAttribute attribute
+            && attribute.getLabels().contains(ReadFromReplica.LABEL);
+    }
+}
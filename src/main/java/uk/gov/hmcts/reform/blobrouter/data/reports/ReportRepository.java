@@ -1,5 +1,7 @@
 package uk.gov.hmcts.reform.blobrouter.data.reports;
 
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -9,7 +11,8 @@ import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.StringJoiner;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * The `ReportRepository` class in Java provides methods to retrieve envelope summaries and generate reports based on
@@ -18,7 +21,17 @@ import java.util.StringJoiner;
 @Repository
 public class ReportRepository {
     private static final String EXCLUDED_CONTAINER = "bulkscan";
+    private static final int STREAMING_FETCH_SIZE = 500;
+    private static final String ENVELOPE_SUMMARY_QUERY =
+        "SELECT container, file_name, file_created_at, dispatched_at, status, is_deleted "
+            + "FROM envelopes "
+            + "WHERE container <> '" + EXCLUDED_CONTAINER + "' "
+            + "  AND file_created_at >= :from "
+            + "  AND file_created_at < :to "
+            + "ORDER BY file_created_at";
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
     private final EnvelopeSummaryMapper mapper;
     private final EnvelopeCountSummaryMapper summaryMapper;
 
@@ -30,32 +43,30 @@ public class ReportRepository {
         this.jdbcTemplate = jdbcTemplate;
         this.mapper = mapper;
         this.summaryMapper = summaryMapper;
+
+        JdbcTemplate fetchingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        fetchingJdbcTemplate.setFetchSize(STREAMING_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(fetchingJdbcTemplate);
     }
 
     /**
-     * This function retrieves envelope summaries based on specified time range and excludes a specific container.
+     * This function streams envelope summaries for the specified time range, excluding a specific container,
+     * to the given consumer one row at a time.
+     * Rows are read through a forward-only cursor fetching a fixed number of rows at a time, so memory use
+     * does not depend on the number of envelopes in the range. The cursor is only used by the Postgres driver
+     * when the method is called within a transaction.
      *
-     * @param from The `from` parameter is the starting point in time for the query to retrieve envelope summaries.
-     *             It is of type `Instant`, which represents a moment on the timeline in UTC with a
-     *             resolution of nanoseconds.
-     * @param to The `to` parameter in the `getEnvelopeSummary` method represents the end timestamp for the query.
-     *           It is used to filter envelopes based on the `file_created_at` timestamp so that only envelopes
-     *           created before this timestamp are included in the result.
-     * @return A List of EnvelopeSummary objects containing information such as container, file name, file created date,
-     *      dispatched date, status, and deletion status for envelopes that meet the specified criteria.
+     * @param from The `from` parameter is the starting point in time (inclusive) of the query.
+     * @param to The `to` parameter is the end point in time (exclusive) of the query.
+     * @param consumer The `consumer` parameter receives every `EnvelopeSummary`, in order of `file_created_at`.
      */
-    public List<EnvelopeSummary> getEnvelopeSummary(Instant from, Instant to) {
-        return jdbcTemplate.query(
-            "SELECT container, file_name, file_created_at, dispatched_at, status, is_deleted "
-                + "FROM envelopes "
-                + "WHERE container <> '" + EXCLUDED_CONTAINER + "' "
-                + "  AND file_created_at >= :from "
-                + "  AND file_created_at < :to "
-                + "ORDER BY file_created_at",
+    public void streamEnvelopeSummary(Instant from, Instant to, Consumer<EnvelopeSummary> consumer) {
+        streamingJdbcTemplate.query(
+            ENVELOPE_SUMMARY_QUERY,
             new MapSqlParameterSource()
                 .addValue("from", Timestamp.from(from))
                 .addValue("to", Timestamp.from(to)),
-            this.mapper
+            (RowCallbackHandler) rs -> consumer.accept(mapper.mapRow(rs, rs.getRow()))
         );
     }
 
@@ -72,23 +83,64 @@ public class ReportRepository {
      *      `EnvelopeCountSummaryReportItem` objects using the `summaryMapper`.
      */
     public List<EnvelopeCountSummaryReportItem> getReportFor(LocalDate date, List<String> containersList) {
-        StringJoiner containers = new StringJoiner(", ");
-        containersList.forEach(containerName -> containers.add("('" + containerName + "')"));
+        return getReportFor(date, date, containersList);
+    }
+
+    /**
+     * This function retrieves a report for every day of the given date range and every container in the list.
+     * Counts are read from the `envelope_daily_counts` rollup table, which is maintained by triggers on the
+     * `envelopes` table, so the cost of the query depends on the size of the range and not on the number of
+     * envelopes stored.
+     *
+     * @param from The `from` parameter is the first day of the report (inclusive).
+     * @param to The `to` parameter is the last day of the report (inclusive).
+     * @param containersList A list of container names for which you want to generate the report.
+     * @return A list of `EnvelopeCountSummaryReportItem` objects, one for each container and each day of the range,
+     *      ordered by day. Days on which a container has not received any envelopes are reported with zero counts.
+     */
+    public List<EnvelopeCountSummaryReportItem> getReportFor(
+        LocalDate from,
+        LocalDate to,
+        List<String> containersList
+    ) {
         return jdbcTemplate.query(
-                  "SELECT A.container, (CASE WHEN G.received IS NULL THEN 0 ELSE G.received END) AS received,"
-                      + " (CASE WHEN G.rejected IS NULL THEN 0 ELSE G.rejected END) AS rejected,:date as date"
-                      + "  FROM(VALUES" + containers + ") AS A (container)"
-                      + "  LEFT JOIN"
-                      + "  (SELECT container as Container, date (created_at) AS date,"
-                      + "  count(*) as received,"
-                      + "  SUM (CASE WHEN Envelopes.status = 'REJECTED' THEN 1 ELSE 0 END) AS rejected"
-                      + "  FROM Envelopes"
-                      + "  GROUP BY container, date(created_at)"
-                      + "  HAVING date(created_at) = :date)"
-                      + "  AS G on A.container = G.container",
+            "SELECT A.container, D.day AS date, "
+                + "  COALESCE(C.received, 0) AS received, COALESCE(C.rejected, 0) AS rejected "
+                + "FROM unnest(CAST(ARRAY[:containers] AS varchar[])) AS A (container) "
+                + "CROSS JOIN generate_series(CAST(:from AS date), CAST(:to AS date), interval '1 day') AS D (day) "
+                + "LEFT JOIN envelope_daily_counts C "
+                + "  ON C.container = A.container AND C.day = CAST(D.day AS date) "
+                + "ORDER BY D.day",
             new MapSqlParameterSource()
-                .addValue("date", date),
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("containers", containersList),
             this.summaryMapper
         );
     }
+
+    /**
+     * This function checks, using the `envelope_daily_counts` rollup table, whether any envelope has been received
+     * in any of the given containers at or after the given point in time.
+     *
+     * @param containers The set of container names to check.
+     * @param from The point in time from which envelopes are looked for.
+     * @return true if at least one envelope has been received in any of the containers since `from`, false otherwise.
+     */
+    public boolean hasEnvelopesReceivedSince(Set<String> containers, Instant from) {
+        Boolean result = jdbcTemplate.queryForObject(
+            "SELECT EXISTS ("
+                + "  SELECT 1 FROM envelope_daily_counts "
+                + "  WHERE day >= CAST(:from AS date) "
+                + "    AND container IN (:containers) "
+                + "    AND received > 0 "
+                + "    AND last_received_at >= :from"
+                + ")",
+            new MapSqlParameterSource()
+                .addValue("from", Timestamp.from(from))
+                .addValue("containers", containers),
+            Boolean.class
+        );
+        return Boolean.TRUE.equals(result);
+    }
 }
@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.blobrouter.data.retries;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Retry state of a blob whose processing failed: how many times it failed, when it may be tried again and whether it
+ * has been quarantined, i.e. will not be tried again automatically. The state applies to the version of the blob with
+ * the given content version only, i.e. the ETag the blob had when it was first leased.
+ */
+public class EnvelopeRetry {
+
+    public final String container;
+    public final String fileName;
+    public final UUID envelopeId;
+    public final String eTag;
+    public final int attempts;
+    public final Instant nextAttemptAt;
+    public final boolean quarantined;
+    public final String lastError;
+
+    public EnvelopeRetry(
+        String container,
+        String fileName,
+        UUID envelopeId,
+        String eTag,
+        int attempts,
+        Instant nextAttemptAt,
+        boolean quarantined,
+        String lastError
+    ) {
+        this.container = container;
+        this.fileName = fileName;
+        this.envelopeId = envelopeId;
+        this.eTag = eTag;
+        this.attempts = attempts;
+        this.nextAttemptAt = nextAttemptAt;
+        this.quarantined = quarantined;
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.blobrouter.data.retries;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+@Component
+public class EnvelopeRetryMapper implements RowMapper<EnvelopeRetry> {
+
+    /**
+     * The `mapRow` function maps a row of the `envelope_retries` table to an `EnvelopeRetry` object.
+     *
+     * @param rs The `ResultSet` positioned at the row to map.
+     * @param rowNum The number of the current row.
+     * @return An `EnvelopeRetry` object is being returned.
+     */
+    @Override
+    public EnvelopeRetry mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new EnvelopeRetry(
+            rs.getString("container"),
+            rs.getString("file_name"),
+            UUID.fromString(rs.getString("envelope_id")),
+            rs.getString("e_tag"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("next_attempt_at").toInstant(),
+            rs.getBoolean("quarantined"),
+            rs.getString("last_error")
+        );
+    }
+}
@@ -0,0 +1,124 @@
+package uk.gov.hmcts.reform.blobrouter.data.retries;
+
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The `EnvelopeRetryRepository` class reads and writes the retry state of blobs, kept in the `envelope_retries`
+ * table.
+ */
+@Repository
+public class EnvelopeRetryRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EnvelopeRetryMapper mapper;
+
+    public EnvelopeRetryRepository(NamedParameterJdbcTemplate jdbcTemplate, EnvelopeRetryMapper mapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mapper = mapper;
+    }
+
+    /**
+     * The function finds the retry state of the given blob.
+     *
+     * @param container The name of the container the blob is in.
+     * @param fileName The name of the blob.
+     * @return The retry state, or an empty Optional if processing of the blob has not failed so far.
+     */
+    public Optional<EnvelopeRetry> find(String container, String fileName) {
+        try {
+            return Optional.of(jdbcTemplate.queryForObject(
+                "SELECT * FROM envelope_retries WHERE container = :container AND file_name = :fileName",
+                new MapSqlParameterSource()
+                    .addValue("container", container)
+                    .addValue("fileName", fileName),
+                mapper
+            ));
+        } catch (EmptyResultDataAccessException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The function inserts the retry state of a blob, or replaces the existing one.
+     *
+     * @param retry The retry state to save.
+     */
+    public void save(EnvelopeRetry retry) {
+        jdbcTemplate.update(
+            "INSERT INTO envelope_retries "
+                + "(container, file_name, envelope_id, e_tag, attempts, next_attempt_at, quarantined, last_error, "
+                + "updated_at) "
+                + "VALUES (:container, :fileName, :envelopeId, :eTag, :attempts, :nextAttemptAt, :quarantined, "
+                + ":lastError, CURRENT_TIMESTAMP) "
+                + "ON CONFLICT (container, file_name) DO UPDATE SET "
+                + "envelope_id = EXCLUDED.envelope_id, "
+                + "e_tag = EXCLUDED.e_tag, "
+                + "attempts = EXCLUDED.attempts, "
+                + "next_attempt_at = EXCLUDED.next_attempt_at, "
+                + "quarantined = EXCLUDED.quarantined, "
+                + "last_error = EXCLUDED.last_error, "
+                + "updated_at = EXCLUDED.updated_at",
+            new MapSqlParameterSource()
+                .addValue("container", retry.container)
+                .addValue("fileName", retry.fileName)
+                .addValue("envelopeId", retry.envelopeId)
+                .addValue("eTag", retry.eTag)
+                .addValue("attempts", retry.attempts)
+                .addValue("nextAttemptAt", Timestamp.from(retry.nextAttemptAt))
+                .addValue("quarantined", retry.quarantined)
+                .addValue("lastError", retry.lastError)
+        );
+    }
+
+    /**
+     * The function deletes the retry state of the given blob, e.g. once it has been processed.
+     *
+     * @param container The name of the container the blob is in.
+     * @param fileName The name of the blob.
+     * @return The number of rows deleted.
+     */
+    public int delete(String container, String fileName) {
+        return jdbcTemplate.update(
+            "DELETE FROM envelope_retries WHERE container = :container AND file_name = :fileName",
+            new MapSqlParameterSource()
+                .addValue("container", container)
+                .addValue("fileName", fileName)
+        );
+    }
+
+    /**
+     * The function deletes the retry state of the blob of the given envelope, e.g. when an operator releases it from
+     * quarantine.
+     *
+     * @param envelopeId The ID of the envelope.
+     * @return The number of rows deleted.
+     */
+    public int deleteByEnvelopeId(UUID envelopeId) {
+        return jdbcTemplate.update(
+            "DELETE FROM envelope_retries WHERE envelope_id = :envelopeId",
+            new MapSqlParameterSource("envelopeId", envelopeId)
+        );
+    }
+
+    /**
+     * The function deletes the retry state which has not been updated for the given number of days, e.g. of blobs
+     * which have been deleted from their container in the meantime. The age is measured by the clock of the database,
+     * which also sets the time of the last update.
+     *
+     * @param days The number of days.
+     * @return The number of rows deleted.
+     */
+    public int deleteNotUpdatedFor(int days) {
+        return jdbcTemplate.update(
+            "DELETE FROM envelope_retries WHERE updated_at < CURRENT_TIMESTAMP - make_interval(days => :days)",
+            new MapSqlParameterSource("days", days)
+        );
+    }
+}
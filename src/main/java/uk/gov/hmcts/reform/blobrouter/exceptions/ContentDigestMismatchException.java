@@ -0,0 +1,12 @@
+package uk.gov.hmcts.reform.blobrouter.exceptions;
+
+/**
+ * Thrown when the content read for an upload does not have the digest computed when the blob was verified, i.e. the
+ * content which would be dispatched is not the content which has been verified.
+ */
+public class ContentDigestMismatchException extends RuntimeException {
+
+    public ContentDigestMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package uk.gov.hmcts.reform.blobrouter.exceptions;
+
+public class TargetDispatchException extends RuntimeException {
+
+    public TargetDispatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.hmcts.reform.blobrouter.exceptions;
+
+/**
+ * Thrown when a request to a target storage account fails, wrapping the error of the storage client. It tells
+ * failures of the target apart from any other failure of a dispatch, e.g. reading the source blob.
+ */
+public class TargetStorageException extends RuntimeException {
+
+    public TargetStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.blobrouter.model.out;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class PagedSearchResult extends SearchResult {
+
+    // cursor of the next page, null when there are no more results
+    @JsonProperty("next_cursor")
+    public final String nextCursor;
+
+    public PagedSearchResult(List<?> data, String nextCursor) {
+        super(data);
+        this.nextCursor = nextCursor;
+    }
+}
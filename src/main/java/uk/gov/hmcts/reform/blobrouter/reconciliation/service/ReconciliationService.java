@@ -11,6 +11,7 @@ import uk.gov.hmcts.reform.blobrouter.data.reconciliation.reports.model.Reconcil
 import uk.gov.hmcts.reform.blobrouter.data.reconciliation.statements.SupplierStatementRepository;
 import uk.gov.hmcts.reform.blobrouter.data.reconciliation.statements.model.EnvelopeSupplierStatement;
 import uk.gov.hmcts.reform.blobrouter.data.reconciliation.statements.model.NewEnvelopeSupplierStatement;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReadFromReplica;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidSupplierStatementException;
 import uk.gov.hmcts.reform.blobrouter.reconciliation.model.in.SupplierStatement;
 
@@ -124,6 +125,7 @@ public class ReconciliationService {
      *             reconciliation reports are being retrieved.
      * @return A List of ReconciliationReport objects that match the given LocalDate date.
      */
+    @ReadFromReplica
     public List<ReconciliationReport> getReconciliationReports(LocalDate date) {
         return reportRepo.findByDate(date);
     }
@@ -10,6 +10,7 @@ import uk.gov.hmcts.reform.blobrouter.reconciliation.service.CftDetailedReportSe
 import java.time.LocalDate;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.REPORTING_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 /**
@@ -33,7 +34,11 @@ public class DetailedReportTask {
      * This Java function runs a scheduled task to create a reconciliation detailed report using a specified cron
      * expression and time zone.
      */
-    @Scheduled(cron = "${scheduling.task.create-reconciliation-detailed-report.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.create-reconciliation-detailed-report.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = REPORTING_SCHEDULER
+    )
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.info("Started {} job", TASK_NAME);
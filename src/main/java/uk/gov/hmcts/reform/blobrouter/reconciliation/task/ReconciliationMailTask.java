@@ -13,6 +13,7 @@ import java.util.List;
 
 import static java.time.ZoneOffset.UTC;
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.REPORTING_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CFT;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CRIME;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.PCQ;
@@ -42,7 +43,11 @@ public class ReconciliationMailTask {
      * This Java function runs a scheduled task to send a reconciliation
      * report mail and logs the start and end of the job.
      */
-    @Scheduled(cron = "${scheduling.task.send-reconciliation-report-mail.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.send-reconciliation-report-mail.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = REPORTING_SCHEDULER
+    )
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.info("Started {} job", TASK_NAME);
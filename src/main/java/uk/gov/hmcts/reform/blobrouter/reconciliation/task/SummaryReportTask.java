@@ -11,6 +11,7 @@ import java.time.LocalDate;
 
 import static java.time.ZoneOffset.UTC;
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.REPORTING_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 /**
@@ -33,7 +34,11 @@ public class SummaryReportTask {
      * This Java function runs a scheduled task to create a reconciliation summary report and
      * logs the start and finish of the job.
      */
-    @Scheduled(cron = "${scheduling.task.create-reconciliation-summary-report.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.create-reconciliation-summary-report.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = REPORTING_SCHEDULER
+    )
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.info("Started {} job", TASK_NAME);
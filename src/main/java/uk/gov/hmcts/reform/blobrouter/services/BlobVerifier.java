@@ -18,8 +18,8 @@ import java.util.zip.ZipInputStream;
 import static com.google.common.io.Resources.getResource;
 import static com.google.common.io.Resources.toByteArray;
 import static org.slf4j.LoggerFactory.getLogger;
-import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult.OK_VERIFICATION_RESULT;
 import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult.getError;
+import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult.getOk;
 
 /**
  * The `BlobVerifier` class in Java is responsible for verifying zip files using a public key and returning appropriate
@@ -59,15 +59,16 @@ public class BlobVerifier {
      *                  stream is used to read the contents of the ZIP file during the verification process.
      * @return The method `verifyZip` returns a `VerificationResult` object. Depending on the outcome of
      *      the verification process, it will return one of the following results:
-     *      - `OK_VERIFICATION_RESULT` if the zip file is successfully verified.
+     *      - a successful result with the SHA-256 digest of the inner envelope if the zip file is successfully
+     *      verified.
      *      - `INVALID_SIGNATURE_VERIFICATION_RESULT` if the signature of the zip file is invalid.
      *      - `INVALID_ZIP_ARCHIVE_VERIFICATION_RESULT` if the zip archive is invalid or an error occurs.
      */
     public VerificationResult verifyZip(String blobName, InputStream zipSource) {
         try (var zis = new ZipInputStream(zipSource)) {
 
-            ZipVerifiers.verifyZip(zis, publicKey);
-            return OK_VERIFICATION_RESULT;
+            String contentSha256 = ZipVerifiers.verifyZip(zis, publicKey);
+            return getOk(contentSha256);
         } catch (DocSignatureFailureException ex) {
             logger.info("Invalid signature. Blob name: {}", blobName, ex);
             return INVALID_SIGNATURE_VERIFICATION_RESULT;
@@ -88,13 +89,23 @@ public class BlobVerifier {
         public final boolean isOk;
         public final ErrorCode error;
         public final String errorDescription;
+        public final String contentSha256; // digest of the inner envelope, null when not known
 
-        public static final VerificationResult OK_VERIFICATION_RESULT = new VerificationResult(true, null, null);
-
-        private VerificationResult(boolean isOk, ErrorCode error, String errorDescription) {
+        private VerificationResult(boolean isOk, ErrorCode error, String errorDescription, String contentSha256) {
             this.isOk = isOk;
             this.error = error;
             this.errorDescription = errorDescription;
+            this.contentSha256 = contentSha256;
+        }
+
+        /**
+         * The function `getOk` creates a successful `VerificationResult` of the content with the given digest.
+         *
+         * @param contentSha256 The hex encoded SHA-256 digest of the inner envelope of the verified zip.
+         * @return An instance of the `VerificationResult` class describing successful verification.
+         */
+        public static VerificationResult getOk(String contentSha256) {
+            return new VerificationResult(true, null, null, contentSha256);
         }
 
         /**
@@ -109,7 +120,7 @@ public class BlobVerifier {
          * @return An instance of the `VerificationResult` class with the parameters `false`, `error`, and `reason`.
          */
         static VerificationResult getError(ErrorCode error, String reason) {
-            return new VerificationResult(false, error, reason);
+            return new VerificationResult(false, error, reason, null);
         }
     }
 }
@@ -0,0 +1,10 @@
+package uk.gov.hmcts.reform.blobrouter.services;
+
+/**
+ * What to do with an envelope whose content is identical to the content of an envelope dispatched before.
+ */
+public enum ContentDuplicatePolicy {
+    REJECT, // reject the envelope like any other invalid envelope, with its own error code ERR_DUPLICATE_CONTENT
+    SKIP, // mark the envelope as dispatched without uploading it
+    DISPATCH // dispatch the envelope as usual
+}
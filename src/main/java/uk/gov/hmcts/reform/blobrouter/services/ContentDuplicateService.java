@@ -0,0 +1,91 @@
+package uk.gov.hmcts.reform.blobrouter.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprint;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprintRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `ContentDuplicateService` class finds envelopes whose content is identical to the content of an envelope
+ * dispatched before, e.g. the same scans resent by a supplier under a new file name.
+ *
+ * <p>Content is identified by the SHA-256 digest of the inner envelope, computed during signature verification.
+ * Digests of dispatched envelopes are kept in the `envelope_fingerprints` table (see
+ * {@link EnvelopeService#markAsDispatched(UUID, String)}), so finding a duplicate takes a single primary key lookup.
+ * What happens to a duplicate is decided by the configured {@link ContentDuplicatePolicy}.</p>
+ */
+@Service
+public class ContentDuplicateService {
+
+    private static final Logger logger = getLogger(ContentDuplicateService.class);
+
+    private final EnvelopeFingerprintRepository fingerprintRepository;
+    private final ContentDuplicatePolicy policy;
+    private final Counter duplicatesCounter;
+
+    public ContentDuplicateService(
+        EnvelopeFingerprintRepository fingerprintRepository,
+        MeterRegistry meterRegistry,
+        @Value("${content-duplicates.policy:DISPATCH}") ContentDuplicatePolicy policy
+    ) {
+        this.fingerprintRepository = fingerprintRepository;
+        this.policy = policy;
+        this.duplicatesCounter = Counter
+            .builder("envelope.duplicate.content")
+            .description("Envelopes with the same content as an envelope dispatched before")
+            .tag("policy", policy.name())
+            .register(meterRegistry);
+    }
+
+    /**
+     * The `findOriginal` method finds the envelope which was dispatched before with the same content.
+     *
+     * @param envelopeId The ID of the envelope being processed. Its own fingerprint, left by an earlier attempt, does
+     *                   not make it a duplicate.
+     * @param container The container of the envelope being processed, for logging.
+     * @param fileName The file name of the envelope being processed, for logging.
+     * @param contentSha256 The hex encoded SHA-256 digest of the inner envelope.
+     * @return The fingerprint of the original envelope, or an empty Optional if the content has not been seen before.
+     */
+    @Transactional(readOnly = true)
+    public Optional<EnvelopeFingerprint> findOriginal(
+        UUID envelopeId,
+        String container,
+        String fileName,
+        String contentSha256
+    ) {
+        Optional<EnvelopeFingerprint> original = fingerprintRepository
+            .find(contentSha256)
+            .filter(fingerprint -> !fingerprint.envelopeId.equals(envelopeId));
+
+        original.ifPresent(fingerprint -> {
+            duplicatesCounter.increment();
+            logger.warn(
+                "Envelope has the same content as an envelope dispatched before. "
+                    + "File name: {}, Container: {}, Envelope ID: {}. "
+                    + "Original file name: {}, Container: {}, Envelope ID: {}. Policy: {}",
+                fileName,
+                container,
+                envelopeId,
+                fingerprint.fileName,
+                fingerprint.container,
+                fingerprint.envelopeId,
+                policy
+            );
+        });
+        return original;
+    }
+
+    public ContentDuplicatePolicy getPolicy() {
+        return policy;
+    }
+}
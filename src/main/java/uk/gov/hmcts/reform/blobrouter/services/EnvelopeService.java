@@ -4,9 +4,15 @@ import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatch;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatchRepository;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeCursor;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
@@ -15,9 +21,16 @@ import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEventRepository;
 import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
 import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
 import uk.gov.hmcts.reform.blobrouter.data.events.NewEnvelopeEvent;
+import uk.gov.hmcts.reform.blobrouter.data.export.EnvelopeExportRepository;
+import uk.gov.hmcts.reform.blobrouter.data.export.ExportFormat;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprint;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprintRepository;
+import uk.gov.hmcts.reform.blobrouter.data.outbox.NotificationOutboxRepository;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReadFromReplica;
 import uk.gov.hmcts.reform.blobrouter.exceptions.EnvelopeNotFoundException;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidRequestParametersException;
 
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
@@ -39,13 +52,28 @@ public class EnvelopeService {
 
     private final EnvelopeRepository envelopeRepository;
     private final EnvelopeEventRepository eventRepository;
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final EnvelopeExportRepository envelopeExportRepository;
+    private final EnvelopeFingerprintRepository fingerprintRepository;
+    private final EnvelopeDispatchRepository dispatchRepository;
+    private final Map<String, StorageConfigItem> storageConfig;
 
     public EnvelopeService(
         EnvelopeRepository envelopeRepository,
-        EnvelopeEventRepository eventRepository
+        EnvelopeEventRepository eventRepository,
+        NotificationOutboxRepository notificationOutboxRepository,
+        EnvelopeExportRepository envelopeExportRepository,
+        EnvelopeFingerprintRepository fingerprintRepository,
+        EnvelopeDispatchRepository dispatchRepository,
+        ServiceConfiguration serviceConfiguration
     ) {
         this.envelopeRepository = envelopeRepository;
         this.eventRepository = eventRepository;
+        this.notificationOutboxRepository = notificationOutboxRepository;
+        this.envelopeExportRepository = envelopeExportRepository;
+        this.fingerprintRepository = fingerprintRepository;
+        this.dispatchRepository = dispatchRepository;
+        this.storageConfig = serviceConfiguration.getStorageConfig();
     }
 
     /**
@@ -127,7 +155,8 @@ public class EnvelopeService {
 
     /**
      * This function retrieves a list of envelopes with a status of DISPATCHED that are ready to
-     * be deleted for a specific container.
+     * be deleted for a specific container. Envelopes which have not reached all mirrors of the container yet are left
+     * out, as their blob is still needed to retry the mirrors.
      *
      * @param containerName The `containerName` parameter is a String that represents the name of
      *                      the container for which you want to retrieve the list of ready-to-delete
@@ -136,7 +165,44 @@ public class EnvelopeService {
      */
     @Transactional(readOnly = true)
     public List<Envelope> getReadyToDeleteDispatches(String containerName) {
-        return envelopeRepository.find(Status.DISPATCHED, containerName, false);
+        List<Envelope> envelopes = envelopeRepository.find(Status.DISPATCHED, containerName, false);
+        StorageConfigItem containerConfig = storageConfig.get(containerName);
+        if (containerConfig == null || containerConfig.getMirrors().isEmpty()) {
+            return envelopes;
+        }
+        return envelopes
+            .stream()
+            .filter(envelope -> !isAwaitingMirrors(envelope, containerConfig))
+            .collect(toList());
+    }
+
+    /**
+     * The `isAwaitingMirrors` method checks whether a dispatched envelope has reached its primary target but not yet
+     * all mirrors of its container. Such an envelope is complete, but its blob is kept and processed again until the
+     * remaining mirrors have it too. Envelopes without any recorded dispatch, e.g. skipped duplicates or envelopes
+     * dispatched before the container had mirrors, are not awaiting mirrors.
+     *
+     * @param envelope The envelope to check.
+     * @return true if the envelope is dispatched, its blob is not deleted yet and some mirrors have not received it.
+     */
+    @Transactional(readOnly = true)
+    public boolean isAwaitingMirrors(Envelope envelope) {
+        StorageConfigItem containerConfig = storageConfig.get(envelope.container);
+        return containerConfig != null
+            && !containerConfig.getMirrors().isEmpty()
+            && isAwaitingMirrors(envelope, containerConfig);
+    }
+
+    private boolean isAwaitingMirrors(Envelope envelope, StorageConfigItem containerConfig) {
+        if (envelope.status != Status.DISPATCHED || envelope.isDeleted) {
+            return false;
+        }
+        List<TargetConfigItem> dispatchedTo = dispatchRepository
+            .find(envelope.id)
+            .stream()
+            .map(dispatch -> new TargetConfigItem(dispatch.targetStorageAccount, dispatch.targetContainer))
+            .collect(toList());
+        return !dispatchedTo.isEmpty() && !dispatchedTo.containsAll(containerConfig.getTargets());
     }
 
     /**
@@ -148,12 +214,33 @@ public class EnvelopeService {
      */
     @Transactional
     public void markAsDispatched(UUID id) {
+        markAsDispatched(id, null);
+    }
+
+    /**
+     * The `markAsDispatched` method marks the envelope as dispatched like {@link #markAsDispatched(UUID)} and stores
+     * the digest of the dispatched content, so that the content committed on the target can be checked against it
+     * without downloading it again. The digest is also recorded as the fingerprint of the content, unless an earlier
+     * envelope had the same content, to detect envelopes resent under another file name.
+     *
+     * @param id The ID of the envelope.
+     * @param contentSha256 The hex encoded SHA-256 digest of the dispatched content, computed while uploading.
+     *                      Nothing is stored when it is `null`.
+     */
+    @Transactional
+    public void markAsDispatched(UUID id, String contentSha256) {
         envelopeRepository
             .find(id)
             .ifPresentOrElse(
                 env -> {
                     envelopeRepository.updateStatus(id, Status.DISPATCHED);
                     envelopeRepository.updateDispatchDateTime(id, now());
+                    if (contentSha256 != null) {
+                        envelopeRepository.updateContentSha256(id, contentSha256);
+                        fingerprintRepository.insert(
+                            new EnvelopeFingerprint(contentSha256, id, env.container, env.fileName, now())
+                        );
+                    }
                     eventRepository.insert(new NewEnvelopeEvent(id, EventType.DISPATCHED, null, null));
                 },
                 () -> {
@@ -162,9 +249,46 @@ public class EnvelopeService {
             );
     }
 
+    /**
+     * The `getDispatches` method returns the targets the envelope has already been dispatched to. Dispatches are
+     * only recorded per target for containers with more than one target, see
+     * {@link #markAsDispatchedTo(UUID, TargetStorageAccount, String, String)}.
+     *
+     * @param id The ID of the envelope.
+     * @return The dispatches of the envelope, empty if it has not been dispatched to any target yet.
+     */
+    @Transactional(readOnly = true)
+    public List<EnvelopeDispatch> getDispatches(UUID id) {
+        return dispatchRepository.find(id);
+    }
+
+    /**
+     * The `markAsDispatchedTo` method records that the envelope has been dispatched to one of the targets of its
+     * container. The envelope itself is marked as dispatched with {@link #markAsDispatched(UUID, String)} once it has
+     * reached the primary target, mirrors it has not reached yet are retried on their own, see
+     * {@link #isAwaitingMirrors(Envelope)}.
+     *
+     * @param id The ID of the envelope.
+     * @param targetStorageAccount The storage account of the target.
+     * @param targetContainer The container of the target.
+     * @param contentSha256 The hex encoded SHA-256 digest of the content committed on the target.
+     */
+    @Transactional
+    public void markAsDispatchedTo(
+        UUID id,
+        TargetStorageAccount targetStorageAccount,
+        String targetContainer,
+        String contentSha256
+    ) {
+        dispatchRepository.insert(
+            new EnvelopeDispatch(id, targetStorageAccount, targetContainer, contentSha256, now())
+        );
+    }
+
     /**
      * The `markAsRejected` method marks an envelope as rejected, updates its status,
-     * sets pending notification, and logs a rejection event.
+     * sets pending notification, logs a rejection event and writes the notification to the outbox
+     * within the same transaction.
      *
      * @param id The `id` parameter is a unique identifier (UUID) for the envelope that needs to be
      *           marked as rejected.
@@ -185,6 +309,7 @@ public class EnvelopeService {
                     envelopeRepository.updateStatus(id, Status.REJECTED);
                     envelopeRepository.updatePendingNotification(id, true); // notification pending
                     eventRepository.insert(new NewEnvelopeEvent(id, EventType.REJECTED, errorCode, reason));
+                    notificationOutboxRepository.insert(id, errorCode, reason);
                 },
                 () -> {
                     throw new EnvelopeNotFoundException("Envelope with ID: " + id + " not found");
@@ -202,9 +327,30 @@ public class EnvelopeService {
     @Transactional
     public void markPendingNotificationAsSent(UUID id) {
         envelopeRepository.updatePendingNotification(id, false);
+        notificationOutboxRepository.markAsSent(List.of(id));
         eventRepository.insert(new NewEnvelopeEvent(id, EventType.NOTIFICATION_SENT, null, null));
     }
 
+    /**
+     * The function marks pending notifications of multiple envelopes as sent using a single batched update of the
+     * envelope repository and a single batched insert of events into the event repository.
+     *
+     * @param ids The `ids` parameter is a list of unique identifiers (UUID) of envelopes whose notifications
+     *            have been sent.
+     */
+    @Transactional
+    public void markPendingNotificationsAsSent(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        envelopeRepository.updatePendingNotification(ids, false);
+        notificationOutboxRepository.markAsSent(ids);
+        eventRepository.insertAll(
+            ids.stream().map(id -> new NewEnvelopeEvent(id, EventType.NOTIFICATION_SENT, null, null)).collect(toList())
+        );
+    }
+
     /**
      * This function marks an envelope as deleted in the database and inserts a new event related to the deletion.
      *
@@ -250,7 +396,9 @@ public class EnvelopeService {
     }
 
     /**
-     * The function `getEnvelopes` retrieves envelopes and their associated events based on specified parameters.
+     * The function `getEnvelopes` retrieves a page of envelopes and their associated events based on specified
+     * parameters. Events are looked up for the envelopes on the page only, so the size of both queries is bounded
+     * by the page size.
      *
      * @param blobName The `blobName` parameter in the `getEnvelopes` method represents the name of the blob
      *                 associated with the envelopes you are trying to retrieve. It is used as a filter
@@ -262,41 +410,57 @@ public class EnvelopeService {
      * @param date The `date` parameter in the `getEnvelopes` method is used to filter envelopes based
      *             on a specific date. If a date is provided, only envelopes that match the given date
      *             will be retrieved.
-     * @return A list of Tuple2 objects, where each Tuple2 contains an Envelope object and a list of
-     *      EnvelopeEvent objects associated with that Envelope.
+     * @param after The cursor returned with the previous page, or null to retrieve the first page.
+     * @param limit The maximum number of envelopes on the page.
+     * @return The page of envelopes, each paired with its events, and the cursor of the next page
+     *      (null when there are no more envelopes).
      */
-    @Transactional(readOnly = true)
-    public List<Tuple2<Envelope, List<EnvelopeEvent>>> getEnvelopes(
+    @ReadFromReplica
+    public EnvelopesPage getEnvelopes(
         String blobName,
         String containerName,
-        LocalDate date
+        LocalDate date,
+        EnvelopeCursor after,
+        int limit
     ) {
         if (StringUtils.isEmpty(blobName) && date == null) {
             throw new InvalidRequestParametersException("'file_name' or 'date' must not be null or empty");
         }
 
+        // one extra row tells whether there is a next page
         List<Envelope> envelopes = envelopeRepository
-            .findEnvelopes(blobName, containerName, date);
+            .findEnvelopes(blobName, containerName, date, after, limit + 1);
 
         if (envelopes.isEmpty()) {
-            return emptyList();
-        } else {
-            List<UUID> envelopeIds = envelopes.stream().map(e -> e.id).collect(toList());
+            return new EnvelopesPage(emptyList(), null);
+        }
+
+        EnvelopeCursor nextCursor = null;
+        if (envelopes.size() > limit) {
+            envelopes = envelopes.subList(0, limit);
+            nextCursor = EnvelopeCursor.after(envelopes.get(limit - 1));
+        }
 
-            List<EnvelopeEvent> envelopeEvents = eventRepository.findForEnvelopes(envelopeIds);
+        List<UUID> envelopeIds = envelopes.stream().map(e -> e.id).collect(toList());
 
-            Map<UUID, List<EnvelopeEvent>> eventsByEnvelopeIds = envelopeEvents
-                .stream()
-                .collect(groupingBy(envelopeEvent -> envelopeEvent.envelopeId));
+        Instant oldestCreatedAt = envelopes.stream().map(e -> e.createdAt).min(Instant::compareTo).get();
+
+        List<EnvelopeEvent> envelopeEvents = eventRepository.findForEnvelopes(envelopeIds, oldestCreatedAt);
+
+        Map<UUID, List<EnvelopeEvent>> eventsByEnvelopeIds = envelopeEvents
+            .stream()
+            .collect(groupingBy(envelopeEvent -> envelopeEvent.envelopeId));
 
-            return envelopes
+        return new EnvelopesPage(
+            envelopes
                 .stream()
                 .map(envelope -> Tuples.of(
                     envelope,
                     getEnvelopeEvents(eventsByEnvelopeIds, envelope)
                 ))
-                .collect(toList());
-        }
+                .collect(toList()),
+            nextCursor
+        );
     }
 
     /**
@@ -308,12 +472,35 @@ public class EnvelopeService {
      *             based on this date.
      * @return A list of Envelope objects is being returned.
      */
-    @Transactional(readOnly = true)
+    @ReadFromReplica
     public List<Envelope> getEnvelopes(LocalDate date) {
         var envelopes = envelopeRepository.findEnvelopes(null, null, date);
         return envelopes.isEmpty() ? emptyList() : ImmutableList.copyOf(envelopes);
     }
 
+    /**
+     * The `exportEnvelopes` function streams envelopes created within a date range to the given output stream
+     * without loading them into memory.
+     *
+     * @param from The first day of the export (inclusive).
+     * @param to The last day of the export (inclusive).
+     * @param containers The containers to export envelopes from. All containers are exported when the list is empty.
+     * @param format The format in which the envelopes are written, either CSV with a header row or
+     *               newline-delimited JSON.
+     * @param out The output stream the envelopes are written to.
+     * @return The number of exported envelopes.
+     */
+    @ReadFromReplica
+    public long exportEnvelopes(
+        LocalDate from,
+        LocalDate to,
+        List<String> containers,
+        ExportFormat format,
+        OutputStream out
+    ) {
+        return envelopeExportRepository.copyEnvelopes(from, to, containers, format, out);
+    }
+
     /**
      * This function retrieves a list of Envelope objects by a given DCN prefix within a specified date range.
      *
@@ -328,7 +515,7 @@ public class EnvelopeService {
      * @return A list of Envelope objects that match the given DCN prefix and fall within the specified
      *      date range is being returned. If no envelopes are found, an empty list is returned.
      */
-    @Transactional(readOnly = true)
+    @ReadFromReplica
     public List<Envelope> getEnvelopesByDcnPrefix(String dcnPrefix, LocalDate fromDate, LocalDate toDate) {
         var envelopes = envelopeRepository.findEnvelopesByDcnPrefix(dcnPrefix, fromDate, toDate);
         return envelopes.isEmpty() ? emptyList() : ImmutableList.copyOf(envelopes);
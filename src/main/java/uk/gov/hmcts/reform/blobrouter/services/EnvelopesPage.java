@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.blobrouter.services;
+
+import reactor.util.function.Tuple2;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeCursor;
+import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEvent;
+
+import java.util.List;
+
+/**
+ * The `EnvelopesPage` class holds a single page of envelope search results, together with their events,
+ * and the cursor from which the next page starts.
+ */
+public class EnvelopesPage {
+
+    public final List<Tuple2<Envelope, List<EnvelopeEvent>>> envelopes;
+
+    // null when this is the last page
+    public final EnvelopeCursor nextCursor;
+
+    public EnvelopesPage(List<Tuple2<Envelope, List<EnvelopeEvent>>> envelopes, EnvelopeCursor nextCursor) {
+        this.envelopes = envelopes;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
 import uk.gov.hmcts.reform.blobrouter.model.out.IncompleteEnvelopeInfo;
+import uk.gov.hmcts.reform.blobrouter.services.purge.StaleEnvelopePurger;
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
@@ -26,10 +27,15 @@ public class IncompleteEnvelopesService {
     private static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
     private final EnvelopeRepository envelopeRepository;
+    private final StaleEnvelopePurger staleEnvelopePurger;
     private static final Logger log = LoggerFactory.getLogger(IncompleteEnvelopesService.class);
 
-    public IncompleteEnvelopesService(EnvelopeRepository envelopeRepository) {
+    public IncompleteEnvelopesService(
+        EnvelopeRepository envelopeRepository,
+        StaleEnvelopePurger staleEnvelopePurger
+    ) {
         this.envelopeRepository = envelopeRepository;
+        this.staleEnvelopePurger = staleEnvelopePurger;
     }
 
     /**
@@ -89,6 +95,21 @@ public class IncompleteEnvelopesService {
         }
     }
 
+    /**
+     * This Java function deletes all incomplete envelopes older than the specified stale time. Envelopes are not
+     * loaded upfront but purged in bounded chunks, so that purging a large backlog does not lock the envelopes
+     * and their events for the whole duration of the purge.
+     *
+     * @param staleTimeHr The `staleTimeHr` parameter represents the time threshold in hours before which
+     *                    incomplete envelopes are considered stale and should be deleted.
+     * @return The ids of the deleted envelopes.
+     */
+    public List<UUID> deleteAllIncompleteEnvelopes(int staleTimeHr) {
+        List<UUID> deleted = staleEnvelopePurger.purgeIncompleteEnvelopesBefore(now().minusHours(staleTimeHr));
+        log.info("{} stale envelopes have been deleted", deleted.size());
+        return deleted;
+    }
+
     /**
      * The function `toLocalTimeZone` converts an `Instant` to a string representation in the Europe/London time zone.
      *
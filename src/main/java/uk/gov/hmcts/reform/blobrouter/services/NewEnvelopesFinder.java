@@ -7,7 +7,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
-import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+import uk.gov.hmcts.reform.blobrouter.data.reports.ReportRepository;
 
 import java.time.Clock;
 import java.time.DayOfWeek;
@@ -31,7 +31,7 @@ public class NewEnvelopesFinder {
 
     private static final Logger logger = getLogger(NewEnvelopesFinder.class);
 
-    private final EnvelopeRepository envelopeRepository;
+    private final ReportRepository reportRepository;
 
     private final ServiceConfiguration serviceConfig;
 
@@ -46,13 +46,13 @@ public class NewEnvelopesFinder {
     private static final List<DayOfWeek> WEEKEND = Arrays.asList(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
 
     public NewEnvelopesFinder(
-        EnvelopeRepository envelopeRepository,
+        ReportRepository reportRepository,
         ServiceConfiguration serviceConfig,
         @Value("${scheduling.task.check-new-envelopes.time-interval}") Duration timeInterval,
         ClockProvider clockProvider
     ) {
         Validate.isTrue(timeInterval != null, "Time interval is required");
-        this.envelopeRepository = envelopeRepository;
+        this.reportRepository = reportRepository;
         this.serviceConfig = serviceConfig;
         this.timeInterval = timeInterval;
         this.clock = clockProvider.getClock();
@@ -90,8 +90,9 @@ public class NewEnvelopesFinder {
     }
 
     /**
-     * The function checks for new envelopes in containers within a specified time
-     * interval and logs a message if none are found.
+     * The function checks for new envelopes received in containers within a specified time
+     * interval and logs a message if none are found. The check reads the daily envelope counts rollup
+     * instead of counting rows of the envelopes table.
      *
      * @param containers A set of container IDs where you want to check for new envelopes.
      * @param containersGroupName containersGroupName is a String that represents the name of a group of containers.
@@ -100,9 +101,7 @@ public class NewEnvelopesFinder {
         Instant toDateTime = Instant.now();
         Instant fromDateTime = toDateTime.minus(timeInterval);
 
-        Integer envelopesCount = envelopeRepository.getEnvelopesCount(containers, fromDateTime, toDateTime);
-
-        if (envelopesCount == 0) {
+        if (!reportRepository.hasEnvelopesReceivedSince(containers, fromDateTime)) {
             logger.info(
                 "No Envelopes created in {} between {} and {}", containersGroupName, fromDateTime, toDateTime
             );
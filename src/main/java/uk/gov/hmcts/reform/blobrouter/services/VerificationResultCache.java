@@ -0,0 +1,74 @@
+package uk.gov.hmcts.reform.blobrouter.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult;
+import uk.gov.hmcts.reform.blobrouter.services.storage.BlobMetaDataHandler;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The `VerificationResultCache` class remembers which blobs have passed signature verification, so that a retry of a
+ * blob whose dispatch failed does not have to download and verify it again.
+ *
+ * <p>Entries are keyed by container, blob name and content version, which unlike the ETag is kept when the blob is
+ * leased and released, see {@link BlobMetaDataHandler#getContentVersion}. A blob which has been re-uploaded gets a
+ * new content version and is therefore verified again. Only successful verifications are cached, a blob failing verification is rejected anyway.
+ * The cached result keeps the digest of the verified content.
+ * The cache is kept in memory of each instance, its hit rate is published as the `verification.cache` cache
+ * metrics.</p>
+ */
+@Component
+public class VerificationResultCache {
+
+    private final Cache<VerifiedBlob, VerificationResult> verifiedBlobs;
+
+    public VerificationResultCache(
+        MeterRegistry meterRegistry,
+        @Value("${verification-cache.max-size:10000}") long maxSize,
+        @Value("${verification-cache.ttl-hours:24}") long ttlHours
+    ) {
+        this.verifiedBlobs = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofHours(ttlHours))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedBlobs, "verification.cache");
+    }
+
+    /**
+     * Finds the result of successful verification of the given version of the blob.
+     *
+     * @param container The name of the container the blob is in.
+     * @param blobName The name of the blob.
+     * @param version The content version of the blob. A blob without one is never considered verified.
+     * @return The result if that version of the blob has been verified successfully before, empty otherwise.
+     */
+    public Optional<VerificationResult> findVerified(String container, String blobName, String version) {
+        return version == null
+            ? Optional.empty()
+            : Optional.ofNullable(verifiedBlobs.getIfPresent(new VerifiedBlob(container, blobName, version)));
+    }
+
+    /**
+     * Records the result of verification of the given version of the blob, if the blob passed verification.
+     *
+     * @param container The name of the container the blob is in.
+     * @param blobName The name of the blob.
+     * @param version The content version of the verified blob. Nothing is recorded if it is not known.
+     * @param result The result of the verification.
+     */
+    public void markVerified(String container, String blobName, String version, VerificationResult result) {
+        if (version != null && result.isOk) {
+            verifiedBlobs.put(new VerifiedBlob(container, blobName, version), result);
+        }
+    }
+
+    private record VerifiedBlob(String container, String blobName, String version) {
+    }
+}
@@ -0,0 +1,166 @@
+package uk.gov.hmcts.reform.blobrouter.services.outbox;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+
+import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.NOTIFICATION_SCHEDULER;
+
+/**
+ * The `NotificationOutboxListener` class keeps a dedicated database connection subscribed to the
+ * `notification_outbox` Postgres channel and publishes a `NotificationsPendingEvent` whenever new rows
+ * are written to the outbox, so that rejection notifications are sent straight away instead of waiting
+ * for the next scheduled run of the send notifications task.
+ *
+ * <p>The connection is opened with the `spring.datasource` settings outside of the connection pool, as it is held
+ * for as long as the application runs. The event is published on the notification scheduler, so that sending the
+ * notifications never holds up listening. Notifications received while the event is waiting to be published are
+ * covered by that event.</p>
+ */
+@Component
+@ConditionalOnProperty(
+    value = {"scheduling.task.send-notifications.enabled", "scheduling.task.send-notifications.listener.enabled"}
+)
+public class NotificationOutboxListener {
+
+    private static final Logger logger = getLogger(NotificationOutboxListener.class);
+
+    static final String CHANNEL = "notification_outbox";
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskExecutor notificationExecutor;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+    private final AtomicBoolean eventScheduled = new AtomicBoolean();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public NotificationOutboxListener(
+        DataSourceProperties dataSourceProperties,
+        ApplicationEventPublisher eventPublisher,
+        @Qualifier(NOTIFICATION_SCHEDULER) TaskExecutor notificationExecutor,
+        @Value("${scheduling.task.send-notifications.listener.poll-timeout:PT10S}") Duration pollTimeout,
+        @Value("${scheduling.task.send-notifications.listener.reconnect-delay:PT30S}") Duration reconnectDelay
+    ) {
+        this.dataSource = dataSourceProperties
+            .initializeDataSourceBuilder()
+            .type(SimpleDriverDataSource.class)
+            .build();
+        this.eventPublisher = eventPublisher;
+        this.notificationExecutor = notificationExecutor;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    /**
+     * The function starts the listener thread once the application is ready, i.e. after
+     * database migrations have been applied.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "notification-outbox-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    /**
+     * The function stops the listener thread and releases its database connection.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * The function subscribes to the outbox channel and waits for notifications until the listener is stopped.
+     * The connection is re-established after any failure. Pending notifications are signalled right after
+     * every (re)connection as rows may have been written while no connection was listening.
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                logger.info("Listening for notifications on {} channel", CHANNEL);
+                schedulePendingNotificationsEvent();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        logger.debug("Received {} notifications on {} channel", notifications.length, CHANNEL);
+                        schedulePendingNotificationsEvent();
+                    }
+                }
+            } catch (SQLException exc) {
+                if (running) {
+                    logger.error("Error listening on {} channel, reconnecting in {}", CHANNEL, reconnectDelay, exc);
+                    sleep(reconnectDelay);
+                }
+            } catch (RuntimeException exc) {
+                // e.g. the notification scheduler rejecting the event, which must not stop the listener
+                logger.error("Error handling notifications from {} channel", CHANNEL, exc);
+                sleep(reconnectDelay);
+            }
+        }
+    }
+
+    /**
+     * The function hands the publishing of a `NotificationsPendingEvent` over to the notification scheduler, unless
+     * an event is already waiting to be published. The flag is cleared before the event is published, so that
+     * notifications received while the previous ones are being sent lead to another event.
+     */
+    private void schedulePendingNotificationsEvent() {
+        if (eventScheduled.compareAndSet(false, true)) {
+            try {
+                notificationExecutor.execute(() -> {
+                    eventScheduled.set(false);
+                    eventPublisher.publishEvent(new NotificationsPendingEvent());
+                });
+            } catch (RuntimeException exc) {
+                eventScheduled.set(false);
+                throw exc;
+            }
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
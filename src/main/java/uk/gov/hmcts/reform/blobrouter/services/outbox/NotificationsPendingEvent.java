@@ -0,0 +1,8 @@
+package uk.gov.hmcts.reform.blobrouter.services.outbox;
+
+/**
+ * Application event published when new rows have been written to the notification outbox
+ * and pending notifications should be sent.
+ */
+public class NotificationsPendingEvent {
+}
@@ -0,0 +1,94 @@
+package uk.gov.hmcts.reform.blobrouter.services.partitions;
+
+import jakarta.validation.ClockProvider;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.blobrouter.data.partitions.MonthlyPartition;
+import uk.gov.hmcts.reform.blobrouter.data.partitions.PartitionRepository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `PartitionMaintenanceService` class keeps the monthly partitions of the `envelopes` and `envelope_events`
+ * tables in shape: it creates partitions for the upcoming months ahead of time and, when a retention period is
+ * configured, drops whole partitions once they are older than that period.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = getLogger(PartitionMaintenanceService.class);
+
+    static final String ENVELOPES_TABLE = "envelopes";
+    static final String ENVELOPE_EVENTS_TABLE = "envelope_events";
+
+    // events are dropped first, so that no event outlives its envelope
+    private static final List<String> TABLES = List.of(ENVELOPE_EVENTS_TABLE, ENVELOPES_TABLE);
+
+    private final PartitionRepository partitionRepository;
+    private final ClockProvider clockProvider;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public PartitionMaintenanceService(
+        PartitionRepository partitionRepository,
+        ClockProvider clockProvider,
+        @Value("${scheduling.task.partition-maintenance.months-ahead:3}") int monthsAhead,
+        @Value("${scheduling.task.partition-maintenance.retention-months:0}") int retentionMonths
+    ) {
+        this.partitionRepository = partitionRepository;
+        this.clockProvider = clockProvider;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * The function makes sure partitions exist for the current month and the configured number of months ahead.
+     */
+    public void createUpcomingPartitions() {
+        YearMonth currentMonth = YearMonth.now(clockProvider.getClock());
+
+        for (String table : TABLES) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                partitionRepository.createMonthlyPartition(table, currentMonth.plusMonths(i));
+            }
+        }
+    }
+
+    /**
+     * The function drops the partitions holding data older than the retention period, together with the
+     * lookups, outbox notifications, fingerprints and target dispatches of the envelopes removed with them.
+     * Nothing is dropped when the retention period is set to 0.
+     *
+     * @return The number of dropped partitions.
+     */
+    public int dropExpiredPartitions() {
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+
+        YearMonth oldestRetainedMonth = YearMonth.now(clockProvider.getClock()).minusMonths(retentionMonths);
+
+        int dropped = 0;
+        for (String table : TABLES) {
+            for (MonthlyPartition partition : partitionRepository.findMonthlyPartitions(table)) {
+                if (partition.month.isBefore(oldestRetainedMonth)) {
+                    partitionRepository.dropMonthlyPartition(table, partition.month);
+                    logger.info("Dropped partition {} of table {}", partition.name, table);
+                    dropped++;
+                }
+            }
+        }
+
+        if (dropped > 0) {
+            // events, outbox notifications, fingerprints and target dispatches of the dropped envelopes
+            // are deleted together with their lookups
+            int lookups = partitionRepository.deleteLookupsOfDroppedEnvelopes(oldestRetainedMonth);
+            logger.info("Deleted {} lookups of envelopes in dropped partitions", lookups);
+        }
+        return dropped;
+    }
+}
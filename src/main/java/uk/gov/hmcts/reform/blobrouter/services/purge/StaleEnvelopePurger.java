@@ -0,0 +1,105 @@
+package uk.gov.hmcts.reform.blobrouter.services.purge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `StaleEnvelopePurger` class deletes incomplete envelopes in bounded chunks rather than in a single statement.
+ * Each chunk is a separate, short transaction which skips rows locked by other transactions, and the purger pauses
+ * between chunks, so that a large purge does not hold locks on `envelopes` and `envelope_events` for long and does
+ * not starve envelope dispatching of database resources.
+ *
+ * <p>Progress is published as metrics: the number of purged envelopes, the number of executed chunks and the time
+ * taken by each chunk.
+ */
+@Component
+public class StaleEnvelopePurger {
+
+    private static final Logger logger = getLogger(StaleEnvelopePurger.class);
+
+    private final EnvelopeRepository envelopeRepository;
+    private final int chunkSize;
+    private final long pauseBetweenChunksMillis;
+
+    private final Counter purgedEnvelopes;
+    private final Counter purgedChunks;
+    private final Timer chunkTimer;
+
+    public StaleEnvelopePurger(
+        EnvelopeRepository envelopeRepository,
+        MeterRegistry meterRegistry,
+        @Value("${envelope-purge.chunk-size:500}") int chunkSize,
+        @Value("${envelope-purge.pause-between-chunks-ms:200}") long pauseBetweenChunksMillis
+    ) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Envelope purge chunk size must be positive, got " + chunkSize);
+        }
+        this.envelopeRepository = envelopeRepository;
+        this.chunkSize = chunkSize;
+        this.pauseBetweenChunksMillis = pauseBetweenChunksMillis;
+
+        this.purgedEnvelopes = Counter
+            .builder("envelope.purge.envelopes")
+            .description("Number of stale envelopes purged")
+            .register(meterRegistry);
+        this.purgedChunks = Counter
+            .builder("envelope.purge.chunks")
+            .description("Number of executed stale envelope purge chunks")
+            .register(meterRegistry);
+        this.chunkTimer = Timer
+            .builder("envelope.purge.chunk.duration")
+            .description("Time taken to purge a single chunk of stale envelopes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * The function deletes all incomplete envelopes whose files were created before the given datetime, one chunk at
+     * a time, until a chunk comes back smaller than the chunk size. Envelopes locked by other transactions at the
+     * time of the purge are left in place and will be picked up by a later purge.
+     *
+     * @param dateTime Envelopes with files created before this point in time are considered stale.
+     * @return The ids of all purged envelopes. When the purging thread is interrupted, the ids purged so far.
+     */
+    public List<UUID> purgeIncompleteEnvelopesBefore(LocalDateTime dateTime) {
+        List<UUID> purged = new ArrayList<>();
+
+        List<UUID> chunk;
+        do {
+            chunk = chunkTimer.record(() -> envelopeRepository.deleteIncompleteEnvelopesChunk(dateTime, chunkSize));
+
+            purged.addAll(chunk);
+            purgedChunks.increment();
+            purgedEnvelopes.increment(chunk.size());
+
+            logger.info("Purged {} stale envelopes, {} in total so far", chunk.size(), purged.size());
+        } while (chunk.size() == chunkSize && pauseBetweenChunks());
+
+        return purged;
+    }
+
+    private boolean pauseBetweenChunks() {
+        if (pauseBetweenChunksMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseBetweenChunksMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Stale envelope purge interrupted, remaining envelopes will be purged on the next run");
+            return false;
+        }
+    }
+}
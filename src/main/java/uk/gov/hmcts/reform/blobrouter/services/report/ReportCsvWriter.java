@@ -5,17 +5,19 @@ import org.apache.commons.csv.CSVPrinter;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.blobrouter.model.out.EnvelopeSummaryItem;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
-import java.util.Optional;
-
-import static java.util.Collections.emptyList;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * The `ReportCsvWriter` class in Java writes a list of `EnvelopeSummaryItem`
- * objects to a CSV file and returns the file.
+ * The `ReportCsvWriter` class in Java writes `EnvelopeSummaryItem` objects, as they are produced,
+ * to a gzip-compressed CSV file and returns the file.
  */
 @Component
 public class ReportCsvWriter {
@@ -25,38 +27,55 @@ public class ReportCsvWriter {
     };
 
     /**
-     * This Java function writes a list of EnvelopeSummaryItem objects to a CSV file and returns the file.
+     * This Java function writes envelope summary items to a gzip-compressed CSV file and returns the file.
+     * Items are written as soon as they are passed to the consumer, so they do not have to be held in memory.
+     * The file is deleted when writing fails, otherwise it is the caller's responsibility to delete it.
      *
-     * @param data The `data` parameter in the `writeEnvelopesSummaryToCsv` method is a list of
-     *             `EnvelopeSummaryItem` objects. Each `EnvelopeSummaryItem` object contains information
-     *             about an envelope, such as the container, file name, date received, time received,
-     *             date processed, time processed and status.
-     * @return The method `writeEnvelopesSummaryToCsv` returns a `File` object which represents the CSV
-     *      file that was created and written with the envelope summary data.
+     * @param items The `items` parameter is called once with a consumer accepting `EnvelopeSummaryItem` objects.
+     *              Each `EnvelopeSummaryItem` object contains information about an envelope, such as
+     *              the container, file name, date received, time received, date processed, time processed
+     *              and status, and is written to the file as a single CSV record.
+     * @return The method `writeEnvelopesSummaryToCsv` returns a `File` object which represents the gzip-compressed
+     *      CSV file that was created and written with the envelope summary data.
      */
     public File writeEnvelopesSummaryToCsv(
-        List<EnvelopeSummaryItem> data
+        Consumer<Consumer<EnvelopeSummaryItem>> items
     ) throws IOException {
-        File csvFile = File.createTempFile("Zipfiles-summary-", ".csv");
+        File csvFile = File.createTempFile("Zipfiles-summary-", ".csv.gz");
 
         CSVFormat csvFileHeader = CSVFormat.DEFAULT.withHeader(ENVELOPES_SUMMARY_CSV_HEADERS);
 
         try (
-            FileWriter fileWriter = new FileWriter(csvFile);
-            CSVPrinter printer = new CSVPrinter(fileWriter, csvFileHeader)
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(csvFile.toPath())),
+                StandardCharsets.UTF_8
+            ));
+            CSVPrinter printer = new CSVPrinter(writer, csvFileHeader)
         ) {
-            for (EnvelopeSummaryItem summary : Optional.ofNullable(data).orElse(emptyList())) {
-                printer.printRecord(
-                    summary.container,
-                    summary.fileName,
-                    summary.dateReceived,
-                    summary.timeReceived,
-                    summary.dateProcessed,
-                    summary.timeProcessed,
-                    summary.status
-                );
+            items.accept(summary -> printRecord(printer, summary));
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(csvFile.toPath());
+            if (ex instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex).getCause();
             }
+            throw ex;
         }
         return csvFile;
     }
+
+    private static void printRecord(CSVPrinter printer, EnvelopeSummaryItem summary) {
+        try {
+            printer.printRecord(
+                summary.container,
+                summary.fileName,
+                summary.dateReceived,
+                summary.timeReceived,
+                summary.dateProcessed,
+                summary.timeProcessed,
+                summary.status
+            );
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 }
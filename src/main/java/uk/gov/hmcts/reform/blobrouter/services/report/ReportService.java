@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.data.replica.ReadFromReplica;
 import uk.gov.hmcts.reform.blobrouter.data.reports.ReportRepository;
 import uk.gov.hmcts.reform.blobrouter.model.out.EnvelopeSummaryItem;
 import uk.gov.hmcts.reform.blobrouter.model.out.reports.EnvelopeCountSummaryReportItem;
@@ -13,8 +14,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.function.Consumer;
 
-import static java.util.stream.Collectors.toList;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_ID;
 
 /**
@@ -34,23 +35,26 @@ public class ReportService {
     }
 
     /**
-     * This Java function retrieves a daily report of envelope summary items based on a given date.
+     * This Java function streams the daily report of envelope summary items for a given date to a consumer.
+     * Rows are read from the database through a cursor and converted one at a time, so the whole report
+     * is never held in memory. The read-only transaction is required for the cursor to be used.
      *
-     * @param date The `date` parameter in the `getDailyReport` method represents
+     * @param date The `date` parameter in the `streamDailyReport` method represents
      *             the specific date for which you want to generate the daily report. This method
      *             retrieves envelope summary items for the given date by querying the `reportRepository`
      *             for data within the time range from the start of the given date to the start of the end date.
-     * @return A List of EnvelopeSummaryItem objects representing the daily report for the specified LocalDate date.
+     * @param consumer The `consumer` parameter receives every `EnvelopeSummaryItem` of the daily report.
      */
-    public List<EnvelopeSummaryItem> getDailyReport(LocalDate date) {
+    @ReadFromReplica
+    public void streamDailyReport(LocalDate date, Consumer<EnvelopeSummaryItem> consumer) {
 
         var from = date.atStartOfDay().atZone(EUROPE_LONDON_ZONE_ID).toInstant();
         var to = date.atStartOfDay().plusDays(1).atZone(EUROPE_LONDON_ZONE_ID).toInstant();
 
-        return reportRepository
-            .getEnvelopeSummary(from, to)
-            .stream()
-            .map(s -> new EnvelopeSummaryItem(
+        reportRepository.streamEnvelopeSummary(
+            from,
+            to,
+            s -> consumer.accept(new EnvelopeSummaryItem(
                 s.container,
                 s.fileName,
                 toLocalDate(s.fileCreatedAt),
@@ -60,7 +64,7 @@ public class ReportService {
                 s.status.name(),
                 s.isDeleted
             ))
-            .collect(toList());
+        );
     }
 
     /**
@@ -71,6 +75,7 @@ public class ReportService {
      *             count summary report is being generated.
      * @return The method `getCountFor(LocalDate date)` returns a list of `EnvelopeCountSummaryReportItem` objects.
      */
+    @ReadFromReplica
     public List<EnvelopeCountSummaryReportItem> getCountFor(LocalDate date) {
         List<String> containersList = serviceConfiguration.getSourceContainers();
         long start = System.currentTimeMillis();
@@ -79,6 +84,24 @@ public class ReportService {
         return reportResult;
     }
 
+    /**
+     * This function retrieves envelope count summary report items for every day of a date range
+     * using a list of containers and logs the time taken for the operation.
+     *
+     * @param from The first day of the report (inclusive).
+     * @param to The last day of the report (inclusive).
+     * @return A list of `EnvelopeCountSummaryReportItem` objects, one per container and day.
+     */
+    @ReadFromReplica
+    public List<EnvelopeCountSummaryReportItem> getCountFor(LocalDate from, LocalDate to) {
+        List<String> containersList = serviceConfiguration.getSourceContainers();
+        long start = System.currentTimeMillis();
+        final List<EnvelopeCountSummaryReportItem> reportResult =
+            reportRepository.getReportFor(from, to, containersList);
+        log.info("Count summary report from {} to {} took {} ms", from, to, System.currentTimeMillis() - start);
+        return reportResult;
+    }
+
     /**
      * The function `toLocalDate` converts an `Instant` to a `LocalDate` using the Europe/London time zone.
      *
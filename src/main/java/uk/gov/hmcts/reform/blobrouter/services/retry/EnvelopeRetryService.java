@@ -0,0 +1,223 @@
+package uk.gov.hmcts.reform.blobrouter.services.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ClockProvider;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.blobrouter.data.retries.EnvelopeRetry;
+import uk.gov.hmcts.reform.blobrouter.data.retries.EnvelopeRetryRepository;
+import uk.gov.hmcts.reform.blobrouter.exceptions.EnvelopeNotFoundException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `EnvelopeRetryService` class keeps track of blobs whose processing failed and decides when they may be tried
+ * again.
+ *
+ * <p>Every failure pushes the next attempt of the blob back using exponential backoff with jitter. Until then the
+ * blob is skipped before it is leased, so a failing blob no longer costs a download, verification and upload on every
+ * scan. Once the blob failed the configured number of times it is quarantined and is not tried again automatically.
+ * The retry state is removed as soon as the blob has been dispatched or rejected.</p>
+ *
+ * <p>The retry state belongs to the version of the blob which failed, identified by its content version rather than
+ * its ETag, which changes whenever the blob is leased or released, see
+ * {@link uk.gov.hmcts.reform.blobrouter.services.storage.BlobMetaDataHandler#getContentVersion}. A new version of the
+ * blob, e.g. uploaded again by the supplier, is tried straight away and starts over with no failed attempts. A
+ * quarantined blob can also be released by an operator, see {@link #release(UUID)}, and retry state which has not
+ * changed for `envelope-retry.retention-days` is purged, see {@link #purge()}.</p>
+ */
+@Service
+public class EnvelopeRetryService {
+
+    private static final Logger logger = getLogger(EnvelopeRetryService.class);
+
+    private final EnvelopeRetryRepository repository;
+    private final ClockProvider clockProvider;
+    private final ExponentialBackoff backoff;
+    private final int maxAttempts;
+    private final int retentionDays;
+
+    private final Counter retriesScheduled;
+    private final Counter quarantined;
+
+    public EnvelopeRetryService(
+        EnvelopeRetryRepository repository,
+        ClockProvider clockProvider,
+        MeterRegistry meterRegistry,
+        @Value("${envelope-retry.initial-delay-ms:60000}") long initialDelayMs,
+        @Value("${envelope-retry.max-delay-ms:21600000}") long maxDelayMs,
+        @Value("${envelope-retry.multiplier:2.0}") double multiplier,
+        @Value("${envelope-retry.jitter:0.2}") double jitter,
+        @Value("${envelope-retry.max-attempts:10}") int maxAttempts,
+        @Value("${envelope-retry.retention-days:30}") int retentionDays
+    ) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive, got " + maxAttempts);
+        }
+        this.repository = repository;
+        this.clockProvider = clockProvider;
+        this.backoff = new ExponentialBackoff(
+            Duration.ofMillis(initialDelayMs),
+            Duration.ofMillis(maxDelayMs),
+            multiplier,
+            jitter
+        );
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+
+        this.retriesScheduled = Counter
+            .builder("envelope.retry.scheduled")
+            .description("Failed blobs scheduled to be tried again later")
+            .register(meterRegistry);
+        this.quarantined = Counter
+            .builder("envelope.retry.quarantined")
+            .description("Blobs which failed too many times and will not be tried again automatically")
+            .register(meterRegistry);
+    }
+
+    /**
+     * The `isEligible` method tells whether the given blob may be processed now.
+     *
+     * @param container The name of the container the blob is in.
+     * @param fileName The name of the blob.
+     * @param currentVersion Supplies the current content version of the blob. It is only called for blobs which
+     *                       failed before, to tell whether the blob has changed since.
+     * @return `false` if the version of the blob which failed is quarantined or its next attempt is not due yet,
+     *      `true` otherwise.
+     */
+    public boolean isEligible(String container, String fileName, Supplier<String> currentVersion) {
+        return repository
+            .find(container, fileName)
+            .map(retry -> {
+                if (!retry.quarantined && !now().isBefore(retry.nextAttemptAt)) {
+                    return true;
+                }
+                if (hasChanged(retry, currentVersion.get())) {
+                    logger.info(
+                        "Blob has changed since its last failed attempt, trying it again. File name: {}, Container: {}",
+                        fileName,
+                        container
+                    );
+                    return true;
+                }
+                if (retry.quarantined) {
+                    logger.info(
+                        "Blob is quarantined after {} failed attempts, skipping. File name: {}, Container: {}",
+                        retry.attempts,
+                        fileName,
+                        container
+                    );
+                    return false;
+                }
+                logger.info(
+                    "Next attempt of blob is due at {}, skipping. File name: {}, Container: {}",
+                    retry.nextAttemptAt,
+                    fileName,
+                    container
+                );
+                return false;
+            })
+            .orElse(true);
+    }
+
+    /**
+     * The `recordFailure` method records a failed attempt to process the given blob and schedules the next one, or
+     * quarantines the blob if it failed too many times.
+     *
+     * @param envelopeId The ID of the envelope of the blob.
+     * @param container The name of the container the blob is in.
+     * @param fileName The name of the blob.
+     * @param version The content version of the blob which failed, or null if it is not known. Failed attempts of
+     *                any other version of the blob are not counted.
+     * @param error The description of the failure.
+     */
+    public void recordFailure(UUID envelopeId, String container, String fileName, String version, String error) {
+        int attempts = repository
+            .find(container, fileName)
+            .filter(retry -> !hasChanged(retry, version))
+            .map(retry -> retry.attempts)
+            .orElse(0) + 1;
+        boolean quarantine = attempts >= maxAttempts;
+        Instant nextAttemptAt = now().plus(backoff.delayAfter(attempts, ThreadLocalRandom.current().nextDouble()));
+
+        repository.save(
+            new EnvelopeRetry(container, fileName, envelopeId, version, attempts, nextAttemptAt, quarantine, error)
+        );
+
+        if (quarantine) {
+            quarantined.increment();
+            logger.error(
+                "Blob quarantined after {} failed attempts. File name: {}, Container: {}, Envelope ID: {}",
+                attempts,
+                fileName,
+                container,
+                envelopeId
+            );
+        } else {
+            retriesScheduled.increment();
+            logger.info(
+                "Attempt {} of blob failed, next attempt at {}. File name: {}, Container: {}, Envelope ID: {}",
+                attempts,
+                nextAttemptAt,
+                fileName,
+                container,
+                envelopeId
+            );
+        }
+    }
+
+    /**
+     * The `clear` method removes the retry state of the given blob, once it no longer needs to be tried again.
+     *
+     * @param container The name of the container the blob is in.
+     * @param fileName The name of the blob.
+     */
+    public void clear(String container, String fileName) {
+        repository.delete(container, fileName);
+    }
+
+    /**
+     * The `release` method removes the retry state of the blob of the given envelope, e.g. once an operator has
+     * fixed the cause of its failures. The blob is tried again on the next scan, with no failed attempts.
+     *
+     * @param envelopeId The ID of the envelope of the blob.
+     * @throws EnvelopeNotFoundException if there is no retry state for the envelope.
+     */
+    public void release(UUID envelopeId) {
+        if (repository.deleteByEnvelopeId(envelopeId) == 0) {
+            throw new EnvelopeNotFoundException("No failed attempts recorded for envelope " + envelopeId);
+        }
+        logger.info("Retry state released. Envelope ID: {}", envelopeId);
+    }
+
+    /**
+     * The `purge` method removes retry state which has not changed for `envelope-retry.retention-days`, mostly of
+     * blobs which have been deleted from their container since they were quarantined. A quarantined blob which is
+     * still there is tried again on the next scan.
+     *
+     * @return The number of purged entries.
+     */
+    public int purge() {
+        return repository.deleteNotUpdatedFor(retentionDays);
+    }
+
+    /**
+     * Tells whether the failed version of the blob has been replaced. Retry state recorded without a content version
+     * is assumed to apply to the current version.
+     */
+    private static boolean hasChanged(EnvelopeRetry retry, String currentVersion) {
+        return retry.eTag != null && currentVersion != null && !retry.eTag.equals(currentVersion);
+    }
+
+    private Instant now() {
+        return clockProvider.getClock().instant();
+    }
+}
@@ -0,0 +1,42 @@
+package uk.gov.hmcts.reform.blobrouter.services.retry;
+
+import java.time.Duration;
+
+/**
+ * The `ExponentialBackoff` class computes how long to wait before the next attempt: the initial delay multiplied by
+ * the multiplier for every previous attempt, capped at the maximum delay and spread by a random jitter of up to the
+ * given fraction either way, so that blobs failing together are not retried together.
+ */
+public class ExponentialBackoff {
+
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double multiplier;
+    private final double jitter;
+
+    public ExponentialBackoff(Duration initialDelay, Duration maxDelay, double multiplier, double jitter) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Backoff multiplier must be at least 1, got " + multiplier);
+        }
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("Backoff jitter must be between 0 and 1, got " + jitter);
+        }
+        this.initialDelayMillis = initialDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Returns the delay before the attempt following the given one.
+     *
+     * @param attempt The number of the attempt which has just failed, starting from 1.
+     * @param random A random value in the range [0, 1) used to apply the jitter.
+     * @return The delay before the next attempt.
+     */
+    public Duration delayAfter(int attempt, double random) {
+        double base = Math.min(maxDelayMillis, initialDelayMillis * Math.pow(multiplier, attempt - 1));
+        double jittered = base * (1 - jitter + 2 * jitter * random);
+        return Duration.ofMillis(Math.round(Math.min(maxDelayMillis, jittered)));
+    }
+}
@@ -8,6 +8,10 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.exceptions.TargetStorageException;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.CircuitBreaker;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
+import uk.gov.hmcts.reform.blobrouter.services.storage.throttling.TargetThrottlingMonitor;
 
 import java.util.function.Consumer;
 
@@ -25,15 +29,21 @@ public class BlobContainerClientProxy {
     private final BlobContainerClient crimeClient;
     private final BlobContainerClientBuilderProvider blobContainerClientBuilderProvider;
     private final SasTokenCache sasTokenCache;
+    private final TargetThrottlingMonitor throttlingMonitor;
+    private final DispatchCircuitBreakers circuitBreakers;
 
     public BlobContainerClientProxy(
         @Qualifier("crime-storage-client") BlobContainerClient crimeClient,
         BlobContainerClientBuilderProvider blobContainerClientBuilderProvider,
-        SasTokenCache sasTokenCache
+        SasTokenCache sasTokenCache,
+        TargetThrottlingMonitor throttlingMonitor,
+        DispatchCircuitBreakers circuitBreakers
     ) {
         this.crimeClient = crimeClient;
         this.blobContainerClientBuilderProvider = blobContainerClientBuilderProvider;
         this.sasTokenCache = sasTokenCache;
+        this.throttlingMonitor = throttlingMonitor;
+        this.circuitBreakers = circuitBreakers;
     }
 
     /**
@@ -78,7 +88,9 @@ public class BlobContainerClientProxy {
 
     /**
      * The `runUpload` function streams a blob from a source BlobClient to a destination container in a target storage
-     * account and handles exceptions related to uploading.
+     * account and handles exceptions related to uploading. Uploads throttled by the target (429 and 503) are
+     * reported, see {@link TargetThrottlingMonitor}, and do not evict the cached SAS token. The outcome is also
+     * recorded in the circuit breaker of the target storage account, see {@link DispatchCircuitBreakers}.
      *
      * @param sourceBlob The `sourceBlob` parameter in the `runUpload` method is of type
      *                   `BlockBlobClient` and represents the blob that needs to be uploaded.
@@ -115,7 +127,15 @@ public class BlobContainerClientProxy {
                 get(targetStorageAccount, destinationContainer)
                     .getBlobClient(blobName)
                     .getBlockBlobClient();
-            upload.accept(blockBlobClient);
+            CircuitBreaker targetBreaker = circuitBreakers.target(targetStorageAccount);
+            try {
+                upload.accept(blockBlobClient);
+                targetBreaker.onSuccess();
+            } catch (RuntimeException ex) {
+                throttlingMonitor.onUploadFailure(targetStorageAccount, ex);
+                recordUploadFailure(targetBreaker, ex);
+                throw ex;
+            }
         } catch (HttpResponseException ex) {
             logger.info(
                 "Uploading failed for blob {} to Container: {},  error code: {}",
@@ -125,10 +145,27 @@ public class BlobContainerClientProxy {
             );
             if ((targetStorageAccount == TargetStorageAccount.CFT
                 || targetStorageAccount == TargetStorageAccount.PCQ)
-                && HttpStatus.valueOf(ex.getResponse().getStatusCode()).is4xxClientError()) {
+                && HttpStatus.valueOf(ex.getResponse().getStatusCode()).is4xxClientError()
+                && !StorageResponseErrors.isThrottling(ex)) {
                 sasTokenCache.removeFromCache(destinationContainer);
             }
             throw ex;
         }
     }
+
+    /**
+     * Records a failed upload in the circuit breaker of the target storage account. Only failures of requests to the
+     * target account are considered, see {@link TargetStorageException}: errors of the source, e.g. a failed or
+     * hedged read of the source blob, say nothing about the target. A target request counts as a failure when the
+     * account is unavailable, any other response still proves the account is up.
+     */
+    private static void recordUploadFailure(CircuitBreaker targetBreaker, RuntimeException ex) {
+        StorageResponseErrors.findTargetFailure(ex).ifPresent(targetFailure -> {
+            if (StorageResponseErrors.isUnavailable(targetFailure)) {
+                targetBreaker.onFailure();
+            } else if (StorageResponseErrors.findHttpResponseException(targetFailure).isPresent()) {
+                targetBreaker.onSuccess();
+            }
+        });
+    }
 }
@@ -4,13 +4,25 @@ import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.specialized.BlockBlobClient;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.config.TargetConfigItem;
 import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
 import uk.gov.hmcts.reform.blobrouter.exceptions.BlobStreamingException;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidZipArchiveException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -27,12 +39,22 @@ public class BlobDispatcher {
 
     private static final Logger logger = getLogger(BlobDispatcher.class);
 
+    // content is handed over to parallel uploads in chunks of this size, each upload can lag behind by a few chunks
+    private static final int TEE_CHUNK_SIZE = 1024 * 1024;
+    private static final int TEE_QUEUE_CAPACITY = 4;
+
     private final BlobContainerClientProxy blobContainerClientProxy;
     private final BlobMover blobMover;
+    private final HedgedBlobReader hedgedBlobReader;
 
-    public BlobDispatcher(BlobContainerClientProxy blobContainerClientProxy, BlobMover blobMover) {
+    public BlobDispatcher(
+        BlobContainerClientProxy blobContainerClientProxy,
+        BlobMover blobMover,
+        HedgedBlobReader hedgedBlobReader
+    ) {
         this.blobContainerClientProxy = blobContainerClientProxy;
         this.blobMover = blobMover;
+        this.hedgedBlobReader = hedgedBlobReader;
     }
 
     /**
@@ -41,6 +63,9 @@ public class BlobDispatcher {
      *
      * @param sourceBlob The `sourceBlob` parameter is of type `BlobClient` and represents the blob that needs to be
      *      dispatched.
+     * @param sourceETag The ETag of the verified version of the blob. The blob is only read on condition that it
+     *                   still has that ETag, so that the verified content is the one uploaded. Null if the blob has
+     *                   not been verified, in which case the uploaded content is checked against its digest only.
      * @param destinationContainer The `destinationContainer` parameter in the `dispatch` method
      *                             represents the name of the container in the target storage account
      *                             where the file from the source blob will be uploaded to. It specifies
@@ -48,11 +73,22 @@ public class BlobDispatcher {
      * @param targetStorageAccount The `targetStorageAccount` parameter in the `dispatch` method represents
      *                             the storage account where the file will be uploaded. It is used to
      *                             specify the destination storage account for the file transfer operation.
+     * @param envelopeId The ID of the envelope of the blob. Retried uploads of the same envelope resume from the
+     *                   blocks staged by the previous attempt, provided the target storage account can be read, see
+     *                   {@link TargetStorageAccount#isReadable()}.
+     * @param contentSha256 The hex encoded SHA-256 digest of the inner envelope, computed during verification,
+     *                      or null if it is not known.
+     * @return The hex encoded SHA-256 digest of the content committed on the target, computed while uploading.
+     * @throws BlobStreamingException if the upload failed, among others when the uploaded content does not have the
+     *      given digest, in which case nothing is committed on the target.
      */
-    public void dispatch(
+    public String dispatch(
         BlobClient sourceBlob,
+        String sourceETag,
         String destinationContainer,
-        TargetStorageAccount targetStorageAccount
+        TargetStorageAccount targetStorageAccount,
+        UUID envelopeId,
+        String contentSha256
     ) {
         logger.info(
             "Dispatching file. Blob name: {}. Container: {}. Storage: {}",
@@ -61,14 +97,261 @@ public class BlobDispatcher {
             targetStorageAccount
         );
 
-        uploadEnvelope(sourceBlob.getBlockBlobClient(), destinationContainer, targetStorageAccount);
+        BlockBlobClient sourceBlockBlob = sourceBlob.getBlockBlobClient();
+
+        UploadedContent uploadedContent = uploadEnvelope(
+            sourceBlockBlob,
+            sourceETag,
+            destinationContainer,
+            targetStorageAccount,
+            envelopeId,
+            contentSha256
+        );
 
         logger.info(
-            "File Dispatched. Blob name: {}. Container: {}. Storage: {}",
+            "File Dispatched. Blob name: {}. Container: {}. Storage: {}. Content SHA-256: {}",
+            sourceBlob.getBlobName(),
+            destinationContainer,
+            targetStorageAccount,
+            uploadedContent.sha256
+        );
+        return uploadedContent.sha256;
+    }
+
+    /**
+     * The `dispatchSpilled` function dispatches a blob which has been spilled to local scratch space, see
+     * {@link ScratchSpace}. The inner envelope is uploaded from the local file instead of the source blob, so the blob
+     * is downloaded only once for both verification and upload. Otherwise it behaves as
+     * {@link #dispatch(BlobClient, String, String, TargetStorageAccount, UUID, String)}.
+     *
+     * @param sourceBlob The blob to dispatch. Only its name is used, the content is read from the local copy.
+     * @param spilledBlob The local copy of the blob.
+     * @param destinationContainer The name of the container in the target storage account.
+     * @param targetStorageAccount The target storage account.
+     * @param envelopeId The ID of the envelope of the blob.
+     * @param contentSha256 The hex encoded SHA-256 digest of the inner envelope, computed during verification,
+     *                      or null if it is not known. Content with a different digest is not committed.
+     * @return The hex encoded SHA-256 digest of the content committed on the target, computed while uploading.
+     */
+    public String dispatchSpilled(
+        BlobClient sourceBlob,
+        SpilledBlob spilledBlob,
+        String destinationContainer,
+        TargetStorageAccount targetStorageAccount,
+        UUID envelopeId,
+        String contentSha256
+    ) {
+        logger.info(
+            "Dispatching file from scratch space. Blob name: {}. Container: {}. Storage: {}",
             sourceBlob.getBlobName(),
             destinationContainer,
             targetStorageAccount
         );
+
+        BlockBlobClient sourceBlockBlob = sourceBlob.getBlockBlobClient();
+
+        long startTime = System.nanoTime();
+        var uploadedContent = new AtomicReference<UploadedContent>();
+        try (FileChannel envelope = spilledBlob.openEnvelope()) {
+            blobContainerClientProxy.runUpload(
+                sourceBlockBlob,
+                destinationContainer,
+                targetStorageAccount,
+                target -> uploadedContent.set(blobMover.uploadFromFile(
+                    target,
+                    envelope,
+                    envelopeId,
+                    contentSha256,
+                    targetStorageAccount.isReadable()
+                ))
+            );
+        } catch (IOException ex) {
+            throw new BlobStreamingException("Blob upload, scratch file error.", ex);
+        }
+
+        logger.info(
+            "File Dispatched from scratch space. Blob name: {}. Container: {}. Storage: {}. Content SHA-256: {}. "
+                + "Upload Duration: {} sec",
+            sourceBlob.getBlobName(),
+            destinationContainer,
+            targetStorageAccount,
+            uploadedContent.get().sha256,
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime)
+        );
+        return uploadedContent.get().sha256;
+    }
+
+    /**
+     * The `dispatchToAll` function dispatches the blob to several targets, e.g. the primary target of its container
+     * and its mirrors, reading the source blob only once. The inner envelope is streamed into parallel uploads, one
+     * per target, each with its own commit and failure handling: a failed upload does not stop the others.
+     *
+     * @param sourceBlob The blob to dispatch.
+     * @param sourceETag The ETag of the verified version of the blob, which the blob must still have when it is
+     *                   read, or null if the blob has not been verified.
+     * @param targets The targets to dispatch the blob to.
+     * @param envelopeId The ID of the envelope of the blob.
+     * @param contentSha256 The hex encoded SHA-256 digest of the inner envelope, computed during verification,
+     *                      or null if it is not known. Uploads of content with a different digest fail without
+     *                      committing anything.
+     * @return The outcome of the dispatch for every target, in no particular order.
+     */
+    public List<TargetDispatchResult> dispatchToAll(
+        BlobClient sourceBlob,
+        String sourceETag,
+        List<TargetConfigItem> targets,
+        UUID envelopeId,
+        String contentSha256
+    ) {
+        logger.info("Dispatching file. Blob name: {}. Targets: {}", sourceBlob.getBlobName(), targets);
+
+        List<TargetDispatchResult> results =
+            uploadEnvelopeToAll(sourceBlob.getBlockBlobClient(), sourceETag, targets, envelopeId, contentSha256);
+
+        logger.info(
+            "File Dispatched. Blob name: {}. Dispatched to: {}. Failed: {}",
+            sourceBlob.getBlobName(),
+            results.stream().filter(TargetDispatchResult::isDispatched).map(result -> result.target).toList(),
+            results.stream().filter(result -> !result.isDispatched()).map(result -> result.target).toList()
+        );
+        return results;
+    }
+
+    /**
+     * The `uploadEnvelopeToAll` function reads the inner zip of the source blob once and uploads it to all the
+     * targets in parallel, each upload running on its own virtual thread.
+     *
+     * @param sourceBlob The client of the source blob.
+     * @param sourceETag The ETag the source blob must have, or null if any version may be read.
+     * @param targets The targets to upload the inner zip to.
+     * @param envelopeId The ID of the envelope of the blob, used to identify the uploaded blocks.
+     * @param contentSha256 The hex encoded SHA-256 digest of the verified inner envelope, or null if it is not known.
+     * @return The outcome of the upload for every target.
+     */
+    private List<TargetDispatchResult> uploadEnvelopeToAll(
+        BlockBlobClient sourceBlob,
+        String sourceETag,
+        List<TargetConfigItem> targets,
+        UUID envelopeId,
+        String contentSha256
+    ) {
+        long startTime = System.nanoTime();
+        List<TargetDispatchResult> results = new ArrayList<>();
+        try (var zipStream = new ZipInputStream(hedgedBlobReader.openInputStream(sourceBlob, sourceETag))) {
+            moveToEnvelopeEntry(zipStream);
+
+            var tee = new StreamTee(zipStream, targets.size(), TEE_CHUNK_SIZE, TEE_QUEUE_CAPACITY);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<UploadedContent>> uploads = new ArrayList<>();
+                for (int i = 0; i < targets.size(); i++) {
+                    TargetConfigItem target = targets.get(i);
+                    InputStream branch = tee.branch(i);
+                    uploads.add(executor.submit(() -> uploadBranch(
+                        sourceBlob,
+                        target,
+                        branch,
+                        envelopeId,
+                        contentSha256
+                    )));
+                }
+
+                tee.pump();
+
+                for (int i = 0; i < targets.size(); i++) {
+                    results.add(toResult(targets.get(i), uploads.get(i)));
+                }
+            }
+        } catch (IOException ex) {
+            throw new BlobStreamingException("Blob upload, source blob InputStream error.", ex);
+        }
+
+        logger.info(
+            "Inner Zip uploaded for blob {} to {} targets, Upload Duration: {} sec",
+            sourceBlob.getBlobUrl(),
+            targets.size(),
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime)
+        );
+        return results;
+    }
+
+    /**
+     * The `uploadBranch` function uploads one branch of the teed inner zip to a target. The branch is closed when
+     * the upload ends, so that a failed upload no longer holds up the others.
+     */
+    private UploadedContent uploadBranch(
+        BlockBlobClient sourceBlob,
+        TargetConfigItem target,
+        InputStream branch,
+        UUID envelopeId,
+        String contentSha256
+    ) {
+        try (branch) {
+            var uploadedContent = new AtomicReference<UploadedContent>();
+            blobContainerClientProxy.runUpload(
+                sourceBlob,
+                target.getTargetContainer(),
+                target.getTargetStorageAccount(),
+                client -> uploadedContent.set(blobMover.uploadWithChunks(
+                    client,
+                    branch,
+                    envelopeId,
+                    contentSha256,
+                    target.getTargetStorageAccount().isReadable()
+                ))
+            );
+            return uploadedContent.get();
+        } catch (IOException ex) {
+            throw new BlobStreamingException("Closing content stream failed", ex);
+        }
+    }
+
+    private static TargetDispatchResult toResult(TargetConfigItem target, Future<UploadedContent> upload) {
+        try {
+            return TargetDispatchResult.dispatched(target, upload.get().sha256);
+        } catch (ExecutionException ex) {
+            logger.error("Upload to {} failed", target, ex.getCause());
+            return TargetDispatchResult.failed(
+                target,
+                ex.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new BlobStreamingException("Upload to " + target + " failed", ex.getCause())
+            );
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return TargetDispatchResult.failed(
+                target,
+                new BlobStreamingException("Interrupted while uploading to " + target, ex)
+            );
+        }
+    }
+
+    /**
+     * The `findDispatchedContent` function checks whether the blob has already been committed on the target for the
+     * given envelope, e.g. by an attempt which failed before the envelope was marked as dispatched, so that the
+     * envelope can be completed without downloading and uploading the blob again. The check goes through the same
+     * proxy as uploads, so it is subject to the circuit breaker of the target storage account.
+     *
+     * @param sourceBlob The blob to dispatch. The target blob has the same name.
+     * @param destinationContainer The name of the container in the target storage account.
+     * @param targetStorageAccount The target storage account.
+     * @param envelopeId The ID of the envelope of the blob.
+     * @return The hex encoded SHA-256 digest of the content committed on the target, or empty if the blob has not
+     *      been committed on the target for this envelope.
+     */
+    public Optional<String> findDispatchedContent(
+        BlobClient sourceBlob,
+        String destinationContainer,
+        TargetStorageAccount targetStorageAccount,
+        UUID envelopeId
+    ) {
+        var committedSha256 = new AtomicReference<Optional<String>>(Optional.empty());
+        blobContainerClientProxy.runUpload(
+            sourceBlob.getBlockBlobClient(),
+            destinationContainer,
+            targetStorageAccount,
+            target -> committedSha256.set(blobMover.findCommittedContent(target, envelopeId))
+        );
+        return committedSha256.get();
     }
 
     /**
@@ -78,6 +361,7 @@ public class BlobDispatcher {
      * @param sourceBlob The `sourceBlob` parameter is of type `BlockBlobClient`, which represents a
      *                   client to interact with a block blob in Azure Storage. It is used to access and
      *                   manage the block blob from which the inner zip file will be uploaded.
+     * @param sourceETag The ETag the source blob must have, or null if any version may be read.
      * @param destinationContainer The `destinationContainer` parameter in the `uploadEnvelope` method is a
      *                             String that represents the name of the container in the target storage
      *                             account where the inner zip file will be uploaded to.
@@ -86,19 +370,32 @@ public class BlobDispatcher {
      *                             storage account where the content from the source blob will be uploaded
      *                             to. This parameter likely contains information such as the storage
      *                             account name, access key, or connection details.
+     * @param envelopeId The ID of the envelope of the blob, used to identify the uploaded blocks.
+     * @param contentSha256 The hex encoded SHA-256 digest of the verified inner envelope, or null if it is not known.
+     * @return The description of the uploaded content.
      */
-    private void uploadEnvelope(
+    private UploadedContent uploadEnvelope(
         BlockBlobClient sourceBlob,
+        String sourceETag,
         String destinationContainer,
-        TargetStorageAccount targetStorageAccount
+        TargetStorageAccount targetStorageAccount,
+        UUID envelopeId,
+        String contentSha256
     ) {
         logger.info(
             "Upload inner zip  from blob {} to Container: {}",
             sourceBlob.getBlobUrl(),
             destinationContainer
         );
-        try (var zipStream = new ZipInputStream(sourceBlob.openInputStream());) {
-            uploadContent(sourceBlob, destinationContainer, targetStorageAccount, zipStream);
+        try (var zipStream = new ZipInputStream(hedgedBlobReader.openInputStream(sourceBlob, sourceETag));) {
+            return uploadContent(
+                sourceBlob,
+                destinationContainer,
+                targetStorageAccount,
+                zipStream,
+                envelopeId,
+                contentSha256
+            );
         } catch (IOException ex) {
             throw new BlobStreamingException(
                 "Blob upload, source blob InputStream error.", ex
@@ -124,31 +421,55 @@ public class BlobDispatcher {
      * @param zipStream The `zipStream` parameter in the `uploadContent` method is a `ZipInputStream`
      *                  object that represents a stream of ZIP file entries. It is used to read the
      *                  contents of a ZIP file entry by entry during the upload process.
+     * @param envelopeId The ID of the envelope of the blob, used to identify the uploaded blocks.
+     * @param contentSha256 The hex encoded SHA-256 digest of the verified inner envelope, or null if it is not known.
+     * @return The description of the uploaded content.
      */
-    private void uploadContent(
+    private UploadedContent uploadContent(
         BlockBlobClient sourceBlob,
         String destinationContainer,
         TargetStorageAccount targetStorageAccount,
-        ZipInputStream zipStream
+        ZipInputStream zipStream,
+        UUID envelopeId,
+        String contentSha256
     ) throws IOException {
 
         long startTime = System.nanoTime();
+        moveToEnvelopeEntry(zipStream);
+
+        var uploadedContent = new AtomicReference<UploadedContent>();
+        blobContainerClientProxy.runUpload(
+            sourceBlob,
+            destinationContainer,
+            targetStorageAccount,
+            target -> uploadedContent.set(blobMover.uploadWithChunks(
+                target,
+                zipStream,
+                envelopeId,
+                contentSha256,
+                targetStorageAccount.isReadable()
+            ))
+        );
+
+        logger.info(
+            "Inner Zip uploaded for blob {} to Container: {}, Upload Duration: {} sec",
+            sourceBlob.getBlobUrl(),
+            destinationContainer,
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime)
+        );
+        return uploadedContent.get();
+    }
+
+    /**
+     * The `moveToEnvelopeEntry` function positions the zip stream at the start of the inner envelope.
+     *
+     * @param zipStream The stream of the outer zip.
+     * @throws InvalidZipArchiveException if the zip does not contain the inner envelope.
+     */
+    static void moveToEnvelopeEntry(ZipInputStream zipStream) throws IOException {
         ZipEntry entry;
         while ((entry = zipStream.getNextEntry()) != null) {
             if (Objects.equals(entry.getName(), ENVELOPE)) {
-                blobContainerClientProxy.runUpload(
-                    sourceBlob,
-                    destinationContainer,
-                    targetStorageAccount,
-                    target -> blobMover.uploadWithChunks(target, zipStream)
-                );
-
-                logger.info(
-                    "Inner Zip uploaded for blob {} to Container: {}, Upload Duration: {} sec",
-                    sourceBlob.getBlobUrl(),
-                    destinationContainer,
-                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime)
-                );
                 return;
             }
         }
@@ -18,6 +18,11 @@ import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_I
 /**
  * The `BlobMetaDataHandler` class in Java manages metadata for Azure Blob Storage, including checking lease status,
  * updating expiration time, and clearing metadata.
+ *
+ * <p>Every metadata write changes the ETag of the blob, so the ETag of a blob changes each time it is leased and
+ * released, although its content does not. The lease therefore stamps the blob with its content version, i.e. the
+ * ETag it had before it was first leased, which the release keeps, see {@link #getContentVersion(BlobProperties)}.
+ * A blob uploaded again gets its metadata replaced, and with it the content version.</p>
  */
 @Component
 public class BlobMetaDataHandler {
@@ -25,6 +30,7 @@ public class BlobMetaDataHandler {
     private static final Logger logger = getLogger(BlobMetaDataHandler.class);
 
     public static final String LEASE_EXPIRATION_TIME = "leaseExpirationTime";
+    public static final String CONTENT_VERSION = "contentVersion";
 
     private final int leaseTimeout;
 
@@ -61,6 +67,7 @@ public class BlobMetaDataHandler {
         );
 
         if (isMetaDataLeaseNotAcquiredOrExpired(leaseExpirationTime)) {
+            blobMetaData.putIfAbsent(CONTENT_VERSION, etag);
             blobMetaData.put(
                 LEASE_EXPIRATION_TIME,
                 LocalDateTime.now(EUROPE_LONDON_ZONE_ID)
@@ -106,14 +113,34 @@ public class BlobMetaDataHandler {
     }
 
     /**
-     * The function `clearAllMetaData` clears all metadata associated with a BlobClient by setting it to null.
+     * The function `clearLeaseMetaData` removes the lease from the metadata of the blob, keeping only its content
+     * version. The metadata is only written on condition that the blob has not changed since it was read, so that a
+     * blob uploaded again in the meantime is not stamped with the content version of the previous upload.
      *
      * @param blobClient BlobClient is an object representing a client for interacting with blobs in a storage service.
-     *                   In this context, it seems to be used to manage metadata associated with blobs.
-     *                   The method `clearAllMetaData` is designed to clear all metadata associated with the
-     *                   blobClient by setting it to null.
+     *                   In this context, it is used to manage the lease metadata of the blob.
      */
-    public void clearAllMetaData(BlobClient blobClient) {
-        blobClient.setMetadata(null);
+    public void clearLeaseMetaData(BlobClient blobClient) {
+        BlobProperties blobProperties = blobClient.getProperties();
+        blobClient.setMetadataWithResponse(
+            Map.of(CONTENT_VERSION, getContentVersion(blobProperties)),
+            new BlobRequestConditions().setIfMatch("\"" + blobProperties.getETag() + "\""),
+            null,
+            Context.NONE
+        );
+    }
+
+    /**
+     * The function `getContentVersion` identifies the version of the content of a blob. Unlike the ETag, it does not
+     * change when the blob is leased or released, only when the blob is uploaded again.
+     *
+     * @param blobProperties The properties of the blob.
+     * @return The content version the blob has been stamped with when leased, or its ETag if it has not been leased
+     *      since it was uploaded.
+     */
+    public static String getContentVersion(BlobProperties blobProperties) {
+        Map<String, String> blobMetaData = blobProperties.getMetadata();
+        String contentVersion = blobMetaData == null ? null : blobMetaData.get(CONTENT_VERSION);
+        return contentVersion == null ? blobProperties.getETag() : contentVersion;
     }
 }
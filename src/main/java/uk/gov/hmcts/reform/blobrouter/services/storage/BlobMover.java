@@ -1,20 +1,39 @@
 package uk.gov.hmcts.reform.blobrouter.services.storage;
 
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.core.util.polling.PollResponse;
 import com.azure.core.util.polling.SyncPoller;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.models.BlobCopyInfo;
+import com.azure.storage.blob.models.BlobListDetails;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.Block;
+import com.azure.storage.blob.models.BlockListType;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.options.BlockBlobCommitBlockListOptions;
+import com.azure.storage.blob.options.BlockBlobStageBlockOptions;
 import com.azure.storage.blob.sas.BlobContainerSasPermission;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
 import com.azure.storage.blob.specialized.BlockBlobClient;
 import com.google.common.io.ByteStreams;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
 import uk.gov.hmcts.reform.blobrouter.exceptions.BlobStreamingException;
+import uk.gov.hmcts.reform.blobrouter.exceptions.ContentDigestMismatchException;
+import uk.gov.hmcts.reform.blobrouter.exceptions.TargetStorageException;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -22,8 +41,17 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
 
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
 import static org.slf4j.LoggerFactory.getLogger;
 import static uk.gov.hmcts.reform.blobrouter.services.storage.RejectedFilesHandler.REJECTED_CONTAINER_SUFFIX;
@@ -36,6 +64,11 @@ import static uk.gov.hmcts.reform.blobrouter.services.storage.RejectedFilesHandl
 public class BlobMover {
 
     private static final Logger logger = getLogger(BlobMover.class);
+
+    // metadata of uploaded blobs, identifying the committed content
+    static final String CONTENT_SHA256_METADATA = "content_sha256";
+    static final String ENVELOPE_ID_METADATA = "envelope_id";
+
     //upload chunk size in byte in MB
     private final int uploadChunkSize;
     private final BlobServiceClient storageClient;
@@ -132,8 +165,20 @@ public class BlobMover {
     }
 
     /**
-     * This Java function uploads a file in chunks to a block blob storage and handles exceptions by
-     * clearing uncommitted blocks if needed.
+     * This Java function uploads a file in chunks to a block blob storage. The upload can be resumed: block IDs are
+     * derived from the envelope ID, the index of the chunk and its checksum, so a retry of the same envelope produces
+     * the same IDs. Blocks which are already staged (uncommitted) in the target blob with the same ID and size are not
+     * uploaded again. Staged blocks are therefore kept when the upload fails, the storage service discards the ones
+     * which never get committed. Listing the staged blocks requires read access to the target blob, so uploads to
+     * targets which only allow writing are not resumed, see {@link TargetStorageAccount#isReadable()}.
+     *
+     * <p>The committed blob carries the digest of its content and the ID of the envelope in its metadata, see
+     * {@link #findCommittedContent(BlockBlobClient, UUID)}.</p>
+     *
+     * <p>Integrity is checked without reading the content again: each staged block carries its MD5 checksum, which
+     * the storage service validates, and a SHA-256 digest of the whole content is computed while it is read. When the
+     * digest of the verified content is given, the blocks are only committed if the uploaded content has the same
+     * digest, so that content other than the verified one never reaches the target.</p>
      *
      * @param blockBlobClient The `blockBlobClient` parameter in the `uploadWithChunks` method is an
      *                        instance of `BlockBlobClient` class, which is used to interact with a block
@@ -143,63 +188,328 @@ public class BlobMover {
      *                 represents the data source from which the file content will be read and uploaded in
      *                 chunks to the specified `BlockBlobClient`. This input stream allows the method to
      *                 read the file content in smaller chunks, stage and commit them appropriately.
-     * @return The method `uploadWithChunks` returns a list of strings containing the block IDs of the
-     *      uploaded chunks.
+     * @param envelopeId The ID of the envelope being uploaded. It makes block IDs unique to the envelope, so that
+     *                   blocks staged for any other upload to the same blob are never reused.
+     * @param expectedSha256 The hex encoded SHA-256 digest of the verified content, or null if it is not known.
+     * @param resumable Whether blocks staged by a previous attempt are looked for and reused. Only to be set when the
+     *                  target blob can be read.
+     * @return The block IDs of the uploaded chunks together with the digest and size of the uploaded content.
+     * @throws BlobStreamingException if the upload failed, caused by a {@link ContentDigestMismatchException} when
+     *      the uploaded content does not have the expected digest.
      */
-    public List<String> uploadWithChunks(BlockBlobClient blockBlobClient, InputStream inStream) {
+    public UploadedContent uploadWithChunks(
+        BlockBlobClient blockBlobClient,
+        InputStream inStream,
+        UUID envelopeId,
+        String expectedSha256,
+        boolean resumable
+    ) {
         byte[] envelopeData = new byte[uploadChunkSize];
         int blockNumber = 0;
         List<String> blockList = new ArrayList<>();
         long totalSize = 0L;
+        int reusedBlocks = 0;
+        String sha256;
         try {
+            MessageDigest contentDigest = MessageDigest.getInstance("SHA-256");
+            Map<String, Long> stagedBlocks = resumable ? getStagedBlocks(blockBlobClient) : emptyMap();
             while (inStream.available() != 0) {
                 blockNumber++;
-                String base64BlockId = Base64.getEncoder()
-                    .encodeToString(String.format("%07d", blockNumber).getBytes());
                 int numBytesRead = inStream.readNBytes(envelopeData, 0, uploadChunkSize);
                 totalSize += numBytesRead;
-                InputStream limitedStream;
-                limitedStream = ByteStreams
-                    .limit(new ByteArrayInputStream(envelopeData), numBytesRead);
+                contentDigest.update(envelopeData, 0, numBytesRead);
+                String base64BlockId = blockId(envelopeId, blockNumber, envelopeData, numBytesRead);
+
+                if (Long.valueOf(numBytesRead).equals(stagedBlocks.get(base64BlockId))) {
+                    reusedBlocks++;
+                } else {
+                    InputStream limitedStream = ByteStreams
+                        .limit(new ByteArrayInputStream(envelopeData), numBytesRead);
 
-                blockBlobClient
-                    .stageBlock(base64BlockId, limitedStream, numBytesRead);
+                    byte[] md5 = md5(envelopeData, numBytesRead);
+                    requestTarget(blockBlobClient, () -> blockBlobClient.stageBlockWithResponse(
+                        base64BlockId,
+                        limitedStream,
+                        numBytesRead,
+                        md5,
+                        null,
+                        null,
+                        Context.NONE
+                    ));
+                }
                 blockList.add(base64BlockId);
             }
-            blockBlobClient.commitBlockList(blockList);
+            sha256 = HexFormat.of().formatHex(contentDigest.digest());
+            checkDigest(sha256, expectedSha256);
+            commit(blockBlobClient, blockList, sha256, envelopeId);
             logger.info(
-                "Upload committed  to {}, num of  block {}, total size {}",
+                "Upload committed  to {}, num of  block {}, reused blocks {}, total size {}, SHA-256 {}",
                 blockBlobClient.getBlobUrl(),
                 blockList.size(),
-                byteCountToDisplaySize(totalSize)
+                reusedBlocks,
+                byteCountToDisplaySize(totalSize),
+                sha256
             );
         } catch (Exception ex) {
-            logger.info("Upload  to {}. FAILED", blockBlobClient.getBlobUrl());
-            //try to clear uncommitted blocks
-            tryToDelete(blockBlobClient);
+            logger.info(
+                "Upload  to {}. FAILED, staged blocks are kept for the next attempt",
+                blockBlobClient.getBlobUrl()
+            );
             throw new BlobStreamingException("Upload by chunk got error", ex);
         }
 
-        return blockList;
+        return new UploadedContent(blockList, sha256, totalSize);
     }
 
     /**
-     * The function `tryToDelete` attempts to delete a block blob client and logs
-     * an error message if the deletion fails.
+     * The function `uploadFromFile` uploads the content of a local file, e.g. an envelope spilled to scratch space,
+     * in blocks to a block blob storage. Each block is a read-only memory-mapped slice of the file, which is staged
+     * as is, so the content is never copied into a heap buffer. Blocks are mapped one at a time, which keeps the
+     * mapped region small and allows files larger than 2 GB.
      *
-     * @param blockBlobClient The `blockBlobClient` parameter is an instance of `BlockBlobClient` class,
-     *                       which represents a client to interact with a block blob in Azure Storage.
-     *                        In the provided code snippet, the `tryToDelete` method attempts to delete
-     *                        the block blob using the `delete` method of the `BlockBlobClient`.
+     * <p>Blocks are cut at the same boundaries and get the same IDs as in
+     * {@link #uploadWithChunks(BlockBlobClient, InputStream, UUID, String, boolean)}, so an upload can be resumed by
+     * either method, and the committed blob carries the same metadata.</p>
+     *
+     * @param blockBlobClient The client of the target blob.
+     * @param file The channel of the file to upload, read from its start regardless of its position.
+     * @param envelopeId The ID of the envelope being uploaded.
+     * @param expectedSha256 The hex encoded SHA-256 digest of the verified content, or null if it is not known.
+     * @param resumable Whether blocks staged by a previous attempt are looked for and reused. Only to be set when the
+     *                  target blob can be read.
+     * @return The block IDs of the uploaded blocks together with the digest and size of the uploaded content.
+     * @throws BlobStreamingException if the upload failed, caused by a {@link ContentDigestMismatchException} when
+     *      the uploaded content does not have the expected digest.
      */
-    private void tryToDelete(BlockBlobClient blockBlobClient) {
+    public UploadedContent uploadFromFile(
+        BlockBlobClient blockBlobClient,
+        FileChannel file,
+        UUID envelopeId,
+        String expectedSha256,
+        boolean resumable
+    ) {
+        int blockNumber = 0;
+        List<String> blockList = new ArrayList<>();
+        long totalSize;
+        int reusedBlocks = 0;
+        String sha256;
         try {
-            blockBlobClient.delete();
-        } catch (Exception exc) {
-            logger.error(
-                "Deleting uncommitted blocks from {} failed",
+            totalSize = file.size();
+            MessageDigest contentDigest = MessageDigest.getInstance("SHA-256");
+            Map<String, Long> stagedBlocks = resumable ? getStagedBlocks(blockBlobClient) : emptyMap();
+            for (long position = 0; position < totalSize; position += uploadChunkSize) {
+                blockNumber++;
+                int length = (int) Math.min(uploadChunkSize, totalSize - position);
+                MappedByteBuffer block = file.map(FileChannel.MapMode.READ_ONLY, position, length);
+                contentDigest.update(block.duplicate());
+                String base64BlockId = blockId(envelopeId, blockNumber, block.duplicate());
+
+                if (Long.valueOf(length).equals(stagedBlocks.get(base64BlockId))) {
+                    reusedBlocks++;
+                } else {
+                    var options = new BlockBlobStageBlockOptions(
+                        base64BlockId,
+                        BinaryData.fromByteBuffer(block.duplicate())
+                    ).setContentMd5(md5(block.duplicate()));
+                    requestTarget(
+                        blockBlobClient,
+                        () -> blockBlobClient.stageBlockWithResponse(options, null, Context.NONE)
+                    );
+                }
+                blockList.add(base64BlockId);
+            }
+            sha256 = HexFormat.of().formatHex(contentDigest.digest());
+            checkDigest(sha256, expectedSha256);
+            commit(blockBlobClient, blockList, sha256, envelopeId);
+            logger.info(
+                "Upload from file committed to {}, num of block {}, reused blocks {}, total size {}, SHA-256 {}",
                 blockBlobClient.getBlobUrl(),
-                exc
+                blockList.size(),
+                reusedBlocks,
+                byteCountToDisplaySize(totalSize),
+                sha256
+            );
+        } catch (Exception ex) {
+            logger.info(
+                "Upload from file to {}. FAILED, staged blocks are kept for the next attempt",
+                blockBlobClient.getBlobUrl()
+            );
+            throw new BlobStreamingException("Upload from file got error", ex);
+        }
+
+        return new UploadedContent(blockList, sha256, totalSize);
+    }
+
+    /**
+     * The function `findCommittedContent` checks whether the target blob has already been committed for the given
+     * envelope, e.g. by an upload whose envelope could not be marked as dispatched afterwards. The blob is looked up
+     * by listing the target container with metadata, as the SAS tokens of the CFT and PCQ containers allow listing
+     * but not reading blobs, so the check costs a single request whichever the target. The check is best effort:
+     * when the container cannot be listed, the blob is assumed to be missing and is uploaded again.
+     *
+     * @param blockBlobClient The client of the target blob.
+     * @param envelopeId The ID of the envelope being dispatched.
+     * @return The hex encoded SHA-256 digest of the committed content, or empty if the blob does not exist or has
+     *      been committed for another envelope.
+     */
+    public Optional<String> findCommittedContent(BlockBlobClient blockBlobClient, UUID envelopeId) {
+        String blobName = blockBlobClient.getBlobName();
+        var options = new ListBlobsOptions()
+            .setPrefix(blobName)
+            .setDetails(new BlobListDetails().setRetrieveMetadata(true));
+        try {
+            return blockBlobClient
+                .getContainerClient()
+                .listBlobs(options, null)
+                .stream()
+                .filter(blob -> blob.getName().equals(blobName) && blob.getMetadata() != null)
+                .filter(blob -> envelopeId.toString().equals(blob.getMetadata().get(ENVELOPE_ID_METADATA)))
+                .map(blob -> blob.getMetadata().get(CONTENT_SHA256_METADATA))
+                .filter(Objects::nonNull)
+                .findFirst();
+        } catch (BlobStorageException ex) {
+            logger.warn("Looking up {} by listing its container failed", blockBlobClient.getBlobUrl(), ex);
+            return Optional.empty();
+        } catch (RuntimeException ex) {
+            throw new TargetStorageException(
+                "Looking up " + blockBlobClient.getBlobUrl() + " by listing its container failed",
+                ex
+            );
+        }
+    }
+
+    /**
+     * The function `md5` calculates the MD5 checksum of a block, sent along with the block so that the storage
+     * service rejects a block corrupted in transit.
+     *
+     * @param data The buffer holding the content of the block.
+     * @param length The number of bytes of the block in the buffer.
+     * @return The MD5 checksum of the block.
+     */
+    private static byte[] md5(byte[] data, int length) throws NoSuchAlgorithmException {
+        return md5(ByteBuffer.wrap(data, 0, length));
+    }
+
+    /**
+     * The function `md5` calculates the MD5 checksum of a block held in a byte buffer, e.g. a mapped slice of a file.
+     *
+     * @param block The content of the block, from its position to its limit. The buffer is consumed.
+     * @return The MD5 checksum of the block.
+     */
+    private static byte[] md5(ByteBuffer block) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        digest.update(block);
+        return digest.digest();
+    }
+
+    /**
+     * The function `blockId` builds the ID of a block from the envelope ID, the number of the block and the CRC32C
+     * checksum of its content. All parts have a fixed length, as all block IDs of a blob must be of the same length.
+     *
+     * @param envelopeId The ID of the envelope being uploaded.
+     * @param blockNumber The number of the block within the upload, starting from 1.
+     * @param data The buffer holding the content of the block.
+     * @param length The number of bytes of the block in the buffer.
+     * @return The Base64 encoded block ID.
+     */
+    static String blockId(UUID envelopeId, int blockNumber, byte[] data, int length) {
+        return blockId(envelopeId, blockNumber, ByteBuffer.wrap(data, 0, length));
+    }
+
+    /**
+     * The function `blockId` builds the ID of a block held in a byte buffer, see
+     * {@link #blockId(UUID, int, byte[], int)}.
+     *
+     * @param envelopeId The ID of the envelope being uploaded.
+     * @param blockNumber The number of the block within the upload, starting from 1.
+     * @param block The content of the block, from its position to its limit. The buffer is consumed.
+     * @return The Base64 encoded block ID.
+     */
+    static String blockId(UUID envelopeId, int blockNumber, ByteBuffer block) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(block);
+        String blockId = String.format("%s-%07d-%08x", envelopeId, blockNumber, checksum.getValue());
+        return Base64.getEncoder().encodeToString(blockId.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The function `checkDigest` checks that the uploaded content is the verified one, before it gets committed.
+     *
+     * @param sha256 The hex encoded SHA-256 digest of the uploaded content.
+     * @param expectedSha256 The hex encoded SHA-256 digest of the verified content, or null if it is not known.
+     * @throws ContentDigestMismatchException if both digests are known and differ.
+     */
+    private static void checkDigest(String sha256, String expectedSha256) {
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256)) {
+            throw new ContentDigestMismatchException(String.format(
+                "Uploaded content has SHA-256 %s, verified content has SHA-256 %s",
+                sha256,
+                expectedSha256
+            ));
+        }
+    }
+
+    /**
+     * The function `commit` commits the uploaded blocks, recording the digest of the content and the ID of the
+     * envelope in the metadata of the blob.
+     *
+     * @param blockBlobClient The client of the target blob.
+     * @param blockList The IDs of the blocks making up the content, in order.
+     * @param sha256 The hex encoded SHA-256 digest of the content.
+     * @param envelopeId The ID of the envelope being uploaded.
+     */
+    private static void commit(
+        BlockBlobClient blockBlobClient,
+        List<String> blockList,
+        String sha256,
+        UUID envelopeId
+    ) {
+        var options = new BlockBlobCommitBlockListOptions(blockList).setMetadata(Map.of(
+            CONTENT_SHA256_METADATA, sha256,
+            ENVELOPE_ID_METADATA, envelopeId.toString()
+        ));
+        requestTarget(blockBlobClient, () -> blockBlobClient.commitBlockListWithResponse(options, null, Context.NONE));
+    }
+
+    /**
+     * The function `requestTarget` sends a request to the target blob, wrapping its failure in a
+     * {@link TargetStorageException}. This tells failures of the target storage account apart from failures of the
+     * source, e.g. reading the content being uploaded, see {@link StorageResponseErrors#findTargetFailure(Throwable)}.
+     *
+     * @param blockBlobClient The client of the target blob.
+     * @param request The request to send with the client.
+     * @return The response to the request.
+     */
+    private static <T> T requestTarget(BlockBlobClient blockBlobClient, Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException ex) {
+            throw new TargetStorageException("Request to " + blockBlobClient.getBlobUrl() + " failed", ex);
+        }
+    }
+
+    /**
+     * The function `getStagedBlocks` lists the blocks which have been staged, but not committed, in the target blob,
+     * e.g. by an upload which failed midway. Listing is best effort: when it fails, every block is uploaded again.
+     *
+     * @param blockBlobClient The client of the target blob.
+     * @return The sizes of the uncommitted blocks, by block ID.
+     */
+    private Map<String, Long> getStagedBlocks(BlockBlobClient blockBlobClient) {
+        try {
+            List<Block> blocks = blockBlobClient.listBlocks(BlockListType.UNCOMMITTED).getUncommittedBlocks();
+            return blocks == null
+                ? emptyMap()
+                : blocks.stream().collect(toMap(Block::getName, Block::getSizeLong, (first, second) -> second));
+        } catch (BlobStorageException ex) {
+            if (ex.getStatusCode() != HttpStatus.NOT_FOUND.value()) {
+                logger.warn("Listing uncommitted blocks of {} failed", blockBlobClient.getBlobUrl(), ex);
+            }
+            return emptyMap();
+        } catch (RuntimeException ex) {
+            throw new TargetStorageException(
+                "Listing uncommitted blocks of " + blockBlobClient.getBlobUrl() + " failed",
+                ex
             );
         }
     }
@@ -0,0 +1,154 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.models.BlobErrorCode;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `BlobPrefetcher` class leases a blob and starts reading its content ahead, while the blob before it is still
+ * being processed, so that downloads and uploads of consecutive blobs overlap.
+ *
+ * <p>The content is read on a virtual thread into a bounded buffer of `blob-prefetch.buffer-size-bytes`, see
+ * {@link StreamTee}. Reading pauses while the buffer is full and resumes as the content is consumed. The number of
+ * prefetched blobs whose content has been used and of the ones which have been abandoned are published as
+ * `blob.prefetch` with the outcome `used` and `unused`.</p>
+ */
+@Component
+public class BlobPrefetcher {
+
+    private static final Logger logger = getLogger(BlobPrefetcher.class);
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final LeaseAcquirer leaseAcquirer;
+    private final int bufferChunks;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter usedCounter;
+    private final Counter unusedCounter;
+
+    public BlobPrefetcher(
+        LeaseAcquirer leaseAcquirer,
+        MeterRegistry meterRegistry,
+        @Value("${blob-prefetch.buffer-size-bytes:16777216}") int bufferSizeBytes
+    ) {
+        this.leaseAcquirer = leaseAcquirer;
+        this.bufferChunks = Math.max(1, bufferSizeBytes / CHUNK_SIZE);
+        this.usedCounter = Counter.builder("blob.prefetch").tag("outcome", "used").register(meterRegistry);
+        this.unusedCounter = Counter.builder("blob.prefetch").tag("outcome", "unused").register(meterRegistry);
+    }
+
+    /**
+     * The `prefetch` method leases the blob and starts reading its content ahead. The lease is kept until the
+     * returned blob is closed, which must happen whether the blob gets processed or not.
+     *
+     * @param blobClient The client of the blob to prefetch.
+     * @param onLeaseFailure The action run with the error code when the lease is not acquired.
+     * @return The prefetched blob, or empty if the blob could not be leased.
+     */
+    public Optional<PrefetchedBlob> prefetch(BlobClient blobClient, Consumer<BlobErrorCode> onLeaseFailure) {
+        if (!leaseAcquirer.tryAcquire(blobClient, onLeaseFailure)) {
+            return Optional.empty();
+        }
+
+        try {
+            // leasing changes the ETag, so it is read afterwards
+            String eTag = blobClient.getProperties().getETag();
+            var source = new LazyBlobStream(blobClient, eTag);
+            var tee = new StreamTee(source, 1, CHUNK_SIZE, bufferChunks);
+            InputStream content = tee.branch(0);
+
+            executor.submit(() -> {
+                try (source) {
+                    tee.pump();
+                }
+                return null;
+            });
+
+            logger.info(
+                "Prefetching blob. File name: {}, Container: {}",
+                blobClient.getBlobName(),
+                blobClient.getContainerName()
+            );
+            return Optional.of(new PrefetchedBlob(blobClient, eTag, content, this));
+        } catch (RuntimeException ex) {
+            leaseAcquirer.release(blobClient);
+            throw ex;
+        }
+    }
+
+    /**
+     * The `release` method releases the lease on a prefetched blob once it has been closed, recording whether its
+     * content has been used.
+     *
+     * @param prefetchedBlob The closed prefetched blob.
+     */
+    public void release(PrefetchedBlob prefetchedBlob) {
+        (prefetchedBlob.isClaimed() ? usedCounter : unusedCounter).increment();
+        leaseAcquirer.release(prefetchedBlob.blobClient);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The `LazyBlobStream` class opens the content of the blob on the first read, so that opening it, which already
+     * downloads the first part of the content, happens on the reading thread.
+     */
+    private static final class LazyBlobStream extends InputStream {
+
+        private final BlobClient blobClient;
+        private final String eTag;
+        private InputStream delegate;
+
+        LazyBlobStream(BlobClient blobClient, String eTag) {
+            this.blobClient = blobClient;
+            this.eTag = eTag;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return open().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return open().read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+
+        private InputStream open() {
+            if (delegate == null) {
+                delegate = eTag == null
+                    ? blobClient.openInputStream()
+                    : blobClient.openInputStream(
+                        new BlobInputStreamOptions().setRequestConditions(new BlobRequestConditions().setIfMatch(eTag))
+                    );
+            }
+            return delegate;
+        }
+    }
+}
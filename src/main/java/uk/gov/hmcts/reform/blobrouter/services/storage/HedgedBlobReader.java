@@ -0,0 +1,289 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.core.util.Context;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.specialized.BlobClientBase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The `HedgedBlobReader` class opens the content of source blobs for reading. When hedged reads are enabled, the
+ * content is downloaded by range, one range at a time. A range which takes longer than the configured percentile of
+ * recent range downloads is requested a second time, and whichever response arrives first is used, so that a single
+ * slow storage front-end does not stall the whole download.
+ *
+ * <p>Hedged requests are limited by a budget: every range download adds `hedged-reads.budget-percent` percent of a
+ * hedged request to it, and every hedged request takes a whole one. The outcome of hedged requests is published as
+ * `blob.hedged.read` with the outcome `won` when the hedged request answered first, `lost` when the original one did
+ * and `denied` when the budget did not allow a hedged request.</p>
+ *
+ * <p>When hedged reads are disabled, blobs are read as a single stream, as before.</p>
+ */
+@Component
+public class HedgedBlobReader {
+
+    // the hedge delay is derived from the latencies of the most recent range downloads, once there are enough of them
+    private static final int LATENCY_WINDOW_SIZE = 200;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    // unused budget accumulates up to this number of hedged requests, which allows for short bursts of slow ranges
+    private static final double MAX_BUDGET = 10;
+
+    private final boolean enabled;
+    private final int rangeSizeBytes;
+    private final int latencyPercentile;
+    private final long minDelayNanos;
+    private final double budgetPerRange;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter wonCounter;
+    private final Counter lostCounter;
+    private final Counter deniedCounter;
+
+    // guarded by this
+    private final long[] latencies = new long[LATENCY_WINDOW_SIZE];
+    private int latencyCount;
+    private int nextLatencyIndex;
+    private double budget;
+
+    public HedgedBlobReader(
+        MeterRegistry meterRegistry,
+        @Value("${hedged-reads.enabled:false}") boolean enabled,
+        @Value("${hedged-reads.range-size-bytes:4194304}") int rangeSizeBytes,
+        @Value("${hedged-reads.latency-percentile:95}") int latencyPercentile,
+        @Value("${hedged-reads.min-delay-millis:100}") long minDelayMillis,
+        @Value("${hedged-reads.budget-percent:5}") int budgetPercent
+    ) {
+        this.enabled = enabled;
+        this.rangeSizeBytes = rangeSizeBytes;
+        this.latencyPercentile = latencyPercentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.budgetPerRange = budgetPercent / 100.0;
+        this.wonCounter = Counter.builder("blob.hedged.read").tag("outcome", "won").register(meterRegistry);
+        this.lostCounter = Counter.builder("blob.hedged.read").tag("outcome", "lost").register(meterRegistry);
+        this.deniedCounter = Counter.builder("blob.hedged.read").tag("outcome", "denied").register(meterRegistry);
+    }
+
+    /**
+     * The `openInputStream` method opens the content of a blob for reading.
+     *
+     * @param blobClient The client of the blob to read.
+     * @param eTag The ETag the blob is expected to have, or null if any version of the blob can be read. The content
+     *             is read by range on condition that the blob has not changed, so that the ranges add up to a single
+     *             version of it.
+     * @return The content of the blob, to be closed by the caller.
+     */
+    public InputStream openInputStream(BlobClientBase blobClient, String eTag) {
+        if (!enabled) {
+            return eTag == null
+                ? blobClient.openInputStream()
+                : blobClient.openInputStream(
+                    new BlobInputStreamOptions().setRequestConditions(new BlobRequestConditions().setIfMatch(eTag))
+                );
+        }
+
+        BlobProperties properties = blobClient.getProperties();
+        return new RangedInputStream(
+            blobClient,
+            eTag == null ? properties.getETag() : eTag,
+            properties.getBlobSize()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The `readRange` method downloads a range of the blob, hedging the request if it takes longer than the hedge
+     * delay and the budget allows for it. The latency of the range is recorded from the start of the first request,
+     * whichever request answers, so that slow requests count towards the hedge delay even when their hedge won.
+     *
+     * @param blobClient The client of the blob to read.
+     * @param range The range to download.
+     * @param eTag The ETag the blob must have.
+     * @return The content of the range.
+     * @throws IOException if the range could not be downloaded by any of the requests.
+     */
+    private byte[] readRange(BlobClientBase blobClient, BlobRange range, String eTag) throws IOException {
+        var completion = new ExecutorCompletionService<RangeRead>(executor);
+        List<Future<RangeRead>> requests = new ArrayList<>(2);
+        long startTime = System.nanoTime();
+        requests.add(completion.submit(() -> download(blobClient, range, eTag, false)));
+        depositBudget();
+
+        try {
+            Future<RangeRead> done = completion.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                if (tryHedge()) {
+                    requests.add(completion.submit(() -> download(blobClient, range, eTag, true)));
+                }
+                done = completion.take();
+            }
+
+            RangeRead rangeRead;
+            try {
+                rangeRead = done.get();
+            } catch (ExecutionException ex) {
+                if (requests.size() == 1) {
+                    throw ex;
+                }
+                // the other request can still succeed
+                rangeRead = completion.take().get();
+            }
+
+            if (requests.size() > 1) {
+                (rangeRead.hedged ? wonCounter : lostCounter).increment();
+            }
+            recordLatency(System.nanoTime() - startTime);
+            return rangeRead.content;
+        } catch (ExecutionException ex) {
+            throw new IOException(
+                "Reading range " + range + " of blob " + blobClient.getBlobName() + " failed",
+                ex.getCause()
+            );
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading blob " + blobClient.getBlobName());
+        } finally {
+            // the request which has not answered yet is no longer needed
+            requests.forEach(request -> request.cancel(true));
+        }
+    }
+
+    private static RangeRead download(BlobClientBase blobClient, BlobRange range, String eTag, boolean hedged) {
+        var outputStream = new ByteArrayOutputStream(range.getCount().intValue());
+        blobClient.downloadStreamWithResponse(
+            outputStream,
+            range,
+            null,
+            new BlobRequestConditions().setIfMatch(eTag),
+            false,
+            null,
+            Context.NONE
+        );
+        return new RangeRead(outputStream.toByteArray(), hedged);
+    }
+
+    /**
+     * The `hedgeDelayNanos` method returns how long to wait for a range before hedging the request: the configured
+     * percentile of recent range latencies, but no less than `hedged-reads.min-delay-millis`. Requests are not hedged
+     * until enough latencies have been recorded.
+     */
+    private synchronized long hedgeDelayNanos() {
+        if (latencyCount < MIN_LATENCY_SAMPLES) {
+            return Long.MAX_VALUE;
+        }
+
+        long[] window = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(window);
+        int index = (int) Math.ceil(latencyPercentile / 100.0 * window.length) - 1;
+        return Math.max(minDelayNanos, window[Math.max(0, index)]);
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        latencies[nextLatencyIndex] = latencyNanos;
+        nextLatencyIndex = (nextLatencyIndex + 1) % LATENCY_WINDOW_SIZE;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW_SIZE);
+    }
+
+    private synchronized void depositBudget() {
+        budget = Math.min(MAX_BUDGET, budget + budgetPerRange);
+    }
+
+    private synchronized boolean tryHedge() {
+        if (budget < 1) {
+            deniedCounter.increment();
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private record RangeRead(byte[] content, boolean hedged) {
+    }
+
+    /**
+     * The `RangedInputStream` class reads the content of a blob range by range, downloading the next range once the
+     * previous one has been read.
+     */
+    private final class RangedInputStream extends InputStream {
+
+        private final BlobClientBase blobClient;
+        private final String eTag;
+        private final long size;
+
+        private long nextOffset;
+        private byte[] range = new byte[0];
+        private int position;
+
+        RangedInputStream(BlobClientBase blobClient, String eTag, long size) {
+            this.blobClient = blobClient;
+            this.eTag = eTag;
+            this.size = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? range[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+
+            int count = Math.min(length, range.length - position);
+            System.arraycopy(range, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            if (position < range.length) {
+                return true;
+            }
+            if (nextOffset >= size) {
+                return false;
+            }
+
+            long count = Math.min(rangeSizeBytes, size - nextOffset);
+            range = readRange(blobClient, new BlobRange(nextOffset, count), eTag);
+            if (range.length != count) {
+                throw new IOException(
+                    "Expected " + count + " bytes at offset " + nextOffset + " of blob " + blobClient.getBlobName()
+                        + ", got " + range.length
+                );
+            }
+            position = 0;
+            nextOffset += count;
+            return true;
+        }
+    }
+}
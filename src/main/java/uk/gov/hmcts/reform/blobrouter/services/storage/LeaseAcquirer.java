@@ -53,44 +53,13 @@ public class LeaseAcquirer {
         Consumer<BlobErrorCode> onFailure,
         boolean releaseLease
     ) {
-        BlobErrorCode errorCode = LEASE_ALREADY_PRESENT;
         try {
-            boolean isReady = false;
-            try {
-                isReady = blobMetaDataHandler.isBlobReadyToUse(blobClient);
-            } catch (Exception ex) {
-                if (ex instanceof BlobStorageException) {
-                    errorCode = getErrorCode(blobClient, (BlobStorageException) ex);
-                }
-
-                if (errorCode == CONDITION_NOT_MET) {
-                    var blobStorageException = (BlobStorageException) ex;
-                    logger.info(
-                        "Blob already leased for {}, Error message:  {}, Status code: {}",
-                        blobClient.getBlobUrl(),
-                        blobStorageException.getMessage(),
-                        blobStorageException.getStatusCode()
-                    );
-                } else {
-                    logger.error(
-                        "Could not check meta data for lease expiration on file {} in container {}",
-                        blobClient.getBlobName(),
-                        blobClient.getContainerName(),
-                        ex
-                    );
-                }
-            }
-
-            if (isReady) {
+            if (tryAcquire(blobClient, onFailure)) {
                 onSuccess.run();
                 if (releaseLease) {
-                    clearMetadataAndReleaseLease(blobClient);
+                    release(blobClient);
                 }
-            } else {
-                //it means lease did not acquired let the failure function decide
-                onFailure.accept(errorCode);
             }
-
         } catch (BlobStorageException exc) {
             logger.error(
                 "Error acquiring lease for blob. File name: {}, Container: {}",
@@ -101,6 +70,51 @@ public class LeaseAcquirer {
         }
     }
 
+    /**
+     * The `tryAcquire` function attempts to acquire a lease on a blob using metadata. Unlike
+     * {@link #ifAcquiredOrElse(BlobClient, Runnable, Consumer, boolean)}, the lease is kept once acquired, until it
+     * is released with {@link #release(BlobClient)} or expires, e.g. for a blob which is prefetched before it is
+     * processed.
+     *
+     * @param blobClient The client of the blob to lease.
+     * @param onFailure The action run with the error code when the lease is not acquired.
+     * @return true if the lease has been acquired.
+     */
+    public boolean tryAcquire(BlobClient blobClient, Consumer<BlobErrorCode> onFailure) {
+        BlobErrorCode errorCode = LEASE_ALREADY_PRESENT;
+        boolean isReady = false;
+        try {
+            isReady = blobMetaDataHandler.isBlobReadyToUse(blobClient);
+        } catch (Exception ex) {
+            if (ex instanceof BlobStorageException) {
+                errorCode = getErrorCode(blobClient, (BlobStorageException) ex);
+            }
+
+            if (errorCode == CONDITION_NOT_MET) {
+                var blobStorageException = (BlobStorageException) ex;
+                logger.info(
+                    "Blob already leased for {}, Error message:  {}, Status code: {}",
+                    blobClient.getBlobUrl(),
+                    blobStorageException.getMessage(),
+                    blobStorageException.getStatusCode()
+                );
+            } else {
+                logger.error(
+                    "Could not check meta data for lease expiration on file {} in container {}",
+                    blobClient.getBlobName(),
+                    blobClient.getContainerName(),
+                    ex
+                );
+            }
+        }
+
+        if (!isReady) {
+            //it means lease did not acquired let the failure function decide
+            onFailure.accept(errorCode);
+        }
+        return isReady;
+    }
+
     /**
      * This function retrieves the error code from a BlobStorageException, handling cases where
      * the error code is null or the status code is not found.
@@ -132,16 +146,15 @@ public class LeaseAcquirer {
     }
 
     /**
-     * This function clears all metadata from a blob using a BlobClient and logs a warning if an exception occurs.
+     * This function releases the lease on a blob by clearing its lease metadata, and logs a warning if an exception
+     * occurs. The content version of the blob is kept, see {@link BlobMetaDataHandler#getContentVersion}.
      *
      * @param blobClient BlobClient is an object representing a client to interact with a specific blob in Azure Blob
      *      Storage. It contains information about the blob such as its name and the container it belongs to.
      */
-    private void clearMetadataAndReleaseLease(
-        BlobClient blobClient
-    ) {
+    public void release(BlobClient blobClient) {
         try {
-            blobMetaDataHandler.clearAllMetaData(blobClient);
+            blobMetaDataHandler.clearLeaseMetaData(blobClient);
         } catch (BlobStorageException exc) {
             logger.warn(
                 "Could not clear metadata, Blob: {}, container: {}",
@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.storage.blob.BlobClient;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `PrefetchedBlob` class is a leased blob whose content is being read ahead into a bounded buffer, see
+ * {@link BlobPrefetcher}. Closing it stops the read ahead and releases the lease, whether the content has been used
+ * or the blob has been abandoned.
+ */
+public class PrefetchedBlob implements AutoCloseable {
+
+    private static final Logger logger = getLogger(PrefetchedBlob.class);
+
+    public final BlobClient blobClient;
+
+    // the ETag of the blob when the read ahead started, the content is read on condition that it has not changed
+    public final String eTag;
+
+    private final InputStream content;
+    private final BlobPrefetcher prefetcher;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public PrefetchedBlob(BlobClient blobClient, String eTag, InputStream content, BlobPrefetcher prefetcher) {
+        this.blobClient = blobClient;
+        this.eTag = eTag;
+        this.content = content;
+        this.prefetcher = prefetcher;
+    }
+
+    /**
+     * The `claimContent` method hands over the content read ahead. It can be claimed only once, as the buffered part
+     * of the content is consumed by reading it.
+     *
+     * @return The content of the blob, starting with the buffered part, or null if it has already been claimed.
+     */
+    public InputStream claimContent() {
+        return claimed.compareAndSet(false, true) ? content : null;
+    }
+
+    boolean isClaimed() {
+        return claimed.get();
+    }
+
+    /**
+     * The `close` method stops reading ahead, discards the buffered content and releases the lease on the blob.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                content.close();
+            } catch (IOException ex) {
+                logger.warn("Closing prefetched content of {} failed", blobClient.getBlobName(), ex);
+            }
+            prefetcher.release(this);
+        }
+    }
+}
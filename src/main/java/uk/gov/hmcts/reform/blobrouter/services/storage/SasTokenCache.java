@@ -5,6 +5,7 @@ import com.azure.storage.common.implementation.Constants;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Expiry;
+import feign.FeignException;
 import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.slf4j.Logger;
@@ -14,12 +15,15 @@ import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
 import uk.gov.hmcts.reform.blobrouter.clients.bulkscanprocessor.BulkScanProcessorClient;
 import uk.gov.hmcts.reform.blobrouter.clients.pcq.PcqClient;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidSasTokenException;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.CircuitBreaker;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.TemporalAccessor;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static com.azure.storage.common.implementation.Constants.UrlConstants.SAS_EXPIRY_TIME;
 import static com.azure.storage.common.implementation.StorageImplUtils.parseQueryStringSplitValues;
@@ -38,6 +42,7 @@ public class SasTokenCache {
     private final long refreshSasBeforeExpiry;
     private final PcqClient pcqClient;
     private final AuthTokenGenerator authTokenGenerator;
+    private final DispatchCircuitBreakers circuitBreakers;
 
     //key= container name, value = sastoken
     private static Cache<String, String> tokenCache;
@@ -46,11 +51,13 @@ public class SasTokenCache {
         BulkScanProcessorClient bulkScanSasTokenClient,
         PcqClient pcqClient,
         AuthTokenGenerator authTokenGenerator,
+        DispatchCircuitBreakers circuitBreakers,
         @Value("${sas-token-cache.refresh-before-expire-in-sec}") long refreshSasBeforeExpiry
     ) {
         this.bulkScanSasTokenClient = bulkScanSasTokenClient;
         this.pcqClient = pcqClient;
         this.authTokenGenerator = authTokenGenerator;
+        this.circuitBreakers = circuitBreakers;
         this.refreshSasBeforeExpiry = refreshSasBeforeExpiry;
         tokenCache = Caffeine.newBuilder()
             .expireAfter(new SasTokenCacheExpiry())
@@ -127,7 +134,10 @@ public class SasTokenCache {
     private String createSasToken(String containerName) {
         logger.info("Making sas token call for Container: {}", containerName);
 
-        final String sasToken = bulkScanSasTokenClient.getSasToken(containerName).sasToken;
+        final String sasToken = callSasEndpoint(
+            circuitBreakers.bulkScanSasEndpoint(),
+            () -> bulkScanSasTokenClient.getSasToken(containerName).sasToken
+        );
 
         logger.info("Finished making sas token call for Container: {}", containerName);
 
@@ -148,13 +158,39 @@ public class SasTokenCache {
     private String createPcqSasToken(String containerName) {
         logger.info("Making sas token call for Container: {}", containerName);
 
-        final String sasToken = pcqClient.getSasToken(authTokenGenerator.generate()).sasToken;
+        final String sasToken = callSasEndpoint(
+            circuitBreakers.pcqSasEndpoint(),
+            () -> pcqClient.getSasToken(authTokenGenerator.generate()).sasToken
+        );
 
         logger.info("Finished making sas token call for Container: {}", containerName);
 
         return sasToken;
     }
 
+    /**
+     * Calls a SAS token endpoint and records the outcome in its circuit breaker. Server errors and failures to reach
+     * the endpoint count as failures, any other response proves the endpoint is up.
+     *
+     * @param breaker The circuit breaker of the endpoint.
+     * @param call The call to the endpoint.
+     * @return The SAS token returned by the endpoint.
+     */
+    private static String callSasEndpoint(CircuitBreaker breaker, Supplier<String> call) {
+        try {
+            String sasToken = call.get();
+            breaker.onSuccess();
+            return sasToken;
+        } catch (FeignException ex) {
+            if (ex.status() < 0 || ex.status() >= 500) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            throw ex;
+        }
+    }
+
     /**
      * SasTokenCacheExpiry - implements the Expiry class from the Caffeine caching Java library.
      * See also {@link com.github.benmanes.caffeine.cache.Expiry}
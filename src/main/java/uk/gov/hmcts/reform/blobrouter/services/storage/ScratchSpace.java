@@ -0,0 +1,193 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.core.util.Context;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobDownloadToFileOptions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.exceptions.BlobStreamingException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `ScratchSpace` class spills very large blobs to a local scratch directory, so that they are downloaded only
+ * once per attempt: verification and upload both read the local copy instead of the source blob. Blobs whose
+ * verification result has been cached, or whose content has been read ahead, are not spilled.
+ *
+ * <p>Spilling is optional and only applies to blobs of at least the configured size. A blob is downloaded with
+ * parallel ranged reads, conditional on the ETag it had when it was inspected. Every spilled blob reserves twice its
+ * size, covering the blob itself and its extracted inner envelope, from a quota shared by all blobs being processed.
+ * When the quota or the free space of the scratch directory does not allow for another blob, the blob is processed
+ * as a stream instead, as if spilling was disabled. The reserved space is published as `scratch.space.reserved`.</p>
+ *
+ * <p>Files are deleted as soon as the spilled blob is closed, at the end of the attempt, so a later attempt reads the
+ * blob from the source again. Files left behind by an instance which stopped abruptly are deleted on start up.</p>
+ */
+@Component
+public class ScratchSpace {
+
+    private static final Logger logger = getLogger(ScratchSpace.class);
+
+    private final boolean enabled;
+    private final long thresholdBytes;
+    private final Path directory;
+    private final long quotaBytes;
+    private final ParallelTransferOptions downloadOptions;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    public ScratchSpace(
+        MeterRegistry meterRegistry,
+        @Value("${large-envelopes.spill-to-disk:false}") boolean enabled,
+        @Value("${large-envelopes.threshold-bytes:524288000}") long thresholdBytes,
+        @Value("${large-envelopes.scratch-dir:${java.io.tmpdir}/blob-router-scratch}") String directory,
+        @Value("${large-envelopes.quota-bytes:10737418240}") long quotaBytes,
+        @Value("${large-envelopes.download-block-size-bytes:8388608}") long downloadBlockSizeBytes,
+        @Value("${large-envelopes.download-concurrency:8}") int downloadConcurrency
+    ) {
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+        this.directory = Paths.get(directory);
+        this.quotaBytes = quotaBytes;
+        this.downloadOptions = new ParallelTransferOptions()
+            .setBlockSizeLong(downloadBlockSizeBytes)
+            .setMaxConcurrency(downloadConcurrency);
+
+        Gauge.builder("scratch.space.reserved", reservedBytes, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * The `cleanUp` method creates the scratch directory and deletes the files left in it, e.g. by an instance which
+     * was stopped while processing a blob. The directory must therefore not be shared with other instances.
+     */
+    @PostConstruct
+    void cleanUp() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            List<Path> leftovers;
+            try (var files = Files.list(directory)) {
+                leftovers = files.toList();
+            }
+            for (Path file : leftovers) {
+                Files.deleteIfExists(file);
+            }
+            logger.info("Scratch space {} ready, deleted {} leftover files", directory, leftovers.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Preparing scratch space " + directory + " failed", ex);
+        }
+    }
+
+    /**
+     * The `spill` method downloads the blob to the scratch directory, provided that spilling is enabled, the blob
+     * reaches the size threshold and there is enough room for it.
+     *
+     * @param blob The blob to download.
+     * @return The local copy of the blob, which must be closed once the blob has been processed, or empty if the
+     *      blob is to be processed as a stream.
+     * @throws BlobStreamingException if the download failed, e.g. because the blob changed in the meantime.
+     */
+    public Optional<SpilledBlob> spill(BlobClient blob) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        BlobProperties properties = blob.getProperties();
+        long size = properties.getBlobSize();
+        if (size < thresholdBytes) {
+            return Optional.empty();
+        }
+
+        long required = 2 * size;
+        if (!reserve(required)) {
+            logger.warn(
+                "Not enough scratch space for blob {} of size {}, processing it as a stream",
+                blob.getBlobName(),
+                byteCountToDisplaySize(size)
+            );
+            return Optional.empty();
+        }
+
+        String fileName = UUID.randomUUID().toString();
+        Path file = directory.resolve(fileName + ".zip");
+        var spilledBlob = new SpilledBlob(file, directory.resolve(fileName + ".envelope.zip"), required, this);
+        try {
+            long startTime = System.nanoTime();
+            blob.downloadToFileWithResponse(
+                new BlobDownloadToFileOptions(file.toString())
+                    .setParallelTransferOptions(downloadOptions)
+                    .setRequestConditions(new BlobRequestConditions().setIfMatch(properties.getETag())),
+                null,
+                Context.NONE
+            );
+            logger.info(
+                "Blob {} of size {} spilled to scratch space in {} ms",
+                blob.getBlobName(),
+                byteCountToDisplaySize(size),
+                (System.nanoTime() - startTime) / 1_000_000
+            );
+            return Optional.of(spilledBlob);
+        } catch (RuntimeException ex) {
+            spilledBlob.close();
+            throw new BlobStreamingException("Spilling blob " + blob.getBlobName() + " to scratch space failed", ex);
+        }
+    }
+
+    /**
+     * The `reserve` method reserves room for a blob within the quota, provided that the scratch directory also has
+     * that much free space.
+     *
+     * @param bytes The number of bytes to reserve.
+     * @return true if the room has been reserved.
+     */
+    private boolean reserve(long bytes) {
+        long reserved = reservedBytes.addAndGet(bytes);
+        if (reserved > quotaBytes || !hasUsableSpace(bytes)) {
+            release(bytes);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The `release` method returns room reserved for a blob to the quota.
+     *
+     * @param bytes The number of bytes reserved.
+     */
+    void release(long bytes) {
+        reservedBytes.addAndGet(-bytes);
+    }
+
+    long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    private boolean hasUsableSpace(long bytes) {
+        try {
+            return Files.getFileStore(directory).getUsableSpace() >= bytes;
+        } catch (IOException ex) {
+            logger.warn("Reading free space of scratch space {} failed", directory, ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.ZipInputStream;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `SpilledBlob` class is the local copy of a blob spilled to scratch space, see {@link ScratchSpace}. Closing it
+ * deletes its files and returns the space they were reserved to the quota.
+ */
+public class SpilledBlob implements AutoCloseable {
+
+    private static final Logger logger = getLogger(SpilledBlob.class);
+
+    private final Path file;
+    private final Path envelopeFile;
+    private final long reservedBytes;
+    private final ScratchSpace scratchSpace;
+
+    private boolean envelopeExtracted;
+    private boolean closed;
+
+    SpilledBlob(Path file, Path envelopeFile, long reservedBytes, ScratchSpace scratchSpace) {
+        this.file = file;
+        this.envelopeFile = envelopeFile;
+        this.reservedBytes = reservedBytes;
+        this.scratchSpace = scratchSpace;
+    }
+
+    /**
+     * The `openInputStream` method opens the content of the blob, e.g. for verification.
+     *
+     * @return A new stream of the whole blob, to be closed by the caller.
+     */
+    public InputStream openInputStream() throws IOException {
+        return new BufferedInputStream(Files.newInputStream(file));
+    }
+
+    /**
+     * The `openEnvelope` method opens the inner envelope of the blob for reading. The envelope is extracted from the
+     * blob the first time it is opened, so that it can be memory-mapped and uploaded by block, and is reused by the
+     * following calls while the blob is being processed.
+     *
+     * @return A new read-only channel of the inner envelope, to be closed by the caller.
+     * @throws uk.gov.hmcts.reform.blobrouter.exceptions.InvalidZipArchiveException if the blob does not contain the
+     *      inner envelope.
+     */
+    public synchronized FileChannel openEnvelope() throws IOException {
+        if (!envelopeExtracted) {
+            try (var zipStream = new ZipInputStream(openInputStream())) {
+                BlobDispatcher.moveToEnvelopeEntry(zipStream);
+                Files.copy(zipStream, envelopeFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            envelopeExtracted = true;
+        }
+        return FileChannel.open(envelopeFile, StandardOpenOption.READ);
+    }
+
+    /**
+     * The `close` method deletes the files of the blob and releases the space reserved for them. Failures to delete
+     * are logged only, as leftover files are deleted when the service starts.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        for (Path path : new Path[] {envelopeFile, file}) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                logger.warn("Deleting scratch file {} failed", path, ex);
+            }
+        }
+        scratchSpace.release(reservedBytes);
+    }
+}
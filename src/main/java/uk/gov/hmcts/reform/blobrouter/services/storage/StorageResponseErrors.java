@@ -0,0 +1,77 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.core.exception.HttpResponseException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import uk.gov.hmcts.reform.blobrouter.exceptions.TargetStorageException;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classifies errors returned by target storage accounts. Upload errors usually reach the caller wrapped (e.g. in a
+ * `BlobStreamingException`), so the whole cause chain is inspected.
+ */
+public final class StorageResponseErrors {
+
+    private StorageResponseErrors() {
+        // utility class
+    }
+
+    /**
+     * Finds the first `HttpResponseException` with a response in the cause chain of the given error.
+     */
+    public static Optional<HttpResponseException> findHttpResponseException(Throwable error) {
+        for (Throwable cause = error; cause != null && cause.getCause() != cause; cause = cause.getCause()) {
+            if (cause instanceof HttpResponseException ex && ex.getResponse() != null) {
+                return Optional.of(ex);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Finds the failure of a request to a target storage account in the cause chain of the given error. Errors
+     * without one, e.g. failures to read the source blob, say nothing about the target.
+     */
+    public static Optional<TargetStorageException> findTargetFailure(Throwable error) {
+        for (Throwable cause = error; cause != null && cause.getCause() != cause; cause = cause.getCause()) {
+            if (cause instanceof TargetStorageException ex) {
+                return Optional.of(ex);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Tells whether the error is the storage asking clients to slow down (`429` or `503`).
+     */
+    public static boolean isThrottling(Throwable error) {
+        return findHttpResponseException(error)
+            .map(ex -> ex.getResponse().getStatusCode())
+            .filter(status -> status == HttpStatus.TOO_MANY_REQUESTS.value()
+                || status == HttpStatus.SERVICE_UNAVAILABLE.value())
+            .isPresent();
+    }
+
+    /**
+     * Tells whether the error means the storage is unhealthy: a `5xx` response, or the storage could not be reached
+     * at all.
+     */
+    public static boolean isUnavailable(Throwable error) {
+        Optional<HttpResponseException> httpError = findHttpResponseException(error);
+        if (httpError.isPresent()) {
+            return HttpStatusCode.valueOf(httpError.get().getResponse().getStatusCode()).is5xxServerError();
+        }
+        for (Throwable cause = error; cause != null && cause.getCause() != cause; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                || cause instanceof UnknownHostException
+                || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,186 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The `StreamTee` class reads a stream once and hands its content over to several readers (branches), e.g. uploads
+ * of the same content to different targets running in parallel.
+ *
+ * <p>The source is read by {@link #pump()} in chunks, each chunk is queued for every open branch. Queues are bounded,
+ * so the source is read no faster than the slowest branch consumes it and memory use stays bounded. A branch closed
+ * by its reader, e.g. because its upload failed, no longer receives chunks and does not hold up the others. A failure
+ * reading the source is reported to every branch when it reaches the end of the content read so far.</p>
+ */
+class StreamTee {
+
+    private static final byte[] END = new byte[0];
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final InputStream source;
+    private final int chunkSize;
+    private final List<Branch> branches;
+
+    /**
+     * Creates a tee of the source.
+     *
+     * @param source The stream to read.
+     * @param branchCount The number of branches.
+     * @param chunkSize The number of bytes read from the source at once.
+     * @param queueCapacity The number of chunks each branch can lag behind the source.
+     */
+    StreamTee(InputStream source, int branchCount, int chunkSize, int queueCapacity) {
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.branches = IntStream.range(0, branchCount).mapToObj(i -> new Branch(queueCapacity)).toList();
+    }
+
+    /**
+     * Returns the branch with the given index. Each branch must be read by a different thread than the one running
+     * {@link #pump()}, and closed once its reader is done.
+     *
+     * @param index The index of the branch.
+     * @return The stream of the branch.
+     */
+    InputStream branch(int index) {
+        return branches.get(index);
+    }
+
+    /**
+     * Reads the source to the end and queues its content for all open branches. Returns early when all branches have
+     * been closed. Blocks while the queue of any open branch is full.
+     */
+    void pump() {
+        try {
+            byte[] chunk;
+            while ((chunk = source.readNBytes(chunkSize)).length > 0) {
+                for (Branch branch : branches) {
+                    branch.offer(chunk);
+                }
+                if (branches.stream().allMatch(branch -> branch.closed)) {
+                    return;
+                }
+            }
+            for (Branch branch : branches) {
+                branch.offer(END);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // every branch must be ended, or its reader would wait for content forever
+            IOException failure = ex instanceof IOException ioException ? ioException : new IOException(ex);
+            for (Branch branch : branches) {
+                branch.fail(failure);
+            }
+        }
+    }
+
+    private static final class Branch extends InputStream {
+
+        private final BlockingQueue<byte[]> queue;
+        private volatile boolean closed;
+        private volatile IOException failure;
+
+        // accessed by the reader only
+        private byte[] current = new byte[0];
+        private int position;
+        private boolean finished;
+
+        Branch(int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextChunk() ? current[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        /**
+         * Returns the number of bytes left in the current chunk. Blocks until the next chunk is available when the
+         * current one has been read, so that 0 is only returned at the end of the content.
+         */
+        @Override
+        public int available() throws IOException {
+            return nextChunk() ? current.length - position : 0;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            queue.clear();
+        }
+
+        private boolean nextChunk() throws IOException {
+            while (position == current.length) {
+                if (finished) {
+                    throwIfFailed();
+                    return false;
+                }
+                byte[] chunk = take();
+                if (chunk == END) {
+                    finished = true;
+                } else {
+                    current = chunk;
+                    position = 0;
+                }
+            }
+            return true;
+        }
+
+        private byte[] take() throws IOException {
+            try {
+                return queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for content");
+            }
+        }
+
+        private void throwIfFailed() throws IOException {
+            if (failure != null) {
+                throw new IOException("Reading source stream failed", failure);
+            }
+        }
+
+        private void offer(byte[] chunk) throws InterruptedIOException {
+            try {
+                while (!closed && !queue.offer(chunk, OFFER_TIMEOUT_MS, MILLISECONDS)) {
+                    // the reader is behind, wait until it takes a chunk or closes the branch
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while queueing content");
+            }
+        }
+
+        private void fail(IOException cause) {
+            failure = cause;
+            try {
+                offer(END);
+            } catch (InterruptedIOException ex) {
+                // the reader must not wait for chunks which will never come, the failure replaces them
+                queue.clear();
+                queue.offer(END);
+            }
+        }
+    }
+}
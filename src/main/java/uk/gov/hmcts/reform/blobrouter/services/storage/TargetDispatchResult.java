@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import uk.gov.hmcts.reform.blobrouter.config.TargetConfigItem;
+
+/**
+ * The `TargetDispatchResult` class describes the outcome of dispatching a blob to one of several targets.
+ */
+public class TargetDispatchResult {
+
+    public final TargetConfigItem target;
+    public final String contentSha256; // hex encoded digest of the content committed on the target, if dispatched
+    public final RuntimeException failure; // the reason the dispatch failed, if it failed
+
+    private TargetDispatchResult(TargetConfigItem target, String contentSha256, RuntimeException failure) {
+        this.target = target;
+        this.contentSha256 = contentSha256;
+        this.failure = failure;
+    }
+
+    public static TargetDispatchResult dispatched(TargetConfigItem target, String contentSha256) {
+        return new TargetDispatchResult(target, contentSha256, null);
+    }
+
+    public static TargetDispatchResult failed(TargetConfigItem target, RuntimeException failure) {
+        return new TargetDispatchResult(target, null, failure);
+    }
+
+    public boolean isDispatched() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,19 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import java.util.List;
+
+/**
+ * The `UploadedContent` class describes content committed to a block blob by a chunked upload.
+ */
+public class UploadedContent {
+
+    public final List<String> blockIds;
+    public final String sha256; // hex encoded digest of the whole content, computed while uploading
+    public final long size;
+
+    public UploadedContent(List<String> blockIds, String sha256, long size) {
+        this.blockIds = blockIds;
+        this.sha256 = sha256;
+        this.size = size;
+    }
+}
@@ -0,0 +1,114 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The `CircuitBreaker` class tracks the health of a single downstream dependency.
+ *
+ * <p>While {@link State#CLOSED} every call is permitted. After the configured number of consecutive failures the
+ * breaker opens and rejects calls for the open duration. Once that has passed it becomes {@link State#HALF_OPEN} and
+ * lets a single probe through: a successful probe closes the breaker, a failed one opens it again. A probe whose
+ * outcome is never recorded (e.g. the blob was skipped for another reason before reaching the dependency) stops
+ * blocking further probes after the open duration.</p>
+ *
+ * <p>Whether a call is permitted is decided up front by {@link #tryAcquirePermission()}, while the outcome is recorded
+ * by whichever component talks to the dependency, so the two do not have to be paired one to one.</p>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private Instant probeStartedAt;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be positive, got " + failureThreshold);
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Tells whether a call to the dependency may be made now. In the half-open state only one caller at a time gets
+     * the permission.
+     *
+     * @return `true` if the call is permitted
+     */
+    public synchronized boolean tryAcquirePermission() {
+        Instant now = clock.instant();
+        switch (state) {
+            case CLOSED -> {
+                return true;
+            }
+            case OPEN -> {
+                if (now.isBefore(openedAt.plus(openDuration))) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeStartedAt = now;
+                return true;
+            }
+            default -> {
+                if (now.isBefore(probeStartedAt.plus(openDuration))) {
+                    return false;
+                }
+                probeStartedAt = now;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Tells whether the breaker rejects calls now, without taking the permission of a half-open breaker, e.g. to tell
+     * whether the breaker has opened since a caller acquired its permission.
+     *
+     * @return `true` if the breaker is open and its open duration has not passed yet
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && clock.instant().isBefore(openedAt.plus(openDuration));
+    }
+
+    /**
+     * Records a successful call, closing the breaker.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a failed call. Opens the breaker when the failure threshold is reached or when the probe of a half-open
+     * breaker failed.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,197 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ClockProvider;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `DispatchCircuitBreakers` class holds a {@link CircuitBreaker} for every target storage account and for each of
+ * the SAS token endpoints (bulk scan processor for CFT, PCQ), and decides whether blobs of a source container should
+ * be dispatched at all.
+ *
+ * <p>While the breaker of the target account, or of the SAS endpoint the target depends on, is open, blobs routed to
+ * that target are skipped before they are leased or downloaded. They stay in the source container and are picked up
+ * by a later scan once the dependency recovered, which saves source egress and error events during an outage.
+ * Mirrors of a container are left out of the dispatch while their breaker is open, without holding up the dispatch
+ * to the primary target, and are dispatched to once they have recovered.</p>
+ *
+ * <p>The state of every breaker is published as `circuit.breaker.state` (0 - closed, 1 - half-open, 2 - open) and the
+ * number of skipped blobs as `blob.dispatch.skipped`.</p>
+ */
+@Component
+public class DispatchCircuitBreakers {
+
+    private static final Logger logger = getLogger(DispatchCircuitBreakers.class);
+
+    private final Map<String, StorageConfigItem> storageConfig;
+    private final Map<TargetStorageAccount, CircuitBreaker> targetBreakers = new EnumMap<>(TargetStorageAccount.class);
+    private final Map<TargetStorageAccount, Counter> skippedCounters = new EnumMap<>(TargetStorageAccount.class);
+    private final CircuitBreaker bulkScanSasEndpoint;
+    private final CircuitBreaker pcqSasEndpoint;
+
+    public DispatchCircuitBreakers(
+        ServiceConfiguration serviceConfiguration,
+        ClockProvider clockProvider,
+        MeterRegistry meterRegistry,
+        @Value("${circuit-breaker.failure-threshold:5}") int failureThreshold,
+        @Value("${circuit-breaker.open-duration-ms:60000}") long openDurationMs
+    ) {
+        this.storageConfig = serviceConfiguration.getStorageConfig();
+        var openDuration = Duration.ofMillis(openDurationMs);
+
+        for (TargetStorageAccount target : TargetStorageAccount.values()) {
+            var breaker = new CircuitBreaker(
+                "target-" + target.name().toLowerCase(),
+                failureThreshold,
+                openDuration,
+                clockProvider.getClock()
+            );
+            targetBreakers.put(target, register(breaker, meterRegistry));
+            skippedCounters.put(
+                target,
+                Counter.builder("blob.dispatch.skipped").tag("target", target.name()).register(meterRegistry)
+            );
+        }
+        this.bulkScanSasEndpoint = register(
+            new CircuitBreaker("sas-bulk-scan-processor", failureThreshold, openDuration, clockProvider.getClock()),
+            meterRegistry
+        );
+        this.pcqSasEndpoint = register(
+            new CircuitBreaker("sas-pcq", failureThreshold, openDuration, clockProvider.getClock()),
+            meterRegistry
+        );
+    }
+
+    /**
+     * The `allowDispatch` method tells whether a blob from the given source container should be processed now. Only
+     * the primary target of the container decides, the mirrors are checked one by one with
+     * {@link #allowDispatchTo(String, TargetStorageAccount)} when the blob is dispatched.
+     *
+     * @param container The name of the source container.
+     * @return `false` if the breaker of the container's target storage account, or of the SAS endpoint it depends on,
+     *      is open. `true` otherwise, including for containers without storage configuration.
+     */
+    public boolean allowDispatch(String container) {
+        StorageConfigItem config = storageConfig.get(container);
+        if (config == null || config.getTargetStorageAccount() == null) {
+            return true;
+        }
+        return allowDispatchTo(container, config.getTargetStorageAccount());
+    }
+
+    /**
+     * The `allowDispatchTo` method tells whether a blob from the given source container should be dispatched to the
+     * given target storage account now, e.g. to one of the mirrors of the container.
+     *
+     * @param container The name of the source container.
+     * @param target The target storage account.
+     * @return `false` if the breaker of the target storage account, or of the SAS endpoint it depends on, is open.
+     */
+    public boolean allowDispatchTo(String container, TargetStorageAccount target) {
+        CircuitBreaker sasBreaker = sasEndpointFor(target);
+        CircuitBreaker blocking = null;
+        if (sasBreaker != null && !sasBreaker.tryAcquirePermission()) {
+            blocking = sasBreaker;
+        } else if (!targetBreakers.get(target).tryAcquirePermission()) {
+            blocking = targetBreakers.get(target);
+        }
+
+        if (blocking == null) {
+            return true;
+        }
+        skip(container, target, blocking);
+        return false;
+    }
+
+    /**
+     * The `isDispatchBlocked` method tells whether a breaker of the primary target of the given source container has
+     * opened, without taking a permission. It is meant for blobs which have been allowed with
+     * {@link #allowDispatch(String)} already, e.g. when prefetched, so that the permission of a half-open breaker taken
+     * for the blob is not asked for a second time, which would be refused.
+     *
+     * @param container The name of the source container.
+     * @return `true` if the breaker of the container's target storage account, or of the SAS endpoint it depends on,
+     *      is open. `false` otherwise, including for containers without storage configuration.
+     */
+    public boolean isDispatchBlocked(String container) {
+        StorageConfigItem config = storageConfig.get(container);
+        if (config == null || config.getTargetStorageAccount() == null) {
+            return false;
+        }
+
+        TargetStorageAccount target = config.getTargetStorageAccount();
+        CircuitBreaker sasBreaker = sasEndpointFor(target);
+        CircuitBreaker blocking = null;
+        if (sasBreaker != null && sasBreaker.isOpen()) {
+            blocking = sasBreaker;
+        } else if (targetBreakers.get(target).isOpen()) {
+            blocking = targetBreakers.get(target);
+        }
+
+        if (blocking == null) {
+            return false;
+        }
+        skip(container, target, blocking);
+        return true;
+    }
+
+    /**
+     * Returns the breaker of the given target storage account.
+     */
+    public CircuitBreaker target(TargetStorageAccount target) {
+        return targetBreakers.get(target);
+    }
+
+    /**
+     * Returns the breaker of the bulk scan processor SAS token endpoint, used for CFT storage.
+     */
+    public CircuitBreaker bulkScanSasEndpoint() {
+        return bulkScanSasEndpoint;
+    }
+
+    /**
+     * Returns the breaker of the PCQ SAS token endpoint.
+     */
+    public CircuitBreaker pcqSasEndpoint() {
+        return pcqSasEndpoint;
+    }
+
+    private void skip(String container, TargetStorageAccount target, CircuitBreaker blocking) {
+        skippedCounters.get(target).increment();
+        logger.info(
+            "Circuit breaker {} is open, skipping blobs of container {} routed to {} storage",
+            blocking.getName(),
+            container,
+            target
+        );
+    }
+
+    private CircuitBreaker sasEndpointFor(TargetStorageAccount target) {
+        return switch (target) {
+            case CFT -> bulkScanSasEndpoint;
+            case PCQ -> pcqSasEndpoint;
+            case CRIME -> null;
+        };
+    }
+
+    private static CircuitBreaker register(CircuitBreaker breaker, MeterRegistry meterRegistry) {
+        Gauge
+            .builder("circuit.breaker.state", breaker, b -> b.getState().ordinal())
+            .tag("name", breaker.getName())
+            .register(meterRegistry);
+        return breaker;
+    }
+}
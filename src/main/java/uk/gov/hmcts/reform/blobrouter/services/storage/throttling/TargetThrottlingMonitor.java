@@ -0,0 +1,61 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage.throttling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.services.storage.StorageResponseErrors;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `TargetThrottlingMonitor` class reports uploads which target storage accounts rejected as throttled, i.e. with a
+ * `429 Too Many Requests` or `503 Server Busy` response, also when the response is wrapped by another exception. The
+ * number of throttled uploads is published per target as `storage.upload.throttled`.
+ *
+ * <p>Blobs are dispatched one at a time by the single dispatcher task of each instance and their blocks are staged one
+ * after another, so there is no concurrency towards a target to adapt to its throttling. A throttled upload fails
+ * like any other and its blob is retried with backoff, see
+ * {@link uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService}.</p>
+ */
+@Component
+public class TargetThrottlingMonitor {
+
+    private static final Logger logger = getLogger(TargetThrottlingMonitor.class);
+
+    private final Map<TargetStorageAccount, Counter> throttledCounters = new EnumMap<>(TargetStorageAccount.class);
+
+    public TargetThrottlingMonitor(MeterRegistry meterRegistry) {
+        for (TargetStorageAccount target : TargetStorageAccount.values()) {
+            throttledCounters.put(
+                target,
+                Counter.builder("storage.upload.throttled").tag("target", target.name()).register(meterRegistry)
+            );
+        }
+    }
+
+    /**
+     * The `onUploadFailure` method counts and logs a failed upload if the target rejected it as throttled.
+     *
+     * @param target The storage account the upload went to.
+     * @param failure The exception the upload failed with.
+     * @return true if the upload has been throttled.
+     */
+    public boolean onUploadFailure(TargetStorageAccount target, RuntimeException failure) {
+        if (!StorageResponseErrors.isThrottling(failure)) {
+            return false;
+        }
+
+        throttledCounters.get(target).increment();
+        logger.warn(
+            "Upload to {} storage throttled, status: {}",
+            target,
+            StorageResponseErrors.findHttpResponseException(failure).get().getResponse().getStatusCode()
+        );
+        return true;
+    }
+}
@@ -6,16 +6,17 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
-import uk.gov.hmcts.reform.blobrouter.tasks.processors.ContainerProcessor;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.OrderedBlobDispatcher;
 
 import java.util.Collections;
 import java.util.List;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.DISPATCH_SCHEDULER;
 
 /**
- * This Java class represents a scheduled task that shuffles a list of containers and processes each container using a
- * container processor.
+ * This Java class represents a scheduled task that shuffles a list of containers and dispatches the blobs waiting in
+ * them, in the order decided by the configured blob ordering policy.
  */
 @Component
 @ConditionalOnProperty(value = "scheduling.task.scan.enabled", matchIfMissing = true)
@@ -26,27 +27,28 @@ public class BlobDispatcherTask {
 
     private static final Logger logger = getLogger(BlobDispatcherTask.class);
 
-    private final ContainerProcessor containerProcessor;
+    private final OrderedBlobDispatcher blobDispatcher;
     private final List<String> containers;
 
     public BlobDispatcherTask(
-        ContainerProcessor containerProcessor,
+        OrderedBlobDispatcher blobDispatcher,
         ServiceConfiguration serviceConfiguration
     ) {
-        this.containerProcessor = containerProcessor;
+        this.blobDispatcher = blobDispatcher;
         this.containers = serviceConfiguration.getEnabledSourceContainers();
     }
 
     /**
-     * This Java function runs a scheduled task that shuffles a list of containers and processes each container using a
-     * container processor.
+     * This Java function runs a scheduled task that shuffles a list of containers and dispatches the blobs of all of
+     * them using the ordered blob dispatcher.
      */
-    @Scheduled(fixedDelayString = "${scheduling.task.scan.delay}")
+    @Scheduled(fixedDelayString = "${scheduling.task.scan.delay}", scheduler = DISPATCH_SCHEDULER)
     public void run() {
         logger.debug("Started {} job", TASK_NAME);
 
+        // blobs the ordering policy considers equal are not always taken from the same container first
         Collections.shuffle(containers);
-        containers.forEach(containerProcessor::process);
+        blobDispatcher.dispatch(containers);
 
         logger.debug("Finished {} job", TASK_NAME);
     }
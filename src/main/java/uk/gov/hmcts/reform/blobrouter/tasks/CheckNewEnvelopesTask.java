@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.blobrouter.services.NewEnvelopesFinder;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.REPORTING_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 /**
@@ -31,7 +32,11 @@ public class CheckNewEnvelopesTask {
      * This Java function is scheduled to run at a specific time, checks for new envelopes created in
      * different containers, and logs the start and end of the job.
      */
-    @Scheduled(cron = "${scheduling.task.check-new-envelopes.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.check-new-envelopes.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = REPORTING_SCHEDULER
+    )
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.debug("Started {} job", TASK_NAME);
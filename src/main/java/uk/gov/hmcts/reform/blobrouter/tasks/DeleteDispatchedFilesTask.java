@@ -13,6 +13,7 @@ import uk.gov.hmcts.reform.blobrouter.tasks.processors.ContainerCleaner;
 import java.util.stream.Stream;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.CLEANUP_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 @Component
@@ -38,7 +39,11 @@ public class DeleteDispatchedFilesTask {
     /**
      * This Java function runs periodically to delete dispatched files from available containers.
      */
-    @Scheduled(cron = "${scheduling.task.delete-dispatched-files.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.delete-dispatched-files.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = CLEANUP_SCHEDULER
+    )
     @SchedulerLock(name = "delete-dispatched-files")
     public void run() {
         logger.debug("Started {} job", TASK_NAME);
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.blobrouter.tasks.processors.RejectedContainerCleaner;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.CLEANUP_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 @Component
@@ -23,7 +24,11 @@ public class DeleteRejectedFilesTask {
         this.cleaner = cleaner;
     }
 
-    @Scheduled(cron = "${scheduling.task.delete-rejected-files.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.delete-rejected-files.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = CLEANUP_SCHEDULER
+    )
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.debug("Started {} job", TASK_NAME);
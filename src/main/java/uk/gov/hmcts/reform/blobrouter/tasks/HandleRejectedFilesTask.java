@@ -10,6 +10,7 @@ import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
 import uk.gov.hmcts.reform.blobrouter.services.storage.RejectedFilesHandler;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.CLEANUP_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 @Component
@@ -26,7 +27,11 @@ public class HandleRejectedFilesTask {
         this.rejectedFilesHandler = rejectedFilesHandler;
     }
 
-    @Scheduled(cron = "${scheduling.task.handle-rejected-files.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.handle-rejected-files.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = CLEANUP_SCHEDULER
+    )
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.debug("Started {} job", TASK_NAME);
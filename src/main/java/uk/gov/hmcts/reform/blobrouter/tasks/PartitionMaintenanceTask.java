@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.blobrouter.tasks;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.services.partitions.PartitionMaintenanceService;
+
+import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.CLEANUP_SCHEDULER;
+import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
+
+@Component
+@ConditionalOnProperty(value = "scheduling.task.partition-maintenance.enabled")
+public class PartitionMaintenanceTask {
+
+    private static final String TASK_NAME = "partition-maintenance";
+    private static final Logger logger = getLogger(PartitionMaintenanceTask.class);
+
+    private final PartitionMaintenanceService partitionMaintenanceService;
+
+    public PartitionMaintenanceTask(PartitionMaintenanceService partitionMaintenanceService) {
+        this.partitionMaintenanceService = partitionMaintenanceService;
+    }
+
+    @Scheduled(
+        cron = "${scheduling.task.partition-maintenance.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = CLEANUP_SCHEDULER
+    )
+    @SchedulerLock(name = TASK_NAME)
+    public void run() {
+        logger.info("Started {} job", TASK_NAME);
+
+        partitionMaintenanceService.createUpcomingPartitions();
+        int dropped = partitionMaintenanceService.dropExpiredPartitions();
+
+        logger.info("Finished {} job. Dropped partitions: {}", TASK_NAME, dropped);
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.hmcts.reform.blobrouter.tasks;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
+
+import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.CLEANUP_SCHEDULER;
+import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
+
+@Component
+@ConditionalOnProperty(value = "scheduling.task.purge-envelope-retries.enabled")
+public class PurgeEnvelopeRetriesTask {
+
+    private static final String TASK_NAME = "purge-envelope-retries";
+    private static final Logger logger = getLogger(PurgeEnvelopeRetriesTask.class);
+
+    private final EnvelopeRetryService envelopeRetryService;
+
+    public PurgeEnvelopeRetriesTask(EnvelopeRetryService envelopeRetryService) {
+        this.envelopeRetryService = envelopeRetryService;
+    }
+
+    @Scheduled(
+        cron = "${scheduling.task.purge-envelope-retries.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = CLEANUP_SCHEDULER
+    )
+    @SchedulerLock(name = TASK_NAME)
+    public void run() {
+        logger.info("Started {} job", TASK_NAME);
+
+        int purged = envelopeRetryService.purge();
+
+        logger.info("Finished {} job. Purged retry states: {}", TASK_NAME, purged);
+    }
+}
@@ -7,7 +7,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import uk.gov.hmcts.reform.blobrouter.model.out.EnvelopeSummaryItem;
 import uk.gov.hmcts.reform.blobrouter.services.email.EmailSender;
 import uk.gov.hmcts.reform.blobrouter.services.report.ReportCsvWriter;
 import uk.gov.hmcts.reform.blobrouter.services.report.ReportService;
@@ -15,9 +14,10 @@ import uk.gov.hmcts.reform.blobrouter.services.report.ReportService;
 import java.io.File;
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.REPORTING_SCHEDULER;
+
 /**
  * The `SendDailyReportTask` class in Java sends a daily report via email with an attachment containing envelope summary
  * data.
@@ -30,7 +30,7 @@ public class SendDailyReportTask {
     static final String EMAIL_SUBJECT = "Reform Scan daily report";
     static final String EMAIL_BODY = "This is an autogenerated email. Do not respond to it.";
     static final String ATTACHMENT_PREFIX = "reform_scan_envelopes_";
-    static final String ATTACHMENT_SUFFIX = ".csv";
+    static final String ATTACHMENT_SUFFIX = ".csv.gz";
 
     private static final String TASK_NAME = "send-daily-report";
     private final ReportService reportService;
@@ -60,17 +60,18 @@ public class SendDailyReportTask {
     }
     // endregion
 
-    @Scheduled(cron = "${scheduling.task.send-daily-report.cron}")
+    @Scheduled(cron = "${scheduling.task.send-daily-report.cron}", scheduler = REPORTING_SCHEDULER)
     @SchedulerLock(name = TASK_NAME)
     public void sendReport() {
         logger.info("Started {} job", TASK_NAME);
 
         final LocalDate reportDate = getPreviousDay();
 
-        final List<EnvelopeSummaryItem> report = reportService.getDailyReport(reportDate);
-
+        File reportFile = null;
         try {
-            final File reportFile = reportCsvWriter.writeEnvelopesSummaryToCsv(report);
+            reportFile = reportCsvWriter.writeEnvelopesSummaryToCsv(
+                items -> reportService.streamDailyReport(reportDate, items)
+            );
 
             emailSender.sendMessageWithAttachments(
                 EMAIL_SUBJECT,
@@ -85,6 +86,10 @@ public class SendDailyReportTask {
                 reportDate,
                 ex
             );
+        } finally {
+            if (reportFile != null && !reportFile.delete()) {
+                logger.warn("Failed to delete daily report file {}", reportFile);
+            }
         }
 
         logger.info("Finished {} job", TASK_NAME);
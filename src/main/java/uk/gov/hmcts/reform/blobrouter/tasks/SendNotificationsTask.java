@@ -4,11 +4,14 @@ import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.blobrouter.services.NotificationService;
+import uk.gov.hmcts.reform.blobrouter.services.outbox.NotificationsPendingEvent;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.NOTIFICATION_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 /**
@@ -29,7 +32,16 @@ public class SendNotificationsTask {
         this.notificationService = notificationService;
     }
 
-    @Scheduled(cron = "${scheduling.task.send-notifications.cron}", zone = EUROPE_LONDON)
+    /**
+     * Sends pending notifications. Runs on the configured cron schedule and straight away whenever
+     * new notifications are written to the outbox.
+     */
+    @Scheduled(
+        cron = "${scheduling.task.send-notifications.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = NOTIFICATION_SCHEDULER
+    )
+    @EventListener(NotificationsPendingEvent.class)
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.info("Started {} job", TASK_NAME);
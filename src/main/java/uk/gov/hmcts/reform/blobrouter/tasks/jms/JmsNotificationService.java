@@ -2,6 +2,7 @@ package uk.gov.hmcts.reform.blobrouter.tasks.jms;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.blobrouter.data.rejectedenvelope.RejectedEnvelope;
@@ -11,6 +12,8 @@ import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
 
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * The `JmsNotificationService` class in Java sends notifications for rejected envelopes via JMS if the property
  * `jms.enabled` is set to true.
@@ -29,27 +32,44 @@ public class JmsNotificationService {
 
     private final RejectedEnvelopeRepository rejectedEnvelopeRepository;
 
+    private final int sendBatchSize;
+
     public JmsNotificationService(
         JmsNotificationsPublisher jmsNotificationsPublisher,
         RejectedEnvelopeRepository rejectedEnvelopeRepository,
-        EnvelopeService envelopeService
+        EnvelopeService envelopeService,
+        @Value("${jms.send-batch-size:50}") int sendBatchSize
     ) {
         this.jmsNotificationsPublisher = jmsNotificationsPublisher;
         this.rejectedEnvelopeRepository = rejectedEnvelopeRepository;
         this.envelopeService = envelopeService;
+        this.sendBatchSize = sendBatchSize;
     }
 
+    /**
+     * The `sendNotifications` method drains all pending rejection notifications to the notifications queue.
+     * All messages are sent within one transacted JMS session, committed every `jms.send-batch-size` messages,
+     * and each committed chunk is acknowledged in the database with a single batched update.
+     */
     public void sendNotifications() {
         List<RejectedEnvelope> envelopes = rejectedEnvelopeRepository.getRejectedEnvelopes();
-        envelopes.forEach(
-            env -> {
-                log.info(
-                    "Send message to notifications queue. File name: {} Container: {}", env.fileName, env.container
-                );
-                jmsNotificationsPublisher.publish(mapToNotificationMessage(env), env.envelopeId.toString());
-                envelopeService.markPendingNotificationAsSent(env.envelopeId);
-            }
+        if (envelopes.isEmpty()) {
+            return;
+        }
+
+        log.info("Sending {} messages to notifications queue", envelopes.size());
+
+        int sent = jmsNotificationsPublisher.publishInChunks(
+            envelopes,
+            this::mapToNotificationMessage,
+            env -> env.envelopeId.toString(),
+            sendBatchSize,
+            chunk -> envelopeService.markPendingNotificationsAsSent(
+                chunk.stream().map(env -> env.envelopeId).collect(toList())
+            )
         );
+
+        log.info("Sent {} messages to notifications queue", sent);
     }
 
     /**
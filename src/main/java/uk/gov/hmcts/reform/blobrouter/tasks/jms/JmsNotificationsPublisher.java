@@ -1,15 +1,24 @@
 package uk.gov.hmcts.reform.blobrouter.tasks.jms;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.blobrouter.servicebus.notifications.NotificationsPublishingException;
 import uk.gov.hmcts.reform.blobrouter.servicebus.notifications.model.NotificationMsg;
 
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 /**
  * The `JmsNotificationsPublisher` class in Java is a service component that publishes
  * notification messages to a JMS queue if the `jms.enabled` property is set to true, handling message
@@ -69,4 +78,103 @@ public class JmsNotificationsPublisher {
             );
         }
     }
+
+    /**
+     * The `publishInChunks` method sends a whole batch of notification messages to the "notifications" queue using a
+     * single transacted JMS session and producer, committing the session after every `chunkSize` messages.
+     *
+     * @param items The `items` parameter is the list of objects to be published, in the order they should be sent.
+     * @param toMessage The `toMessage` parameter is a function mapping each item to the `NotificationMsg` which is
+     *                  serialised and sent to the queue.
+     * @param messageIdOf The `messageIdOf` parameter is a function returning the message ID of an item. It is only
+     *                    used to identify the failing message when publishing fails.
+     * @param chunkSize The `chunkSize` parameter is the number of messages sent within a single JMS transaction.
+     * @param onChunkCommitted The `onChunkCommitted` parameter is called with the items of every chunk straight after
+     *                         the chunk has been committed to the broker, e.g. to acknowledge them in the database.
+     *                         When it throws, no further chunks are sent.
+     * @return The number of messages which have been sent and committed.
+     * @throws NotificationsPublishingException when a message of the chunk being sent cannot be published. Messages
+     *      of that chunk are rolled back, while chunks committed earlier stay on the queue.
+     */
+    public <T> int publishInChunks(
+        List<T> items,
+        Function<T, NotificationMsg> toMessage,
+        Function<T, String> messageIdOf,
+        int chunkSize,
+        Consumer<List<T>> onChunkCommitted
+    ) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+
+        Integer sent = jmsTemplate.execute(
+            (SessionCallback<Integer>) session -> sendChunks(
+                session,
+                Lists.partition(items, chunkSize),
+                toMessage,
+                messageIdOf,
+                onChunkCommitted
+            ),
+            true
+        );
+
+        return sent == null ? 0 : sent;
+    }
+
+    /**
+     * The function sends every chunk of items using one producer created on the given transacted session and commits
+     * the session after each chunk, rolling it back when any message of the chunk fails to be sent.
+     *
+     * @param session The `session` parameter is the transacted JMS session messages are sent within.
+     * @param chunks The `chunks` parameter contains the items to be sent, split into chunks which are committed
+     *               one by one.
+     * @param toMessage The `toMessage` parameter maps an item to the notification message being sent.
+     * @param messageIdOf The `messageIdOf` parameter returns the message ID of an item, used in error messages.
+     * @param onChunkCommitted The `onChunkCommitted` parameter is notified about every committed chunk.
+     * @return The number of messages which have been committed.
+     */
+    private <T> int sendChunks(
+        Session session,
+        List<List<T>> chunks,
+        Function<T, NotificationMsg> toMessage,
+        Function<T, String> messageIdOf,
+        Consumer<List<T>> onChunkCommitted
+    ) throws JMSException {
+        MessageProducer producer = session.createProducer(session.createQueue("notifications"));
+        int sent = 0;
+
+        try {
+            for (List<T> chunk : chunks) {
+                for (T item : chunk) {
+                    NotificationMsg notificationMsg = toMessage.apply(item);
+                    try {
+                        producer.send(session.createTextMessage(objectMapper.writeValueAsString(notificationMsg)));
+                    } catch (Exception ex) {
+                        session.rollback();
+                        throw new NotificationsPublishingException(
+                            String.format(
+                                "An error occurred when trying to publish notification for "
+                                    + "File name: %s, Container: %s, Message Id: %s",
+                                notificationMsg.zipFileName,
+                                notificationMsg.container,
+                                messageIdOf.apply(item)
+                            ),
+                            ex
+                        );
+                    }
+                }
+
+                session.commit();
+                sent += chunk.size();
+
+                logger.info("Sent {} messages to Notifications queue in a single transaction", chunk.size());
+
+                onChunkCommitted.accept(chunk);
+            }
+        } finally {
+            producer.close();
+        }
+
+        return sent;
+    }
 }
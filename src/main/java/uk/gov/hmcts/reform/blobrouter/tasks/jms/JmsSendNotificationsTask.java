@@ -4,10 +4,13 @@ import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.services.outbox.NotificationsPendingEvent;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.config.SchedulerConfiguration.NOTIFICATION_SCHEDULER;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON;
 
 /**
@@ -31,8 +34,14 @@ public class JmsSendNotificationsTask {
     /**
      * This Java function is scheduled to run at a specified time using a cron expression
      * in the Europe/London time zone, and it sends notifications using a JMS service.
+     * It is also triggered straight away whenever new notifications are written to the outbox.
      */
-    @Scheduled(cron = "${scheduling.task.send-notifications.cron}", zone = EUROPE_LONDON)
+    @Scheduled(
+        cron = "${scheduling.task.send-notifications.cron}",
+        zone = EUROPE_LONDON,
+        scheduler = NOTIFICATION_SCHEDULER
+    )
+    @EventListener(NotificationsPendingEvent.class)
     @SchedulerLock(name = TASK_NAME)
     public void run() {
         logger.info("Started {} job", TASK_NAME);
@@ -1,26 +1,50 @@
 package uk.gov.hmcts.reform.blobrouter.tasks.processors;
 
 import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.models.BlobProperties;
 import org.slf4j.Logger;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
 import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetConfigItem;
 import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatch;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
 import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
 import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprint;
+import uk.gov.hmcts.reform.blobrouter.exceptions.ContentDigestMismatchException;
+import uk.gov.hmcts.reform.blobrouter.exceptions.TargetDispatchException;
 import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier;
+import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult;
+import uk.gov.hmcts.reform.blobrouter.services.ContentDuplicatePolicy;
+import uk.gov.hmcts.reform.blobrouter.services.ContentDuplicateService;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.VerificationResultCache;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
 import uk.gov.hmcts.reform.blobrouter.services.storage.BlobDispatcher;
+import uk.gov.hmcts.reform.blobrouter.services.storage.HedgedBlobReader;
+import uk.gov.hmcts.reform.blobrouter.services.storage.PrefetchedBlob;
+import uk.gov.hmcts.reform.blobrouter.services.storage.ScratchSpace;
+import uk.gov.hmcts.reform.blobrouter.services.storage.SpilledBlob;
+import uk.gov.hmcts.reform.blobrouter.services.storage.TargetDispatchResult;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Supplier;
 
 import static org.apache.commons.lang3.StringEscapeUtils.escapeHtml4;
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.services.storage.BlobMetaDataHandler.getContentVersion;
 
 /**
  * The `BlobProcessor` class in Java processes blob objects from cloud storage, handles envelopes, verifies content,
@@ -35,17 +59,38 @@ public class BlobProcessor {
     private final BlobDispatcher dispatcher;
     private final EnvelopeService envelopeService;
     private final BlobVerifier blobVerifier;
+    private final EnvelopeRetryService envelopeRetryService;
+    private final VerificationResultCache verificationResultCache;
+    private final ContentDuplicateService contentDuplicateService;
+    private final ScratchSpace scratchSpace;
+    private final HedgedBlobReader hedgedBlobReader;
+    private final DispatchCircuitBreakers circuitBreakers;
+    private final DispatchWaitRecorder dispatchWaitRecorder;
     private final Map<String, StorageConfigItem> storageConfig; // container-specific configuration, by container name
 
     public BlobProcessor(
         BlobDispatcher dispatcher,
         EnvelopeService envelopeService,
         BlobVerifier blobVerifier,
+        EnvelopeRetryService envelopeRetryService,
+        VerificationResultCache verificationResultCache,
+        ContentDuplicateService contentDuplicateService,
+        ScratchSpace scratchSpace,
+        HedgedBlobReader hedgedBlobReader,
+        DispatchCircuitBreakers circuitBreakers,
+        DispatchWaitRecorder dispatchWaitRecorder,
         ServiceConfiguration serviceConfiguration
     ) {
         this.dispatcher = dispatcher;
         this.envelopeService = envelopeService;
         this.blobVerifier = blobVerifier;
+        this.envelopeRetryService = envelopeRetryService;
+        this.verificationResultCache = verificationResultCache;
+        this.contentDuplicateService = contentDuplicateService;
+        this.scratchSpace = scratchSpace;
+        this.hedgedBlobReader = hedgedBlobReader;
+        this.circuitBreakers = circuitBreakers;
+        this.dispatchWaitRecorder = dispatchWaitRecorder;
         this.storageConfig = serviceConfiguration.getStorageConfig();
     }
 
@@ -56,10 +101,22 @@ public class BlobProcessor {
      *                   It contains information such as the blob name and the container name where the blob is stored.
      */
     public void process(BlobClient blobClient) {
+        process(blobClient, null);
+    }
+
+    /**
+     * The `process` function processes a blob whose content has been read ahead, see
+     * {@link uk.gov.hmcts.reform.blobrouter.services.storage.BlobPrefetcher}. The content read ahead is used for
+     * verification, provided the blob has not changed since. The prefetched blob is not closed.
+     *
+     * @param blobClient The client of the blob.
+     * @param prefetchedBlob The blob whose content has been read ahead, or null if it has not.
+     */
+    public void process(BlobClient blobClient, PrefetchedBlob prefetchedBlob) {
         logger.info("Processing {} from {} container", blobClient.getBlobName(), blobClient.getContainerName());
 
-        getEnvelopeSupplier(blobClient)
-            .ifPresent(envelopeSupplier -> handle(blobClient, envelopeSupplier));
+        getEnvelopeSource(blobClient)
+            .ifPresent(envelopeSource -> handle(blobClient, prefetchedBlob, envelopeSource));
 
     }
 
@@ -69,9 +126,11 @@ public class BlobProcessor {
      * @param blobClient BlobClient is an object representing a blob in a storage service.
      *                   It contains information such as the blob's name, container name, properties
      *                   like creation time and size.
-     * @return An Optional containing a Supplier that provides a UUID value is being returned.
+     * @return An Optional containing a Supplier that provides a UUID value, together with whether the envelope is
+     *      being resumed, i.e. has been created by a previous attempt, and whether it has already been dispatched to
+     *      its primary target but not yet to all mirrors of its container.
      */
-    private Optional<Supplier<UUID>> getEnvelopeSupplier(BlobClient blobClient) {
+    private Optional<EnvelopeSource> getEnvelopeSource(BlobClient blobClient) {
         var envelopeOptional =
             envelopeService.findLastEnvelope(blobClient.getBlobName(), blobClient.getContainerName());
 
@@ -79,6 +138,9 @@ public class BlobProcessor {
         if (envelopeOptional.isPresent()) {
             var envelope = envelopeOptional.get();
             if (envelope.status != Status.CREATED) {
+                if (envelopeService.isAwaitingMirrors(envelope)) {
+                    return Optional.of(new EnvelopeSource(() -> envelope.id, true, true));
+                }
                 logger.info("Envelope processed while getting lock {} ", envelope.getBasicInfo());
                 return Optional.empty();
             } else {
@@ -92,61 +154,300 @@ public class BlobProcessor {
                 blobClient.getProperties().getBlobSize()
             );
         }
-        return Optional.of(envelopeSupplier);
+        return Optional.of(new EnvelopeSource(envelopeSupplier, envelopeOptional.isPresent(), false));
     }
 
     /**
      * The `handle` function processes a BlobClient using an envelope ID supplier, verifying the BlobClient content and
-     * dispatching or rejecting based on the verification result.
+     * dispatching or rejecting based on the verification result. Blobs which have to be verified, i.e. whose result
+     * has not been cached and whose content has not been read ahead, may be spilled to local scratch space first when
+     * very large, see {@link ScratchSpace}. They are then verified and dispatched from the local copy, which is
+     * deleted once the blob has been handled, so a later attempt reads the blob from the source again.
+     *
+     * <p>A resumed envelope may have been uploaded by a previous attempt which failed before the envelope was marked
+     * as dispatched. Its targets are checked first, see {@link #completeIfDispatched(BlobClient, UUID, boolean)}, so
+     * that such an envelope is completed without downloading the blob again. The same goes for a dispatched envelope
+     * which has not reached all mirrors of its container yet, whose blob is only dispatched to the remaining mirrors.
+     * </p>
      *
      * @param blobClient BlobClient is a class representing a client for interacting with blobs,
      *                   which are binary large objects typically used for storing data in a database or
      *                   a file system. It likely contains methods for accessing blob data and metadata.
-     * @param envelopeIdSupplier The `envelopeIdSupplier` is a `Supplier` functional interface that
-     *                           supplies (or generates) a UUID. In the `handle` method, it is used to get
-     *                           a UUID by calling its `get()` method. This UUID is then used in the
-     *                           processing logic within the method.
+     * @param prefetchedBlob The blob whose content has been read ahead, or null if it has not.
+     * @param envelopeSource The `envelopeSource` supplies (or generates) the ID of the envelope of the blob and
+     *                       tells whether the envelope is being resumed.
      */
     private void handle(
         BlobClient blobClient,
-        Supplier<UUID> envelopeIdSupplier
+        PrefetchedBlob prefetchedBlob,
+        EnvelopeSource envelopeSource
     ) {
-        UUID id = envelopeIdSupplier.get();
+        UUID id = envelopeSource.idSupplier.get();
+        String version = null;
         try {
-            var verificationResult = blobVerifier.verifyZip(blobClient.getBlobName(), blobClient.openInputStream());
+            if (envelopeSource.resumed && completeIfDispatched(blobClient, id, envelopeSource.dispatched)) {
+                return;
+            }
+            BlobProperties properties = blobClient.getProperties();
+            String eTag = properties.getETag();
+            version = getContentVersion(properties);
+            Instant createdAt = properties.getCreationTime() == null ? null : properties.getCreationTime().toInstant();
+            Optional<VerificationResult> cachedResult = findVerified(blobClient, version);
+            if (cachedResult.isPresent()) {
+                handleVerificationResult(blobClient, eTag, createdAt, null, id, cachedResult.get());
+                return;
+            }
 
-            if (verificationResult.isOk) {
-                dispatch(blobClient, id);
-            } else {
-                reject(blobClient, id, verificationResult.error, verificationResult.errorDescription);
+            boolean prefetched = prefetchedBlob != null && eTag != null && eTag.equals(prefetchedBlob.eTag);
+            try (SpilledBlob spilledBlob = prefetched ? null : scratchSpace.spill(blobClient).orElse(null)) {
+                var verificationResult =
+                    verify(blobClient, eTag, version, spilledBlob, prefetched ? prefetchedBlob : null);
+                handleVerificationResult(blobClient, eTag, createdAt, spilledBlob, id, verificationResult);
             }
         } catch (Exception exception) {
-            handleError(id, blobClient, exception);
+            handleError(id, blobClient, version, exception);
+        }
+    }
+
+    /**
+     * The `completeIfDispatched` method looks for the blob on the targets of its container, by the ID of its envelope
+     * in the metadata of the target blobs, see {@link BlobDispatcher#findDispatchedContent}. Targets which already
+     * hold the blob are recorded as dispatched. Once the primary target does, the envelope is marked as dispatched
+     * without downloading or verifying the blob again: content is only committed on a target once it has been
+     * verified. Mirrors which do not hold the blob yet are then dispatched to on their own, see
+     * {@link #dispatchToAll(BlobClient, String, Instant, UUID, String, StorageConfigItem, boolean)}.
+     *
+     * @param blob The client of the blob.
+     * @param id The ID of the resumed envelope of the blob.
+     * @param envelopeDispatched Whether the envelope has already been marked as dispatched.
+     * @return true if the envelope has been completed, false if the blob still has to be dispatched.
+     */
+    private boolean completeIfDispatched(BlobClient blob, UUID id, boolean envelopeDispatched) {
+        StorageConfigItem containerConfig = storageConfig.get(blob.getContainerName());
+        boolean mirrored = !containerConfig.getMirrors().isEmpty();
+        Map<TargetConfigItem, String> dispatchedSha256 = new HashMap<>();
+        if (mirrored) {
+            envelopeService.getDispatches(id).forEach(dispatch -> dispatchedSha256.put(
+                new TargetConfigItem(dispatch.targetStorageAccount, dispatch.targetContainer),
+                dispatch.contentSha256
+            ));
+        }
+
+        // the targets start with the primary one, mirrors are only looked for once the primary target holds the blob
+        for (TargetConfigItem target : containerConfig.getTargets()) {
+            if (dispatchedSha256.containsKey(target)) {
+                continue;
+            }
+            Optional<String> committedSha256 = dispatcher.findDispatchedContent(
+                blob,
+                target.getTargetContainer(),
+                target.getTargetStorageAccount(),
+                id
+            );
+            if (committedSha256.isEmpty()) {
+                if (isPrimary(containerConfig, target)) {
+                    return false;
+                }
+            } else {
+                if (mirrored) {
+                    envelopeService.markAsDispatchedTo(
+                        id,
+                        target.getTargetStorageAccount(),
+                        target.getTargetContainer(),
+                        committedSha256.get()
+                    );
+                }
+                dispatchedSha256.put(target, committedSha256.get());
+            }
+        }
+
+        if (!envelopeDispatched) {
+            String contentSha256 = dispatchedSha256.get(primaryTarget(containerConfig));
+            envelopeService.markAsDispatched(id, contentSha256);
+            logger.info(
+                "File already dispatched, upload skipped. Blob name: {}. Container: {}. Envelope ID: {}. "
+                    + "Content SHA-256: {}",
+                blob.getBlobName(),
+                blob.getContainerName(),
+                id,
+                contentSha256
+            );
+        }
+
+        if (dispatchedSha256.keySet().containsAll(containerConfig.getTargets())) {
+            envelopeRetryService.clear(blob.getContainerName(), blob.getBlobName());
+        } else {
+            dispatchToAll(blob, null, null, id, null, containerConfig, true);
+        }
+        return true;
+    }
+
+    /**
+     * The `findVerified` method looks for the result of a previous verification of the same version of the blob (same
+     * content version, which leasing and releasing the blob keep unlike its ETag), e.g. in an attempt whose dispatch
+     * failed, so that the blob is neither downloaded nor verified again.
+     *
+     * @param blobClient The client of the blob.
+     * @param version The current content version of the blob, see
+     *                {@link uk.gov.hmcts.reform.blobrouter.services.storage.BlobMetaDataHandler#getContentVersion}.
+     * @return The cached result of the verification, or empty if the blob has to be verified.
+     */
+    private Optional<VerificationResult> findVerified(BlobClient blobClient, String version) {
+        Optional<VerificationResult> cachedResult =
+            verificationResultCache.findVerified(blobClient.getContainerName(), blobClient.getBlobName(), version);
+        if (cachedResult.isPresent()) {
+            logger.info(
+                "Blob already verified, skipping verification. File name: {}, Container: {}",
+                blobClient.getBlobName(),
+                blobClient.getContainerName()
+            );
+        }
+        return cachedResult;
+    }
+
+    /**
+     * The `verify` method verifies the signed zip of the blob and caches the result, see
+     * {@link #findVerified(BlobClient, String)}. The content is read on condition that its ETag has not changed, so
+     * that the cached result always describes the verified content. A spilled blob has been downloaded on the same
+     * condition, as has the content read ahead, which is only passed in when it has been read on the same ETag.
+     *
+     * @param blobClient The client of the blob to verify.
+     * @param eTag The current ETag of the blob.
+     * @param version The content version of the blob, which the result is cached for.
+     * @param spilledBlob The local copy of the blob, or null if the blob is read as a stream.
+     * @param prefetchedBlob The blob whose content has been read ahead on the current ETag, or null if it has not.
+     * @return The result of the verification.
+     */
+    private VerificationResult verify(
+        BlobClient blobClient,
+        String eTag,
+        String version,
+        SpilledBlob spilledBlob,
+        PrefetchedBlob prefetchedBlob
+    ) throws IOException {
+        String container = blobClient.getContainerName();
+        String blobName = blobClient.getBlobName();
+
+        InputStream content = null;
+        if (spilledBlob != null) {
+            content = spilledBlob.openInputStream();
+        } else if (prefetchedBlob != null) {
+            content = prefetchedBlob.claimContent();
+        }
+
+        if (content == null) {
+            content = hedgedBlobReader.openInputStream(blobClient, eTag);
+        }
+        VerificationResult result = blobVerifier.verifyZip(blobName, content);
+        verificationResultCache.markVerified(container, blobName, version, result);
+        return result;
+    }
+
+    private void handleVerificationResult(
+        BlobClient blob,
+        String eTag,
+        Instant createdAt,
+        SpilledBlob spilledBlob,
+        UUID id,
+        VerificationResult verificationResult
+    ) {
+        if (verificationResult.isOk) {
+            handleVerified(blob, eTag, createdAt, spilledBlob, id, verificationResult.contentSha256);
+        } else {
+            reject(blob, id, verificationResult.error, verificationResult.errorDescription);
+        }
+    }
+
+    /**
+     * The `handleVerified` method dispatches a verified blob, unless an envelope with the same content has been
+     * dispatched before and the configured policy says to reject or skip such duplicates.
+     *
+     * @param blob The client of the verified blob.
+     * @param eTag The ETag of the verified version of the blob.
+     * @param createdAt The creation time of the blob, if known.
+     * @param spilledBlob The local copy of the blob, or null if the blob is read as a stream.
+     * @param id The ID of the envelope of the blob.
+     * @param contentSha256 The digest of the inner envelope, computed during verification. Duplicates are not
+     *                      looked for when it is not known.
+     */
+    private void handleVerified(
+        BlobClient blob,
+        String eTag,
+        Instant createdAt,
+        SpilledBlob spilledBlob,
+        UUID id,
+        String contentSha256
+    ) {
+        ContentDuplicatePolicy policy = contentDuplicateService.getPolicy();
+        Optional<EnvelopeFingerprint> original = contentSha256 == null
+            ? Optional.empty()
+            : contentDuplicateService.findOriginal(id, blob.getContainerName(), blob.getBlobName(), contentSha256);
+
+        if (original.isEmpty() || policy == ContentDuplicatePolicy.DISPATCH) {
+            dispatch(blob, eTag, createdAt, spilledBlob, id, contentSha256);
+        } else {
+            String description = String.format(
+                "Duplicate envelope content. Same as file %s in container %s",
+                original.get().fileName,
+                original.get().container
+            );
+            if (policy == ContentDuplicatePolicy.REJECT) {
+                reject(blob, id, ErrorCode.ERR_DUPLICATE_CONTENT, description);
+            } else {
+                skip(blob, id, contentSha256, description);
+            }
         }
     }
 
     /**
      * The `dispatch` method processes a BlobClient, dispatches it to a target storage account,
-     * marks it as dispatched, and logs the completion details.
+     * marks it as dispatched, and logs the completion details. Blobs of containers with mirrors are dispatched to
+     * all of their targets, see
+     * {@link #dispatchToAll(BlobClient, String, Instant, UUID, String, StorageConfigItem, boolean)}. The time the
+     * blob has waited for its dispatch is recorded, see {@link DispatchWaitRecorder}. A spilled blob is uploaded from
+     * its local copy, unless its container has mirrors, in which case the blob is streamed to all targets.
      *
      * @param blob The `blob` parameter in the `dispatch` method is of type `BlobClient`, which represents a
      *             client to interact with a blob in Azure Blob Storage. It contains information about the
      *             blob such as its name, container name, and other metadata.
+     * @param eTag The ETag of the verified version of the blob. The blob is only read for the upload on condition
+     *             that it still has that ETag, so that the content uploaded is the content verified.
+     * @param createdAt The creation time of the blob, if known.
      * @param id The `id` parameter in the `dispatch` method is of type `UUID` and is used to uniquely
      *           identify the blob being processed. It is passed to the method to mark the blob as dispatched
      *           after processing is completed.
+     * @param spilledBlob The local copy of the blob, or null if the blob is read as a stream.
+     * @param verifiedSha256 The digest of the inner envelope computed during verification, if known. Content with a
+     *                       different digest is not committed on the target.
      */
-    private void dispatch(BlobClient blob, UUID id) {
+    private void dispatch(
+        BlobClient blob,
+        String eTag,
+        Instant createdAt,
+        SpilledBlob spilledBlob,
+        UUID id,
+        String verifiedSha256
+    ) {
         StorageConfigItem containerConfig = storageConfig.get(blob.getContainerName());
         TargetStorageAccount targetStorageAccount = containerConfig.getTargetStorageAccount();
+        String targetContainer = containerConfig.getTargetContainer();
 
-        dispatcher.dispatch(
-            blob,
-            containerConfig.getTargetContainer(),
-            targetStorageAccount
-        );
+        if (!containerConfig.getMirrors().isEmpty()) {
+            dispatchToAll(blob, eTag, createdAt, id, verifiedSha256, containerConfig, false);
+            return;
+        }
+
+        String contentSha256;
+        if (spilledBlob != null) {
+            contentSha256 = dispatcher
+                .dispatchSpilled(blob, spilledBlob, targetContainer, targetStorageAccount, id, verifiedSha256);
+        } else {
+            contentSha256 = dispatcher.dispatch(blob, eTag, targetContainer, targetStorageAccount, id, verifiedSha256);
+        }
 
-        envelopeService.markAsDispatched(id);
+        envelopeService.markAsDispatched(id, contentSha256);
+        envelopeRetryService.clear(blob.getContainerName(), blob.getBlobName());
+        dispatchWaitRecorder.recordDispatched(blob.getContainerName(), createdAt);
 
         logger.info(
             "Finished processing {} from {} container. New envelope ID: {}",
@@ -156,6 +457,174 @@ public class BlobProcessor {
         );
     }
 
+    /**
+     * The `dispatchToAll` method dispatches a blob to every target of its container it has not reached yet. The
+     * dispatch to each target is recorded as soon as it succeeds, so that a retry after a partial failure only
+     * uploads to the remaining targets.
+     *
+     * <p>The envelope is marked as dispatched once the primary target holds the blob, so that an outage of a mirror
+     * does not hold back the delivery, notification or cleanup of the envelope. Mirrors which the blob has not reached
+     * are retried on their own: the blob is kept and processed again until they all hold it, see
+     * {@link EnvelopeService#isAwaitingMirrors}. Mirrors whose circuit breaker is open are left for a later attempt
+     * without counting as a failure, see {@link DispatchCircuitBreakers#allowDispatchTo}.</p>
+     *
+     * <p>Content is only committed on a target when it has the digest computed during verification or, when the
+     * envelope has already been dispatched, the digest of the content on the targets it has reached. Otherwise the
+     * target is not recorded as dispatched.</p>
+     *
+     * @param blob The client of the blob.
+     * @param eTag The ETag of the verified version of the blob, which the blob must still have when it is read, or
+     *             null if the blob has not been verified in this attempt, i.e. is only dispatched to mirrors.
+     * @param createdAt The creation time of the blob, if known. The time the blob has waited is recorded once it
+     *                  reaches the primary target.
+     * @param id The ID of the envelope of the blob.
+     * @param verifiedSha256 The digest of the inner envelope computed during verification, if known.
+     * @param containerConfig The configuration of the container of the blob.
+     * @param envelopeDispatched Whether the envelope has already been marked as dispatched.
+     * @throws TargetDispatchException if the blob could not be dispatched to some of the targets. The envelope has
+     *      been marked as dispatched already if only mirrors failed.
+     * @throws ContentDigestMismatchException if a target reached by a previous attempt holds content other than the
+     *      verified one.
+     */
+    private void dispatchToAll(
+        BlobClient blob,
+        String eTag,
+        Instant createdAt,
+        UUID id,
+        String verifiedSha256,
+        StorageConfigItem containerConfig,
+        boolean envelopeDispatched
+    ) {
+        List<EnvelopeDispatch> previousDispatches = envelopeService.getDispatches(id);
+        for (EnvelopeDispatch dispatch : previousDispatches) {
+            if (!hasDigest(dispatch.contentSha256, verifiedSha256)) {
+                throw new ContentDigestMismatchException(String.format(
+                    "Content dispatched to %s %s has SHA-256 %s, verified content has SHA-256 %s",
+                    dispatch.targetStorageAccount,
+                    dispatch.targetContainer,
+                    dispatch.contentSha256,
+                    verifiedSha256
+                ));
+            }
+        }
+        Map<TargetConfigItem, String> dispatchedSha256 = new HashMap<>();
+        previousDispatches.forEach(dispatch -> dispatchedSha256.put(
+            new TargetConfigItem(dispatch.targetStorageAccount, dispatch.targetContainer),
+            dispatch.contentSha256
+        ));
+        String expectedSha256 = verifiedSha256 != null
+            ? verifiedSha256
+            : dispatchedSha256.values().stream().filter(Objects::nonNull).findFirst().orElse(null);
+
+        List<TargetConfigItem> pendingTargets = containerConfig
+            .getTargets()
+            .stream()
+            .filter(target -> !dispatchedSha256.containsKey(target))
+            .filter(target -> isPrimary(containerConfig, target)
+                || circuitBreakers.allowDispatchTo(blob.getContainerName(), target.getTargetStorageAccount()))
+            .toList();
+
+        List<TargetDispatchResult> results = pendingTargets.isEmpty()
+            ? List.of()
+            : dispatcher
+                .dispatchToAll(blob, eTag, pendingTargets, id, expectedSha256)
+                .stream()
+                .map(result -> checkDigest(result, expectedSha256))
+                .toList();
+
+        List<TargetDispatchResult> failures = results.stream().filter(result -> !result.isDispatched()).toList();
+        for (TargetDispatchResult result : results) {
+            if (result.isDispatched()) {
+                envelopeService.markAsDispatchedTo(
+                    id,
+                    result.target.getTargetStorageAccount(),
+                    result.target.getTargetContainer(),
+                    result.contentSha256
+                );
+                dispatchedSha256.put(result.target, result.contentSha256);
+            }
+        }
+
+        TargetConfigItem primaryTarget = primaryTarget(containerConfig);
+        if (dispatchedSha256.containsKey(primaryTarget) && !envelopeDispatched) {
+            String contentSha256 = dispatchedSha256.get(primaryTarget);
+            envelopeService.markAsDispatched(id, contentSha256 != null ? contentSha256 : expectedSha256);
+            dispatchWaitRecorder.recordDispatched(blob.getContainerName(), createdAt);
+            logger.info(
+                "Finished processing {} from {} container. New envelope ID: {}",
+                blob.getBlobName(),
+                blob.getContainerName(),
+                id
+            );
+        }
+
+        if (!failures.isEmpty()) {
+            throw new TargetDispatchException(
+                String.format(
+                    "Dispatch failed for targets %s. First error: %s",
+                    failures.stream().map(result -> result.target).toList(),
+                    failures.get(0).failure.getMessage()
+                ),
+                failures.get(0).failure
+            );
+        }
+        envelopeRetryService.clear(blob.getContainerName(), blob.getBlobName());
+    }
+
+    private static TargetConfigItem primaryTarget(StorageConfigItem containerConfig) {
+        return new TargetConfigItem(containerConfig.getTargetStorageAccount(), containerConfig.getTargetContainer());
+    }
+
+    private static boolean isPrimary(StorageConfigItem containerConfig, TargetConfigItem target) {
+        return primaryTarget(containerConfig).equals(target);
+    }
+
+    /**
+     * The `checkDigest` method turns the dispatch to a target into a failure when the content committed on the
+     * target does not have the digest computed during verification.
+     */
+    private static TargetDispatchResult checkDigest(TargetDispatchResult result, String verifiedSha256) {
+        if (!result.isDispatched() || hasDigest(result.contentSha256, verifiedSha256)) {
+            return result;
+        }
+        return TargetDispatchResult.failed(
+            result.target,
+            new ContentDigestMismatchException(String.format(
+                "Content dispatched to %s has SHA-256 %s, verified content has SHA-256 %s",
+                result.target,
+                result.contentSha256,
+                verifiedSha256
+            ))
+        );
+    }
+
+    private static boolean hasDigest(String contentSha256, String verifiedSha256) {
+        return contentSha256 == null || verifiedSha256 == null || contentSha256.equalsIgnoreCase(verifiedSha256);
+    }
+
+    /**
+     * The `skip` method marks the envelope of a duplicate blob as dispatched without uploading it, as the same content
+     * has already been dispatched.
+     *
+     * @param blob The client of the duplicate blob.
+     * @param id The ID of the envelope of the blob.
+     * @param contentSha256 The digest of the inner envelope.
+     * @param description The description of the duplicate, saved in the envelope event.
+     */
+    private void skip(BlobClient blob, UUID id, String contentSha256, String description) {
+        envelopeService.markAsDispatched(id, contentSha256);
+        envelopeService.saveEvent(id, EventType.DUPLICATE_SKIPPED, description);
+        envelopeRetryService.clear(blob.getContainerName(), blob.getBlobName());
+
+        logger.info(
+            "Skipped dispatching duplicate blob. File name: {}, Container: {}, Envelope ID: {}, Reason: {}",
+            blob.getBlobName(),
+            blob.getContainerName(),
+            id,
+            description
+        );
+    }
+
     /**
      * The `reject` function marks a blob as rejected and logs relevant information.
      *
@@ -172,6 +641,7 @@ public class BlobProcessor {
      */
     private void reject(BlobClient blob, UUID id, ErrorCode error, String errorDescription) {
         envelopeService.markAsRejected(id, error, errorDescription);
+        envelopeRetryService.clear(blob.getContainerName(), blob.getBlobName());
 
         logger.error(
             "Rejected Blob. File name: {}, Container: {}, New envelope ID: {}, Reason: {}",
@@ -184,16 +654,18 @@ public class BlobProcessor {
 
     /**
      * This function logs an error message related to processing a blob and saves an error event with the message in an
-     * envelope service.
+     * envelope service. The failure is also recorded in the retry state of the blob, which delays its next attempt.
      *
      * @param envelopeId The `envelopeId` parameter is a unique identifier (UUID) associated with an envelope.
      * @param blob The `blob` parameter in the `handleError` method represents a BlobClient object, which is
      *             used to interact with a blob (binary large object) in Azure Blob Storage. It provides
      *             methods to  manage and manipulate the blob, such as getting the blob's name (`blob.getBlobName()`).
+     * @param version The content version of the blob which failed, or null if it could not be read, see
+     *                {@link uk.gov.hmcts.reform.blobrouter.services.storage.BlobMetaDataHandler#getContentVersion}.
      * @param exc The `exc` parameter in the `handleError` method is of type `Exception` and represents
      *            the exception that occurred while processing the blob.
      */
-    private void handleError(UUID envelopeId, BlobClient blob, Exception exc) {
+    private void handleError(UUID envelopeId, BlobClient blob, String version, Exception exc) {
         logger.error(
             "Error occurred while processing blob. File name: {}, Container: {}, Envelope ID: {}",
             blob.getBlobName(),
@@ -202,5 +674,19 @@ public class BlobProcessor {
             exc
         );
         envelopeService.saveEvent(envelopeId, EventType.ERROR, escapeHtml4(exc.getMessage()));
+        envelopeRetryService.recordFailure(
+            envelopeId,
+            blob.getContainerName(),
+            blob.getBlobName(),
+            version,
+            exc.getMessage()
+        );
+    }
+
+    /**
+     * The `EnvelopeSource` record supplies the ID of the envelope of a blob, creating the envelope when it is not
+     * being resumed. A dispatched envelope is only resumed to dispatch it to the mirrors it has not reached yet.
+     */
+    private record EnvelopeSource(Supplier<UUID> idSupplier, boolean resumed, boolean dispatched) {
     }
 }
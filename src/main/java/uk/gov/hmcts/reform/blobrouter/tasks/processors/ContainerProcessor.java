@@ -1,79 +1,69 @@
 package uk.gov.hmcts.reform.blobrouter.tasks.processors;
 
 import com.azure.storage.blob.BlobClient;
-import com.azure.storage.blob.BlobContainerClient;
-import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.BlobErrorCode;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
+import uk.gov.hmcts.reform.blobrouter.services.storage.BlobPrefetcher;
 import uk.gov.hmcts.reform.blobrouter.services.storage.LeaseAcquirer;
+import uk.gov.hmcts.reform.blobrouter.services.storage.PrefetchedBlob;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
 
 import java.util.Optional;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static uk.gov.hmcts.reform.blobrouter.services.storage.BlobMetaDataHandler.getContentVersion;
 
 /**
- * The `ContainerProcessor` class in Java processes blobs in a specified container, logging errors and handling envelope
- * processing based on status and lease acquisition.
+ * The `ContainerProcessor` class in Java processes single blobs of source containers, handed over by
+ * `OrderedBlobDispatcher`, logging errors and handling envelope processing based on status and lease acquisition.
  */
 @Component
 public class ContainerProcessor {
 
     private static final Logger logger = getLogger(ContainerProcessor.class);
 
-    private final BlobServiceClient storageClient;
     private final BlobProcessor blobProcessor;
     private final LeaseAcquirer leaseAcquirer;
     private final EnvelopeService envelopeService;
+    private final DispatchCircuitBreakers circuitBreakers;
+    private final EnvelopeRetryService envelopeRetryService;
+    private final BlobPrefetcher blobPrefetcher;
 
     public ContainerProcessor(
-        BlobServiceClient storageClient,
         BlobProcessor blobProcessor,
         LeaseAcquirer leaseAcquirer,
-        EnvelopeService envelopeService
+        EnvelopeService envelopeService,
+        DispatchCircuitBreakers circuitBreakers,
+        EnvelopeRetryService envelopeRetryService,
+        BlobPrefetcher blobPrefetcher
     ) {
-        this.storageClient = storageClient;
         this.blobProcessor = blobProcessor;
         this.leaseAcquirer = leaseAcquirer;
         this.envelopeService = envelopeService;
-    }
-
-    /**
-     * The `process` method processes all blobs in a specified container and logs any errors that occur.
-     *
-     * @param containerName The `process` method takes a `containerName` as a parameter, which is used
-     *                      to process the blobs within the specified blob container. The method first
-     *                      logs a message indicating that it is processing the container with the
-     *                      provided name.
-     */
-    public void process(String containerName) {
-        logger.info("Processing container {}", containerName);
-
-        try {
-            BlobContainerClient containerClient = storageClient.getBlobContainerClient(containerName);
-            containerClient
-                .listBlobs()
-                .stream()
-                .map(blobItem -> containerClient.getBlobClient(blobItem.getName()))
-                .forEach(this::processBlob);
-
-            logger.info("Finished processing container {}", containerName);
-        } catch (Exception exception) {
-            logger.error("Error occurred while processing {} container", containerName, exception);
-        }
+        this.circuitBreakers = circuitBreakers;
+        this.envelopeRetryService = envelopeRetryService;
+        this.blobPrefetcher = blobPrefetcher;
     }
 
     /**
      * The `processBlob` function checks if an envelope is not in the created status, logs if it has already been
-     * processed, and otherwise leases and processes the blob.
+     * processed, and otherwise leases and processes the blob. Blobs routed to a target whose circuit breaker is open
+     * are skipped before anything else is done with them and stay in the container for a later scan.
      *
      * @param blobClient BlobClient is a class representing a client to interact with Azure Blob Storage.
      *                   It provides methods to upload, download, delete, and manage blobs in Azure Blob Storage.
      *                   In the given code snippet, the `processBlob` method takes a `BlobClient` as a
      *                   parameter and performs some operations on it.
      */
-    private void processBlob(BlobClient blobClient) {
+    void processBlob(BlobClient blobClient) {
+        if (!circuitBreakers.allowDispatch(blobClient.getContainerName())) {
+            return;
+        }
+
         findEnvelopeNotInCreatedStatus(blobClient)
             .ifPresentOrElse(
                 this::logEnvelopeAlreadyProcessed,
@@ -81,6 +71,52 @@ public class ContainerProcessor {
             );
     }
 
+    /**
+     * The `prefetch` method runs the same checks as {@link #processBlob(BlobClient)}, then leases the blob and starts
+     * reading its content ahead, so that it is ready once the blobs before it have been processed.
+     *
+     * @param blobClient The client of the blob to prefetch.
+     * @return The prefetched blob, to be handed over to {@link #processPrefetched(PrefetchedBlob)} or closed, or
+     *      empty if the blob is not to be processed in this run.
+     */
+    Optional<PrefetchedBlob> prefetch(BlobClient blobClient) {
+        if (!circuitBreakers.allowDispatch(blobClient.getContainerName())) {
+            return Optional.empty();
+        }
+
+        Optional<Envelope> processedEnvelope = findEnvelopeNotInCreatedStatus(blobClient);
+        if (processedEnvelope.isPresent()) {
+            logEnvelopeAlreadyProcessed(processedEnvelope.get());
+            return Optional.empty();
+        }
+
+        if (!envelopeRetryService.isEligible(
+            blobClient.getContainerName(),
+            blobClient.getBlobName(),
+            () -> getContentVersion(blobClient.getProperties())
+        )) {
+            return Optional.empty();
+        }
+
+        return blobPrefetcher.prefetch(blobClient, errorCode -> logLeaseNotAcquired(blobClient, errorCode));
+    }
+
+    /**
+     * The `processPrefetched` method processes a prefetched blob and closes it afterwards, which releases its lease.
+     * The blob is abandoned when the circuit breaker of its target has opened since it was prefetched. The breaker is
+     * only checked, not asked for another permission: the blob got one when it was prefetched, which is the only
+     * probe a half-open breaker lets through.
+     *
+     * @param prefetchedBlob The prefetched blob.
+     */
+    void processPrefetched(PrefetchedBlob prefetchedBlob) {
+        try (prefetchedBlob) {
+            if (!circuitBreakers.isDispatchBlocked(prefetchedBlob.blobClient.getContainerName())) {
+                blobProcessor.process(prefetchedBlob.blobClient, prefetchedBlob);
+            }
+        }
+    }
+
     /**
      * This function logs a message indicating that an envelope has already been processed in the database and will be
      * skipped.
@@ -95,7 +131,8 @@ public class ContainerProcessor {
 
     /**
      * This function returns an Optional containing an Envelope object that is not in the "created" status based on the
-     * BlobClient's blob name and container name.
+     * BlobClient's blob name and container name. Dispatched envelopes which have not reached all mirrors of their
+     * container yet are left out, so that their blobs are processed again to retry the mirrors.
      *
      * @param blobClient BlobClient blobClient is an object representing a client for interacting with
      *                   Azure Blob Storage. It typically contains information such as the blob name and
@@ -104,27 +141,42 @@ public class ContainerProcessor {
      */
     private Optional<Envelope> findEnvelopeNotInCreatedStatus(BlobClient blobClient) {
         return envelopeService
-            .findEnvelopeNotInCreatedStatus(blobClient.getBlobName(), blobClient.getContainerName());
+            .findEnvelopeNotInCreatedStatus(blobClient.getBlobName(), blobClient.getContainerName())
+            .filter(envelope -> !envelopeService.isAwaitingMirrors(envelope));
     }
 
     /**
      * The `leaseAndProcess` method attempts to acquire a lease for a BlobClient and
      * processes it if the lease is acquired, otherwise logs a message indicating the failure to acquire the lease.
+     * Blobs which failed before are only leased once their next attempt is due and never once quarantined, unless
+     * they have been uploaded again since, i.e. have another content version.
      *
      * @param blobClient BlobClient is an object representing a blob in Azure Blob Storage.
      *                   It contains information such as the blob name and the container name where the blob is stored.
      */
     private void leaseAndProcess(BlobClient blobClient) {
+        if (!envelopeRetryService.isEligible(
+            blobClient.getContainerName(),
+            blobClient.getBlobName(),
+            () -> getContentVersion(blobClient.getProperties())
+        )) {
+            return;
+        }
+
         leaseAcquirer.ifAcquiredOrElse(
             blobClient,
             () ->  blobProcessor.process(blobClient),
-            errorCode -> logger.info(
-                "Cannot acquire a lease for blob - skipping. File name: {}, container: {}, error code: {}",
-                blobClient.getBlobName(),
-                blobClient.getContainerName(),
-                errorCode
-            ),
+            errorCode -> logLeaseNotAcquired(blobClient, errorCode),
             true
         );
     }
+
+    private void logLeaseNotAcquired(BlobClient blobClient, BlobErrorCode errorCode) {
+        logger.info(
+            "Cannot acquire a lease for blob - skipping. File name: {}, container: {}, error code: {}",
+            blobClient.getBlobName(),
+            blobClient.getContainerName(),
+            errorCode
+        );
+    }
 }
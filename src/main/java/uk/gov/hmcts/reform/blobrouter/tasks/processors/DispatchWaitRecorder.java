@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ClockProvider;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.BlobOrderingPolicy;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The `DispatchWaitRecorder` class records how long dispatched blobs have waited in their source container, from the
+ * creation of the blob until it has been uploaded to its primary target. The time is tagged with the ordering policy
+ * and the container, so that the time to dispatch achieved by different policies can be compared, see
+ * `OrderedBlobDispatcher`.
+ *
+ * <p>Only blobs which have actually been dispatched are recorded. Blobs picked for dispatch but skipped, rejected or
+ * failed are not, as they would skew the comparison towards the policies picking them.</p>
+ */
+@Component
+public class DispatchWaitRecorder {
+
+    private final MeterRegistry meterRegistry;
+    private final ClockProvider clockProvider;
+    private final String policy;
+
+    public DispatchWaitRecorder(
+        MeterRegistry meterRegistry,
+        ClockProvider clockProvider,
+        BlobOrderingPolicy orderingPolicy
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.clockProvider = clockProvider;
+        this.policy = orderingPolicy.name();
+    }
+
+    /**
+     * The function records the wait of a blob which has just been dispatched.
+     *
+     * @param container The source container of the blob.
+     * @param blobCreatedAt The creation time of the blob, nothing is recorded when it is not known.
+     */
+    public void recordDispatched(String container, Instant blobCreatedAt) {
+        if (blobCreatedAt == null) {
+            return;
+        }
+
+        Duration wait = Duration.between(blobCreatedAt, clockProvider.getClock().instant());
+        Timer
+            .builder("blob.dispatch.wait")
+            .description("Time from blob creation until the blob is dispatched to its primary target")
+            .tag("policy", policy)
+            .tag("container", container)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry)
+            .record(wait.isNegative() ? Duration.ZERO : wait);
+    }
+}
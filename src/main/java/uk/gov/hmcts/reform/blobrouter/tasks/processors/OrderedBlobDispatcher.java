@@ -0,0 +1,287 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.BlobItem;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ClockProvider;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.services.storage.PrefetchedBlob;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.BlobCandidate;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.BlobOrderingPolicy;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.WeightedFairQueue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * The `OrderedBlobDispatcher` class gathers the blobs waiting in all source containers, orders them and hands them
+ * over to the `ContainerProcessor` one by one in that order, instead of going through the containers one after
+ * another.
+ *
+ * <p>With fair queuing enabled (the default), blobs of each container are ordered with the configured
+ * `BlobOrderingPolicy` and the containers then share dispatch capacity according to their weights and guaranteed
+ * slots, see `WeightedFairQueue`. Otherwise all blobs are ordered with the policy together.
+ *
+ * <p>Blobs are dispatched in rounds of at most `scheduling.task.scan.round-size` blobs, taken from the backlog ordered
+ * after the last listing. The containers are listed and the backlog ordered again once it has run dry, or before the
+ * next round once `scheduling.task.scan.relist-interval` has elapsed since the last listing, so that a blob arriving
+ * during a run waits for at most that interval rather than for the whole backlog listed at the start of the run,
+ * while a large backlog is not listed and ordered again for every round. Blobs already picked in the run are left
+ * out of a new listing before it is ordered. A run ends once a listing has no blobs left which have not been picked
+ * in the run yet.
+ *
+ * <p>The time each dispatched blob has waited is recorded by `DispatchWaitRecorder` once it has actually been
+ * dispatched, so that the time to dispatch achieved by different policies can be compared.
+ *
+ * <p>With a prefetch depth above zero, the blobs next in order are leased and their content is read ahead while the
+ * current blob is processed, see `BlobPrefetcher`, so that the download of the next blob overlaps the upload of the
+ * current one. Prefetched blobs left over when dispatching stops are abandoned, which releases their leases. The
+ * lease of a prefetched blob runs from the moment it is prefetched, so the depth must stay small enough for the
+ * blobs ahead of it to be processed within the lease timeout.
+ */
+@Component
+public class OrderedBlobDispatcher {
+
+    private static final Logger logger = getLogger(OrderedBlobDispatcher.class);
+
+    private final BlobServiceClient storageClient;
+    private final ContainerProcessor containerProcessor;
+    private final BlobOrderingPolicy orderingPolicy;
+    private final WeightedFairQueue fairQueue;
+    private final ClockProvider clockProvider;
+    private final int roundSize;
+    private final Duration relistInterval;
+    private final int prefetchDepth;
+
+    private final DistributionSummary candidatesSummary;
+
+    public OrderedBlobDispatcher(
+        BlobServiceClient storageClient,
+        ContainerProcessor containerProcessor,
+        BlobOrderingPolicy orderingPolicy,
+        ServiceConfiguration serviceConfiguration,
+        ClockProvider clockProvider,
+        MeterRegistry meterRegistry,
+        @Value("${scheduling.task.scan.fair-queuing.enabled:true}") boolean fairQueuingEnabled,
+        @Value("${scheduling.task.scan.round-size:20}") int roundSize,
+        @Value("${scheduling.task.scan.relist-interval:PT1M}") Duration relistInterval,
+        @Value("${blob-prefetch.depth:0}") int prefetchDepth
+    ) {
+        this.storageClient = storageClient;
+        this.containerProcessor = containerProcessor;
+        this.orderingPolicy = orderingPolicy;
+        this.fairQueue = fairQueuingEnabled ? fairQueue(serviceConfiguration.getStorageConfig()) : null;
+        this.clockProvider = clockProvider;
+        this.roundSize = roundSize;
+        this.relistInterval = relistInterval;
+        this.prefetchDepth = prefetchDepth;
+
+        this.candidatesSummary = DistributionSummary
+            .builder("blob.dispatch.candidates")
+            .description("Number of blobs gathered for dispatch in a single round")
+            .tag("policy", orderingPolicy.name())
+            .register(meterRegistry);
+    }
+
+    /**
+     * The function dispatches the blobs of all given containers in the order decided by the ordering policy, round
+     * by round. A container which cannot be listed is skipped, as is a blob which fails to be processed.
+     *
+     * @param containers The names of the containers to dispatch blobs from.
+     */
+    public void dispatch(List<String> containers) {
+        // blobs picked in earlier rounds, whether or not they have been processed successfully
+        Set<String> picked = new HashSet<>();
+        Deque<BlobCandidate> backlog = new ArrayDeque<>();
+        Instant listedAt = null;
+
+        while (true) {
+            Instant now = clockProvider.getClock().instant();
+            if (backlog.isEmpty() || !now.isBefore(listedAt.plus(relistInterval))) {
+                backlog = listBacklog(containers, picked, now);
+                listedAt = now;
+            }
+
+            List<BlobCandidate> round = nextRound(backlog, picked);
+            if (round.isEmpty()) {
+                return;
+            }
+            dispatchRound(round);
+        }
+    }
+
+    /**
+     * The function lists the given containers and orders the blobs which have not been picked in earlier rounds.
+     *
+     * @param containers The names of the containers to dispatch blobs from.
+     * @param picked Keys of the blobs picked in earlier rounds.
+     * @param now The time of the listing, which the ordering policy may take into account.
+     * @return The blobs left to dispatch, in dispatch order.
+     */
+    private Deque<BlobCandidate> listBacklog(List<String> containers, Set<String> picked, Instant now) {
+        Map<String, List<BlobCandidate>> queues = new LinkedHashMap<>();
+        containers.forEach(container -> listCandidates(container).ifPresent(blobs -> queues.put(
+            container,
+            blobs.stream().filter(blob -> !picked.contains(key(blob))).toList()
+        )));
+        return new ArrayDeque<>(order(queues, now));
+    }
+
+    /**
+     * The function takes the blobs of the next round from the head of the ordered backlog.
+     *
+     * @param backlog The blobs left to dispatch in dispatch order, from which the blobs of the round are removed.
+     * @param picked Keys of the blobs picked in earlier rounds, to which the blobs of the next round are added.
+     * @return The blobs of the next round in dispatch order, empty when there are no blobs left to dispatch.
+     */
+    private List<BlobCandidate> nextRound(Deque<BlobCandidate> backlog, Set<String> picked) {
+        List<BlobCandidate> candidates = new ArrayList<>();
+        while (!backlog.isEmpty() && (roundSize <= 0 || candidates.size() < roundSize)) {
+            BlobCandidate candidate = backlog.poll();
+            picked.add(key(candidate));
+            candidates.add(candidate);
+        }
+
+        if (!candidates.isEmpty()) {
+            candidatesSummary.record(candidates.size());
+            logger.info(
+                "Dispatching {} blobs in {} order{}",
+                candidates.size(),
+                orderingPolicy.name(),
+                fairQueue == null ? "" : ", shared fairly between containers"
+            );
+        }
+        return candidates;
+    }
+
+    private void dispatchRound(List<BlobCandidate> candidates) {
+        // outcomes of prefetching the blobs following the current one, in order
+        Deque<Optional<PrefetchedBlob>> prefetched = new ArrayDeque<>();
+        try {
+            for (int i = 0; i < candidates.size(); i++) {
+                BlobCandidate candidate = candidates.get(i);
+                Optional<PrefetchedBlob> current = prefetched.poll();
+                while (prefetched.size() < prefetchDepth && i + prefetched.size() + 1 < candidates.size()) {
+                    prefetched.add(prefetch(candidates.get(i + prefetched.size() + 1)));
+                }
+
+                try {
+                    if (current == null) {
+                        containerProcessor.processBlob(blobClient(candidate));
+                    } else {
+                        current.ifPresent(containerProcessor::processPrefetched);
+                    }
+                } catch (Exception exception) {
+                    logger.error(
+                        "Error occurred while processing blob. File name: {}, container: {}",
+                        candidate.blobName,
+                        candidate.container,
+                        exception
+                    );
+                }
+            }
+        } finally {
+            prefetched.forEach(abandoned -> abandoned.ifPresent(PrefetchedBlob::close));
+        }
+    }
+
+    /**
+     * The function prefetches the blob of a candidate. A failure only means the blob is not processed in this run,
+     * as when its lease cannot be acquired.
+     *
+     * @param candidate The candidate to prefetch.
+     * @return The prefetched blob, or empty if the blob is not to be processed in this run.
+     */
+    private Optional<PrefetchedBlob> prefetch(BlobCandidate candidate) {
+        try {
+            return containerProcessor.prefetch(blobClient(candidate));
+        } catch (Exception exception) {
+            logger.error(
+                "Error occurred while prefetching blob. File name: {}, container: {}",
+                candidate.blobName,
+                candidate.container,
+                exception
+            );
+            return Optional.empty();
+        }
+    }
+
+    private static String key(BlobCandidate candidate) {
+        return candidate.container + "/" + candidate.blobName;
+    }
+
+    private BlobClient blobClient(BlobCandidate candidate) {
+        return storageClient.getBlobContainerClient(candidate.container).getBlobClient(candidate.blobName);
+    }
+
+    private List<BlobCandidate> order(Map<String, List<BlobCandidate>> queues, Instant now) {
+        Comparator<BlobCandidate> comparator = orderingPolicy.comparator(now);
+
+        if (fairQueue == null) {
+            List<BlobCandidate> candidates = new ArrayList<>();
+            queues.values().forEach(candidates::addAll);
+            candidates.sort(comparator);
+            return candidates;
+        } else {
+            Map<String, List<BlobCandidate>> sortedQueues = new LinkedHashMap<>();
+            queues.forEach(
+                (container, blobs) -> sortedQueues.put(container, blobs.stream().sorted(comparator).toList())
+            );
+            return fairQueue.merge(sortedQueues);
+        }
+    }
+
+    private static WeightedFairQueue fairQueue(Map<String, StorageConfigItem> storageConfig) {
+        return new WeightedFairQueue(
+            container -> Optional.ofNullable(storageConfig.get(container)).map(StorageConfigItem::getWeight).orElse(1),
+            container -> Optional.ofNullable(storageConfig.get(container)).map(StorageConfigItem::getMinSlots).orElse(0)
+        );
+    }
+
+    private Optional<List<BlobCandidate>> listCandidates(String container) {
+        try {
+            BlobContainerClient containerClient = storageClient.getBlobContainerClient(container);
+            return Optional.of(
+                containerClient
+                    .listBlobs()
+                    .stream()
+                    .map(blobItem -> toCandidate(container, blobItem))
+                    .toList()
+            );
+        } catch (Exception exception) {
+            logger.error("Error occurred while listing {} container", container, exception);
+            return Optional.empty();
+        }
+    }
+
+    private static BlobCandidate toCandidate(String container, BlobItem blobItem) {
+        var properties = blobItem.getProperties();
+        return new BlobCandidate(
+            container,
+            blobItem.getName(),
+            properties == null || properties.getCreationTime() == null
+                ? null
+                : properties.getCreationTime().toInstant(),
+            properties == null || properties.getContentLength() == null ? 0 : properties.getContentLength()
+        );
+    }
+}
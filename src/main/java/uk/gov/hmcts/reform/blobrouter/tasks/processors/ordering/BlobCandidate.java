@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import java.time.Instant;
+
+/**
+ * The `BlobCandidate` class represents a blob waiting to be dispatched, with the attributes ordering policies
+ * decide on: when the blob was created and how big it is.
+ */
+public class BlobCandidate {
+
+    public final String container;
+    public final String blobName;
+    public final Instant createdAt;
+    public final long size;
+
+    public BlobCandidate(String container, String blobName, Instant createdAt, long size) {
+        this.container = container;
+        this.blobName = blobName;
+        this.createdAt = createdAt;
+        this.size = size;
+    }
+
+    /**
+     * The function returns how long the blob has been waiting for dispatch at the given point in time.
+     * Blobs with unknown creation time are treated as just created.
+     *
+     * @param now The current point in time.
+     * @return The number of milliseconds the blob has been waiting, never negative.
+     */
+    public long waitingMillis(Instant now) {
+        return createdAt == null ? 0 : Math.max(0, now.toEpochMilli() - createdAt.toEpochMilli());
+    }
+}
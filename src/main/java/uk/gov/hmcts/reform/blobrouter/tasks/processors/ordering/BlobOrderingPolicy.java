@@ -0,0 +1,26 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * The `BlobOrderingPolicy` interface decides in which order blobs gathered from all source containers are
+ * dispatched. Blobs which compare as equal keep the order they were gathered in.
+ */
+public interface BlobOrderingPolicy {
+
+    /**
+     * The function returns the name of the policy, used to select it in configuration and to tag metrics.
+     *
+     * @return The name of the policy.
+     */
+    String name();
+
+    /**
+     * The function returns the comparator putting blobs which should be dispatched first at the beginning.
+     *
+     * @param now The point in time the ordering is done at, for policies taking waiting time into account.
+     * @return The comparator ordering blob candidates.
+     */
+    Comparator<BlobCandidate> comparator(Instant now);
+}
@@ -0,0 +1,22 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Keeps blobs in the order they are listed in, i.e. container by container and by name within a container.
+ */
+public class ListingOrderPolicy implements BlobOrderingPolicy {
+
+    public static final String NAME = "listing";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Comparator<BlobCandidate> comparator(Instant now) {
+        return (first, second) -> 0;
+    }
+}
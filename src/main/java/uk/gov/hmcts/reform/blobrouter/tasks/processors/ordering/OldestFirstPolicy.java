@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsLast;
+
+/**
+ * Dispatches the blobs which have been waiting the longest first, regardless of the container they are in.
+ */
+public class OldestFirstPolicy implements BlobOrderingPolicy {
+
+    public static final String NAME = "oldest-first";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Comparator<BlobCandidate> comparator(Instant now) {
+        return comparing(candidate -> candidate.createdAt, nullsLast(Comparator.naturalOrder()));
+    }
+}
@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Dispatches the smallest blobs first (shortest job first), which minimises the average time to dispatch during a
+ * backlog. Blobs of equal size are dispatched oldest first.
+ */
+public class SmallestFirstPolicy implements BlobOrderingPolicy {
+
+    public static final String NAME = "smallest-first";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Comparator<BlobCandidate> comparator(Instant now) {
+        return Comparator
+            .<BlobCandidate>comparingLong(candidate -> candidate.size)
+            .thenComparing(new OldestFirstPolicy().comparator(now));
+    }
+}
@@ -0,0 +1,95 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * The `WeightedFairQueue` class merges the queues of blobs waiting in different containers into a single dispatch
+ * order using weighted fair queuing, so that a large drop into one container cannot hold up the blobs of the others.
+ *
+ * <p>First, every container with waiting blobs gets its guaranteed minimum number of slots, taken round-robin. The
+ * remaining blobs are then interleaved in proportion to container weights: each dispatched blob advances the virtual
+ * finish time of its container by `1 / weight` and the container with the earliest next finish time goes next.
+ * Containers without waiting blobs take no slots, so their share is spread over the busy ones.
+ */
+public class WeightedFairQueue {
+
+    private final ToIntFunction<String> weights;
+    private final ToIntFunction<String> minSlots;
+
+    /**
+     * Creates the queue.
+     *
+     * @param weights Provides the weight of a container, at least 1.
+     * @param minSlots Provides the number of guaranteed slots of a container.
+     */
+    public WeightedFairQueue(ToIntFunction<String> weights, ToIntFunction<String> minSlots) {
+        this.weights = weights;
+        this.minSlots = minSlots;
+    }
+
+    /**
+     * The function merges the given per-container queues into a single dispatch order.
+     *
+     * @param queues Blobs waiting in each container, already in the order they should leave their container in.
+     *               Containers are served in iteration order when they are otherwise equal.
+     * @return All the given blobs in dispatch order.
+     */
+    public List<BlobCandidate> merge(Map<String, List<BlobCandidate>> queues) {
+        Map<String, Deque<BlobCandidate>> waiting = new LinkedHashMap<>();
+        queues.forEach((container, blobs) -> {
+            if (!blobs.isEmpty()) {
+                waiting.put(container, new ArrayDeque<>(blobs));
+            }
+        });
+
+        List<BlobCandidate> result = new ArrayList<>();
+        takeGuaranteedSlots(waiting, result);
+        takeFairShares(waiting, result);
+        return result;
+    }
+
+    private void takeGuaranteedSlots(Map<String, Deque<BlobCandidate>> waiting, List<BlobCandidate> result) {
+        boolean taken = true;
+        for (int round = 0; taken; round++) {
+            taken = false;
+            for (var entry : waiting.entrySet()) {
+                if (round < minSlots.applyAsInt(entry.getKey()) && !entry.getValue().isEmpty()) {
+                    result.add(entry.getValue().poll());
+                    taken = true;
+                }
+            }
+        }
+        waiting.values().removeIf(Deque::isEmpty);
+    }
+
+    private void takeFairShares(Map<String, Deque<BlobCandidate>> waiting, List<BlobCandidate> result) {
+        Map<String, Double> finishTimes = new HashMap<>();
+        waiting.keySet().forEach(container -> finishTimes.put(container, 0.0));
+
+        while (!waiting.isEmpty()) {
+            String next = null;
+            double nextFinishTime = Double.MAX_VALUE;
+            for (String container : waiting.keySet()) {
+                double finishTime = finishTimes.get(container) + 1.0 / weights.applyAsInt(container);
+                if (finishTime < nextFinishTime) {
+                    next = container;
+                    nextFinishTime = finishTime;
+                }
+            }
+
+            Deque<BlobCandidate> queue = waiting.get(next);
+            result.add(queue.poll());
+            finishTimes.put(next, nextFinishTime);
+            if (queue.isEmpty()) {
+                waiting.remove(next);
+            }
+        }
+    }
+}
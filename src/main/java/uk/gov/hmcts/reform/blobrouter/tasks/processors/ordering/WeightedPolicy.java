@@ -0,0 +1,45 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Weighted shortest job first: blobs are dispatched in descending order of their waiting time divided by the
+ * expected cost of dispatching them, estimated from their size. Small blobs are preferred, but unlike with
+ * smallest-first a large blob cannot starve, as its priority keeps growing while it waits.
+ */
+public class WeightedPolicy implements BlobOrderingPolicy {
+
+    public static final String NAME = "weighted";
+
+    private final long referenceSizeBytes;
+
+    /**
+     * Creates the policy.
+     *
+     * @param referenceSizeBytes The blob size which doubles the cost of a dispatch, compared to an empty blob.
+     */
+    public WeightedPolicy(long referenceSizeBytes) {
+        if (referenceSizeBytes <= 0) {
+            throw new IllegalArgumentException("Reference size must be positive, got " + referenceSizeBytes);
+        }
+        this.referenceSizeBytes = referenceSizeBytes;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Comparator<BlobCandidate> comparator(Instant now) {
+        return Comparator
+            .<BlobCandidate>comparingDouble(candidate -> priority(candidate, now))
+            .reversed();
+    }
+
+    double priority(BlobCandidate candidate, Instant now) {
+        double cost = 1 + (double) candidate.size / referenceSizeBytes;
+        return candidate.waitingMillis(now) / cost;
+    }
+}
@@ -6,10 +6,12 @@ import uk.gov.hmcts.reform.blobrouter.exceptions.SignatureValidationException;
 
 import java.io.IOException;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
+import java.util.HexFormat;
 import java.util.Objects;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -40,12 +42,14 @@ public class ZipVerifiers {
      *                  used to verify the digital signature of the data in the ZipInputStream. The public
      *                  key is used to verify that the signature matches the data and was signed by the
      *                  corresponding private key.
+     * @return The hex encoded SHA-256 digest of the envelope entry, computed while its signature is verified.
      */
-    public static void verifyZip(ZipInputStream zis, PublicKey publicKey) throws IOException {
+    public static String verifyZip(ZipInputStream zis, PublicKey publicKey) throws IOException {
         try {
 
             Signature signature = Signature.getInstance("SHA256withRSA");
             signature.initVerify(publicKey);
+            MessageDigest envelopeDigest = MessageDigest.getInstance("SHA-256");
             byte[] signatureByteArray = null;
 
             ZipEntry zipEntry;
@@ -57,6 +61,7 @@ public class ZipVerifiers {
                     while (zis.available() != 0) {
                         int numBytesRead = zis.readNBytes(envelopeData, 0, BUFFER_SIZE);
                         signature.update(envelopeData, 0, numBytesRead);
+                        envelopeDigest.update(envelopeData, 0, numBytesRead);
                     }
                 } else if (zipEntry.getName().equalsIgnoreCase(SIGNATURE)) {
                     signatureByteArray = zis.readAllBytes();
@@ -75,6 +80,7 @@ public class ZipVerifiers {
             if (!signature.verify(signatureByteArray)) {
                 throw new DocSignatureFailureException(INVALID_SIGNATURE_MESSAGE);
             }
+            return HexFormat.of().formatHex(envelopeDigest.digest());
         } catch (SignatureException e) {
             throw new DocSignatureFailureException(INVALID_SIGNATURE_MESSAGE, e);
         } catch (NoSuchAlgorithmException | InvalidKeyException e) {
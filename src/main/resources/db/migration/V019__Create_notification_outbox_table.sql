@@ -0,0 +1,33 @@
+CREATE TABLE notification_outbox
+(
+    id                BIGSERIAL    PRIMARY KEY,
+    envelope_id       UUID         NOT NULL REFERENCES envelopes ON DELETE CASCADE,
+    error_code        VARCHAR(50)  NULL,
+    error_description TEXT         NULL,
+    created_at        TIMESTAMP    NOT NULL,
+    sent_at           TIMESTAMP    NULL
+);
+
+CREATE INDEX notification_outbox_unsent_idx ON notification_outbox (id) WHERE sent_at IS NULL;
+CREATE INDEX notification_outbox_envelope_id_idx ON notification_outbox (envelope_id);
+
+-- wake up notification drainers once per inserting transaction
+CREATE FUNCTION notify_notification_outbox() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('notification_outbox', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER notification_outbox_notify
+    AFTER INSERT ON notification_outbox
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notify_notification_outbox();
+
+-- move notifications which are still pending to the outbox
+INSERT INTO notification_outbox (envelope_id, error_code, error_description, created_at)
+SELECT DISTINCT ON (env.id) env.id, event.error_code, event.notes, event.created_at
+FROM envelopes env
+JOIN envelope_events event ON event.envelope_id = env.id AND event.type = 'REJECTED'
+WHERE env.pending_notification IS TRUE
+ORDER BY env.id, event.id DESC;
@@ -0,0 +1,67 @@
+-- per container, per day counts of received and rejected envelopes, maintained by triggers on envelopes
+CREATE TABLE envelope_daily_counts
+(
+    container        VARCHAR(50) NOT NULL,
+    day              DATE        NOT NULL,
+    received         INTEGER     NOT NULL DEFAULT 0,
+    rejected         INTEGER     NOT NULL DEFAULT 0,
+    last_received_at TIMESTAMP   NULL,
+    PRIMARY KEY (day, container)
+);
+
+CREATE FUNCTION apply_envelope_daily_count(
+    p_container VARCHAR, p_created_at TIMESTAMP, p_received INTEGER, p_rejected INTEGER
+) RETURNS VOID AS $$
+BEGIN
+    INSERT INTO envelope_daily_counts AS c (container, day, received, rejected, last_received_at)
+    VALUES (
+        p_container,
+        p_created_at::date,
+        p_received,
+        p_rejected,
+        CASE WHEN p_received > 0 THEN p_created_at END
+    )
+    ON CONFLICT (day, container) DO UPDATE
+    SET received = c.received + EXCLUDED.received,
+        rejected = c.rejected + EXCLUDED.rejected,
+        last_received_at = GREATEST(c.last_received_at, EXCLUDED.last_received_at);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION maintain_envelope_daily_counts() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM apply_envelope_daily_count(
+            OLD.container, OLD.created_at, -1, CASE WHEN OLD.status = 'REJECTED' THEN -1 ELSE 0 END
+        );
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM apply_envelope_daily_count(
+            NEW.container, NEW.created_at, 1, CASE WHEN NEW.status = 'REJECTED' THEN 1 ELSE 0 END
+        );
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER envelopes_daily_counts_insert_delete
+    AFTER INSERT OR DELETE ON envelopes
+    FOR EACH ROW
+    EXECUTE FUNCTION maintain_envelope_daily_counts();
+
+CREATE TRIGGER envelopes_daily_counts_update
+    AFTER UPDATE OF status, container, created_at ON envelopes
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.container IS DISTINCT FROM NEW.container
+        OR OLD.created_at IS DISTINCT FROM NEW.created_at)
+    EXECUTE FUNCTION maintain_envelope_daily_counts();
+
+INSERT INTO envelope_daily_counts (container, day, received, rejected, last_received_at)
+SELECT container,
+       created_at::date,
+       count(*),
+       count(*) FILTER (WHERE status = 'REJECTED'),
+       max(created_at)
+FROM envelopes
+GROUP BY container, created_at::date;
@@ -0,0 +1,2 @@
+CREATE INDEX envelopes_created_at_id_idx
+ON envelopes (created_at, id);
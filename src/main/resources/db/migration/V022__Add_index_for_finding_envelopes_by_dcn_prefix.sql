@@ -0,0 +1,3 @@
+-- text_pattern_ops lets LIKE 'prefix%' use the index regardless of the database collation
+CREATE INDEX envelopes_file_name_pattern_file_created_at_idx
+ON envelopes (file_name text_pattern_ops, file_created_at);
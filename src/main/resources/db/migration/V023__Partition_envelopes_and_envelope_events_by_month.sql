@@ -0,0 +1,93 @@
+-- Range partitions envelopes and envelope_events by month of created_at, so that old data can be purged by
+-- dropping whole partitions. Unique constraints on a partitioned table must include the partition key, which
+-- means envelopes.id can no longer be referenced by foreign keys. Related rows are deleted by the application
+-- instead, see EnvelopeRepository.deleteEnvelopesBefore and PartitionMaintenanceService.
+
+ALTER TABLE notification_outbox DROP CONSTRAINT notification_outbox_envelope_id_fkey;
+
+ALTER TABLE envelopes RENAME TO envelopes_unpartitioned;
+ALTER TABLE envelope_events RENAME TO envelope_events_unpartitioned;
+
+CREATE TABLE envelopes (LIKE envelopes_unpartitioned INCLUDING DEFAULTS)
+    PARTITION BY RANGE (created_at);
+
+CREATE TABLE envelope_events (LIKE envelope_events_unpartitioned INCLUDING DEFAULTS)
+    PARTITION BY RANGE (created_at);
+
+-- creates the partition of the given table holding the month of the given day, unless it already exists
+CREATE FUNCTION create_monthly_partition(p_table TEXT, p_month DATE) RETURNS TEXT AS $$
+DECLARE
+    v_start     DATE := date_trunc('month', p_month)::date;
+    v_partition TEXT := p_table || '_' || to_char(v_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(v_partition) IS NULL THEN
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            v_partition,
+            p_table,
+            v_start,
+            (v_start + INTERVAL '1 month')::date
+        );
+    END IF;
+    RETURN v_partition;
+END;
+$$ LANGUAGE plpgsql;
+
+-- a partition for every month with existing data and for the next three months
+DO $$
+DECLARE
+    v_month DATE;
+BEGIN
+    FOR v_month IN
+        SELECT generate_series(
+            date_trunc('month', LEAST(
+                (SELECT min(created_at) FROM envelopes_unpartitioned),
+                (SELECT min(created_at) FROM envelope_events_unpartitioned),
+                LOCALTIMESTAMP
+            )),
+            date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months',
+            INTERVAL '1 month'
+        )::date
+    LOOP
+        PERFORM create_monthly_partition('envelopes', v_month);
+        PERFORM create_monthly_partition('envelope_events', v_month);
+    END LOOP;
+END;
+$$;
+
+-- rows outside of the monthly partitions (e.g. back-dated ones) must not fail to insert
+CREATE TABLE envelopes_default PARTITION OF envelopes DEFAULT;
+CREATE TABLE envelope_events_default PARTITION OF envelope_events DEFAULT;
+
+INSERT INTO envelopes SELECT * FROM envelopes_unpartitioned;
+INSERT INTO envelope_events SELECT * FROM envelope_events_unpartitioned;
+
+ALTER SEQUENCE envelope_events_id_seq OWNED BY envelope_events.id;
+
+DROP TABLE envelope_events_unpartitioned;
+DROP TABLE envelopes_unpartitioned;
+
+-- constraints and indexes are recreated once the data is in place
+ALTER TABLE envelopes ADD PRIMARY KEY (id, created_at);
+CREATE INDEX envelopes_container_file_name_idx ON envelopes (container, file_name);
+CREATE INDEX envelopes_status_container_is_deleted_idx ON envelopes (status, container, is_deleted);
+CREATE INDEX envelopes_pending_notification_idx ON envelopes (pending_notification);
+CREATE INDEX envelopes_created_at_id_idx ON envelopes (created_at, id);
+CREATE INDEX envelopes_file_name_pattern_file_created_at_idx ON envelopes (file_name text_pattern_ops, file_created_at);
+
+ALTER TABLE envelope_events ADD PRIMARY KEY (id, created_at);
+CREATE INDEX envelope_events_envelope_id_type_idx ON envelope_events (envelope_id, type);
+
+-- daily counts triggers were dropped together with the old table, the counts themselves are unaffected
+CREATE TRIGGER envelopes_daily_counts_insert_delete
+    AFTER INSERT OR DELETE ON envelopes
+    FOR EACH ROW
+    EXECUTE FUNCTION maintain_envelope_daily_counts();
+
+CREATE TRIGGER envelopes_daily_counts_update
+    AFTER UPDATE OF status, container, created_at ON envelopes
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.container IS DISTINCT FROM NEW.container
+        OR OLD.created_at IS DISTINCT FROM NEW.created_at)
+    EXECUTE FUNCTION maintain_envelope_daily_counts();
@@ -0,0 +1,13 @@
+-- retry state of blobs whose processing failed, keyed by blob so that it can be checked before the blob is leased
+CREATE TABLE envelope_retries
+(
+    container       VARCHAR(50)  NOT NULL,
+    file_name       VARCHAR(255) NOT NULL,
+    envelope_id     UUID         NOT NULL,
+    attempts        INTEGER      NOT NULL,
+    next_attempt_at TIMESTAMP    NOT NULL,
+    quarantined     BOOLEAN      NOT NULL DEFAULT FALSE,
+    last_error      TEXT         NULL,
+    updated_at      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (container, file_name)
+);
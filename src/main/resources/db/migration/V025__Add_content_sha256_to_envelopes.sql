@@ -0,0 +1,2 @@
+-- SHA-256 digest (hex) of the inner envelope content as committed on the target storage, computed while uploading
+ALTER TABLE envelopes ADD COLUMN content_sha256 VARCHAR(64) NULL;
@@ -0,0 +1,10 @@
+-- content digests of dispatched envelopes, used to find envelopes resent under another file name. Kept apart from
+-- envelopes, as a unique constraint on the partitioned envelopes table would have to include created_at.
+CREATE TABLE envelope_fingerprints
+(
+    content_sha256 VARCHAR(64)  PRIMARY KEY,
+    envelope_id    UUID         NOT NULL,
+    container      VARCHAR(50)  NOT NULL,
+    file_name      VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP    NOT NULL
+);
@@ -0,0 +1,11 @@
+-- targets an envelope has been dispatched to, for containers mirrored to more than one target. An envelope is marked
+-- as dispatched once its primary target is listed here, mirrors which are not listed yet are retried on their own.
+CREATE TABLE envelope_dispatches
+(
+    envelope_id            UUID         NOT NULL,
+    target_storage_account VARCHAR(50)  NOT NULL,
+    target_container       VARCHAR(100) NOT NULL,
+    content_sha256         VARCHAR(64),
+    dispatched_at          TIMESTAMP    NOT NULL,
+    PRIMARY KEY (envelope_id, target_storage_account, target_container)
+);
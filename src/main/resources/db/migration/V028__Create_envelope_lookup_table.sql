@@ -0,0 +1,117 @@
+-- Unique constraints on the partitioned envelopes table must include created_at, so the table itself can neither
+-- keep envelope ids unique nor be referenced by foreign keys. envelope_lookup holds one row per envelope, kept in
+-- step by a trigger: its primary key keeps ids unique, events and outbox notifications reference it again, and
+-- lookups by id or by file read created_at from it, so that only the partitions holding the envelope are scanned.
+-- Envelope ids and creation times are never updated.
+
+CREATE TABLE envelope_lookup (
+    id         UUID         PRIMARY KEY,
+    container  VARCHAR(50)  NOT NULL,
+    file_name  VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX envelope_lookup_container_file_name_idx ON envelope_lookup (container, file_name);
+CREATE INDEX envelope_lookup_created_at_idx ON envelope_lookup (created_at);
+
+INSERT INTO envelope_lookup (id, container, file_name, created_at)
+SELECT id, container, file_name, created_at FROM envelopes;
+
+CREATE FUNCTION maintain_envelope_lookup() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO envelope_lookup (id, container, file_name, created_at)
+        VALUES (NEW.id, NEW.container, NEW.file_name, NEW.created_at);
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE envelope_lookup
+        SET container = NEW.container, file_name = NEW.file_name, created_at = NEW.created_at
+        WHERE id = OLD.id;
+    ELSE
+        DELETE FROM envelope_lookup WHERE id = OLD.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER envelopes_lookup_insert_delete
+    AFTER INSERT OR DELETE ON envelopes
+    FOR EACH ROW
+    EXECUTE FUNCTION maintain_envelope_lookup();
+
+CREATE TRIGGER envelopes_lookup_update
+    AFTER UPDATE OF container, file_name, created_at ON envelopes
+    FOR EACH ROW
+    WHEN (OLD.container IS DISTINCT FROM NEW.container
+        OR OLD.file_name IS DISTINCT FROM NEW.file_name
+        OR OLD.created_at IS DISTINCT FROM NEW.created_at)
+    EXECUTE FUNCTION maintain_envelope_lookup();
+
+-- rows of envelopes deleted while the foreign keys were missing
+DELETE FROM envelope_events ev WHERE NOT EXISTS (SELECT 1 FROM envelope_lookup l WHERE l.id = ev.envelope_id);
+DELETE FROM notification_outbox o WHERE NOT EXISTS (SELECT 1 FROM envelope_lookup l WHERE l.id = o.envelope_id);
+
+ALTER TABLE envelope_events
+    ADD CONSTRAINT envelope_events_envelope_id_fkey
+    FOREIGN KEY (envelope_id) REFERENCES envelope_lookup ON DELETE CASCADE;
+
+ALTER TABLE notification_outbox
+    ADD CONSTRAINT notification_outbox_envelope_id_fkey
+    FOREIGN KEY (envelope_id) REFERENCES envelope_lookup ON DELETE CASCADE;
+
+-- A monthly partition cannot be created while the default partition holds rows of that month. Such rows are moved
+-- to a standalone table which is then attached as the partition. Triggers of the default partition are disabled
+-- meanwhile, as the rows are moved rather than deleted, so daily counts and lookups must not change.
+CREATE OR REPLACE FUNCTION create_monthly_partition(p_table TEXT, p_month DATE) RETURNS TEXT AS $$
+DECLARE
+    v_start     DATE := date_trunc('month', p_month)::date;
+    v_end       DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    v_partition TEXT := p_table || '_' || to_char(v_start, 'YYYY_MM');
+    v_default   TEXT := p_table || '_default';
+    v_has_rows  BOOLEAN;
+BEGIN
+    IF to_regclass(v_partition) IS NOT NULL THEN
+        RETURN v_partition;
+    END IF;
+
+    v_has_rows := FALSE;
+    IF to_regclass(v_default) IS NOT NULL THEN
+        EXECUTE format(
+            'SELECT EXISTS (SELECT 1 FROM %I WHERE created_at >= %L AND created_at < %L)',
+            v_default,
+            v_start,
+            v_end
+        ) INTO v_has_rows;
+    END IF;
+
+    IF NOT v_has_rows THEN
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            v_partition,
+            p_table,
+            v_start,
+            v_end
+        );
+        RETURN v_partition;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', v_partition, p_table);
+    EXECUTE format('ALTER TABLE %I DISABLE TRIGGER USER', v_default);
+    EXECUTE format(
+        'WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) '
+            || 'INSERT INTO %I SELECT * FROM moved',
+        v_default,
+        v_start,
+        v_end,
+        v_partition
+    );
+    EXECUTE format('ALTER TABLE %I ENABLE TRIGGER USER', v_default);
+    EXECUTE format(
+        'ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        p_table,
+        v_partition,
+        v_start,
+        v_end
+    );
+    RETURN v_partition;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,6 @@
+-- the version of the blob whose processing failed: a new version of the blob starts over with a clean retry state
+ALTER TABLE envelope_retries ADD COLUMN e_tag VARCHAR(100) NULL;
+
+-- retry state is released by envelope ID and purged once it has not changed for a while
+CREATE INDEX envelope_retries_envelope_id_idx ON envelope_retries (envelope_id);
+CREATE INDEX envelope_retries_updated_at_idx ON envelope_retries (updated_at);
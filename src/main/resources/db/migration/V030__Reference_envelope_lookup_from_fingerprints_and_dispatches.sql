@@ -0,0 +1,17 @@
+-- Fingerprints and target dispatches reference envelope_lookup the same way events and outbox notifications do, so
+-- that they are deleted together with the envelope, including when the partition holding it is dropped.
+
+-- rows of envelopes deleted while the foreign keys were missing
+DELETE FROM envelope_fingerprints fp WHERE NOT EXISTS (SELECT 1 FROM envelope_lookup l WHERE l.id = fp.envelope_id);
+DELETE FROM envelope_dispatches d WHERE NOT EXISTS (SELECT 1 FROM envelope_lookup l WHERE l.id = d.envelope_id);
+
+ALTER TABLE envelope_fingerprints
+    ADD CONSTRAINT envelope_fingerprints_envelope_id_fkey
+    FOREIGN KEY (envelope_id) REFERENCES envelope_lookup ON DELETE CASCADE;
+
+-- the primary key leads with envelope_id, so it serves the cascade already
+ALTER TABLE envelope_dispatches
+    ADD CONSTRAINT envelope_dispatches_envelope_id_fkey
+    FOREIGN KEY (envelope_id) REFERENCES envelope_lookup ON DELETE CASCADE;
+
+CREATE INDEX envelope_fingerprints_envelope_id_idx ON envelope_fingerprints (envelope_id);
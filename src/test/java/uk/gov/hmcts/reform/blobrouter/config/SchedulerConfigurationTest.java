@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.blobrouter.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulerConfigurationTest {
+
+    private final SchedulerConfiguration configuration = new SchedulerConfiguration();
+
+    @Test
+    void should_keep_task_families_on_separate_threads() throws Exception {
+        // given
+        var meterRegistry = new SimpleMeterRegistry();
+        ThreadPoolTaskScheduler dispatch = configuration.dispatchTaskScheduler(1, meterRegistry);
+        ThreadPoolTaskScheduler reporting = configuration.reportingTaskScheduler(1, meterRegistry);
+        var reportingStarted = new CountDownLatch(1);
+        var blockReporting = new CountDownLatch(1);
+        var dispatched = new CountDownLatch(1);
+
+        try {
+            // when
+            reporting.execute(() -> {
+                reportingStarted.countDown();
+                await(blockReporting);
+            });
+            reporting.execute(() -> { });
+            dispatch.execute(dispatched::countDown);
+
+            // then
+            assertThat(reportingStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(dispatched.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(gauge(meterRegistry, "scheduler.pool.active", "reporting")).isEqualTo(1);
+            assertThat(gauge(meterRegistry, "scheduler.pool.queued", "reporting")).isEqualTo(1);
+            assertThat(gauge(meterRegistry, "scheduler.pool.size", "dispatch")).isEqualTo(1);
+        } finally {
+            blockReporting.countDown();
+            dispatch.shutdown();
+            reporting.shutdown();
+        }
+    }
+
+    private static double gauge(SimpleMeterRegistry meterRegistry, String name, String pool) {
+        return meterRegistry.get(name).tag("pool", pool).gauge().value();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -30,6 +30,23 @@ class ServiceConfigurationTest {
         assertThat(result).containsExactlyInAnyOrder("A", "B", "C");
     }
 
+    @Test
+    void should_return_primary_target_followed_by_mirrors() {
+        // given
+        var item = item("A", "A-target", true);
+        item.setTargetStorageAccount(TargetStorageAccount.CFT);
+        item.setMirrors(List.of(new TargetConfigItem(TargetStorageAccount.CRIME, "A-archive")));
+
+        // when
+        List<TargetConfigItem> targets = item.getTargets();
+
+        // then
+        assertThat(targets).containsExactly(
+            new TargetConfigItem(TargetStorageAccount.CFT, "A-target"),
+            new TargetConfigItem(TargetStorageAccount.CRIME, "A-archive")
+        );
+    }
+
     private StorageConfigItem item(String sourceContainer, String targetContainer, boolean enabled) {
         var item = new StorageConfigItem();
         item.setSourceContainer(sourceContainer);
@@ -5,20 +5,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import uk.gov.hmcts.reform.blobrouter.data.export.ExportFormat;
 import uk.gov.hmcts.reform.blobrouter.model.out.IncompleteEnvelopeInfo;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
 import uk.gov.hmcts.reform.blobrouter.services.IncompleteEnvelopesService;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,12 +63,8 @@ class EnvelopeControllerTest {
 
     @Test
     void should_successfully_remove_stale_envelopes() throws Exception {
-        given(mockIncompleteEnvelopeService
-                  .deleteIncompleteEnvelopes(DEFAULT_STALE_TIME, List.of(
-                      TEST_UUID_ONE, TEST_UUID_TWO, TEST_UUID_THREE
-                  ))).willReturn(1);
-        given(mockIncompleteEnvelopeService.getIncompleteEnvelopes(anyInt()))
-            .willReturn(incompleteEnvelopeInfos);
+        given(mockIncompleteEnvelopeService.deleteAllIncompleteEnvelopes(DEFAULT_STALE_TIME))
+            .willReturn(incompleteEnvelopeInfos.stream().map(e -> e.envelopeId).toList());
         performDeleteOneStaleEnvelopes(DEFAULT_STALE_TIME)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.count").value(3))
@@ -102,6 +109,86 @@ class EnvelopeControllerTest {
             .andExpect(content().string(containsString("stale_time must be at least 168 hours (a week)")));
     }
 
+    @Test
+    void should_stream_envelopes_export_in_requested_format() throws Exception {
+        // given
+        LocalDate from = LocalDate.parse("2024-01-01");
+        LocalDate to = LocalDate.parse("2024-01-31");
+        willAnswer(invocation -> {
+            invocation.getArgument(4, OutputStream.class).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).given(envelopeService)
+            .exportEnvelopes(eq(from), eq(to), eq(List.of("bulkscan", "crime")), eq(ExportFormat.NDJSON), any());
+
+        // when
+        MvcResult result = mockMvc
+            .perform(
+                get("/envelopes/export")
+                    .param("from", "2024-01-01")
+                    .param("to", "2024-01-31")
+                    .param("containers", "bulkscan", "crime")
+                    .param("format", "ndjson")
+            )
+            .andReturn();
+
+        // then
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson"))
+            .andExpect(header().string(
+                "Content-Disposition",
+                "attachment; filename=\"envelopes-2024-01-01-2024-01-31.ndjson\""
+            ))
+            .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void should_reject_export_when_date_range_is_too_long() throws Exception {
+        mockMvc
+            .perform(get("/envelopes/export").param("from", "2024-01-01").param("to", "2024-02-01"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Date range must not be longer than 31 days"));
+
+        verifyNoInteractions(envelopeService);
+    }
+
+    @Test
+    void should_reject_export_when_from_is_after_to() throws Exception {
+        mockMvc
+            .perform(get("/envelopes/export").param("from", "2024-01-02").param("to", "2024-01-01"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("'from' must not be after 'to'"));
+    }
+
+    @Test
+    void should_reject_export_when_container_name_is_invalid() throws Exception {
+        mockMvc
+            .perform(
+                get("/envelopes/export")
+                    .param("from", "2024-01-01")
+                    .param("to", "2024-01-01")
+                    .param("containers", "bulkscan'; --")
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Invalid container name: bulkscan'; --"));
+
+        verifyNoInteractions(envelopeService);
+    }
+
+    @Test
+    void should_reject_export_when_format_is_not_supported() throws Exception {
+        mockMvc
+            .perform(
+                get("/envelopes/export")
+                    .param("from", "2024-01-01")
+                    .param("to", "2024-01-01")
+                    .param("format", "xml")
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("'format' must be one of: csv, ndjson"));
+    }
+
     private ResultActions performDeleteOneStaleEnvelope(int staleTime, String envelopeId) throws Exception {
         return mockMvc.perform(delete("/envelopes/stale/{envelopeId}", envelopeId)
                                    .param("stale_time", String.valueOf(staleTime)));
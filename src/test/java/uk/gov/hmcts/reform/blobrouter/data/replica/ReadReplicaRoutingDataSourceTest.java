@@ -0,0 +1,120 @@
+package uk.gov.hmcts.reform.blobrouter.data.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primaryDataSource;
+
+    @Mock
+    private DataSource replicaDataSource;
+
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private ReadReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadReplicaRoutingDataSource.exitTransaction();
+        ReadReplicaRoutingDataSource.exitTransaction();
+    }
+
+    @Test
+    void should_route_replica_transaction_to_replica_when_it_is_available() throws Exception {
+        // given
+        ReadReplicaRoutingDataSource.enterTransaction(true);
+        given(replicaLagMonitor.isReplicaAvailable()).willReturn(true);
+
+        // when
+        Object target = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(target).isEqualTo(ReadReplicaRoutingDataSource.Target.REPLICA);
+
+        // and when
+        dataSource.getConnection();
+
+        // then
+        verify(replicaDataSource).getConnection();
+        verifyNoInteractions(primaryDataSource);
+    }
+
+    @Test
+    void should_route_replica_transaction_to_primary_when_replica_is_lagging() {
+        // given
+        ReadReplicaRoutingDataSource.enterTransaction(true);
+        given(replicaLagMonitor.isReplicaAvailable()).willReturn(false);
+
+        // when
+        Object target = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(target).isEqualTo(ReadReplicaRoutingDataSource.Target.PRIMARY);
+    }
+
+    @Test
+    void should_route_other_transaction_to_primary() throws Exception {
+        // given
+        ReadReplicaRoutingDataSource.enterTransaction(false);
+
+        // when
+        Object target = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(target).isEqualTo(ReadReplicaRoutingDataSource.Target.PRIMARY);
+
+        // and when
+        dataSource.getConnection();
+
+        // then
+        verify(primaryDataSource).getConnection();
+        verifyNoInteractions(replicaDataSource, replicaLagMonitor);
+    }
+
+    @Test
+    void should_route_to_primary_outside_of_transactions() {
+        // when
+        Object target = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(target).isEqualTo(ReadReplicaRoutingDataSource.Target.PRIMARY);
+        verifyNoInteractions(replicaLagMonitor);
+    }
+
+    @Test
+    void should_route_by_innermost_transaction() {
+        // given
+        ReadReplicaRoutingDataSource.enterTransaction(true);
+        ReadReplicaRoutingDataSource.enterTransaction(false);
+        given(replicaLagMonitor.isReplicaAvailable()).willReturn(true);
+
+        // when
+        Object innerTarget = dataSource.determineCurrentLookupKey();
+        ReadReplicaRoutingDataSource.exitTransaction();
+        Object outerTarget = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(innerTarget).isEqualTo(ReadReplicaRoutingDataSource.Target.PRIMARY);
+        assertThat(outerTarget).isEqualTo(ReadReplicaRoutingDataSource.Target.REPLICA);
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.hmcts.reform.blobrouter.data.replica;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static uk.gov.hmcts.reform.blobrouter.data.replica.ReplicaLagMonitor.LAG_QUERY;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    @Mock
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new ReplicaLagMonitor(replicaJdbcTemplate, Duration.ofSeconds(30), meterRegistry);
+    }
+
+    @Test
+    void should_not_use_replica_before_first_check() {
+        assertThat(monitor.isReplicaAvailable()).isFalse();
+        assertThat(meterRegistry.get("db.replica.available").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_use_replica_when_lag_is_within_limit() {
+        // given
+        given(replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class)).willReturn(2.5);
+
+        // when
+        monitor.checkLag();
+
+        // then
+        assertThat(monitor.isReplicaAvailable()).isTrue();
+        assertThat(meterRegistry.get("db.replica.lag").gauge().value()).isEqualTo(2.5);
+        assertThat(meterRegistry.get("db.replica.available").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void should_bypass_replica_when_lag_exceeds_limit() {
+        // given
+        given(replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class)).willReturn(2.5, 31.0);
+        monitor.checkLag();
+
+        // when
+        monitor.checkLag();
+
+        // then
+        assertThat(monitor.isReplicaAvailable()).isFalse();
+        assertThat(meterRegistry.get("db.replica.lag").gauge().value()).isEqualTo(31.0);
+    }
+
+    @Test
+    void should_bypass_replica_when_it_cannot_be_queried() {
+        // given
+        given(replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class))
+            .willReturn(0.0)
+            .willThrow(new DataAccessResourceFailureException("connection refused"));
+        monitor.checkLag();
+
+        // when
+        monitor.checkLag();
+
+        // then
+        assertThat(monitor.isReplicaAvailable()).isFalse();
+        assertThat(meterRegistry.get("db.replica.lag").gauge().value()).isNaN();
+    }
+}
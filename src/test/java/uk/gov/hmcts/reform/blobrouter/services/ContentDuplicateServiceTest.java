@@ -0,0 +1,76 @@
+package uk.gov.hmcts.reform.blobrouter.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprint;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprintRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ContentDuplicateServiceTest {
+
+    private static final String SHA = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Mock private EnvelopeFingerprintRepository fingerprintRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ContentDuplicateService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ContentDuplicateService(fingerprintRepository, meterRegistry, ContentDuplicatePolicy.REJECT);
+    }
+
+    @Test
+    void should_return_original_envelope_when_content_was_dispatched_before() {
+        // given
+        var original = new EnvelopeFingerprint(SHA, UUID.randomUUID(), "c1", "a.zip", Instant.now());
+        given(fingerprintRepository.find(SHA)).willReturn(Optional.of(original));
+
+        // when
+        var result = service.findOriginal(UUID.randomUUID(), "c1", "b.zip", SHA);
+
+        // then
+        assertThat(result).containsSame(original);
+        assertThat(meterRegistry.get("envelope.duplicate.content").tag("policy", "REJECT").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void should_not_treat_envelope_as_duplicate_of_itself() {
+        // given
+        var envelopeId = UUID.randomUUID();
+        given(fingerprintRepository.find(SHA))
+            .willReturn(Optional.of(new EnvelopeFingerprint(SHA, envelopeId, "c1", "a.zip", Instant.now())));
+
+        // when
+        var result = service.findOriginal(envelopeId, "c1", "a.zip", SHA);
+
+        // then
+        assertThat(result).isEmpty();
+        assertThat(meterRegistry.get("envelope.duplicate.content").counter().count()).isZero();
+    }
+
+    @Test
+    void should_return_empty_when_content_was_not_dispatched_before() {
+        // given
+        given(fingerprintRepository.find(SHA)).willReturn(Optional.empty());
+
+        // when
+        var result = service.findOriginal(UUID.randomUUID(), "c1", "a.zip", SHA);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+}
@@ -7,7 +7,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.util.function.Tuple2;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatch;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatchRepository;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeCursor;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.NewEnvelope;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
@@ -16,6 +23,10 @@ import uk.gov.hmcts.reform.blobrouter.data.events.EnvelopeEventRepository;
 import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
 import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
 import uk.gov.hmcts.reform.blobrouter.data.events.NewEnvelopeEvent;
+import uk.gov.hmcts.reform.blobrouter.data.export.EnvelopeExportRepository;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprint;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprintRepository;
+import uk.gov.hmcts.reform.blobrouter.data.outbox.NotificationOutboxRepository;
 import uk.gov.hmcts.reform.blobrouter.exceptions.EnvelopeNotFoundException;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidRequestParametersException;
 
@@ -36,6 +47,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -45,6 +57,7 @@ class EnvelopeServiceTest {
 
     private static final String BLOB_NAME = "blob";
     private static final String CONTAINER_NAME = "container";
+    private static final String MIRRORED_CONTAINER_NAME = "mirrored";
     private static final String REJECTION_REASON = "some rejection reason";
     private static final Instant BLOB_CREATED = now();
 
@@ -54,13 +67,38 @@ class EnvelopeServiceTest {
     @Mock
     private EnvelopeEventRepository eventRepository;
 
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private EnvelopeExportRepository envelopeExportRepository;
+
+    @Mock
+    private EnvelopeFingerprintRepository fingerprintRepository;
+
+    @Mock
+    private EnvelopeDispatchRepository dispatchRepository;
+
     private EnvelopeService envelopeService;
 
     @BeforeEach
     void setUp() {
+        var mirroredContainerConfig = new StorageConfigItem();
+        mirroredContainerConfig.setSourceContainer(MIRRORED_CONTAINER_NAME);
+        mirroredContainerConfig.setTargetContainer(MIRRORED_CONTAINER_NAME);
+        mirroredContainerConfig.setTargetStorageAccount(TargetStorageAccount.CFT);
+        mirroredContainerConfig.setMirrors(List.of(new TargetConfigItem(TargetStorageAccount.CRIME, "archive")));
+        var serviceConfiguration = new ServiceConfiguration();
+        serviceConfiguration.setStorageConfig(List.of(mirroredContainerConfig));
+
         envelopeService = new EnvelopeService(
             envelopeRepository,
-            eventRepository
+            eventRepository,
+            notificationOutboxRepository,
+            envelopeExportRepository,
+            fingerprintRepository,
+            dispatchRepository,
+            serviceConfiguration
         );
     }
 
@@ -114,7 +152,46 @@ class EnvelopeServiceTest {
         // then
         verify(envelopeRepository).find(Status.DISPATCHED, CONTAINER_NAME, false);
         verify(envelopeRepository).find(Status.REJECTED, false);
-        verifyNoInteractions(eventRepository);
+        verifyNoInteractions(eventRepository, dispatchRepository);
+    }
+
+    @Test
+    void should_not_delete_dispatched_blobs_which_have_not_reached_all_mirrors() {
+        // given
+        var mirrored = dispatchedEnvelope(MIRRORED_CONTAINER_NAME);
+        var awaitingMirror = dispatchedEnvelope(MIRRORED_CONTAINER_NAME);
+        var skippedDuplicate = dispatchedEnvelope(MIRRORED_CONTAINER_NAME);
+        given(envelopeRepository.find(Status.DISPATCHED, MIRRORED_CONTAINER_NAME, false))
+            .willReturn(List.of(mirrored, awaitingMirror, skippedDuplicate));
+        given(dispatchRepository.find(mirrored.id)).willReturn(List.of(
+            dispatch(mirrored.id, TargetStorageAccount.CFT, MIRRORED_CONTAINER_NAME),
+            dispatch(mirrored.id, TargetStorageAccount.CRIME, "archive")
+        ));
+        given(dispatchRepository.find(awaitingMirror.id)).willReturn(List.of(
+            dispatch(awaitingMirror.id, TargetStorageAccount.CFT, MIRRORED_CONTAINER_NAME)
+        ));
+        given(dispatchRepository.find(skippedDuplicate.id)).willReturn(emptyList());
+
+        // when
+        List<Envelope> envelopes = envelopeService.getReadyToDeleteDispatches(MIRRORED_CONTAINER_NAME);
+
+        // then
+        assertThat(envelopes).containsExactly(mirrored, skippedDuplicate);
+        assertThat(envelopeService.isAwaitingMirrors(awaitingMirror)).isTrue();
+        assertThat(envelopeService.isAwaitingMirrors(mirrored)).isFalse();
+    }
+
+    @Test
+    void should_not_await_mirrors_for_container_without_mirrors() {
+        // given
+        var envelope = dispatchedEnvelope(CONTAINER_NAME);
+
+        // when
+        boolean awaitingMirrors = envelopeService.isAwaitingMirrors(envelope);
+
+        // then
+        assertThat(awaitingMirrors).isFalse();
+        verifyNoInteractions(dispatchRepository);
     }
 
     @Test
@@ -200,6 +277,8 @@ class EnvelopeServiceTest {
         // then
         verify(envelopeRepository).updateStatus(existingEnvelope.id, Status.DISPATCHED);
         verify(envelopeRepository).updateDispatchDateTime(eq(existingEnvelope.id), any());
+        verify(envelopeRepository, never()).updateContentSha256(any(), any());
+        verifyNoInteractions(fingerprintRepository);
 
         var eventCaptor = ArgumentCaptor.forClass(NewEnvelopeEvent.class);
         verify(eventRepository).insert(eventCaptor.capture());
@@ -208,6 +287,48 @@ class EnvelopeServiceTest {
         assertThat(eventCaptor.getValue().type).isEqualTo(EventType.DISPATCHED);
     }
 
+    @Test
+    void should_store_content_digest_when_marking_envelope_as_dispatched() {
+        // given
+        var existingEnvelope = new Envelope(
+            UUID.randomUUID(), "c", "f", null, null, null, Status.CREATED, false, false, null
+        );
+        given(envelopeRepository.find(existingEnvelope.id))
+            .willReturn(Optional.of(existingEnvelope));
+
+        // when
+        envelopeService.markAsDispatched(existingEnvelope.id, "9f86d081884c7d65");
+
+        // then
+        verify(envelopeRepository).updateStatus(existingEnvelope.id, Status.DISPATCHED);
+        verify(envelopeRepository).updateContentSha256(existingEnvelope.id, "9f86d081884c7d65");
+
+        var fingerprintCaptor = ArgumentCaptor.forClass(EnvelopeFingerprint.class);
+        verify(fingerprintRepository).insert(fingerprintCaptor.capture());
+        assertThat(fingerprintCaptor.getValue().contentSha256).isEqualTo("9f86d081884c7d65");
+        assertThat(fingerprintCaptor.getValue().envelopeId).isEqualTo(existingEnvelope.id);
+        assertThat(fingerprintCaptor.getValue().container).isEqualTo("c");
+        assertThat(fingerprintCaptor.getValue().fileName).isEqualTo("f");
+    }
+
+    @Test
+    void should_record_dispatch_of_envelope_to_target() {
+        // given
+        var id = UUID.randomUUID();
+
+        // when
+        envelopeService.markAsDispatchedTo(id, TargetStorageAccount.CFT, "archive", "9f86d081884c7d65");
+
+        // then
+        var dispatchCaptor = ArgumentCaptor.forClass(EnvelopeDispatch.class);
+        verify(dispatchRepository).insert(dispatchCaptor.capture());
+        assertThat(dispatchCaptor.getValue().envelopeId).isEqualTo(id);
+        assertThat(dispatchCaptor.getValue().targetStorageAccount).isEqualTo(TargetStorageAccount.CFT);
+        assertThat(dispatchCaptor.getValue().targetContainer).isEqualTo("archive");
+        assertThat(dispatchCaptor.getValue().contentSha256).isEqualTo("9f86d081884c7d65");
+        verifyNoInteractions(envelopeRepository, eventRepository);
+    }
+
     @Test
     void should_throw_exceptiopn_when_trying_to_mark_not_existing_envelope_as_dispatched() {
         // given
@@ -247,6 +368,9 @@ class EnvelopeServiceTest {
         assertThat(eventCaptor.getValue().type).isEqualTo(EventType.REJECTED);
         assertThat(eventCaptor.getValue().errorCode).isEqualTo(ErrorCode.ERR_METAFILE_INVALID);
         assertThat(eventCaptor.getValue().notes).isEqualTo("some reason");
+
+        verify(notificationOutboxRepository)
+            .insert(existingEnvelope.id, ErrorCode.ERR_METAFILE_INVALID, "some reason");
     }
 
     @Test
@@ -277,6 +401,7 @@ class EnvelopeServiceTest {
 
         // then
         verify(envelopeRepository).updatePendingNotification(existingEnvelope.id, false);
+        verify(notificationOutboxRepository).markAsSent(List.of(existingEnvelope.id));
 
         var eventCaptor = ArgumentCaptor.forClass(NewEnvelopeEvent.class);
         verify(eventRepository).insert(eventCaptor.capture());
@@ -285,6 +410,30 @@ class EnvelopeServiceTest {
         assertThat(eventCaptor.getValue().type).isEqualTo(EventType.NOTIFICATION_SENT);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_mark_envelopes_as_notification_sent_in_batch() {
+        // given
+        var ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        // when
+        envelopeService.markPendingNotificationsAsSent(ids);
+
+        // then
+        verify(envelopeRepository).updatePendingNotification(ids, false);
+        verify(notificationOutboxRepository).markAsSent(ids);
+
+        ArgumentCaptor<List<NewEnvelopeEvent>> eventCaptor = ArgumentCaptor.forClass(List.class);
+        verify(eventRepository).insertAll(eventCaptor.capture());
+
+        assertThat(eventCaptor.getValue())
+            .extracting(e -> e.envelopeId)
+            .containsExactlyElementsOf(ids);
+        assertThat(eventCaptor.getValue())
+            .extracting(e -> e.type)
+            .containsOnly(EventType.NOTIFICATION_SENT);
+    }
+
     @Test
     void should_call_envelope_repository_with_the_filename_container_and_requested_date_values() {
         // given
@@ -304,15 +453,19 @@ class EnvelopeServiceTest {
         );
 
         LocalDate date = LocalDate.now();
-        given(envelopeRepository.findEnvelopes("", "c1", date)).willReturn(asList(envelope3, envelope2, envelope1));
-        given(eventRepository.findForEnvelopes(asList(envelope3.id, envelope2.id, envelope1.id))).willReturn(
-            asList(event2a, event1b, event1a) // should be ordered by event id
-        );
+        given(envelopeRepository.findEnvelopes("", "c1", date, null, 11))
+            .willReturn(asList(envelope3, envelope2, envelope1));
+        given(eventRepository.findForEnvelopes(asList(envelope3.id, envelope2.id, envelope1.id), envelope1.createdAt))
+            .willReturn(
+                asList(event2a, event1b, event1a) // should be ordered by event id
+            );
 
         // when
-        List<Tuple2<Envelope, List<EnvelopeEvent>>> envelopes = envelopeService.getEnvelopes("", "c1", date);
+        EnvelopesPage page = envelopeService.getEnvelopes("", "c1", date, null, 10);
 
         // then
+        List<Tuple2<Envelope, List<EnvelopeEvent>>> envelopes = page.envelopes;
+        assertThat(page.nextCursor).isNull();
         assertThat(envelopes).hasSize(3);
 
         assertThat(envelopes.get(0).getT1()).isEqualToComparingFieldByField(envelope3);
@@ -329,31 +482,62 @@ class EnvelopeServiceTest {
             .containsExactly(event1b, event1a);
     }
 
+    @Test
+    void should_return_cursor_of_last_envelope_on_page_when_more_envelopes_exist() {
+        // given
+        var envelope1 = new Envelope(
+            UUID.randomUUID(), "c1", "file1", now(), now(), now(), Status.DISPATCHED, false, false, null
+        );
+        var envelope2 = new Envelope(
+            UUID.randomUUID(), "c1", "file2", now(), now(), now(), Status.DISPATCHED, false, false, null
+        );
+        var envelope3 = new Envelope(
+            UUID.randomUUID(), "c1", "file3", now(), now(), now(), Status.DISPATCHED, false, false, null
+        );
+        var cursor = new EnvelopeCursor(now(), UUID.randomUUID());
+
+        LocalDate date = LocalDate.now();
+        given(envelopeRepository.findEnvelopes(null, null, date, cursor, 3))
+            .willReturn(asList(envelope1, envelope2, envelope3));
+        given(eventRepository.findForEnvelopes(asList(envelope1.id, envelope2.id), envelope1.createdAt))
+            .willReturn(emptyList());
+
+        // when
+        EnvelopesPage page = envelopeService.getEnvelopes(null, null, date, cursor, 2);
+
+        // then
+        assertThat(page.envelopes).extracting(tuple -> tuple.getT1().id).containsExactly(envelope1.id, envelope2.id);
+        assertThat(page.nextCursor.id).isEqualTo(envelope2.id);
+        assertThat(page.nextCursor.createdAt).isEqualTo(envelope2.createdAt);
+    }
+
     @Test
     void should_not_call_envelope_events_repository_when_no_envelopes_exists_for_the_given_filename() {
         // given
-        given(envelopeRepository.findEnvelopes("f1.zip", null, null)).willReturn(emptyList());
+        given(envelopeRepository.findEnvelopes("f1.zip", null, null, null, 11)).willReturn(emptyList());
 
         // when
-        List<Tuple2<Envelope, List<EnvelopeEvent>>> envelopes = envelopeService.getEnvelopes("f1.zip", null, null);
+        EnvelopesPage page = envelopeService.getEnvelopes("f1.zip", null, null, null, 10);
 
         // then
-        verify(envelopeRepository).findEnvelopes("f1.zip", null, null);
-        assertThat(envelopes).isEmpty();
+        verify(envelopeRepository).findEnvelopes("f1.zip", null, null, null, 11);
+        assertThat(page.envelopes).isEmpty();
+        assertThat(page.nextCursor).isNull();
         verifyNoInteractions(eventRepository);
     }
 
     @Test
     void should_return_empty_events_list_when_no_events_created_for_an_envelope() {
         // given
-        given(envelopeRepository.findEnvelopes("f1.zip", null, null)).willReturn(emptyList());
+        given(envelopeRepository.findEnvelopes("f1.zip", null, null, null, 11)).willReturn(emptyList());
 
         // when
-        List<Tuple2<Envelope, List<EnvelopeEvent>>> envelopes = envelopeService.getEnvelopes("f1.zip", null, null);
+        EnvelopesPage page = envelopeService.getEnvelopes("f1.zip", null, null, null, 10);
 
         // then
-        verify(envelopeRepository).findEnvelopes("f1.zip", null, null);
-        assertThat(envelopes).isEmpty();
+        verify(envelopeRepository).findEnvelopes("f1.zip", null, null, null, 11);
+        assertThat(page.envelopes).isEmpty();
+        assertThat(page.nextCursor).isNull();
         verifyNoInteractions(eventRepository);
     }
 
@@ -362,7 +546,7 @@ class EnvelopeServiceTest {
         // given
         // when
         // then
-        assertThatThrownBy(() -> envelopeService.getEnvelopes(null, null, null))
+        assertThatThrownBy(() -> envelopeService.getEnvelopes(null, null, null, null, 10))
             .isInstanceOf(InvalidRequestParametersException.class)
             .hasMessageContaining("'file_name' or 'date' must not be null or empty");
     }
@@ -372,7 +556,7 @@ class EnvelopeServiceTest {
         // given
         // when
         // then
-        assertThatThrownBy(() -> envelopeService.getEnvelopes(null, "c1", null))
+        assertThatThrownBy(() -> envelopeService.getEnvelopes(null, "c1", null, null, 10))
             .isInstanceOf(InvalidRequestParametersException.class)
             .hasMessageContaining("'file_name' or 'date' must not be null or empty");
     }
@@ -493,4 +677,14 @@ class EnvelopeServiceTest {
         verifyNoInteractions(eventRepository);
     }
 
+
+    private static Envelope dispatchedEnvelope(String container) {
+        return new Envelope(
+            UUID.randomUUID(), container, "file.zip", now(), now(), now(), Status.DISPATCHED, false, false, 1024L
+        );
+    }
+
+    private static EnvelopeDispatch dispatch(UUID id, TargetStorageAccount account, String container) {
+        return new EnvelopeDispatch(id, account, container, "9f86d081884c7d65", now());
+    }
 }
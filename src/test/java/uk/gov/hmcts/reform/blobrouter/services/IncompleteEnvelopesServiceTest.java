@@ -9,6 +9,7 @@ import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
 import uk.gov.hmcts.reform.blobrouter.model.out.IncompleteEnvelopeInfo;
+import uk.gov.hmcts.reform.blobrouter.services.purge.StaleEnvelopePurger;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,6 +23,7 @@ import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static uk.gov.hmcts.reform.blobrouter.data.envelopes.Status.CREATED;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,9 +33,12 @@ class IncompleteEnvelopesServiceTest {
     @Mock
     private EnvelopeRepository envelopeRepository;
 
+    @Mock
+    private StaleEnvelopePurger staleEnvelopePurger;
+
     @BeforeEach
     void setUp() {
-        incompleteEnvelopesService = new IncompleteEnvelopesService(envelopeRepository);
+        incompleteEnvelopesService = new IncompleteEnvelopesService(envelopeRepository, staleEnvelopePurger);
     }
 
     @Test
@@ -110,4 +115,18 @@ class IncompleteEnvelopesServiceTest {
 
         assertThat(rowsDeleted).isEqualTo(0);
     }
+
+    @Test
+    void should_purge_all_stale_envelopes_in_chunks() {
+        // given
+        List<UUID> purged = List.of(UUID.randomUUID(), UUID.randomUUID());
+        given(staleEnvelopePurger.purgeIncompleteEnvelopesBefore(any(LocalDateTime.class))).willReturn(purged);
+
+        // when
+        List<UUID> result = incompleteEnvelopesService.deleteAllIncompleteEnvelopes(48);
+
+        // then
+        assertThat(result).isEqualTo(purged);
+        verifyNoInteractions(envelopeRepository);
+    }
 }
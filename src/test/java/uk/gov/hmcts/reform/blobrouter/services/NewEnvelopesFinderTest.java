@@ -10,7 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
-import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+import uk.gov.hmcts.reform.blobrouter.data.reports.ReportRepository;
 
 import java.time.Clock;
 import java.time.Duration;
@@ -37,7 +37,7 @@ import static org.mockito.Mockito.when;
 class NewEnvelopesFinderTest {
 
     @Mock
-    private EnvelopeRepository envelopeRepository;
+    private ReportRepository reportRepository;
 
     @Mock
     private ServiceConfiguration serviceConfiguration;
@@ -58,16 +58,16 @@ class NewEnvelopesFinderTest {
         given(serviceConfiguration.getEnabledSourceContainers())
             .willReturn(containers);
 
-        given(envelopeRepository.getEnvelopesCount(
-            eq(cftContainers), any(), any()
-        )).willReturn(1);
+        given(reportRepository.hasEnvelopesReceivedSince(
+            eq(cftContainers), any()
+        )).willReturn(true);
 
         // when
         envelopesFinder.checkNewCftEnvelopesCreated();
 
         // then
         verify(serviceConfiguration).getEnabledSourceContainers();
-        verify(envelopeRepository).getEnvelopesCount(eq(cftContainers), any(), any());
+        verify(reportRepository).hasEnvelopesReceivedSince(eq(cftContainers), any());
     }
 
     @ParameterizedTest
@@ -76,16 +76,16 @@ class NewEnvelopesFinderTest {
         // given
         envelopesFinder = newEnvelopeFinderWithBusinessHours();
         given(serviceConfiguration.getEnabledSourceContainers()).willReturn(singletonList(container));
-        given(envelopeRepository.getEnvelopesCount(
-            eq(singleton(container)), any(), any()
-        )).willReturn(1);
+        given(reportRepository.hasEnvelopesReceivedSince(
+            eq(singleton(container)), any()
+        )).willReturn(true);
 
         // when
         envelopesFinder.checkNewEnvelopesCreatedInContainer(container, container.toUpperCase());
 
         // then
         verify(serviceConfiguration).getEnabledSourceContainers();
-        verify(envelopeRepository).getEnvelopesCount(eq(singleton(container)), any(), any());
+        verify(reportRepository).hasEnvelopesReceivedSince(eq(singleton(container)), any());
     }
 
     @ParameterizedTest
@@ -100,13 +100,13 @@ class NewEnvelopesFinderTest {
 
         // then
         verify(serviceConfiguration).getEnabledSourceContainers();
-        verifyNoInteractions(envelopeRepository);
+        verifyNoInteractions(reportRepository);
     }
 
     @Test
     void should_throw_exception_when_time_interval_is_null() {
         assertThat(catchThrowable(
-            () -> new NewEnvelopesFinder(envelopeRepository, serviceConfiguration, null, clockProvider))
+            () -> new NewEnvelopesFinder(reportRepository, serviceConfiguration, null, clockProvider))
         ).isInstanceOf(IllegalArgumentException.class)
             .hasMessage("Time interval is required");
     }
@@ -120,21 +120,21 @@ class NewEnvelopesFinderTest {
         when(clockProvider.getClock())
             .thenReturn(Clock.fixed(dateTime.toInstant(), ZoneId.systemDefault()));
         envelopesFinder = new NewEnvelopesFinder(
-            envelopeRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
+            reportRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
         );
 
         // when
         envelopesFinder.checkNewCftEnvelopesCreated();
 
         // then
-        verifyNoInteractions(serviceConfiguration, envelopeRepository);
+        verifyNoInteractions(serviceConfiguration, reportRepository);
     }
 
     @Test
     void should_throw_exception_when_container_value_is_null() {
         // given
         envelopesFinder = new NewEnvelopesFinder(
-            envelopeRepository,
+            reportRepository,
             serviceConfiguration,
             Duration.parse("PT10M"),
             clockProvider
@@ -148,14 +148,14 @@ class NewEnvelopesFinderTest {
 
         // then
         verifyNoInteractions(serviceConfiguration);
-        verifyNoInteractions(envelopeRepository);
+        verifyNoInteractions(reportRepository);
     }
 
     @Test
     void should_throw_exception_when_container_value_is_empty() {
         // given
         envelopesFinder = new NewEnvelopesFinder(
-            envelopeRepository,
+            reportRepository,
             serviceConfiguration,
             Duration.parse("PT10M"),
             clockProvider
@@ -169,7 +169,7 @@ class NewEnvelopesFinderTest {
 
         // then
         verifyNoInteractions(serviceConfiguration);
-        verifyNoInteractions(envelopeRepository);
+        verifyNoInteractions(reportRepository);
     }
 
     @ParameterizedTest
@@ -182,14 +182,14 @@ class NewEnvelopesFinderTest {
         when(clockProvider.getClock())
             .thenReturn(Clock.fixed(dateTime.toInstant(), ZoneId.systemDefault()));
         envelopesFinder = new NewEnvelopesFinder(
-            envelopeRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
+            reportRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
         );
 
         // when
         envelopesFinder.checkNewEnvelopesCreatedInContainer(container, container.toUpperCase());
 
         // then
-        verifyNoInteractions(serviceConfiguration, envelopeRepository);
+        verifyNoInteractions(serviceConfiguration, reportRepository);
     }
 
     @ParameterizedTest
@@ -202,14 +202,14 @@ class NewEnvelopesFinderTest {
         when(clockProvider.getClock())
             .thenReturn(Clock.fixed(dateTime.toInstant(), ZoneId.systemDefault()));
         envelopesFinder = new NewEnvelopesFinder(
-            envelopeRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
+            reportRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
         );
 
         // when
         envelopesFinder.checkNewEnvelopesCreatedInContainer(container, container.toUpperCase());
 
         // then
-        verifyNoInteractions(serviceConfiguration, envelopeRepository);
+        verifyNoInteractions(serviceConfiguration, reportRepository);
     }
 
     private NewEnvelopesFinder newEnvelopeFinderWithBusinessHours() {
@@ -219,7 +219,7 @@ class NewEnvelopesFinderTest {
         when(clockProvider.getClock())
             .thenReturn(Clock.fixed(dateTime.toInstant(), ZoneId.systemDefault()));
         return new NewEnvelopesFinder(
-            envelopeRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
+            reportRepository, serviceConfiguration, Duration.parse("PT10M"), clockProvider
         );
     }
 
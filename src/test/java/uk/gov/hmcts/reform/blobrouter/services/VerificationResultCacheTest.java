@@ -0,0 +1,84 @@
+package uk.gov.hmcts.reform.blobrouter.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.INVALID_SIGNATURE_VERIFICATION_RESULT;
+
+class VerificationResultCacheTest {
+
+    private static final VerificationResult OK_RESULT = VerificationResult.getOk("9f86d081884c7d65");
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerificationResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new VerificationResultCache(meterRegistry, 100, 24);
+    }
+
+    @Test
+    void should_return_verification_result_when_etag_matches() {
+        // given
+        cache.markVerified("bulkscan", "file.zip", "0x1", OK_RESULT);
+
+        // when
+        var result = cache.findVerified("bulkscan", "file.zip", "0x1");
+
+        // then
+        assertThat(result).containsSame(OK_RESULT);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "verification.cache").tag("result", "hit")
+            .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_return_verification_result_when_etag_changed() {
+        // given
+        cache.markVerified("bulkscan", "file.zip", "0x1", OK_RESULT);
+
+        // when
+        var result = cache.findVerified("bulkscan", "file.zip", "0x2");
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void should_not_return_verification_result_when_name_or_container_differs() {
+        // given
+        cache.markVerified("bulkscan", "file.zip", "0x1", OK_RESULT);
+
+        // when
+        // then
+        assertThat(cache.findVerified("bulkscan", "other.zip", "0x1")).isEmpty();
+        assertThat(cache.findVerified("crime", "file.zip", "0x1")).isEmpty();
+    }
+
+    @Test
+    void should_not_cache_blob_without_etag() {
+        // given
+        cache.markVerified("bulkscan", "file.zip", null, OK_RESULT);
+
+        // when
+        var result = cache.findVerified("bulkscan", "file.zip", null);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void should_not_cache_failed_verification() {
+        // given
+        cache.markVerified("bulkscan", "file.zip", "0x1", INVALID_SIGNATURE_VERIFICATION_RESULT);
+
+        // when
+        var result = cache.findVerified("bulkscan", "file.zip", "0x1");
+
+        // then
+        assertThat(result).isEmpty();
+    }
+}
@@ -0,0 +1,99 @@
+package uk.gov.hmcts.reform.blobrouter.services.partitions;
+
+import jakarta.validation.ClockProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.data.partitions.MonthlyPartition;
+import uk.gov.hmcts.reform.blobrouter.data.partitions.PartitionRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.gov.hmcts.reform.blobrouter.services.partitions.PartitionMaintenanceService.ENVELOPES_TABLE;
+import static uk.gov.hmcts.reform.blobrouter.services.partitions.PartitionMaintenanceService.ENVELOPE_EVENTS_TABLE;
+import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_ID;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-15T10:00:00Z");
+
+    @Mock private PartitionRepository partitionRepository;
+    @Mock private ClockProvider clockProvider;
+
+    @Test
+    void should_create_partitions_for_current_and_upcoming_months() {
+        // given
+        given(clockProvider.getClock()).willReturn(Clock.fixed(NOW, EUROPE_LONDON_ZONE_ID));
+        var service = service(2, 0);
+
+        // when
+        service.createUpcomingPartitions();
+
+        // then
+        for (String table : List.of(ENVELOPES_TABLE, ENVELOPE_EVENTS_TABLE)) {
+            verify(partitionRepository).createMonthlyPartition(table, YearMonth.of(2024, 5));
+            verify(partitionRepository).createMonthlyPartition(table, YearMonth.of(2024, 6));
+            verify(partitionRepository).createMonthlyPartition(table, YearMonth.of(2024, 7));
+        }
+    }
+
+    @Test
+    void should_drop_partitions_older_than_retention_period() {
+        // given
+        given(clockProvider.getClock()).willReturn(Clock.fixed(NOW, EUROPE_LONDON_ZONE_ID));
+        given(partitionRepository.findMonthlyPartitions(ENVELOPE_EVENTS_TABLE)).willReturn(List.of(
+            new MonthlyPartition("envelope_events_2024_01", YearMonth.of(2024, 1)),
+            new MonthlyPartition("envelope_events_2024_02", YearMonth.of(2024, 2))
+        ));
+        given(partitionRepository.findMonthlyPartitions(ENVELOPES_TABLE)).willReturn(List.of(
+            new MonthlyPartition("envelopes_2024_01", YearMonth.of(2024, 1)),
+            new MonthlyPartition("envelopes_2024_02", YearMonth.of(2024, 2)),
+            new MonthlyPartition("envelopes_2024_05", YearMonth.of(2024, 5))
+        ));
+        var service = service(3, 3);
+
+        // when
+        int dropped = service.dropExpiredPartitions();
+
+        // then
+        assertThat(dropped).isEqualTo(2);
+        verify(partitionRepository).dropMonthlyPartition(ENVELOPE_EVENTS_TABLE, YearMonth.of(2024, 1));
+        verify(partitionRepository).dropMonthlyPartition(ENVELOPES_TABLE, YearMonth.of(2024, 1));
+        verify(partitionRepository, never()).dropMonthlyPartition(ENVELOPE_EVENTS_TABLE, YearMonth.of(2024, 2));
+        verify(partitionRepository, never()).dropMonthlyPartition(ENVELOPES_TABLE, YearMonth.of(2024, 2));
+        verify(partitionRepository, never()).dropMonthlyPartition(ENVELOPES_TABLE, YearMonth.of(2024, 5));
+        verify(partitionRepository).deleteLookupsOfDroppedEnvelopes(YearMonth.of(2024, 2));
+    }
+
+    @Test
+    void should_not_drop_anything_when_retention_is_not_configured() {
+        // given
+        var service = service(3, 0);
+
+        // when
+        int dropped = service.dropExpiredPartitions();
+
+        // then
+        assertThat(dropped).isZero();
+        verifyNoInteractions(partitionRepository);
+    }
+
+    private PartitionMaintenanceService service(int monthsAhead, int retentionMonths) {
+        return new PartitionMaintenanceService(
+            partitionRepository,
+            clockProvider,
+            monthsAhead,
+            retentionMonths
+        );
+    }
+}
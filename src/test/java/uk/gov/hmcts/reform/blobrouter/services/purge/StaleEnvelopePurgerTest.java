@@ -0,0 +1,107 @@
+package uk.gov.hmcts.reform.blobrouter.services.purge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.EnvelopeRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StaleEnvelopePurgerTest {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private EnvelopeRepository envelopeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StaleEnvelopePurger purger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        purger = new StaleEnvelopePurger(envelopeRepository, meterRegistry, CHUNK_SIZE, 0);
+    }
+
+    @Test
+    void should_purge_in_chunks_until_a_chunk_is_not_full() {
+        // given
+        List<UUID> firstChunk = ids(CHUNK_SIZE);
+        List<UUID> secondChunk = ids(CHUNK_SIZE);
+        List<UUID> lastChunk = ids(1);
+        given(envelopeRepository.deleteIncompleteEnvelopesChunk(CUTOFF, CHUNK_SIZE))
+            .willReturn(firstChunk, secondChunk, lastChunk);
+
+        // when
+        List<UUID> purged = purger.purgeIncompleteEnvelopesBefore(CUTOFF);
+
+        // then
+        assertThat(purged)
+            .containsExactlyElementsOf(Stream.of(firstChunk, secondChunk, lastChunk).flatMap(List::stream).toList());
+        verify(envelopeRepository, times(3)).deleteIncompleteEnvelopesChunk(CUTOFF, CHUNK_SIZE);
+        assertThat(meterRegistry.counter("envelope.purge.envelopes").count()).isEqualTo(5);
+        assertThat(meterRegistry.counter("envelope.purge.chunks").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("envelope.purge.chunk.duration").count()).isEqualTo(3);
+    }
+
+    @Test
+    void should_stop_after_first_chunk_when_nothing_is_stale() {
+        // given
+        given(envelopeRepository.deleteIncompleteEnvelopesChunk(CUTOFF, CHUNK_SIZE)).willReturn(emptyList());
+
+        // when
+        List<UUID> purged = purger.purgeIncompleteEnvelopesBefore(CUTOFF);
+
+        // then
+        assertThat(purged).isEmpty();
+        verify(envelopeRepository).deleteIncompleteEnvelopesChunk(CUTOFF, CHUNK_SIZE);
+        assertThat(meterRegistry.counter("envelope.purge.envelopes").count()).isZero();
+    }
+
+    @Test
+    void should_stop_purging_when_interrupted_during_pause() {
+        // given
+        var pausingPurger = new StaleEnvelopePurger(envelopeRepository, meterRegistry, CHUNK_SIZE, 10_000);
+        List<UUID> firstChunk = ids(CHUNK_SIZE);
+        given(envelopeRepository.deleteIncompleteEnvelopesChunk(CUTOFF, CHUNK_SIZE)).willReturn(firstChunk);
+        Thread.currentThread().interrupt();
+
+        try {
+            // when
+            List<UUID> purged = pausingPurger.purgeIncompleteEnvelopesBefore(CUTOFF);
+
+            // then
+            assertThat(purged).containsExactlyElementsOf(firstChunk);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+            verify(envelopeRepository).deleteIncompleteEnvelopesChunk(CUTOFF, CHUNK_SIZE);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void should_reject_non_positive_chunk_size() {
+        assertThatThrownBy(() -> new StaleEnvelopePurger(envelopeRepository, meterRegistry, 0, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("chunk size");
+    }
+
+    private static List<UUID> ids(int count) {
+        return Stream.generate(UUID::randomUUID).limit(count).toList();
+    }
+}
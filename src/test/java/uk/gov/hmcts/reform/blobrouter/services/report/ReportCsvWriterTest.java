@@ -9,15 +9,19 @@ import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
 import uk.gov.hmcts.reform.blobrouter.model.out.EnvelopeSummaryItem;
 
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
-import static java.util.Collections.emptyList;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.AssertionsForClassTypes.tuple;
 
 class ReportCsvWriterTest {
@@ -69,7 +73,7 @@ class ReportCsvWriterTest {
         );
 
         //when
-        File summaryToCsv = reportCsvWriter.writeEnvelopesSummaryToCsv(csvData);
+        File summaryToCsv = reportCsvWriter.writeEnvelopesSummaryToCsv(csvData::forEach);
 
         //then
         List<CSVRecord> csvRecordList = readCsv(summaryToCsv);
@@ -102,9 +106,9 @@ class ReportCsvWriterTest {
     }
 
     @Test
-    void should_return_csv_file_with_only_headers_when_the_data_is_null() throws IOException {
+    void should_return_csv_file_with_only_headers_when_the_data_is_empty() throws IOException {
         //when
-        File summaryToCsv = reportCsvWriter.writeEnvelopesSummaryToCsv(null);
+        File summaryToCsv = reportCsvWriter.writeEnvelopesSummaryToCsv(items -> { });
 
         //then
         List<CSVRecord> csvRecordList = readCsv(summaryToCsv);
@@ -119,24 +123,24 @@ class ReportCsvWriterTest {
     }
 
     @Test
-    void should_return_csv_file_with_only_headers_when_the_data_is_empty() throws IOException {
+    void should_rethrow_io_exception_when_producing_items_fails() {
+        //given
+        IOException cause = new IOException("db error");
+
         //when
-        File summaryToCsv = reportCsvWriter.writeEnvelopesSummaryToCsv(emptyList());
+        Throwable exc = catchThrowable(() -> reportCsvWriter.writeEnvelopesSummaryToCsv(items -> {
+            throw new UncheckedIOException(cause);
+        }));
 
         //then
-        List<CSVRecord> csvRecordList = readCsv(summaryToCsv);
-
-        assertThat(csvRecordList)
-            .isNotEmpty()
-            .hasSize(1)
-            .extracting(this::getTupleFromCsvRecord)
-            .containsExactly(
-                HEADERS
-            );
+        assertThat(exc).isSameAs(cause);
     }
 
     private List<CSVRecord> readCsv(File summaryToCsv) throws IOException {
-        return CSVFormat.DEFAULT.parse(new FileReader(summaryToCsv)).getRecords();
+        assertThat(summaryToCsv.getName()).endsWith(".csv.gz");
+        return CSVFormat.DEFAULT
+            .parse(new InputStreamReader(new GZIPInputStream(new FileInputStream(summaryToCsv)), UTF_8))
+            .getRecords();
     }
 
     private Tuple getTupleFromCsvRecord(CSVRecord data) {
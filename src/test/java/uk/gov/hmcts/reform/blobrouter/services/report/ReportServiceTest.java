@@ -13,13 +13,17 @@ import uk.gov.hmcts.reform.blobrouter.model.out.reports.EnvelopeCountSummaryRepo
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static uk.gov.hmcts.reform.blobrouter.data.envelopes.Status.DISPATCHED;
@@ -49,23 +53,24 @@ class ReportServiceTest {
     }
 
     @Test
-    void getDailyReport_should_convert_date_into_date_range() {
+    void streamDailyReport_should_convert_date_into_date_range() {
         // given
         LocalDate dt = LocalDate.of(2019, 1, 14);
 
         // when
-        reportService.getDailyReport(dt);
+        reportService.streamDailyReport(dt, item -> { });
 
         // then
         Instant expectedFrom = instant("2019-01-14 00:00:00");
         Instant expectedTo = instant("2019-01-15 00:00:00");
 
-        verify(reportRepository).getEnvelopeSummary(expectedFrom, expectedTo);
+        verify(reportRepository).streamEnvelopeSummary(eq(expectedFrom), eq(expectedTo), any());
         verifyNoMoreInteractions(reportRepository);
     }
 
     @Test
-    void getDailyReport_should_convert_repo_result() {
+    @SuppressWarnings("unchecked")
+    void streamDailyReport_should_convert_repo_result() {
         // given
         final String container1 = "cont1";
         final String fileName1 = "file1.zip";
@@ -87,13 +92,18 @@ class ReportServiceTest {
             REJECTED,
             false
         );
-        given(reportRepository.getEnvelopeSummary(any(Instant.class), any(Instant.class)))
-            .willReturn(asList(es1, es2));
+        willAnswer(invocation -> {
+            Consumer<EnvelopeSummary> consumer = invocation.getArgument(2);
+            consumer.accept(es1);
+            consumer.accept(es2);
+            return null;
+        }).given(reportRepository).streamEnvelopeSummary(any(Instant.class), any(Instant.class), any());
 
         LocalDate dt = LocalDate.of(2019, 1, 14);
 
         // when
-        List<EnvelopeSummaryItem> res = reportService.getDailyReport(dt);
+        List<EnvelopeSummaryItem> res = new ArrayList<>();
+        reportService.streamDailyReport(dt, res::add);
 
         // then
         assertThat(res)
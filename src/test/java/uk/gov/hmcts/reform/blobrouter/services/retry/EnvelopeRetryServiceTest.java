@@ -0,0 +1,213 @@
+package uk.gov.hmcts.reform.blobrouter.services.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.data.retries.EnvelopeRetry;
+import uk.gov.hmcts.reform.blobrouter.data.retries.EnvelopeRetryRepository;
+import uk.gov.hmcts.reform.blobrouter.exceptions.EnvelopeNotFoundException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EnvelopeRetryServiceTest {
+
+    private static final String CONTAINER = "bulkscan";
+    private static final String FILE_NAME = "hello.zip";
+    private static final Instant NOW = Instant.parse("2024-03-01T10:00:00Z");
+
+    @Mock EnvelopeRetryRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EnvelopeRetryService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new EnvelopeRetryService(
+            repository,
+            () -> Clock.fixed(NOW, ZoneOffset.UTC),
+            meterRegistry,
+            60_000,
+            3_600_000,
+            2.0,
+            0,
+            3,
+            30
+        );
+    }
+
+    @Test
+    void should_allow_blob_which_never_failed() {
+        // given
+        given(repository.find(CONTAINER, FILE_NAME)).willReturn(Optional.empty());
+
+        // when
+        // then
+        assertThat(service.isEligible(CONTAINER, FILE_NAME, () -> "0x1")).isTrue();
+    }
+
+    @Test
+    void should_allow_blob_only_once_next_attempt_is_due() {
+        // given
+        given(repository.find(CONTAINER, "due.zip"))
+            .willReturn(Optional.of(retry("due.zip", 1, NOW.minusSeconds(1), false)));
+        given(repository.find(CONTAINER, "not-due.zip"))
+            .willReturn(Optional.of(retry("not-due.zip", 1, NOW.plusSeconds(1), false)));
+
+        // when
+        // then
+        assertThat(service.isEligible(CONTAINER, "due.zip", () -> "0x1")).isTrue();
+        assertThat(service.isEligible(CONTAINER, "not-due.zip", () -> "0x1")).isFalse();
+    }
+
+    @Test
+    void should_not_allow_quarantined_blob() {
+        // given
+        given(repository.find(CONTAINER, FILE_NAME))
+            .willReturn(Optional.of(retry(FILE_NAME, 3, NOW.minusSeconds(3600), true)));
+
+        // when
+        // then
+        assertThat(service.isEligible(CONTAINER, FILE_NAME, () -> "0x1")).isFalse();
+    }
+
+    @Test
+    void should_allow_quarantined_blob_once_it_has_changed() {
+        // given
+        given(repository.find(CONTAINER, FILE_NAME))
+            .willReturn(Optional.of(retry(FILE_NAME, 3, NOW.plusSeconds(3600), true)));
+
+        // when
+        // then
+        assertThat(service.isEligible(CONTAINER, FILE_NAME, () -> "0x2")).isTrue();
+    }
+
+    @Test
+    void should_schedule_next_attempt_with_backoff_growing_with_attempts() {
+        // given
+        var envelopeId = UUID.randomUUID();
+        given(repository.find(CONTAINER, FILE_NAME))
+            .willReturn(Optional.of(retry(FILE_NAME, 1, NOW.minusSeconds(1), false)));
+
+        // when
+        service.recordFailure(envelopeId, CONTAINER, FILE_NAME, "0x1", "upload failed");
+
+        // then
+        var captor = ArgumentCaptor.forClass(EnvelopeRetry.class);
+        verify(repository).save(captor.capture());
+        EnvelopeRetry saved = captor.getValue();
+        assertThat(saved.envelopeId).isEqualTo(envelopeId);
+        assertThat(saved.eTag).isEqualTo("0x1");
+        assertThat(saved.attempts).isEqualTo(2);
+        assertThat(saved.nextAttemptAt).isEqualTo(NOW.plus(Duration.ofMinutes(2)));
+        assertThat(saved.quarantined).isFalse();
+        assertThat(saved.lastError).isEqualTo("upload failed");
+        assertThat(meterRegistry.get("envelope.retry.scheduled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_quarantine_blob_once_max_attempts_reached() {
+        // given
+        given(repository.find(CONTAINER, FILE_NAME))
+            .willReturn(Optional.of(retry(FILE_NAME, 2, NOW.minusSeconds(1), false)));
+
+        // when
+        service.recordFailure(UUID.randomUUID(), CONTAINER, FILE_NAME, "0x1", "upload failed");
+
+        // then
+        var captor = ArgumentCaptor.forClass(EnvelopeRetry.class);
+        verify(repository).save(captor.capture());
+        assertThat(captor.getValue().attempts).isEqualTo(3);
+        assertThat(captor.getValue().quarantined).isTrue();
+        assertThat(meterRegistry.get("envelope.retry.quarantined").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_start_counting_attempts_again_when_new_version_of_blob_fails() {
+        // given
+        given(repository.find(CONTAINER, FILE_NAME))
+            .willReturn(Optional.of(retry(FILE_NAME, 3, NOW.minusSeconds(1), true)));
+
+        // when
+        service.recordFailure(UUID.randomUUID(), CONTAINER, FILE_NAME, "0x2", "upload failed");
+
+        // then
+        var captor = ArgumentCaptor.forClass(EnvelopeRetry.class);
+        verify(repository).save(captor.capture());
+        assertThat(captor.getValue().eTag).isEqualTo("0x2");
+        assertThat(captor.getValue().attempts).isEqualTo(1);
+        assertThat(captor.getValue().nextAttemptAt).isEqualTo(NOW.plus(Duration.ofMinutes(1)));
+        assertThat(captor.getValue().quarantined).isFalse();
+    }
+
+    @Test
+    void should_release_blob_of_envelope() {
+        // given
+        var envelopeId = UUID.randomUUID();
+        given(repository.deleteByEnvelopeId(envelopeId)).willReturn(1);
+
+        // when
+        service.release(envelopeId);
+
+        // then
+        verify(repository).deleteByEnvelopeId(envelopeId);
+    }
+
+    @Test
+    void should_fail_to_release_envelope_without_failed_attempts() {
+        // given
+        var envelopeId = UUID.randomUUID();
+        given(repository.deleteByEnvelopeId(envelopeId)).willReturn(0);
+
+        // when
+        // then
+        assertThatThrownBy(() -> service.release(envelopeId)).isInstanceOf(EnvelopeNotFoundException.class);
+    }
+
+    @Test
+    void should_purge_retry_state_older_than_retention() {
+        // given
+        given(repository.deleteNotUpdatedFor(30)).willReturn(2);
+
+        // when
+        // then
+        assertThat(service.purge()).isEqualTo(2);
+    }
+
+    @Test
+    void should_remove_retry_state_when_cleared() {
+        // when
+        service.clear(CONTAINER, FILE_NAME);
+
+        // then
+        verify(repository).delete(CONTAINER, FILE_NAME);
+    }
+
+    private static EnvelopeRetry retry(String fileName, int attempts, Instant nextAttemptAt, boolean quarantined) {
+        return new EnvelopeRetry(
+            CONTAINER,
+            fileName,
+            UUID.randomUUID(),
+            "0x1",
+            attempts,
+            nextAttemptAt,
+            quarantined,
+            "error"
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.hmcts.reform.blobrouter.services.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExponentialBackoffTest {
+
+    @Test
+    void should_double_delay_with_every_attempt_up_to_maximum() {
+        // given
+        var backoff = new ExponentialBackoff(Duration.ofMinutes(1), Duration.ofMinutes(10), 2.0, 0);
+
+        // when
+        // then
+        assertThat(backoff.delayAfter(1, 0.5)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(backoff.delayAfter(2, 0.5)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(backoff.delayAfter(4, 0.5)).isEqualTo(Duration.ofMinutes(8));
+        assertThat(backoff.delayAfter(5, 0.5)).isEqualTo(Duration.ofMinutes(10));
+        assertThat(backoff.delayAfter(50, 0.5)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void should_spread_delay_by_jitter() {
+        // given
+        var backoff = new ExponentialBackoff(Duration.ofMinutes(1), Duration.ofMinutes(10), 2.0, 0.2);
+
+        // when
+        // then
+        assertThat(backoff.delayAfter(2, 0)).isEqualTo(Duration.ofSeconds(96));
+        assertThat(backoff.delayAfter(2, 0.5)).isEqualTo(Duration.ofSeconds(120));
+        assertThat(backoff.delayAfter(2, 0.999)).isBetween(Duration.ofSeconds(143), Duration.ofSeconds(144));
+        assertThat(backoff.delayAfter(10, 0.999)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void should_reject_invalid_configuration() {
+        assertThatThrownBy(() -> new ExponentialBackoff(Duration.ofMinutes(1), Duration.ofMinutes(10), 0.5, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ExponentialBackoff(Duration.ofMinutes(1), Duration.ofMinutes(10), 2.0, 1.0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
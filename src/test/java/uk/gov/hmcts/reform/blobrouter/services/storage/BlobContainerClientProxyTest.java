@@ -6,16 +6,28 @@ import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
 import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.storage.blob.specialized.BlockBlobClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
 import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.exceptions.BlobStreamingException;
+import uk.gov.hmcts.reform.blobrouter.exceptions.TargetStorageException;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.CircuitBreaker;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
+import uk.gov.hmcts.reform.blobrouter.services.storage.throttling.TargetThrottlingMonitor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
@@ -33,6 +45,8 @@ class BlobContainerClientProxyTest {
     @Mock BlobContainerClientBuilder blobContainerClientBuilder;
     @Mock BlobContainerClientBuilderProvider blobContainerClientBuilderProvider;
 
+    SimpleMeterRegistry meterRegistry;
+    DispatchCircuitBreakers circuitBreakers;
     BlobContainerClientProxy blobContainerClientProxy;
 
     @Mock BlobContainerClient blobContainerClient;
@@ -46,10 +60,16 @@ class BlobContainerClientProxyTest {
 
     @BeforeEach
     void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.circuitBreakers = new DispatchCircuitBreakers(
+            new ServiceConfiguration(), Clock::systemUTC, new SimpleMeterRegistry(), 1, 60_000
+        );
         this.blobContainerClientProxy = new BlobContainerClientProxy(
             crimeClient,
             blobContainerClientBuilderProvider,
-            sasTokenCache
+            sasTokenCache,
+            new TargetThrottlingMonitor(meterRegistry),
+            circuitBreakers
         );
     }
 
@@ -158,4 +178,149 @@ class BlobContainerClientProxyTest {
         verify(uploadMethod, never()).accept(blockBlobClient);
         verify(sasTokenCache).removeFromCache(any());
     }
+
+    @ParameterizedTest
+    @EnumSource(
+        value = TargetStorageAccount.class,
+        names = {"CFT", "PCQ"}
+    )
+    void should_count_throttled_upload_and_keep_sas_token(
+        TargetStorageAccount storageAccount
+    ) {
+        // given
+        HttpResponse mockHttpResponse = mock(HttpResponse.class);
+        given(mockHttpResponse.getStatusCode()).willReturn(429);
+
+        targetClientCanBeCreated(storageAccount);
+
+        Consumer<BlockBlobClient> uploadMethod = target -> {
+            throw new BlobStorageException("Too many requests", mockHttpResponse, null);
+        };
+
+        // when
+        assertThrows(
+            BlobStorageException.class,
+            () -> blobContainerClientProxy.runUpload(
+                sourceBlockBlobClient,
+                containerName,
+                storageAccount,
+                uploadMethod
+            )
+        );
+
+        // then
+        assertThat(
+            meterRegistry.get("storage.upload.throttled").tag("target", storageAccount.name()).counter().count()
+        ).isEqualTo(1);
+        verify(sasTokenCache, never()).removeFromCache(any());
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        value = TargetStorageAccount.class,
+        names = {"CFT", "PCQ"}
+    )
+    void should_open_circuit_breaker_of_target_when_upload_fails_with_server_error(
+        TargetStorageAccount storageAccount
+    ) {
+        // given
+        HttpResponse mockHttpResponse = mock(HttpResponse.class);
+        given(mockHttpResponse.getStatusCode()).willReturn(500);
+        targetClientCanBeCreated(storageAccount);
+
+        Consumer<BlockBlobClient> uploadMethod = target -> {
+            throw new BlobStreamingException(
+                "Upload by chunk got error",
+                new TargetStorageException(
+                    "Request to target failed",
+                    new BlobStorageException("Internal error", mockHttpResponse, null)
+                )
+            );
+        };
+
+        // when
+        assertThrows(
+            BlobStreamingException.class,
+            () -> blobContainerClientProxy.runUpload(
+                sourceBlockBlobClient,
+                containerName,
+                storageAccount,
+                uploadMethod
+            )
+        );
+
+        // then
+        assertThat(circuitBreakers.target(storageAccount).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        value = TargetStorageAccount.class,
+        names = {"CFT", "PCQ"}
+    )
+    void should_keep_circuit_breaker_of_target_closed_when_reading_source_fails(
+        TargetStorageAccount storageAccount
+    ) {
+        // given
+        HttpResponse mockHttpResponse = mock(HttpResponse.class);
+        given(mockHttpResponse.getStatusCode()).willReturn(500);
+        targetClientCanBeCreated(storageAccount);
+
+        Consumer<BlockBlobClient> uploadMethod = target -> {
+            throw new BlobStreamingException(
+                "Upload by chunk got error",
+                new IOException(
+                    "Reading range of blob hello.zip failed",
+                    new BlobStorageException("Internal error", mockHttpResponse, null)
+                )
+            );
+        };
+        Consumer<BlockBlobClient> timedOutUploadMethod = target -> {
+            throw new BlobStreamingException(
+                "Upload by chunk got error",
+                new UncheckedIOException(new IOException(new TimeoutException("Source read timed out")))
+            );
+        };
+
+        // when
+        assertThrows(
+            BlobStreamingException.class,
+            () -> blobContainerClientProxy.runUpload(
+                sourceBlockBlobClient,
+                containerName,
+                storageAccount,
+                uploadMethod
+            )
+        );
+        assertThrows(
+            BlobStreamingException.class,
+            () -> blobContainerClientProxy.runUpload(
+                sourceBlockBlobClient,
+                containerName,
+                storageAccount,
+                timedOutUploadMethod
+            )
+        );
+
+        // then
+        assertThat(circuitBreakers.target(storageAccount).getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void targetClientCanBeCreated(TargetStorageAccount storageAccount) {
+        given(sourceBlockBlobClient.getBlobName()).willReturn(blobName);
+        if (storageAccount == TargetStorageAccount.PCQ) {
+            given(blobContainerClientBuilderProvider.getPcqBlobContainerClientBuilder())
+                .willReturn(blobContainerClientBuilder);
+            given(sasTokenCache.getPcqSasToken(any())).willReturn("token1");
+        } else {
+            given(blobContainerClientBuilderProvider.getBlobContainerClientBuilder())
+                .willReturn(blobContainerClientBuilder);
+            given(sasTokenCache.getSasToken(any())).willReturn("token1");
+        }
+        given(blobContainerClientBuilder.sasToken("token1")).willReturn(blobContainerClientBuilder);
+        given(blobContainerClientBuilder.containerName(containerName)).willReturn(blobContainerClientBuilder);
+        given(blobContainerClientBuilder.buildClient()).willReturn(blobContainerClient);
+        given(blobContainerClient.getBlobClient(blobName)).willReturn(blobClient);
+        given(blobClient.getBlockBlobClient()).willReturn(blockBlobClient);
+    }
 }
@@ -3,31 +3,48 @@ package uk.gov.hmcts.reform.blobrouter.services.storage;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
 import com.azure.storage.blob.specialized.BlobInputStream;
 import com.azure.storage.blob.specialized.BlockBlobClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.config.TargetConfigItem;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidZipArchiveException;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.will;
 import static org.mockito.BDDMockito.willThrow;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CFT;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CRIME;
@@ -47,7 +64,11 @@ class BlobDispatcherTest {
 
     @BeforeEach
     void setUp() {
-        dispatcher = new BlobDispatcher(blobContainerClientProxy, blobMover);
+        dispatcher = new BlobDispatcher(
+            blobContainerClientProxy,
+            blobMover,
+            new HedgedBlobReader(new SimpleMeterRegistry(), false, 4 * 1024 * 1024, 95, 100, 5)
+        );
     }
 
     @Test
@@ -70,15 +91,193 @@ class BlobDispatcherTest {
         given(blockBlobClient.openInputStream())
             .willReturn(blobInputStream);
 
-        doNothing().when(blobContainerClientProxy)
+        var envelopeId = UUID.randomUUID();
+        var targetBlob = mock(BlockBlobClient.class);
+        will(invocation -> {
+            invocation.<Consumer<BlockBlobClient>>getArgument(3).accept(targetBlob);
+            return null;
+        }).given(blobContainerClientProxy)
             .runUpload(eq(blockBlobClient), eq(container), eq(CRIME), any());
+        given(blobMover.uploadWithChunks(eq(targetBlob), any(), eq(envelopeId), any(), eq(true)))
+            .willReturn(new UploadedContent(List.of("block1"), "abc123", 7L));
 
         // when
-        dispatcher.dispatch(blobClient, container, CRIME);
+        String contentSha256 = dispatcher.dispatch(blobClient, null, container, CRIME, envelopeId, null);
 
         // then
         verify(blobContainerClientProxy)
             .runUpload(any(), any(), any(), any());
+
+        // and upload is identified by the envelope
+        verify(blobMover).uploadWithChunks(eq(targetBlob), any(), eq(envelopeId), any(), eq(true));
+        assertThat(contentSha256).isEqualTo("abc123");
+    }
+
+    @Test
+    void should_find_content_dispatched_for_envelope_without_reading_source() {
+        // given
+        given(blobClient.getBlockBlobClient()).willReturn(blockBlobClient);
+
+        var envelopeId = UUID.randomUUID();
+        var targetBlob = mock(BlockBlobClient.class);
+        will(invocation -> {
+            invocation.<Consumer<BlockBlobClient>>getArgument(3).accept(targetBlob);
+            return null;
+        }).given(blobContainerClientProxy)
+            .runUpload(eq(blockBlobClient), eq("container"), eq(CFT), any());
+        given(blobMover.findCommittedContent(targetBlob, envelopeId)).willReturn(Optional.of("abc123"));
+
+        // when
+        Optional<String> contentSha256 = dispatcher.findDispatchedContent(blobClient, "container", CFT, envelopeId);
+
+        // then
+        assertThat(contentSha256).contains("abc123");
+        verify(blobMover, never()).uploadWithChunks(any(), any(), any(), any(), anyBoolean());
+        verify(blockBlobClient, never()).openInputStream();
+    }
+
+    @Test
+    void should_upload_content_with_verified_digest_read_on_condition_of_verified_etag() throws IOException {
+        // given
+        var content = getBlobContent(
+            Map.of(
+                ENVELOPE, "content".getBytes(),
+                SIGNATURE, "sig".getBytes()
+            )
+        );
+
+        BlobInputStream blobInputStream = mock(
+            BlobInputStream.class,
+            AdditionalAnswers.delegatesTo(new ByteArrayInputStream(content))
+        );
+        given(blobClient.getBlockBlobClient()).willReturn(blockBlobClient);
+        given(blockBlobClient.openInputStream(any(BlobInputStreamOptions.class))).willReturn(blobInputStream);
+
+        var envelopeId = UUID.randomUUID();
+        var targetBlob = mock(BlockBlobClient.class);
+        will(invocation -> {
+            invocation.<Consumer<BlockBlobClient>>getArgument(3).accept(targetBlob);
+            return null;
+        }).given(blobContainerClientProxy)
+            .runUpload(eq(blockBlobClient), eq("container"), eq(CFT), any());
+        given(blobMover.uploadWithChunks(eq(targetBlob), any(), eq(envelopeId), eq("abc123"), eq(false)))
+            .willReturn(new UploadedContent(List.of("block1"), "abc123", 7L));
+
+        // when
+        String contentSha256 = dispatcher.dispatch(blobClient, "0x1", "container", CFT, envelopeId, "abc123");
+
+        // then
+        assertThat(contentSha256).isEqualTo("abc123");
+        var optionsCaptor = ArgumentCaptor.forClass(BlobInputStreamOptions.class);
+        verify(blockBlobClient).openInputStream(optionsCaptor.capture());
+        assertThat(optionsCaptor.getValue().getRequestConditions().getIfMatch()).isEqualTo("0x1");
+        verify(blobContainerClientProxy).runUpload(any(), any(), any(), any());
+        verify(blobMover).uploadWithChunks(eq(targetBlob), any(), eq(envelopeId), eq("abc123"), eq(false));
+    }
+
+    @Test
+    void should_upload_spilled_blob_from_its_local_copy(@TempDir Path tempDir) throws IOException {
+        // given
+        var spilledBlob = mock(SpilledBlob.class);
+        Path envelopeFile = Files.write(tempDir.resolve("envelope.zip"), "content".getBytes());
+        given(spilledBlob.openEnvelope()).willReturn(FileChannel.open(envelopeFile, StandardOpenOption.READ));
+        given(blobClient.getBlockBlobClient()).willReturn(blockBlobClient);
+
+        var envelopeId = UUID.randomUUID();
+        var targetBlob = mock(BlockBlobClient.class);
+        will(invocation -> {
+            invocation.<Consumer<BlockBlobClient>>getArgument(3).accept(targetBlob);
+            return null;
+        }).given(blobContainerClientProxy)
+            .runUpload(eq(blockBlobClient), eq("container"), eq(CFT), any());
+        given(blobMover.uploadFromFile(eq(targetBlob), any(), eq(envelopeId), any(), eq(false)))
+            .willReturn(new UploadedContent(List.of("block1"), "abc123", 7L));
+
+        // when
+        String contentSha256 = dispatcher.dispatchSpilled(blobClient, spilledBlob, "container", CFT, envelopeId, null);
+
+        // then
+        assertThat(contentSha256).isEqualTo("abc123");
+        verify(blobMover).uploadFromFile(eq(targetBlob), any(), eq(envelopeId), any(), eq(false));
+        verify(blobMover, never()).uploadWithChunks(any(), any(), any(), any(), anyBoolean());
+        verify(blockBlobClient, never()).openInputStream();
+    }
+
+    @Test
+    void should_upload_to_all_targets_reading_source_once() throws IOException {
+        // given
+        byte[] envelope = "content".getBytes();
+        givenSourceBlobContent(envelope);
+
+        var envelopeId = UUID.randomUUID();
+        var primary = new TargetConfigItem(CFT, "primary");
+        var mirror = new TargetConfigItem(CRIME, "mirror");
+        var primaryBlob = givenTargetBlob(primary);
+        var mirrorBlob = givenTargetBlob(mirror);
+
+        var uploadedContents = new ConcurrentHashMap<BlockBlobClient, byte[]>();
+        given(blobMover.uploadWithChunks(any(), any(), eq(envelopeId), any(), anyBoolean())).will(invocation -> {
+            uploadedContents.put(invocation.getArgument(0), invocation.<InputStream>getArgument(1).readAllBytes());
+            return new UploadedContent(List.of("block1"), "abc123", envelope.length);
+        });
+
+        // when
+        List<TargetDispatchResult> results = dispatcher.dispatchToAll(
+            blobClient,
+            null,
+            List.of(primary, mirror),
+            envelopeId,
+            null
+        );
+
+        // then
+        assertThat(results)
+            .allMatch(TargetDispatchResult::isDispatched)
+            .extracting(result -> result.target)
+            .containsExactlyInAnyOrder(primary, mirror);
+        assertThat(results).extracting(result -> result.contentSha256).containsOnly("abc123");
+        assertThat(uploadedContents).containsOnlyKeys(primaryBlob, mirrorBlob);
+        assertThat(uploadedContents.values()).allSatisfy(uploaded -> assertThat(uploaded).isEqualTo(envelope));
+        verify(blockBlobClient).openInputStream();
+    }
+
+    @Test
+    void should_report_failed_target_without_failing_the_others() throws IOException {
+        // given
+        givenSourceBlobContent("content".getBytes());
+
+        var envelopeId = UUID.randomUUID();
+        var primary = new TargetConfigItem(CFT, "primary");
+        var mirror = new TargetConfigItem(CRIME, "mirror");
+        var primaryBlob = givenTargetBlob(primary);
+        var mirrorBlob = givenTargetBlob(mirror);
+
+        given(blobMover.uploadWithChunks(eq(primaryBlob), any(), eq(envelopeId), any(), eq(false)))
+            .willReturn(new UploadedContent(List.of("block1"), "abc123", 7L));
+        var failure = new BlobStorageException("mirror unavailable", null, null);
+        given(blobMover.uploadWithChunks(eq(mirrorBlob), any(), eq(envelopeId), any(), eq(true))).willThrow(failure);
+
+        // when
+        List<TargetDispatchResult> results = dispatcher.dispatchToAll(
+            blobClient,
+            null,
+            List.of(primary, mirror),
+            envelopeId,
+            null
+        );
+
+        // then
+        assertThat(results).hasSize(2);
+        assertThat(results).filteredOn(result -> result.target.equals(primary)).singleElement()
+            .satisfies(result -> {
+                assertThat(result.isDispatched()).isTrue();
+                assertThat(result.contentSha256).isEqualTo("abc123");
+            });
+        assertThat(results).filteredOn(result -> result.target.equals(mirror)).singleElement()
+            .satisfies(result -> {
+                assertThat(result.isDispatched()).isFalse();
+                assertThat(result.failure).isSameAs(failure);
+            });
     }
 
     @Test
@@ -107,7 +306,7 @@ class BlobDispatcherTest {
 
         // when
         Throwable exc = catchThrowable(
-            () -> dispatcher.dispatch(blobClient, "some_container", CFT)
+            () -> dispatcher.dispatch(blobClient, null, "some_container", CFT, UUID.randomUUID(), null)
         );
 
         // then
@@ -135,13 +334,43 @@ class BlobDispatcherTest {
 
         // when
         Throwable exc = catchThrowable(
-            () -> dispatcher.dispatch(blobClient, "some_container", CFT)
+            () -> dispatcher.dispatch(blobClient, null, "some_container", CFT, UUID.randomUUID(), null)
         );
 
         // then
         assertThat(exc).isInstanceOf(InvalidZipArchiveException.class);
     }
 
+    private void givenSourceBlobContent(byte[] envelope) throws IOException {
+        var content = getBlobContent(
+            Map.of(
+                ENVELOPE, envelope,
+                SIGNATURE, "sig".getBytes()
+            )
+        );
+        BlobInputStream blobInputStream = mock(
+            BlobInputStream.class,
+            AdditionalAnswers.delegatesTo(new ByteArrayInputStream(content))
+        );
+        given(blobClient.getBlockBlobClient()).willReturn(blockBlobClient);
+        given(blockBlobClient.openInputStream()).willReturn(blobInputStream);
+    }
+
+    private BlockBlobClient givenTargetBlob(TargetConfigItem target) {
+        var targetBlob = mock(BlockBlobClient.class);
+        will(invocation -> {
+            invocation.<Consumer<BlockBlobClient>>getArgument(3).accept(targetBlob);
+            return null;
+        }).given(blobContainerClientProxy)
+            .runUpload(
+                eq(blockBlobClient),
+                eq(target.getTargetContainer()),
+                eq(target.getTargetStorageAccount()),
+                any()
+            );
+        return targetBlob;
+    }
+
     private static byte[] getBlobContent(Map<String, byte[]> zipEntries) throws IOException {
         try (
             var outputStream = new ByteArrayOutputStream();
@@ -19,7 +19,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static uk.gov.hmcts.reform.blobrouter.util.TimeZones.EUROPE_LONDON_ZONE_ID;
@@ -112,15 +111,71 @@ class BlobMetaDataHandlerTest {
     }
 
     @Test
-    void should_clear_blob_metadata_when_clear_successful() {
+    void should_stamp_blob_with_its_etag_as_content_version_when_leasing_it_first() {
         //given
-        doNothing().when(blobClient).setMetadata(any());
+        given(blobClient.getProperties()).willReturn(blobProperties);
+        given(blobProperties.getMetadata()).willReturn(blobMetaData);
+        given(blobProperties.getETag()).willReturn("etag-1");
+
+        //when
+        blobMetaDataHandler.isBlobReadyToUse(blobClient);
+
+        //then
+        var mapCapturer = ArgumentCaptor.forClass(Map.class);
+        verify(blobClient).setMetadataWithResponse(mapCapturer.capture(), any(), eq(null), eq(Context.NONE));
+        assertThat(mapCapturer.getValue()).containsEntry(BlobMetaDataHandler.CONTENT_VERSION, "etag-1");
+    }
+
+    @Test
+    void should_keep_content_version_when_leasing_blob_again() {
+        //given
+        given(blobClient.getProperties()).willReturn(blobProperties);
+        blobMetaData.put(BlobMetaDataHandler.CONTENT_VERSION, "etag-1");
+        given(blobProperties.getMetadata()).willReturn(blobMetaData);
+        given(blobProperties.getETag()).willReturn("etag-3");
+
+        //when
+        blobMetaDataHandler.isBlobReadyToUse(blobClient);
+
+        //then
+        var mapCapturer = ArgumentCaptor.forClass(Map.class);
+        verify(blobClient).setMetadataWithResponse(mapCapturer.capture(), any(), eq(null), eq(Context.NONE));
+        assertThat(mapCapturer.getValue()).containsEntry(BlobMetaDataHandler.CONTENT_VERSION, "etag-1");
+    }
+
+    @Test
+    void should_clear_lease_but_keep_content_version_when_clear_successful() {
+        //given
+        given(blobClient.getProperties()).willReturn(blobProperties);
+        blobMetaData.put(BlobMetaDataHandler.CONTENT_VERSION, "etag-1");
+        blobMetaData.put(LEASE_EXPIRATION_TIME, LocalDateTime.now(EUROPE_LONDON_ZONE_ID).toString());
+        given(blobProperties.getMetadata()).willReturn(blobMetaData);
+        given(blobProperties.getETag()).willReturn("etag-2");
 
         //when
-        blobMetaDataHandler.clearAllMetaData(blobClient);
+        blobMetaDataHandler.clearLeaseMetaData(blobClient);
 
         //then
-        verify(blobClient).setMetadata(null);
+        var conditionCapturer = ArgumentCaptor.forClass(BlobRequestConditions.class);
+        verify(blobClient).setMetadataWithResponse(
+            eq(Map.of(BlobMetaDataHandler.CONTENT_VERSION, "etag-1")),
+            conditionCapturer.capture(),
+            eq(null),
+            eq(Context.NONE)
+        );
+        assertThat(conditionCapturer.getValue().getIfMatch()).isEqualTo("\"etag-2\"");
+    }
+
+    @Test
+    void should_use_etag_as_content_version_of_blob_not_leased_since_upload() {
+        //given
+        given(blobProperties.getMetadata()).willReturn(blobMetaData);
+        given(blobProperties.getETag()).willReturn("etag-1");
+
+        //when
+        String contentVersion = BlobMetaDataHandler.getContentVersion(blobProperties);
 
+        //then
+        assertThat(contentVersion).isEqualTo("etag-1");
     }
 }
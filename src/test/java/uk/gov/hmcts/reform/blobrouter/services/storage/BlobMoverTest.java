@@ -1,30 +1,50 @@
 package uk.gov.hmcts.reform.blobrouter.services.storage;
 
 import com.azure.core.http.HttpResponse;
+import com.azure.core.http.rest.PagedIterable;
 import com.azure.core.util.polling.PollResponse;
 import com.azure.core.util.polling.SyncPoller;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.models.BlobCopyInfo;
+import com.azure.storage.blob.models.BlobItem;
 import com.azure.storage.blob.models.BlobStorageException;
-import com.azure.storage.blob.models.BlockBlobItem;
+import com.azure.storage.blob.models.Block;
+import com.azure.storage.blob.models.BlockList;
+import com.azure.storage.blob.models.BlockListType;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.options.BlockBlobCommitBlockListOptions;
+import com.azure.storage.blob.options.BlockBlobStageBlockOptions;
 import com.azure.storage.blob.specialized.BlockBlobClient;
 import com.google.common.io.Resources;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.blobrouter.exceptions.BlobStreamingException;
+import uk.gov.hmcts.reform.blobrouter.exceptions.ContentDigestMismatchException;
+import uk.gov.hmcts.reform.blobrouter.exceptions.TargetStorageException;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static com.google.common.io.Resources.getResource;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,9 +53,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -54,6 +74,9 @@ class BlobMoverTest {
     @Mock
     BlockBlobClient targetBlockBlobClient;
 
+    @Mock
+    BlobContainerClient targetContainerClient;
+
     private static final String CONTAINER_NAME = "testcontainer";
     private static final String REJECTED_CONTAINER_NAME = "testcontainer-rejected";
     private static final String BLOB_NAME = "testFile.zip";
@@ -71,76 +94,435 @@ class BlobMoverTest {
         byte[] content = Resources.toByteArray(
             getResource("test1.pdf")
         );
+        var envelopeId = UUID.randomUUID();
 
-        var expectedBlockIdList = List.of(
-            Base64.getEncoder().encodeToString("0000001".getBytes()),
-            Base64.getEncoder().encodeToString("0000002".getBytes()),
-            Base64.getEncoder().encodeToString("0000003".getBytes())
-        );
-        doNothing().when(targetBlockBlobClient).stageBlock(anyString(), any(), anyLong());
-
-        given(targetBlockBlobClient.commitBlockList(expectedBlockIdList))
-            .willReturn(mock(BlockBlobItem.class));
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
 
         // when
         var blockList =
-            mover.uploadWithChunks(targetBlockBlobClient, new ByteArrayInputStream(content));
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true
+            ).blockIds;
 
         // then
-        assertThat(blockList).containsExactlyElementsOf(expectedBlockIdList);
+        assertThat(blockList)
+            .extracting(blockId -> new String(Base64.getDecoder().decode(blockId)))
+            .satisfiesExactly(
+                blockId -> assertThat(blockId).matches(envelopeId + "-0000001-[0-9a-f]{8}"),
+                blockId -> assertThat(blockId).matches(envelopeId + "-0000002-[0-9a-f]{8}"),
+                blockId -> assertThat(blockId).matches(envelopeId + "-0000003-[0-9a-f]{8}")
+            );
         var sizeCaptor = ArgumentCaptor.forClass(Long.class);
 
-        verify(targetBlockBlobClient, times(3)).stageBlock(any(), any(), sizeCaptor.capture());
+        verify(targetBlockBlobClient, times(3))
+            .stageBlockWithResponse(any(), any(), sizeCaptor.capture(), any(), any(), any(), any());
         assertThat(sizeCaptor.getAllValues())
             .containsExactlyElementsOf(List.of(1024L, 1024L, 782L));
-        verify(targetBlockBlobClient, times(1)).commitBlockList(expectedBlockIdList);
+        verifyCommitted(blockList);
     }
 
     @Test
-    void should_try_to_delete_when_upload_with_chunks_get_error() {
+    void should_generate_same_block_ids_when_same_envelope_is_uploaded_again() throws IOException {
+        // given
+        byte[] content = Resources.toByteArray(
+            getResource("test1.pdf")
+        );
+        var envelopeId = UUID.randomUUID();
 
-        //given
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+
+        // when
+        var firstBlockList =
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true
+            ).blockIds;
+        var secondBlockList =
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true
+            ).blockIds;
+        var otherEnvelopeBlockList = mover
+            .uploadWithChunks(targetBlockBlobClient, new ByteArrayInputStream(content), UUID.randomUUID(), null, true)
+            .blockIds;
+
+        // then
+        assertThat(secondBlockList).containsExactlyElementsOf(firstBlockList);
+        assertThat(otherEnvelopeBlockList).doesNotContainAnyElementsOf(firstBlockList);
+    }
+
+    @Test
+    void should_not_stage_blocks_already_staged_with_same_size_again() throws IOException {
+        // given
+        byte[] content = Resources.toByteArray(
+            getResource("test1.pdf")
+        );
+        var envelopeId = UUID.randomUUID();
+        var blockIds = List.of(
+            BlobMover.blockId(envelopeId, 1, content, 1024),
+            BlobMover.blockId(envelopeId, 2, Arrays.copyOfRange(content, 1024, 2048), 1024)
+        );
+
+        // first block staged completely, second one with a different size
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(
+            new BlockList().setUncommittedBlocks(List.of(
+                new Block().setName(blockIds.get(0)).setSizeLong(1024L),
+                new Block().setName(blockIds.get(1)).setSizeLong(512L)
+            ))
+        );
+
+        // when
+        var blockList =
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true
+            ).blockIds;
+
+        // then
+        assertThat(blockList).hasSize(3).startsWith(blockIds.get(0), blockIds.get(1));
+        var sizeCaptor = ArgumentCaptor.forClass(Long.class);
+
+        verify(targetBlockBlobClient, never())
+            .stageBlockWithResponse(eq(blockIds.get(0)), any(), anyLong(), any(), any(), any(), any());
+        verify(targetBlockBlobClient, times(2))
+            .stageBlockWithResponse(any(), any(), sizeCaptor.capture(), any(), any(), any(), any());
+        assertThat(sizeCaptor.getAllValues()).containsExactly(1024L, 782L);
+        verifyCommitted(blockList);
+    }
+
+    @Test
+    void should_upload_all_blocks_when_target_blob_does_not_exist() {
+        // given
         var content = "test1234".getBytes();
 
-        willThrow(new BlobStorageException("Stage upload failed", mock(HttpResponse.class), null))
+        var response = mock(HttpResponse.class);
+        given(response.getStatusCode()).willReturn(404);
+        willThrow(new BlobStorageException("Blob not found", response, null))
             .given(targetBlockBlobClient)
-            .stageBlock(anyString(), any(), anyLong());
+            .listBlocks(BlockListType.UNCOMMITTED);
 
         // when
-        var contentStream = new ByteArrayInputStream(content);
-        assertThrows(
-            BlobStreamingException.class,
-            () -> mover
-                .uploadWithChunks(targetBlockBlobClient, contentStream)
+        var uploadedContent =
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), UUID.randomUUID(), null, true
+            );
+
+        // then
+        verify(targetBlockBlobClient).stageBlockWithResponse(
+            eq(uploadedContent.blockIds.get(0)), any(), eq(8L), any(), any(), any(), any()
+        );
+        verifyCommitted(uploadedContent.blockIds);
+    }
+
+    @Test
+    void should_upload_all_blocks_when_listing_staged_blocks_is_forbidden() {
+        // given
+        var content = "test1234".getBytes();
+
+        var response = mock(HttpResponse.class);
+        given(response.getStatusCode()).willReturn(403);
+        willThrow(new BlobStorageException("This request is not authorized", response, null))
+            .given(targetBlockBlobClient)
+            .listBlocks(BlockListType.UNCOMMITTED);
+
+        // when
+        var uploadedContent =
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), UUID.randomUUID(), null, true
+            );
+
+        // then
+        verify(targetBlockBlobClient).stageBlockWithResponse(
+            eq(uploadedContent.blockIds.get(0)), any(), eq(8L), any(), any(), any(), any()
         );
+        verifyCommitted(uploadedContent.blockIds);
+    }
+
+    @Test
+    void should_not_list_staged_blocks_when_upload_is_not_resumable() {
+        // given
+        var content = "test1234".getBytes();
 
-        verify(targetBlockBlobClient).delete();
+        // when
+        var uploadedContent =
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), UUID.randomUUID(), null, false
+            );
+
+        // then
+        verify(targetBlockBlobClient, never()).listBlocks(BlockListType.UNCOMMITTED);
+        verify(targetBlockBlobClient).stageBlockWithResponse(
+            eq(uploadedContent.blockIds.get(0)), any(), eq(8L), any(), any(), any(), any()
+        );
+        verifyCommitted(uploadedContent.blockIds);
     }
 
     @Test
-    void should_not_throw_exception_when_chunk_upload_delete_fails() {
+    void should_send_block_checksums_and_return_digest_of_whole_content() throws Exception {
+        // given
+        byte[] content = Resources.toByteArray(
+            getResource("test1.pdf")
+        );
 
-        //given
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+
+        // when
+        var uploadedContent =
+            mover.uploadWithChunks(
+                targetBlockBlobClient, new ByteArrayInputStream(content), UUID.randomUUID(), null, true
+            );
+
+        // then
+        assertThat(uploadedContent.size).isEqualTo(content.length);
+        assertThat(uploadedContent.sha256)
+            .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+
+        var md5Captor = ArgumentCaptor.forClass(byte[].class);
+        verify(targetBlockBlobClient, times(3))
+            .stageBlockWithResponse(any(), any(), anyLong(), md5Captor.capture(), any(), any(), any());
+        assertThat(md5Captor.getAllValues()).containsExactly(
+            MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(content, 0, 1024)),
+            MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(content, 1024, 2048)),
+            MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(content, 2048, content.length))
+        );
+    }
+
+    @Test
+    void should_store_digest_and_envelope_id_in_metadata_of_committed_blob() throws Exception {
+        // given
         var content = "test1234".getBytes();
+        var envelopeId = UUID.randomUUID();
 
-        willThrow(new BlobStorageException("Stage upload failed", mock(HttpResponse.class), null))
-            .given(targetBlockBlobClient)
-            .stageBlock(anyString(), any(), anyLong());
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+
+        // when
+        mover.uploadWithChunks(targetBlockBlobClient, new ByteArrayInputStream(content), envelopeId, null, true);
 
+        // then
+        var optionsCaptor = ArgumentCaptor.forClass(BlockBlobCommitBlockListOptions.class);
+        verify(targetBlockBlobClient).commitBlockListWithResponse(optionsCaptor.capture(), any(), any());
+        assertThat(optionsCaptor.getValue().getMetadata()).containsExactlyInAnyOrderEntriesOf(Map.of(
+            BlobMover.CONTENT_SHA256_METADATA, HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(content)
+            ),
+            BlobMover.ENVELOPE_ID_METADATA, envelopeId.toString()
+        ));
+    }
 
-        willThrow(new RuntimeException("Delete error"))
+    @Test
+    void should_upload_file_in_mapped_blocks_with_same_ids_as_stream_upload(@TempDir Path tempDir) throws Exception {
+        // given
+        byte[] content = Resources.toByteArray(
+            getResource("test1.pdf")
+        );
+        Path file = Files.write(tempDir.resolve("envelope.zip"), content);
+        var envelopeId = UUID.randomUUID();
+
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+
+        // when
+        UploadedContent uploadedContent;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            uploadedContent = mover.uploadFromFile(targetBlockBlobClient, channel, envelopeId, null, true);
+        }
+
+        // then
+        assertThat(uploadedContent.blockIds).containsExactly(
+            BlobMover.blockId(envelopeId, 1, content, 1024),
+            BlobMover.blockId(envelopeId, 2, Arrays.copyOfRange(content, 1024, 2048), 1024),
+            BlobMover.blockId(envelopeId, 3, Arrays.copyOfRange(content, 2048, content.length), 782)
+        );
+        assertThat(uploadedContent.size).isEqualTo(content.length);
+        assertThat(uploadedContent.sha256)
+            .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+
+        var optionsCaptor = ArgumentCaptor.forClass(BlockBlobStageBlockOptions.class);
+        verify(targetBlockBlobClient, times(3)).stageBlockWithResponse(optionsCaptor.capture(), any(), any());
+        assertThat(optionsCaptor.getAllValues())
+            .extracting(options -> options.getData().toBytes())
+            .containsExactly(
+                Arrays.copyOfRange(content, 0, 1024),
+                Arrays.copyOfRange(content, 1024, 2048),
+                Arrays.copyOfRange(content, 2048, content.length)
+            );
+        assertThat(optionsCaptor.getAllValues())
+            .extracting(BlockBlobStageBlockOptions::getContentMd5)
+            .containsExactly(
+                MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(content, 0, 1024)),
+                MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(content, 1024, 2048)),
+                MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(content, 2048, content.length))
+            );
+        verifyCommitted(uploadedContent.blockIds);
+    }
+
+    @Test
+    void should_not_stage_blocks_of_file_already_staged_with_same_size_again(@TempDir Path tempDir) throws Exception {
+        // given
+        byte[] content = Resources.toByteArray(
+            getResource("test1.pdf")
+        );
+        Path file = Files.write(tempDir.resolve("envelope.zip"), content);
+        var envelopeId = UUID.randomUUID();
+        var stagedBlockId = BlobMover.blockId(envelopeId, 1, content, 1024);
+
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(
+            new BlockList().setUncommittedBlocks(List.of(new Block().setName(stagedBlockId).setSizeLong(1024L)))
+        );
+
+        // when
+        UploadedContent uploadedContent;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            uploadedContent = mover.uploadFromFile(targetBlockBlobClient, channel, envelopeId, null, true);
+        }
+
+        // then
+        assertThat(uploadedContent.blockIds).hasSize(3).startsWith(stagedBlockId);
+        var optionsCaptor = ArgumentCaptor.forClass(BlockBlobStageBlockOptions.class);
+        verify(targetBlockBlobClient, times(2)).stageBlockWithResponse(optionsCaptor.capture(), any(), any());
+        assertThat(optionsCaptor.getAllValues())
+            .extracting(BlockBlobStageBlockOptions::getBase64BlockId)
+            .doesNotContain(stagedBlockId);
+        verifyCommitted(uploadedContent.blockIds);
+    }
+
+    @Test
+    void should_find_content_committed_for_envelope_by_listing_target_container() {
+        // given
+        var envelopeId = UUID.randomUUID();
+        targetContainerHolds(
+            new BlobItem().setName(BLOB_NAME + ".bak").setMetadata(Map.of(
+                BlobMover.CONTENT_SHA256_METADATA, "def456",
+                BlobMover.ENVELOPE_ID_METADATA, envelopeId.toString()
+            )),
+            new BlobItem().setName(BLOB_NAME).setMetadata(Map.of(
+                BlobMover.CONTENT_SHA256_METADATA, "abc123",
+                BlobMover.ENVELOPE_ID_METADATA, envelopeId.toString()
+            ))
+        );
+
+        // when
+        // then
+        assertThat(mover.findCommittedContent(targetBlockBlobClient, envelopeId)).contains("abc123");
+        assertThat(mover.findCommittedContent(targetBlockBlobClient, UUID.randomUUID())).isEmpty();
+
+        var optionsCaptor = ArgumentCaptor.forClass(ListBlobsOptions.class);
+        verify(targetContainerClient, times(2)).listBlobs(optionsCaptor.capture(), any());
+        assertThat(optionsCaptor.getValue().getPrefix()).isEqualTo(BLOB_NAME);
+        assertThat(optionsCaptor.getValue().getDetails().getRetrieveMetadata()).isTrue();
+        verify(targetBlockBlobClient, never()).getProperties();
+    }
+
+    @Test
+    void should_not_find_content_when_target_blob_has_no_metadata() {
+        // given
+        targetContainerHolds(new BlobItem().setName(BLOB_NAME));
+
+        // when
+        // then
+        assertThat(mover.findCommittedContent(targetBlockBlobClient, UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void should_not_find_content_when_target_container_cannot_be_listed() {
+        // given
+        given(targetBlockBlobClient.getBlobName()).willReturn(BLOB_NAME);
+        given(targetBlockBlobClient.getContainerClient()).willReturn(targetContainerClient);
+        willThrow(new BlobStorageException("This request is not authorized", mock(HttpResponse.class), null))
+            .given(targetContainerClient)
+            .listBlobs(any(ListBlobsOptions.class), any());
+
+        // when
+        // then
+        assertThat(mover.findCommittedContent(targetBlockBlobClient, UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void should_keep_staged_blocks_when_upload_with_chunks_get_error() {
+
+        //given
+        var content = "test1234".getBytes();
+
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+        willThrow(new BlobStorageException("Stage upload failed", mock(HttpResponse.class), null))
             .given(targetBlockBlobClient)
-            .delete();
+            .stageBlockWithResponse(anyString(), any(), anyLong(), any(), any(), any(), any());
 
         // when
         var contentStream = new ByteArrayInputStream(content);
+        var envelopeId = UUID.randomUUID();
         assertThrows(
             BlobStreamingException.class,
             () -> mover
-                .uploadWithChunks(targetBlockBlobClient, contentStream)
+                .uploadWithChunks(targetBlockBlobClient, contentStream, envelopeId, null, true)
         );
 
-        verify(targetBlockBlobClient).delete();
+        verify(targetBlockBlobClient, never()).delete();
+        verify(targetBlockBlobClient, never()).commitBlockListWithResponse(any(), any(), any());
+    }
+
+    @Test
+    void should_not_commit_content_which_differs_from_verified_content(@TempDir Path tempDir) throws IOException {
+        // given
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+        var contentStream = new ByteArrayInputStream("test1234".getBytes());
+        Path file = Files.write(tempDir.resolve("envelope.zip"), "test1234".getBytes());
+        var envelopeId = UUID.randomUUID();
+
+        // when
+        // then
+        assertThatThrownBy(() -> mover.uploadWithChunks(
+            targetBlockBlobClient, contentStream, envelopeId, "abc123", true)
+        )
+            .isInstanceOf(BlobStreamingException.class)
+            .hasCauseInstanceOf(ContentDigestMismatchException.class);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThatThrownBy(() -> mover.uploadFromFile(targetBlockBlobClient, channel, envelopeId, "abc123", true))
+                .isInstanceOf(BlobStreamingException.class)
+                .hasCauseInstanceOf(ContentDigestMismatchException.class);
+        }
+        verify(targetBlockBlobClient, never()).commitBlockListWithResponse(any(), any(), any());
+    }
+
+    @Test
+    void should_commit_content_which_has_the_verified_digest() throws Exception {
+        // given
+        var content = "test1234".getBytes();
+        var sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+
+        // when
+        var uploadedContent = mover.uploadWithChunks(
+            targetBlockBlobClient, new ByteArrayInputStream(content), UUID.randomUUID(), sha256.toUpperCase(), true
+        );
+
+        // then
+        assertThat(uploadedContent.sha256).isEqualTo(sha256);
+        verifyCommitted(uploadedContent.blockIds);
+    }
+
+    @Test
+    void should_tell_failures_of_target_apart_from_failures_of_source() throws IOException {
+        // given
+        given(targetBlockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).willReturn(new BlockList());
+        willThrow(new BlobStorageException("Stage upload failed", mock(HttpResponse.class), null))
+            .given(targetBlockBlobClient)
+            .stageBlockWithResponse(anyString(), any(), anyLong(), any(), any(), any(), any());
+
+        var failingSource = mock(InputStream.class);
+        given(failingSource.available()).willReturn(8);
+        given(failingSource.readNBytes(any(byte[].class), eq(0), eq(1024)))
+            .willThrow(new IOException("Reading source failed"));
+        var envelopeId = UUID.randomUUID();
+
+        // when
+        // then
+        var targetFailingContent = new ByteArrayInputStream("test".getBytes());
+        assertThatThrownBy(() -> mover.uploadWithChunks(
+            targetBlockBlobClient, targetFailingContent, envelopeId, null, true)
+        )
+            .isInstanceOf(BlobStreamingException.class)
+            .hasCauseInstanceOf(TargetStorageException.class)
+            .hasRootCauseInstanceOf(BlobStorageException.class);
+        assertThatThrownBy(() -> mover.uploadWithChunks(targetBlockBlobClient, failingSource, envelopeId, null, true))
+            .isInstanceOf(BlobStreamingException.class)
+            .hasCauseInstanceOf(IOException.class);
     }
 
     @Test
@@ -265,4 +647,18 @@ class BlobMoverTest {
         given(blobClient.getBlockBlobClient()).willReturn(blockBlobClient);
         return blockBlobClient;
     }
-}
\ No newline at end of file
+
+    private void targetContainerHolds(BlobItem... blobs) {
+        PagedIterable<BlobItem> listing = mock(PagedIterable.class);
+        given(listing.stream()).will(invocation -> Stream.of(blobs));
+        given(targetBlockBlobClient.getBlobName()).willReturn(BLOB_NAME);
+        given(targetBlockBlobClient.getContainerClient()).willReturn(targetContainerClient);
+        given(targetContainerClient.listBlobs(any(ListBlobsOptions.class), any())).willReturn(listing);
+    }
+
+    private void verifyCommitted(List<String> blockIds) {
+        var optionsCaptor = ArgumentCaptor.forClass(BlockBlobCommitBlockListOptions.class);
+        verify(targetBlockBlobClient).commitBlockListWithResponse(optionsCaptor.capture(), any(), any());
+        assertThat(optionsCaptor.getValue().getBase64BlockIds()).containsExactlyElementsOf(blockIds);
+    }
+}
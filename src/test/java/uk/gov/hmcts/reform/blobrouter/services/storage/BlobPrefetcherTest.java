@@ -0,0 +1,135 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.specialized.BlobInputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BlobPrefetcherTest {
+
+    @Mock LeaseAcquirer leaseAcquirer;
+    @Mock BlobClient blobClient;
+    @Mock BlobProperties blobProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BlobPrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        prefetcher = new BlobPrefetcher(leaseAcquirer, meterRegistry, 2 * 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        prefetcher.shutdown();
+    }
+
+    @Test
+    void should_not_prefetch_blob_which_cannot_be_leased() {
+        // given
+        given(leaseAcquirer.tryAcquire(eq(blobClient), any())).willReturn(false);
+
+        // when
+        var prefetchedBlob = prefetcher.prefetch(blobClient, errorCode -> { });
+
+        // then
+        assertThat(prefetchedBlob).isEmpty();
+        verify(blobClient, never()).openInputStream(any(BlobInputStreamOptions.class));
+    }
+
+    @Test
+    void should_read_content_ahead_on_condition_that_blob_is_unchanged() throws Exception {
+        // given
+        byte[] content = new byte[3 * 1024 * 1024 + 7];
+        content[content.length - 1] = 42;
+        blobIsLeased("0x1");
+        blobHasContent(content);
+
+        // when
+        var prefetchedBlob = prefetcher.prefetch(blobClient, errorCode -> { }).orElseThrow();
+
+        // then
+        assertThat(prefetchedBlob.eTag).isEqualTo("0x1");
+        try (prefetchedBlob) {
+            assertThat(prefetchedBlob.claimContent().readAllBytes()).isEqualTo(content);
+            assertThat(prefetchedBlob.claimContent()).isNull();
+        }
+
+        var optionsCaptor = ArgumentCaptor.forClass(BlobInputStreamOptions.class);
+        verify(blobClient).openInputStream(optionsCaptor.capture());
+        assertThat(optionsCaptor.getValue().getRequestConditions().getIfMatch()).isEqualTo("0x1");
+        verify(leaseAcquirer).release(blobClient);
+        assertThat(meterRegistry.get("blob.prefetch").tag("outcome", "used").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_release_lease_of_abandoned_blob() {
+        // given
+        blobIsLeased("0x1");
+        blobHasContent(new byte[1024]);
+        var prefetchedBlob = prefetcher.prefetch(blobClient, errorCode -> { }).orElseThrow();
+
+        // when
+        prefetchedBlob.close();
+        prefetchedBlob.close();
+
+        // then
+        verify(leaseAcquirer).release(blobClient);
+        assertThat(meterRegistry.get("blob.prefetch").tag("outcome", "unused").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_report_failure_to_read_content_to_its_reader() {
+        // given
+        blobIsLeased("0x1");
+        given(blobClient.openInputStream(any(BlobInputStreamOptions.class)))
+            .willThrow(new IllegalStateException("Condition not met"));
+
+        // when
+        var prefetchedBlob = prefetcher.prefetch(blobClient, errorCode -> { }).orElseThrow();
+
+        // then
+        assertThatThrownBy(() -> prefetchedBlob.claimContent().readAllBytes())
+            .isInstanceOf(IOException.class)
+            .hasRootCauseMessage("Condition not met");
+        prefetchedBlob.close();
+        verify(leaseAcquirer).release(blobClient);
+    }
+
+    private void blobIsLeased(String eTag) {
+        given(leaseAcquirer.tryAcquire(eq(blobClient), any())).willReturn(true);
+        given(blobClient.getProperties()).willReturn(blobProperties);
+        given(blobProperties.getETag()).willReturn(eTag);
+    }
+
+    private void blobHasContent(byte[] content) {
+        BlobInputStream blobInputStream = mock(
+            BlobInputStream.class,
+            AdditionalAnswers.delegatesTo(new ByteArrayInputStream(content))
+        );
+        given(blobClient.openInputStream(any(BlobInputStreamOptions.class))).willReturn(blobInputStream);
+    }
+}
@@ -0,0 +1,182 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.specialized.BlobInputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.will;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class HedgedBlobReaderTest {
+
+    @Mock BlobClient blobClient;
+    @Mock BlobProperties blobProperties;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgedBlobReader reader;
+
+    @AfterEach
+    void tearDown() {
+        if (reader != null) {
+            reader.shutdown();
+        }
+    }
+
+    @Test
+    void should_read_blob_as_single_stream_when_hedged_reads_are_disabled() {
+        // given
+        reader = new HedgedBlobReader(meterRegistry, false, 4, 95, 100, 5);
+        var blobInputStream = mock(BlobInputStream.class);
+        given(blobClient.openInputStream(any(BlobInputStreamOptions.class))).willReturn(blobInputStream);
+
+        // when
+        var inputStream = reader.openInputStream(blobClient, "0x1");
+
+        // then
+        assertThat(inputStream).isSameAs(blobInputStream);
+        var optionsCaptor = ArgumentCaptor.forClass(BlobInputStreamOptions.class);
+        verify(blobClient).openInputStream(optionsCaptor.capture());
+        assertThat(optionsCaptor.getValue().getRequestConditions().getIfMatch()).isEqualTo("0x1");
+        verify(blobClient, never()).getProperties();
+    }
+
+    @Test
+    void should_read_blob_by_range_on_condition_that_it_is_unchanged() throws Exception {
+        // given
+        reader = new HedgedBlobReader(meterRegistry, true, 4, 95, 100, 5);
+        byte[] content = "0123456789".getBytes();
+        blobHas(content, "0x1");
+        rangesAreDownloaded(content, call -> false);
+
+        // when
+        byte[] read;
+        try (var inputStream = reader.openInputStream(blobClient, null)) {
+            read = inputStream.readAllBytes();
+        }
+
+        // then
+        assertThat(read).isEqualTo(content);
+        var rangeCaptor = ArgumentCaptor.forClass(BlobRange.class);
+        var conditionsCaptor = ArgumentCaptor.forClass(BlobRequestConditions.class);
+        verify(blobClient, times(3)).downloadStreamWithResponse(
+            any(), rangeCaptor.capture(), any(), conditionsCaptor.capture(), anyBoolean(), any(), any()
+        );
+        assertThat(rangeCaptor.getAllValues())
+            .extracting(BlobRange::getOffset, BlobRange::getCount)
+            .containsExactly(tuple(0L, 4L), tuple(4L, 4L), tuple(8L, 2L));
+        assertThat(conditionsCaptor.getAllValues()).extracting(BlobRequestConditions::getIfMatch).containsOnly("0x1");
+    }
+
+    @Test
+    void should_use_hedged_request_when_it_answers_before_slow_range() throws Exception {
+        // given
+        reader = new HedgedBlobReader(meterRegistry, true, 1, 95, 50, 100);
+        byte[] content = new byte[21];
+        content[20] = 42;
+        blobHas(content, "0x1");
+        // the first 20 ranges give the latencies to hedge on, the original request of the last range stalls
+        rangesAreDownloaded(content, call -> call == 21);
+
+        // when
+        byte[] read;
+        try (var inputStream = reader.openInputStream(blobClient, null)) {
+            read = inputStream.readAllBytes();
+        }
+
+        // then
+        assertThat(read).isEqualTo(content);
+        assertThat(hedgedReads("won")).isEqualTo(1);
+        assertThat(hedgedReads("lost")).isZero();
+    }
+
+    @Test
+    void should_wait_for_slow_range_when_hedge_budget_is_exhausted() throws Exception {
+        // given
+        reader = new HedgedBlobReader(meterRegistry, true, 1, 95, 10, 0);
+        byte[] content = new byte[21];
+        blobHas(content, "0x1");
+        rangesAreDownloaded(content, call -> call == 21);
+
+        // when
+        byte[] read;
+        try (var inputStream = reader.openInputStream(blobClient, null)) {
+            read = inputStream.readAllBytes();
+        }
+
+        // then
+        assertThat(read).isEqualTo(content);
+        assertThat(hedgedReads("denied")).isEqualTo(1);
+        assertThat(hedgedReads("won")).isZero();
+        verify(blobClient, times(21)).downloadStreamWithResponse(
+            any(), any(), any(), any(), anyBoolean(), any(), any()
+        );
+    }
+
+    @Test
+    void should_report_failure_to_download_range() {
+        // given
+        reader = new HedgedBlobReader(meterRegistry, true, 4, 95, 100, 5);
+        blobHas(new byte[10], "0x1");
+        willThrow(new IllegalStateException("Condition not met"))
+            .given(blobClient)
+            .downloadStreamWithResponse(any(), any(), any(), any(), anyBoolean(), any(), any());
+        var inputStream = reader.openInputStream(blobClient, null);
+
+        // when
+        // then
+        assertThatThrownBy(inputStream::read)
+            .isInstanceOf(IOException.class)
+            .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private void blobHas(byte[] content, String eTag) {
+        given(blobClient.getProperties()).willReturn(blobProperties);
+        given(blobProperties.getBlobSize()).willReturn((long) content.length);
+        given(blobProperties.getETag()).willReturn(eTag);
+    }
+
+    private void rangesAreDownloaded(byte[] content, IntPredicate isSlow) {
+        var calls = new AtomicInteger();
+        will(invocation -> {
+            if (isSlow.test(calls.incrementAndGet())) {
+                Thread.sleep(1000);
+            }
+            OutputStream outputStream = invocation.getArgument(0);
+            BlobRange range = invocation.getArgument(1);
+            outputStream.write(content, (int) range.getOffset(), range.getCount().intValue());
+            return null;
+        })
+            .given(blobClient)
+            .downloadStreamWithResponse(any(), any(), any(), any(), anyBoolean(), any(), any());
+    }
+
+    private double hedgedReads(String outcome) {
+        return meterRegistry.get("blob.hedged.read").tag("outcome", outcome).counter().count();
+    }
+}
@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.function.Consumer;
 
 import static com.azure.storage.blob.models.BlobErrorCode.BLOB_NOT_FOUND;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
@@ -77,7 +78,7 @@ class LeaseAcquirerTest {
         leaseAcquirer.ifAcquiredOrElse(blobClient, mock(Runnable.class), mock(Consumer.class), true);
 
         // then
-        verify(blobMetaDataHandler, never()).clearAllMetaData(any());
+        verify(blobMetaDataHandler, never()).clearLeaseMetaData(any());
     }
 
     @Test
@@ -89,7 +90,7 @@ class LeaseAcquirerTest {
         leaseAcquirer.ifAcquiredOrElse(blobClient, mock(Runnable.class), mock(Consumer.class), true);
 
         // then
-        verify(blobMetaDataHandler).clearAllMetaData(any());
+        verify(blobMetaDataHandler).clearLeaseMetaData(any());
     }
 
     @Test
@@ -114,7 +115,7 @@ class LeaseAcquirerTest {
         var onFailure = mock(Consumer.class);
 
         given(blobMetaDataHandler.isBlobReadyToUse(blobClient)).willReturn(true);
-        willThrow(blobStorageException).given(blobMetaDataHandler).clearAllMetaData(blobClient);
+        willThrow(blobStorageException).given(blobMetaDataHandler).clearLeaseMetaData(blobClient);
 
         // when
         leaseAcquirer.ifAcquiredOrElse(blobClient, onSuccess, onFailure, true);
@@ -124,4 +125,41 @@ class LeaseAcquirerTest {
         verify(onFailure, never()).accept(any());
         verifyNoMoreInteractions(blobMetaDataHandler);
     }
+
+    @Test
+    void should_keep_lease_acquired_with_try_acquire_until_released() {
+        // given
+        var onFailure = mock(Consumer.class);
+        given(blobMetaDataHandler.isBlobReadyToUse(blobClient)).willReturn(true);
+
+        // when
+        boolean acquired = leaseAcquirer.tryAcquire(blobClient, onFailure);
+
+        // then
+        assertThat(acquired).isTrue();
+        verify(onFailure, never()).accept(any());
+        verify(blobMetaDataHandler, never()).clearLeaseMetaData(any());
+
+        // when
+        leaseAcquirer.release(blobClient);
+
+        // then
+        verify(blobMetaDataHandler).clearLeaseMetaData(blobClient);
+    }
+
+    @Test
+    void should_report_failure_when_try_acquire_does_not_acquire_lease() {
+        // given
+        var onFailure = mock(Consumer.class);
+        doThrow(blobStorageException).when(blobMetaDataHandler).isBlobReadyToUse(blobClient);
+        given(blobStorageException.getErrorCode()).willReturn(null);
+        given(blobStorageException.getStatusCode()).willReturn(404);
+
+        // when
+        boolean acquired = leaseAcquirer.tryAcquire(blobClient, onFailure);
+
+        // then
+        assertThat(acquired).isFalse();
+        verify(onFailure).accept(BLOB_NOT_FOUND);
+    }
 }
@@ -2,6 +2,9 @@ package uk.gov.hmcts.reform.blobrouter.services.storage;
 
 import com.azure.storage.common.Utility;
 import com.azure.storage.common.implementation.Constants;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,11 +14,17 @@ import uk.gov.hmcts.reform.authorisation.generators.AuthTokenGenerator;
 import uk.gov.hmcts.reform.blobrouter.clients.bulkscanprocessor.BulkScanProcessorClient;
 import uk.gov.hmcts.reform.blobrouter.clients.pcq.PcqClient;
 import uk.gov.hmcts.reform.blobrouter.clients.response.SasTokenResponse;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
 import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidSasTokenException;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.CircuitBreaker;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 
+import static java.util.Collections.emptyMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
@@ -34,16 +43,22 @@ class SasTokenCacheTest {
     @Mock
     private AuthTokenGenerator authTokenGenerator;
 
+    private DispatchCircuitBreakers circuitBreakers;
+
     private SasTokenCache sasTokenCache;
 
     private long refreshSasBeforeExpiry = 30;
 
     @BeforeEach
     void setUp() {
+        this.circuitBreakers = new DispatchCircuitBreakers(
+            new ServiceConfiguration(), Clock::systemUTC, new SimpleMeterRegistry(), 2, 60_000
+        );
         this.sasTokenCache = new SasTokenCache(
             bulkScanProcessorClient,
             pcqClient,
             authTokenGenerator,
+            circuitBreakers,
             refreshSasBeforeExpiry
         );
     }
@@ -233,4 +248,27 @@ class SasTokenCacheTest {
         verify(pcqClient, times(2)).getSasToken(authToken);
     }
 
+
+    @Test
+    void should_open_circuit_breaker_of_sas_endpoint_after_consecutive_server_errors() {
+        // given
+        String containerName = "container123";
+        var request = Request.create(
+            Request.HttpMethod.GET, "/token/" + containerName, emptyMap(), null, StandardCharsets.UTF_8, null
+        );
+        given(bulkScanProcessorClient.getSasToken(containerName))
+            .willThrow(new FeignException.ServiceUnavailable("unavailable", request, null, emptyMap()));
+
+        // when
+        assertThatThrownBy(() -> sasTokenCache.getSasToken(containerName))
+            .isInstanceOf(FeignException.ServiceUnavailable.class);
+        CircuitBreaker.State afterFirstFailure = circuitBreakers.bulkScanSasEndpoint().getState();
+        assertThatThrownBy(() -> sasTokenCache.getSasToken(containerName))
+            .isInstanceOf(FeignException.ServiceUnavailable.class);
+
+        // then
+        assertThat(afterFirstFailure).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreakers.bulkScanSasEndpoint().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreakers.pcqSasEndpoint().getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
 }
@@ -0,0 +1,218 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.options.BlobDownloadToFileOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.exceptions.BlobStreamingException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.will;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.gov.hmcts.reform.blobrouter.util.zipverification.ZipVerifiers.ENVELOPE;
+import static uk.gov.hmcts.reform.blobrouter.util.zipverification.ZipVerifiers.SIGNATURE;
+
+@ExtendWith(MockitoExtension.class)
+class ScratchSpaceTest {
+
+    private static final long THRESHOLD = 100;
+    private static final long QUOTA = 1000;
+
+    @Mock BlobClient blobClient;
+    @Mock BlobProperties blobProperties;
+
+    @TempDir Path scratchDir;
+
+    @Test
+    void should_not_spill_blob_when_spilling_is_disabled() {
+        // given
+        var scratchSpace = newScratchSpace(false);
+
+        // when
+        var spilledBlob = scratchSpace.spill(blobClient);
+
+        // then
+        assertThat(spilledBlob).isEmpty();
+        verifyNoInteractions(blobClient);
+    }
+
+    @Test
+    void should_not_spill_blob_below_size_threshold() {
+        // given
+        blobHasSize(THRESHOLD - 1);
+
+        // when
+        var spilledBlob = newScratchSpace(true).spill(blobClient);
+
+        // then
+        assertThat(spilledBlob).isEmpty();
+    }
+
+    @Test
+    void should_download_blob_in_parallel_and_extract_its_envelope() throws Exception {
+        // given
+        byte[] content = zipContent("envelope content");
+        blobHasSize(THRESHOLD);
+        given(blobProperties.getETag()).willReturn("0x1");
+        blobDownloads(content);
+
+        // when
+        var spilledBlob = newScratchSpace(true).spill(blobClient);
+
+        // then
+        assertThat(spilledBlob).isPresent();
+        try (var inputStream = spilledBlob.get().openInputStream()) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(content);
+        }
+        try (var envelope = spilledBlob.get().openEnvelope()) {
+            var buffer = ByteBuffer.allocate((int) envelope.size());
+            envelope.read(buffer);
+            assertThat(new String(buffer.array())).isEqualTo("envelope content");
+        }
+
+        var optionsCaptor = ArgumentCaptor.forClass(BlobDownloadToFileOptions.class);
+        verify(blobClient).downloadToFileWithResponse(optionsCaptor.capture(), any(), any());
+        var options = optionsCaptor.getValue();
+        assertThat(options.getParallelTransferOptions().getBlockSizeLong()).isEqualTo(4096L);
+        assertThat(options.getParallelTransferOptions().getMaxConcurrency()).isEqualTo(2);
+        assertThat(options.getRequestConditions().getIfMatch()).isEqualTo("0x1");
+    }
+
+    @Test
+    void should_delete_files_and_release_quota_when_spilled_blob_is_closed() throws Exception {
+        // given
+        blobHasSize(THRESHOLD);
+        blobDownloads(zipContent("envelope content"));
+        var scratchSpace = newScratchSpace(true);
+        var spilledBlob = scratchSpace.spill(blobClient).orElseThrow();
+        spilledBlob.openEnvelope().close();
+        assertThat(scratchSpace.getReservedBytes()).isEqualTo(2 * THRESHOLD);
+
+        // when
+        spilledBlob.close();
+
+        // then
+        assertThat(scratchSpace.getReservedBytes()).isZero();
+        try (var files = Files.list(scratchDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void should_not_spill_blob_when_quota_is_exhausted() throws Exception {
+        // given
+        blobHasSize(QUOTA / 4);
+        blobDownloads(zipContent("envelope content"));
+        var scratchSpace = newScratchSpace(true);
+
+        // when
+        var first = scratchSpace.spill(blobClient);
+        var second = scratchSpace.spill(blobClient);
+        var third = scratchSpace.spill(blobClient);
+
+        // then
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(third).isEmpty();
+        assertThat(scratchSpace.getReservedBytes()).isEqualTo(QUOTA);
+    }
+
+    @Test
+    void should_release_quota_and_delete_partial_file_when_download_fails() {
+        // given
+        blobHasSize(THRESHOLD);
+        given(blobClient.getBlobName()).willReturn("envelope1.zip");
+        will(invocation -> {
+            Files.write(Paths.get(invocation.<BlobDownloadToFileOptions>getArgument(0).getFilePath()), new byte[10]);
+            throw new IllegalStateException("ETag changed");
+        }).given(blobClient).downloadToFileWithResponse(any(), any(), any());
+        var scratchSpace = newScratchSpace(true);
+
+        // when
+        // then
+        assertThatThrownBy(() -> scratchSpace.spill(blobClient))
+            .isInstanceOf(BlobStreamingException.class)
+            .hasMessageContaining("envelope1.zip")
+            .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(scratchSpace.getReservedBytes()).isZero();
+        assertThat(scratchDir).isEmptyDirectory();
+    }
+
+    @Test
+    void should_delete_leftover_files_on_start_up() throws Exception {
+        // given
+        Files.write(scratchDir.resolve("leftover.zip"), new byte[10]);
+        Files.write(scratchDir.resolve("leftover.envelope.zip"), new byte[10]);
+
+        // when
+        newScratchSpace(true).cleanUp();
+
+        // then
+        assertThat(scratchDir).isEmptyDirectory();
+    }
+
+    @Test
+    void should_keep_files_on_start_up_when_spilling_is_disabled() throws Exception {
+        // given
+        Files.write(scratchDir.resolve("other.zip"), new byte[10]);
+
+        // when
+        newScratchSpace(false).cleanUp();
+
+        // then
+        assertThat(scratchDir).isNotEmptyDirectory();
+    }
+
+    private ScratchSpace newScratchSpace(boolean enabled) {
+        return new ScratchSpace(new SimpleMeterRegistry(), enabled, THRESHOLD, scratchDir.toString(), QUOTA, 4096, 2);
+    }
+
+    private void blobHasSize(long size) {
+        given(blobClient.getProperties()).willReturn(blobProperties);
+        given(blobProperties.getBlobSize()).willReturn(size);
+    }
+
+    private void blobDownloads(byte[] content) {
+        will(invocation -> {
+            Files.write(Paths.get(invocation.<BlobDownloadToFileOptions>getArgument(0).getFilePath()), content);
+            return null;
+        }).given(blobClient).downloadToFileWithResponse(any(), any(), any());
+    }
+
+    private static byte[] zipContent(String envelope) throws IOException {
+        try (
+            var outputStream = new ByteArrayOutputStream();
+            var zipOutputStream = new ZipOutputStream(outputStream)
+        ) {
+            zipOutputStream.putNextEntry(new ZipEntry(ENVELOPE));
+            zipOutputStream.write(envelope.getBytes());
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry(SIGNATURE));
+            zipOutputStream.write("sig".getBytes());
+            zipOutputStream.closeEntry();
+            zipOutputStream.finish();
+
+            return outputStream.toByteArray();
+        }
+    }
+}
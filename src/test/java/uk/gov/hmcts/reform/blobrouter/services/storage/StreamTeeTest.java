@@ -0,0 +1,105 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamTeeTest {
+
+    @Test
+    void should_hand_over_same_content_to_every_branch() throws Exception {
+        // given
+        byte[] content = new byte[100_000];
+        new Random(1).nextBytes(content);
+        var tee = new StreamTee(new ByteArrayInputStream(content), 3, 1024, 2);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<byte[]>> readers = List.of(
+                executor.submit(() -> readAll(tee.branch(0))),
+                executor.submit(() -> readAll(tee.branch(1))),
+                executor.submit(() -> readAll(tee.branch(2)))
+            );
+
+            // when
+            tee.pump();
+
+            // then
+            for (Future<byte[]> reader : readers) {
+                assertThat(reader.get()).isEqualTo(content);
+            }
+        }
+    }
+
+    @Test
+    void should_not_hold_up_other_branches_when_branch_is_closed() throws Exception {
+        // given
+        byte[] content = new byte[100_000];
+        new Random(2).nextBytes(content);
+        var tee = new StreamTee(new ByteArrayInputStream(content), 2, 1024, 2);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<byte[]> reader = executor.submit(() -> readAll(tee.branch(0)));
+            Future<Integer> failedReader = executor.submit(() -> {
+                try (InputStream branch = tee.branch(1)) {
+                    return branch.read(new byte[10]);
+                }
+            });
+
+            // when
+            tee.pump();
+
+            // then
+            assertThat(failedReader.get()).isEqualTo(10);
+            assertThat(reader.get()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void should_report_source_failure_to_every_branch() throws Exception {
+        // given
+        InputStream failingSource = new SequenceInputStream(
+            new ByteArrayInputStream(new byte[5000]),
+            new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("connection reset");
+                }
+            }
+        );
+        var tee = new StreamTee(failingSource, 2, 1024, 2);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<byte[]>> readers = List.of(
+                executor.submit(() -> readAll(tee.branch(0))),
+                executor.submit(() -> readAll(tee.branch(1)))
+            );
+
+            // when
+            tee.pump();
+
+            // then
+            for (Future<byte[]> reader : readers) {
+                assertThatThrownBy(reader::get)
+                    .hasCauseInstanceOf(IOException.class)
+                    .hasRootCauseMessage("connection reset");
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream branch) throws IOException {
+        try (branch) {
+            return branch.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMinutes(1);
+    private static final Instant START = Instant.parse("2024-03-01T10:00:00Z");
+
+    private Clock clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        given(clock.instant()).willReturn(START);
+        breaker = new CircuitBreaker("test", 3, OPEN_DURATION, clock);
+    }
+
+    @Test
+    void should_open_after_consecutive_failures_and_reject_calls() {
+        // when
+        breaker.onFailure();
+        breaker.onFailure();
+        boolean permittedBeforeThreshold = breaker.tryAcquirePermission();
+        breaker.onFailure();
+
+        // then
+        assertThat(permittedBeforeThreshold).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void should_reset_failure_count_on_success() {
+        // when
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void should_let_single_probe_through_once_open_duration_passed_and_close_when_it_succeeds() {
+        // given
+        open();
+        given(clock.instant()).willReturn(START.plus(OPEN_DURATION));
+
+        // when
+        boolean probe = breaker.tryAcquirePermission();
+        boolean secondCall = breaker.tryAcquirePermission();
+        breaker.onSuccess();
+
+        // then
+        assertThat(probe).isTrue();
+        assertThat(secondCall).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void should_open_again_when_probe_fails() {
+        // given
+        open();
+        given(clock.instant()).willReturn(START.plus(OPEN_DURATION));
+        breaker.tryAcquirePermission();
+
+        // when
+        breaker.onFailure();
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void should_allow_another_probe_when_outcome_of_previous_one_was_never_recorded() {
+        // given
+        open();
+        given(clock.instant()).willReturn(START.plus(OPEN_DURATION));
+        breaker.tryAcquirePermission();
+
+        // when
+        given(clock.instant()).willReturn(START.plus(OPEN_DURATION.multipliedBy(2)));
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void should_tell_breaker_is_open_only_until_open_duration_passed_without_taking_probe_permission() {
+        // given
+        open();
+
+        // when
+        boolean openBeforeDurationPassed = breaker.isOpen();
+        given(clock.instant()).willReturn(START.plus(OPEN_DURATION));
+        boolean openOnceDurationPassed = breaker.isOpen();
+
+        // then
+        assertThat(openBeforeDurationPassed).isTrue();
+        assertThat(openOnceDurationPassed).isFalse();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    private void open() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+    }
+}
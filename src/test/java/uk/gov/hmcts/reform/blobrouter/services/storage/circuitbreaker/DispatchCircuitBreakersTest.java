@@ -0,0 +1,102 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+
+import java.time.Clock;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DispatchCircuitBreakersTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DispatchCircuitBreakers circuitBreakers;
+
+    @BeforeEach
+    void setUp() {
+        var serviceConfiguration = new ServiceConfiguration();
+        serviceConfiguration.setStorageConfig(List.of(
+            storageConfigItem("bulkscan", TargetStorageAccount.CFT),
+            storageConfigItem("pcq", TargetStorageAccount.PCQ),
+            storageConfigItem("crime", TargetStorageAccount.CRIME)
+        ));
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakers = new DispatchCircuitBreakers(serviceConfiguration, Clock::systemUTC, meterRegistry, 1, 60_000);
+    }
+
+    @Test
+    void should_skip_containers_routed_to_target_with_open_breaker() {
+        // given
+        circuitBreakers.target(TargetStorageAccount.CFT).onFailure();
+
+        // when
+        // then
+        assertThat(circuitBreakers.allowDispatch("bulkscan")).isFalse();
+        assertThat(circuitBreakers.allowDispatch("pcq")).isTrue();
+        assertThat(circuitBreakers.allowDispatch("crime")).isTrue();
+        assertThat(meterRegistry.get("blob.dispatch.skipped").tag("target", "CFT").counter().count()).isEqualTo(1);
+        assertThat(
+            meterRegistry.get("circuit.breaker.state").tag("name", "target-cft").gauge().value()
+        ).isEqualTo(2);
+    }
+
+    @Test
+    void should_skip_containers_depending_on_sas_endpoint_with_open_breaker() {
+        // given
+        circuitBreakers.pcqSasEndpoint().onFailure();
+
+        // when
+        // then
+        assertThat(circuitBreakers.allowDispatch("pcq")).isFalse();
+        assertThat(circuitBreakers.allowDispatch("bulkscan")).isTrue();
+    }
+
+    @Test
+    void should_skip_mirror_with_open_breaker_without_skipping_container() {
+        // given
+        circuitBreakers.target(TargetStorageAccount.CRIME).onFailure();
+
+        // when
+        // then
+        assertThat(circuitBreakers.allowDispatch("bulkscan")).isTrue();
+        assertThat(circuitBreakers.allowDispatchTo("bulkscan", TargetStorageAccount.CRIME)).isFalse();
+        assertThat(circuitBreakers.allowDispatchTo("bulkscan", TargetStorageAccount.PCQ)).isTrue();
+        assertThat(meterRegistry.get("blob.dispatch.skipped").tag("target", "CRIME").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_allow_containers_without_storage_config() {
+        // given
+        circuitBreakers.target(TargetStorageAccount.CFT).onFailure();
+
+        // when
+        // then
+        assertThat(circuitBreakers.allowDispatch("unknown")).isTrue();
+    }
+
+    @Test
+    void should_tell_dispatch_is_blocked_by_open_breaker_without_taking_permission() {
+        // given
+        circuitBreakers.pcqSasEndpoint().onFailure();
+
+        // when
+        // then
+        assertThat(circuitBreakers.isDispatchBlocked("pcq")).isTrue();
+        assertThat(circuitBreakers.isDispatchBlocked("bulkscan")).isFalse();
+        assertThat(circuitBreakers.isDispatchBlocked("unknown")).isFalse();
+        assertThat(meterRegistry.get("blob.dispatch.skipped").tag("target", "PCQ").counter().count()).isEqualTo(1);
+    }
+
+    private static StorageConfigItem storageConfigItem(String container, TargetStorageAccount target) {
+        var item = new StorageConfigItem();
+        item.setSourceContainer(container);
+        item.setTargetContainer(container);
+        item.setTargetStorageAccount(target);
+        return item;
+    }
+}
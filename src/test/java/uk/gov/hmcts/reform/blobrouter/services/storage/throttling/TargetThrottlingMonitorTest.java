@@ -0,0 +1,72 @@
+package uk.gov.hmcts.reform.blobrouter.services.storage.throttling;
+
+import com.azure.core.http.HttpResponse;
+import com.azure.storage.blob.models.BlobStorageException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.exceptions.BlobStreamingException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class TargetThrottlingMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TargetThrottlingMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new TargetThrottlingMonitor(meterRegistry);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {429, 503})
+    void should_count_throttled_upload_of_its_target_only(int status) {
+        // when
+        boolean throttled = monitor.onUploadFailure(TargetStorageAccount.CFT, storageException(status));
+
+        // then
+        assertThat(throttled).isTrue();
+        assertThat(throttledCount(TargetStorageAccount.CFT)).isEqualTo(1);
+        assertThat(throttledCount(TargetStorageAccount.PCQ)).isZero();
+    }
+
+    @Test
+    void should_recognise_throttling_response_wrapped_by_another_exception() {
+        // when
+        boolean throttled = monitor.onUploadFailure(
+            TargetStorageAccount.CFT,
+            new BlobStreamingException("Failed to stage block", storageException(429))
+        );
+
+        // then
+        assertThat(throttled).isTrue();
+        assertThat(throttledCount(TargetStorageAccount.CFT)).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_count_upload_failing_for_other_reasons() {
+        // when
+        boolean throttled = monitor.onUploadFailure(TargetStorageAccount.CRIME, storageException(500));
+
+        // then
+        assertThat(throttled).isFalse();
+        assertThat(throttledCount(TargetStorageAccount.CRIME)).isZero();
+    }
+
+    private double throttledCount(TargetStorageAccount target) {
+        return meterRegistry.get("storage.upload.throttled").tag("target", target.name()).counter().count();
+    }
+
+    private static BlobStorageException storageException(int status) {
+        HttpResponse response = mock(HttpResponse.class);
+        given(response.getStatusCode()).willReturn(status);
+        return new BlobStorageException("error", response, null);
+    }
+}
@@ -5,9 +5,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
-import uk.gov.hmcts.reform.blobrouter.tasks.processors.ContainerProcessor;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.OrderedBlobDispatcher;
 
 import static java.util.Arrays.asList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -15,7 +16,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 @ExtendWith(MockitoExtension.class)
 class BlobDispatcherTaskTest {
 
-    @Mock private ContainerProcessor containerProcessor;
+    @Mock private OrderedBlobDispatcher blobDispatcher;
     @Mock private ServiceConfiguration conf;
 
     @Test
@@ -25,13 +26,13 @@ class BlobDispatcherTaskTest {
             .willReturn(asList("a", "b", "c"));
 
         // when
-        new BlobDispatcherTask(containerProcessor, conf).run();
+        new BlobDispatcherTask(blobDispatcher, conf).run();
 
         // then
-        verify(containerProcessor).process("a");
-        verify(containerProcessor).process("b");
-        verify(containerProcessor).process("c");
+        verify(blobDispatcher).dispatch(
+            argThat(containers -> containers.size() == 3 && containers.containsAll(asList("a", "b", "c")))
+        );
 
-        verifyNoMoreInteractions(containerProcessor);
+        verifyNoMoreInteractions(blobDispatcher);
     }
 }
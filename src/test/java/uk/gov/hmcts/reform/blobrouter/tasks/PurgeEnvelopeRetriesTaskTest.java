@@ -0,0 +1,24 @@
+package uk.gov.hmcts.reform.blobrouter.tasks;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PurgeEnvelopeRetriesTaskTest {
+
+    @Test
+    void should_purge_old_retry_states() {
+        // given
+        var envelopeRetryService = mock(EnvelopeRetryService.class);
+        var task = new PurgeEnvelopeRetriesTask(envelopeRetryService);
+
+        // when
+        task.run();
+
+        // then
+        verify(envelopeRetryService, times(1)).purge();
+    }
+}
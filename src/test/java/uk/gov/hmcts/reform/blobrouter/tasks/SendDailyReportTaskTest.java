@@ -14,11 +14,12 @@ import uk.gov.hmcts.reform.blobrouter.services.report.ReportService;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -36,9 +37,6 @@ class SendDailyReportTaskTest {
     @Mock
     private EmailSender emailSender;
 
-    @Mock
-    private List<EnvelopeSummaryItem> report;
-
     @Mock
     private File reportFile;
 
@@ -57,6 +55,9 @@ class SendDailyReportTaskTest {
     @Captor
     private ArgumentCaptor<Map<String, File>> attachmentsCaptor;
 
+    @Captor
+    private ArgumentCaptor<Consumer<Consumer<EnvelopeSummaryItem>>> itemsCaptor;
+
     @Test
     void sendReport_should_call_email_sender() throws Exception {
         // given
@@ -66,13 +67,17 @@ class SendDailyReportTaskTest {
 
         sendDailyReportTask = getSendDailyReportTask(from, recipients);
 
-        given(reportService.getDailyReport(getYesterday())).willReturn(report);
-        given(reportCsvWriter.writeEnvelopesSummaryToCsv(report)).willReturn(reportFile);
+        given(reportCsvWriter.writeEnvelopesSummaryToCsv(any())).willReturn(reportFile);
 
         // when
         sendDailyReportTask.sendReport();
 
         // then
+        verify(reportCsvWriter).writeEnvelopesSummaryToCsv(itemsCaptor.capture());
+        Consumer<EnvelopeSummaryItem> consumer = item -> { };
+        itemsCaptor.getValue().accept(consumer);
+        verify(reportService).streamDailyReport(getYesterday(), consumer);
+
         verify(emailSender).sendMessageWithAttachments(
             subjectCaptor.capture(),
             bodyCaptor.capture(),
@@ -96,6 +101,8 @@ class SendDailyReportTaskTest {
 
         File attachment = attachments.values().iterator().next();
         assertThat(attachment).isEqualTo(reportFile);
+
+        verify(reportFile).delete();
     }
 
     @Test
@@ -107,8 +114,7 @@ class SendDailyReportTaskTest {
 
         sendDailyReportTask = getSendDailyReportTask(from, recipients);
 
-        given(reportService.getDailyReport(getYesterday())).willReturn(report);
-        given(reportCsvWriter.writeEnvelopesSummaryToCsv(report)).willThrow(new IOException());
+        given(reportCsvWriter.writeEnvelopesSummaryToCsv(any())).willThrow(new IOException());
 
         // when
         sendDailyReportTask.sendReport();
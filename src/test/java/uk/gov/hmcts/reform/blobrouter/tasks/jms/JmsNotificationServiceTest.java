@@ -0,0 +1,114 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.jms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
+import uk.gov.hmcts.reform.blobrouter.data.rejectedenvelope.RejectedEnvelope;
+import uk.gov.hmcts.reform.blobrouter.data.rejectedenvelope.RejectedEnvelopeRepository;
+import uk.gov.hmcts.reform.blobrouter.servicebus.notifications.NotificationsPublishingException;
+import uk.gov.hmcts.reform.blobrouter.servicebus.notifications.model.NotificationMsg;
+import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class JmsNotificationServiceTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private JmsNotificationsPublisher publisher;
+
+    @Mock
+    private RejectedEnvelopeRepository rejectedEnvelopeRepository;
+
+    @Mock
+    private EnvelopeService envelopeService;
+
+    private JmsNotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new JmsNotificationService(publisher, rejectedEnvelopeRepository, envelopeService, BATCH_SIZE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_publish_all_rejected_envelopes_in_chunks_and_acknowledge_each_committed_chunk() {
+        // given
+        var env1 = new RejectedEnvelope(UUID.randomUUID(), "c1", "f1.zip", ErrorCode.ERR_AV_FAILED, "notes1");
+        var env2 = new RejectedEnvelope(UUID.randomUUID(), "c2", "f2.zip", ErrorCode.ERR_SIG_VERIFY_FAILED, "notes2");
+        given(rejectedEnvelopeRepository.getRejectedEnvelopes()).willReturn(List.of(env1, env2));
+
+        // when
+        service.sendNotifications();
+
+        // then
+        ArgumentCaptor<Function<RejectedEnvelope, NotificationMsg>> mapperCaptor =
+            ArgumentCaptor.forClass(Function.class);
+        ArgumentCaptor<Consumer<List<RejectedEnvelope>>> ackCaptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(publisher).publishInChunks(
+            eq(List.of(env1, env2)),
+            mapperCaptor.capture(),
+            any(),
+            eq(BATCH_SIZE),
+            ackCaptor.capture()
+        );
+
+        NotificationMsg msg = mapperCaptor.getValue().apply(env1);
+        assertThat(msg.zipFileName).isEqualTo("f1.zip");
+        assertThat(msg.container).isEqualTo("c1");
+        assertThat(msg.errorCode).isEqualTo(ErrorCode.ERR_AV_FAILED);
+        assertThat(msg.errorDescription).isEqualTo("notes1");
+
+        // and when chunk is committed
+        ackCaptor.getValue().accept(List.of(env1, env2));
+
+        // then
+        verify(envelopeService).markPendingNotificationsAsSent(List.of(env1.envelopeId, env2.envelopeId));
+    }
+
+    @Test
+    void should_not_acknowledge_anything_when_publishing_fails() {
+        // given
+        var env = new RejectedEnvelope(UUID.randomUUID(), "c1", "f1.zip", ErrorCode.ERR_AV_FAILED, "notes1");
+        given(rejectedEnvelopeRepository.getRejectedEnvelopes()).willReturn(List.of(env));
+        given(publisher.publishInChunks(anyList(), any(), any(), eq(BATCH_SIZE), any()))
+            .willThrow(new NotificationsPublishingException("failed", new RuntimeException()));
+
+        // when
+        // then
+        assertThatThrownBy(() -> service.sendNotifications())
+            .isInstanceOf(NotificationsPublishingException.class);
+        verifyNoInteractions(envelopeService);
+    }
+
+    @Test
+    void should_not_call_publisher_when_no_rejected_envelopes_exist() {
+        // given
+        given(rejectedEnvelopeRepository.getRejectedEnvelopes()).willReturn(emptyList());
+
+        // when
+        service.sendNotifications();
+
+        // then
+        verifyNoInteractions(publisher, envelopeService);
+    }
+}
@@ -2,6 +2,7 @@ package uk.gov.hmcts.reform.blobrouter.tasks.processors;
 
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.models.BlobProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,8 +15,15 @@ import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
 import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
 import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier;
+import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult;
+import uk.gov.hmcts.reform.blobrouter.services.ContentDuplicateService;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.VerificationResultCache;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
 import uk.gov.hmcts.reform.blobrouter.services.storage.BlobDispatcher;
+import uk.gov.hmcts.reform.blobrouter.services.storage.HedgedBlobReader;
+import uk.gov.hmcts.reform.blobrouter.services.storage.ScratchSpace;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
 
 import java.io.OutputStream;
 import java.time.OffsetDateTime;
@@ -25,6 +33,7 @@ import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.will;
 import static org.mockito.Mockito.mock;
@@ -35,15 +44,17 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CFT;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CRIME;
 import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.INVALID_SIGNATURE_VERIFICATION_RESULT;
-import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult.OK_VERIFICATION_RESULT;
 
 @ExtendWith(MockitoExtension.class)
 @SuppressWarnings("checkstyle:variabledeclarationusagedistance")
 class BlobProcessorContinuationTest {
 
+    private static final VerificationResult OK_VERIFICATION_RESULT = VerificationResult.getOk(null);
+
     @Mock BlobDispatcher blobDispatcher;
     @Mock EnvelopeService envelopeService;
     @Mock BlobVerifier verifier;
+    @Mock EnvelopeRetryService envelopeRetryService;
     @Mock ServiceConfiguration serviceConfiguration;
     @Mock(lenient = true) BlobClient blobClient;
 
@@ -60,6 +71,13 @@ class BlobProcessorContinuationTest {
             blobDispatcher,
             envelopeService,
             verifier,
+            envelopeRetryService,
+            new VerificationResultCache(new SimpleMeterRegistry(), 100, 24),
+            mock(ContentDuplicateService.class),
+            mock(ScratchSpace.class),
+            new HedgedBlobReader(new SimpleMeterRegistry(), false, 4 * 1024 * 1024, 95, 100, 5),
+            mock(DispatchCircuitBreakers.class),
+            mock(DispatchWaitRecorder.class),
             serviceConfiguration
         );
     }
@@ -83,8 +101,8 @@ class BlobProcessorContinuationTest {
 
         // then
         verify(envelopeService, never()).createNewEnvelope(any(), any(), any(), anyLong());
-        verify(envelopeService).markAsDispatched(id);
-        verify(blobDispatcher).dispatch(blobClient,"t1", CFT);
+        verify(envelopeService).markAsDispatched(eq(id), any());
+        verify(blobDispatcher).dispatch(blobClient, null, "t1", CFT, id, null);
     }
 
     @Test
@@ -136,9 +154,9 @@ class BlobProcessorContinuationTest {
 
         // then
         verify(envelopeService).createNewEnvelope(containerName, fileName, blobCreationTime.toInstant(), 1024L);
-        verify(envelopeService).markAsDispatched(id);
+        verify(envelopeService).markAsDispatched(eq(id), any());
         verifyNoMoreInteractions(envelopeService);
-        verify(blobDispatcher).dispatch(blobClient,"t1", CFT);
+        verify(blobDispatcher).dispatch(blobClient, null, "t1", CFT, id, null);
     }
 
     @Test
@@ -161,7 +179,32 @@ class BlobProcessorContinuationTest {
         verify(envelopeService).markAsRejected(id, ErrorCode.ERR_SIG_VERIFY_FAILED, "Invalid signature");
         verifyNoMoreInteractions(envelopeService);
 
-        verifyNoInteractions(blobDispatcher);
+        verify(blobDispatcher).findDispatchedContent(blobClient, "t1", CFT, id);
+        verifyNoMoreInteractions(blobDispatcher);
+    }
+
+    @Test
+    void should_complete_envelope_already_dispatched_by_previous_attempt_without_reading_blob() {
+        // given
+        var id = UUID.randomUUID();
+        var fileName = "hello.zip";
+        var containerName = "s1";
+
+        given(blobClient.getBlobName()).willReturn(fileName);
+        given(blobClient.getContainerName()).willReturn(containerName);
+        given(envelopeService.findLastEnvelope(fileName, containerName))
+            .willReturn(Optional.of(envelope(id, Status.CREATED)));
+        given(blobDispatcher.findDispatchedContent(blobClient, "t1", CFT, id)).willReturn(Optional.of("c0ffee"));
+
+        // when
+        blobProcessor.process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+        verify(envelopeRetryService).clear(containerName, fileName);
+        verify(blobDispatcher, never()).dispatch(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(verifier);
+        verify(blobClient, never()).getProperties();
     }
 
     private StorageConfigItem cfg(String source, String target, TargetStorageAccount targetAccount) {
@@ -176,6 +219,7 @@ class BlobProcessorContinuationTest {
     private void blobExists(String blobName, String containerName) {
         given(blobClient.getBlobName()).willReturn(blobName);
         given(blobClient.getContainerName()).willReturn(containerName);
+        given(blobClient.getProperties()).willReturn(mock(BlobProperties.class));
 
         will(invocation -> {
             var outputStream = (OutputStream) invocation.getArguments()[0];
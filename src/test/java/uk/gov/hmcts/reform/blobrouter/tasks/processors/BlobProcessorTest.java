@@ -4,29 +4,56 @@ import com.azure.core.http.HttpResponse;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.models.BlobProperties;
 import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
 import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetConfigItem;
 import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
+import uk.gov.hmcts.reform.blobrouter.data.dispatches.EnvelopeDispatch;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
+import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
 import uk.gov.hmcts.reform.blobrouter.data.events.ErrorCode;
 import uk.gov.hmcts.reform.blobrouter.data.events.EventType;
+import uk.gov.hmcts.reform.blobrouter.data.fingerprints.EnvelopeFingerprint;
 import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier;
+import uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult;
+import uk.gov.hmcts.reform.blobrouter.services.ContentDuplicatePolicy;
+import uk.gov.hmcts.reform.blobrouter.services.ContentDuplicateService;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.VerificationResultCache;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
 import uk.gov.hmcts.reform.blobrouter.services.storage.BlobDispatcher;
-
+import uk.gov.hmcts.reform.blobrouter.services.storage.BlobMetaDataHandler;
+import uk.gov.hmcts.reform.blobrouter.services.storage.BlobPrefetcher;
+import uk.gov.hmcts.reform.blobrouter.services.storage.HedgedBlobReader;
+import uk.gov.hmcts.reform.blobrouter.services.storage.PrefetchedBlob;
+import uk.gov.hmcts.reform.blobrouter.services.storage.ScratchSpace;
+import uk.gov.hmcts.reform.blobrouter.services.storage.SpilledBlob;
+import uk.gov.hmcts.reform.blobrouter.services.storage.TargetDispatchResult;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
+
+import java.io.ByteArrayInputStream;
 import java.io.OutputStream;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.will;
+import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
@@ -39,7 +66,6 @@ import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CFT;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.CRIME;
 import static uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount.PCQ;
 import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.INVALID_SIGNATURE_VERIFICATION_RESULT;
-import static uk.gov.hmcts.reform.blobrouter.services.BlobVerifier.VerificationResult.OK_VERIFICATION_RESULT;
 
 @ExtendWith(MockitoExtension.class)
 class BlobProcessorTest {
@@ -47,13 +73,21 @@ class BlobProcessorTest {
     private static final String SOURCE_CONTAINER = "sourceContainer1";
     private static final String TARGET_CONTAINER = "targetContainer1";
     private static final TargetStorageAccount TARGET_STORAGE_ACCOUNT = CFT;
+    private static final VerificationResult OK_VERIFICATION_RESULT = VerificationResult.getOk(null);
 
     @Mock(lenient = true) BlobClient blobClient;
     @Mock(lenient = true) BlobProperties blobProperties;
     @Mock BlobDispatcher blobDispatcher;
     @Mock EnvelopeService envelopeService;
     @Mock BlobVerifier verifier;
+    @Mock EnvelopeRetryService envelopeRetryService;
     @Mock ServiceConfiguration serviceConfiguration;
+    @Mock ContentDuplicateService contentDuplicateService;
+    @Mock ScratchSpace scratchSpace;
+    @Mock DispatchCircuitBreakers circuitBreakers;
+    @Mock DispatchWaitRecorder dispatchWaitRecorder;
+
+    VerificationResultCache verificationResultCache = new VerificationResultCache(new SimpleMeterRegistry(), 100, 24);
 
     @Test
     void should_not_update_envelope_status_when_move_failed() {
@@ -61,12 +95,13 @@ class BlobProcessorTest {
         var id = UUID.randomUUID();
         given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
         blobExists("envelope1.zip", SOURCE_CONTAINER);
+        given(blobProperties.getETag()).willReturn("0x1");
         setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
         given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
 
         willThrow(new RuntimeException("Exception message"))
             .given(blobDispatcher)
-            .dispatch(any(), any(), any());
+            .dispatch(any(), any(), any(), any(), any(), any());
 
         // when
         newBlobProcessor().process(blobClient);
@@ -75,13 +110,16 @@ class BlobProcessorTest {
         verifyNewEnvelopeHasBeenCreated();
 
         // dispatcher has been called
-        verify(blobDispatcher).dispatch(blobClient, TARGET_CONTAINER, TARGET_STORAGE_ACCOUNT);
+        verify(blobDispatcher).dispatch(blobClient, "0x1", TARGET_CONTAINER, TARGET_STORAGE_ACCOUNT, id, null);
 
         // but the envelope has not been marked as dispatched
-        verify(envelopeService, never()).markAsDispatched(any());
+        verify(envelopeService, never()).markAsDispatched(any(), any());
 
         // and error event has been created
         verify(envelopeService).saveEvent(id, EventType.ERROR, "Exception message");
+
+        // and next attempt has been scheduled
+        verify(envelopeRetryService).recordFailure(id, SOURCE_CONTAINER, "envelope1.zip", "0x1", "Exception message");
     }
 
     @Test
@@ -97,7 +135,7 @@ class BlobProcessorTest {
             "<html><head><title>Oh no!</title></head><body><h2>You failed</h2></body</html>"
         ))
             .given(blobDispatcher)
-            .dispatch(any(), anyString(), any());
+            .dispatch(any(), any(), anyString(), any(), any(), any());
 
         // when
         newBlobProcessor().process(blobClient);
@@ -106,10 +144,10 @@ class BlobProcessorTest {
         verifyNewEnvelopeHasBeenCreated();
 
         // dispatcher has been called
-        verify(blobDispatcher).dispatch(blobClient, TARGET_CONTAINER, CRIME);
+        verify(blobDispatcher).dispatch(blobClient, null, TARGET_CONTAINER, CRIME, id, null);
 
         // but the envelope has not been marked as dispatched
-        verify(envelopeService, never()).markAsDispatched(any());
+        verify(envelopeService, never()).markAsDispatched(any(), any());
 
         // and error event has been created
         verify(envelopeService).saveEvent(
@@ -134,7 +172,7 @@ class BlobProcessorTest {
 
         willThrow(new BlobStorageException("test", errorResponse, null))
             .given(blobDispatcher)
-            .dispatch(any(), anyString(), any());
+            .dispatch(any(), any(), anyString(), any(), any(), any());
 
         // when
         newBlobProcessor().process(blobClient);
@@ -143,7 +181,7 @@ class BlobProcessorTest {
         verifyNewEnvelopeHasBeenCreated();
 
         // but the envelope has not been marked as dispatched
-        verify(envelopeService, never()).markAsDispatched(any());
+        verify(envelopeService, never()).markAsDispatched(any(), any());
 
         // and error event has been created
         verify(envelopeService).saveEvent(id, EventType.ERROR,  "test");
@@ -158,7 +196,9 @@ class BlobProcessorTest {
         setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
         given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
 
-        willThrow(new RuntimeException("test")).given(blobDispatcher).dispatch(any(), any(), any());
+        willThrow(new RuntimeException("test"))
+            .given(blobDispatcher)
+            .dispatch(any(), any(), any(), any(), any(), any());
 
         // when
         newBlobProcessor().process(blobClient);
@@ -168,7 +208,7 @@ class BlobProcessorTest {
 
 
         // but the envelope has not been marked as dispatched
-        verify(envelopeService, never()).markAsDispatched(any());
+        verify(envelopeService, never()).markAsDispatched(any(), any());
 
         // and error event has been created
         verify(envelopeService).saveEvent(id, EventType.ERROR, "test");
@@ -191,9 +231,11 @@ class BlobProcessorTest {
         newBlobProcessor().process(blobClient);
 
         // then
-        verify(blobDispatcher, times(1)).dispatch(any(), any(), any());
+        verify(blobDispatcher, times(1)).dispatch(any(), any(), any(), any(), any(), any());
         verifyNewEnvelopeHasBeenCreated();
-        verify(envelopeService).markAsDispatched(id);
+        verify(envelopeService).markAsDispatched(eq(id), any());
+        verify(envelopeRetryService).clear(SOURCE_CONTAINER, fileName);
+        verify(dispatchWaitRecorder).recordDispatched(SOURCE_CONTAINER, blobCreationTime.toInstant());
     }
 
     @Test
@@ -214,7 +256,7 @@ class BlobProcessorTest {
         newBlobProcessor().process(blobClient);
 
         // then
-        verifyNoInteractions(blobDispatcher);
+        verifyNoInteractions(blobDispatcher, dispatchWaitRecorder);
         verifyNewEnvelopeHasBeenCreated();
         verify(envelopeService).markAsRejected(id, ErrorCode.ERR_SIG_VERIFY_FAILED, "Invalid signature");
     }
@@ -241,8 +283,88 @@ class BlobProcessorTest {
         // then
         verifyNewEnvelopeHasBeenCreated();
         verify(blobDispatcher, times(1))
-            .dispatch(blobClient, targetContainerName, CFT);
-        verify(envelopeService).markAsDispatched(id);
+            .dispatch(blobClient, null, targetContainerName, CFT, id, null);
+        verify(envelopeService).markAsDispatched(eq(id), any());
+    }
+
+    @Test
+    void should_store_digest_of_dispatched_content() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+        given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
+        given(blobDispatcher.dispatch(blobClient, null, TARGET_CONTAINER, CFT, id, null))
+            .willReturn("3a7bd3e2360a3d29");
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatched(id, "3a7bd3e2360a3d29");
+    }
+
+    @Test
+    void should_not_verify_unchanged_blob_again_when_retrying_failed_dispatch() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        given(blobProperties.getETag()).willReturn("0x8D7A1B2C3D4E5F6");
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+        given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
+
+        willThrow(new RuntimeException("Upload failed"))
+            .willDoNothing()
+            .given(blobDispatcher)
+            .dispatch(any(), any(), any(), any(), any(), any());
+
+        // when
+        newBlobProcessor().process(blobClient);
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(verifier, times(1)).verifyZip(any(), any());
+        verify(blobDispatcher, times(2)).dispatch(blobClient, "0x8D7A1B2C3D4E5F6", TARGET_CONTAINER, CFT, id, null);
+        verify(envelopeService).markAsDispatched(eq(id), any());
+    }
+
+    @Test
+    void should_not_verify_blob_again_when_only_leasing_changed_its_etag() {
+        // given
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(UUID.randomUUID());
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        given(blobProperties.getMetadata()).willReturn(Map.of(BlobMetaDataHandler.CONTENT_VERSION, "0x1"));
+        given(blobProperties.getETag()).willReturn("0x2", "0x3");
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+        given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
+
+        // when
+        newBlobProcessor().process(blobClient);
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(verifier, times(1)).verifyZip(any(), any());
+    }
+
+    @Test
+    void should_verify_blob_again_when_uploaded_again() {
+        // given
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(UUID.randomUUID());
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        // uploading the blob again replaces its metadata, including its content version
+        given(blobProperties.getMetadata()).willReturn(Map.of(BlobMetaDataHandler.CONTENT_VERSION, "0x1"), Map.of());
+        given(blobProperties.getETag()).willReturn("0x2", "0x5");
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+        given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
+
+        // when
+        newBlobProcessor().process(blobClient);
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(verifier, times(2)).verifyZip(any(), any());
     }
 
     private void blobExists(String blobName, String containerName) {
@@ -269,6 +391,17 @@ class BlobProcessorTest {
             .download(any());
     }
 
+    private void setupMirroredContainerConfig(TargetConfigItem primary, TargetConfigItem mirror) {
+        var containerConfig = new StorageConfigItem();
+        containerConfig.setEnabled(true);
+        containerConfig.setSourceContainer(SOURCE_CONTAINER);
+        containerConfig.setTargetContainer(primary.getTargetContainer());
+        containerConfig.setTargetStorageAccount(primary.getTargetStorageAccount());
+        containerConfig.setMirrors(List.of(mirror));
+
+        given(serviceConfiguration.getStorageConfig()).willReturn(Map.of(SOURCE_CONTAINER, containerConfig));
+    }
+
     private void setupContainerConfig(
         String sourceContainer,
         String targetContainer,
@@ -314,8 +447,397 @@ class BlobProcessorTest {
         // then
         verifyNewEnvelopeHasBeenCreated();
         verify(blobDispatcher, times(1))
-            .dispatch(blobClient, targetContainerName, CFT);
-        verify(envelopeService).markAsDispatched(id);
+            .dispatch(blobClient, null, targetContainerName, CFT, id, null);
+        verify(envelopeService).markAsDispatched(eq(id), any());
+    }
+
+    @Test
+    void should_reject_envelope_with_duplicate_content_when_policy_is_reject() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope2.zip", SOURCE_CONTAINER);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        contentIsDuplicateOf("envelope1.zip", id, ContentDuplicatePolicy.REJECT);
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsRejected(
+            id,
+            ErrorCode.ERR_DUPLICATE_CONTENT,
+            "Duplicate envelope content. Same as file envelope1.zip in container " + SOURCE_CONTAINER
+        );
+        verify(envelopeRetryService).clear(SOURCE_CONTAINER, "envelope2.zip");
+        verifyNoInteractions(blobDispatcher, dispatchWaitRecorder);
+    }
+
+    @Test
+    void should_mark_envelope_with_duplicate_content_as_dispatched_without_upload_when_policy_is_skip() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope2.zip", SOURCE_CONTAINER);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        contentIsDuplicateOf("envelope1.zip", id, ContentDuplicatePolicy.SKIP);
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+        verify(envelopeService).saveEvent(
+            id,
+            EventType.DUPLICATE_SKIPPED,
+            "Duplicate envelope content. Same as file envelope1.zip in container " + SOURCE_CONTAINER
+        );
+        verify(envelopeRetryService).clear(SOURCE_CONTAINER, "envelope2.zip");
+        verifyNoInteractions(blobDispatcher, dispatchWaitRecorder);
+    }
+
+    @Test
+    void should_dispatch_envelope_with_duplicate_content_when_policy_is_dispatch() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope2.zip", SOURCE_CONTAINER);
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        contentIsDuplicateOf("envelope1.zip", id, ContentDuplicatePolicy.DISPATCH);
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(blobDispatcher).dispatch(blobClient, null, TARGET_CONTAINER, CFT, id, "c0ffee");
+        verify(envelopeService, never()).markAsRejected(any(), any(), any());
+    }
+
+    @Test
+    void should_dispatch_to_all_targets_of_mirrored_container() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        given(blobProperties.getETag()).willReturn("0x1");
+        var primary = new TargetConfigItem(CFT, TARGET_CONTAINER);
+        var mirror = new TargetConfigItem(CRIME, "archive");
+        setupMirroredContainerConfig(primary, mirror);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        given(envelopeService.getDispatches(id)).willReturn(List.of());
+        given(circuitBreakers.allowDispatchTo(SOURCE_CONTAINER, CRIME)).willReturn(true);
+        given(blobDispatcher.dispatchToAll(blobClient, "0x1", List.of(primary, mirror), id, "c0ffee"))
+            .willReturn(List.of(
+                TargetDispatchResult.dispatched(primary, "c0ffee"),
+                TargetDispatchResult.dispatched(mirror, "c0ffee")
+            ));
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatchedTo(id, CFT, TARGET_CONTAINER, "c0ffee");
+        verify(envelopeService).markAsDispatchedTo(id, CRIME, "archive", "c0ffee");
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+        verify(envelopeRetryService).clear(SOURCE_CONTAINER, "envelope1.zip");
+        verify(blobDispatcher, never()).dispatch(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_mark_envelope_as_dispatched_and_retry_mirror_when_only_mirror_fails() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        var primary = new TargetConfigItem(CFT, TARGET_CONTAINER);
+        var mirror = new TargetConfigItem(CRIME, "archive");
+        setupMirroredContainerConfig(primary, mirror);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        given(envelopeService.getDispatches(id)).willReturn(List.of(
+            new EnvelopeDispatch(id, CFT, TARGET_CONTAINER, "c0ffee", Instant.now())
+        ));
+        given(circuitBreakers.allowDispatchTo(SOURCE_CONTAINER, CRIME)).willReturn(true);
+        given(blobDispatcher.dispatchToAll(blobClient, null, List.of(mirror), id, "c0ffee")).willReturn(List.of(
+            TargetDispatchResult.failed(mirror, new RuntimeException("archive unavailable"))
+        ));
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService, never()).markAsDispatchedTo(any(), any(), any(), any());
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+        verify(dispatchWaitRecorder).recordDispatched(eq(SOURCE_CONTAINER), any());
+        verify(envelopeRetryService).recordFailure(
+            id,
+            SOURCE_CONTAINER,
+            "envelope1.zip",
+            null,
+            "Dispatch failed for targets [CRIME/archive]. First error: archive unavailable"
+        );
+        verify(envelopeRetryService, never()).clear(any(), any());
+    }
+
+    @Test
+    void should_not_mark_envelope_as_dispatched_when_primary_target_fails() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        var primary = new TargetConfigItem(CFT, TARGET_CONTAINER);
+        var mirror = new TargetConfigItem(CRIME, "archive");
+        setupMirroredContainerConfig(primary, mirror);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        given(envelopeService.getDispatches(id)).willReturn(List.of());
+        given(circuitBreakers.allowDispatchTo(SOURCE_CONTAINER, CRIME)).willReturn(true);
+        given(blobDispatcher.dispatchToAll(blobClient, null, List.of(primary, mirror), id, "c0ffee"))
+            .willReturn(List.of(
+                TargetDispatchResult.failed(primary, new RuntimeException("target unavailable")),
+                TargetDispatchResult.dispatched(mirror, "c0ffee")
+            ));
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatchedTo(id, CRIME, "archive", "c0ffee");
+        verify(envelopeService, never()).markAsDispatched(any(), any());
+        verifyNoInteractions(dispatchWaitRecorder);
+        verify(envelopeRetryService).recordFailure(
+            id,
+            SOURCE_CONTAINER,
+            "envelope1.zip",
+            null,
+            "Dispatch failed for targets [CFT/" + TARGET_CONTAINER + "]. First error: target unavailable"
+        );
+    }
+
+    @Test
+    void should_leave_mirror_with_open_circuit_breaker_for_later_attempt() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        var primary = new TargetConfigItem(CFT, TARGET_CONTAINER);
+        var mirror = new TargetConfigItem(CRIME, "archive");
+        setupMirroredContainerConfig(primary, mirror);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        given(envelopeService.getDispatches(id)).willReturn(List.of());
+        given(circuitBreakers.allowDispatchTo(SOURCE_CONTAINER, CRIME)).willReturn(false);
+        given(blobDispatcher.dispatchToAll(blobClient, null, List.of(primary), id, "c0ffee")).willReturn(List.of(
+            TargetDispatchResult.dispatched(primary, "c0ffee")
+        ));
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatchedTo(id, CFT, TARGET_CONTAINER, "c0ffee");
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+        verify(envelopeRetryService, never()).recordFailure(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_only_dispatch_envelope_awaiting_mirrors_to_remaining_mirrors() {
+        // given
+        var id = UUID.randomUUID();
+        var envelope = new Envelope(
+            id, SOURCE_CONTAINER, "envelope1.zip", Instant.now(), Instant.now(), Instant.now(),
+            Status.DISPATCHED, false, false, 1024L
+        );
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        var primary = new TargetConfigItem(CFT, TARGET_CONTAINER);
+        var mirror = new TargetConfigItem(CRIME, "archive");
+        setupMirroredContainerConfig(primary, mirror);
+        given(envelopeService.findLastEnvelope("envelope1.zip", SOURCE_CONTAINER)).willReturn(Optional.of(envelope));
+        given(envelopeService.isAwaitingMirrors(envelope)).willReturn(true);
+        given(envelopeService.getDispatches(id)).willReturn(List.of(
+            new EnvelopeDispatch(id, CFT, TARGET_CONTAINER, "c0ffee", Instant.now())
+        ));
+        given(blobDispatcher.findDispatchedContent(blobClient, "archive", CRIME, id)).willReturn(Optional.empty());
+        given(circuitBreakers.allowDispatchTo(SOURCE_CONTAINER, CRIME)).willReturn(true);
+        given(blobDispatcher.dispatchToAll(blobClient, null, List.of(mirror), id, "c0ffee")).willReturn(List.of(
+            TargetDispatchResult.dispatched(mirror, "c0ffee")
+        ));
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatchedTo(id, CRIME, "archive", "c0ffee");
+        verify(envelopeService, never()).markAsDispatched(any(), any());
+        verify(envelopeRetryService).clear(SOURCE_CONTAINER, "envelope1.zip");
+        verifyNoInteractions(verifier, scratchSpace, dispatchWaitRecorder);
+    }
+
+    @Test
+    void should_not_record_mirror_whose_content_differs_from_verified_content() {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        var primary = new TargetConfigItem(CFT, TARGET_CONTAINER);
+        var mirror = new TargetConfigItem(CRIME, "archive");
+        setupMirroredContainerConfig(primary, mirror);
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        given(envelopeService.getDispatches(id)).willReturn(List.of());
+        given(circuitBreakers.allowDispatchTo(SOURCE_CONTAINER, CRIME)).willReturn(true);
+        given(blobDispatcher.dispatchToAll(blobClient, null, List.of(primary, mirror), id, "c0ffee"))
+            .willReturn(List.of(
+                TargetDispatchResult.dispatched(primary, "c0ffee"),
+                TargetDispatchResult.dispatched(mirror, "decaf")
+            ));
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService).markAsDispatchedTo(id, CFT, TARGET_CONTAINER, "c0ffee");
+        verify(envelopeService, never()).markAsDispatchedTo(id, CRIME, "archive", "decaf");
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+        verify(envelopeRetryService).recordFailure(
+            id,
+            SOURCE_CONTAINER,
+            "envelope1.zip",
+            null,
+            "Dispatch failed for targets [CRIME/archive]. First error: "
+                + "Content dispatched to CRIME/archive has SHA-256 decaf, verified content has SHA-256 c0ffee"
+        );
+    }
+
+    @Test
+    void should_verify_and_dispatch_spilled_blob_from_its_local_copy() throws Exception {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+
+        var spilledBlob = mock(SpilledBlob.class);
+        var localContent = new ByteArrayInputStream(new byte[] {1, 2, 3});
+        given(scratchSpace.spill(blobClient)).willReturn(Optional.of(spilledBlob));
+        given(spilledBlob.openInputStream()).willReturn(localContent);
+        given(verifier.verifyZip("envelope1.zip", localContent)).willReturn(VerificationResult.getOk("c0ffee"));
+        given(blobDispatcher.dispatchSpilled(blobClient, spilledBlob, TARGET_CONTAINER, CFT, id, "c0ffee"))
+            .willReturn("c0ffee");
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(blobClient, never()).openInputStream();
+        verify(blobDispatcher, never()).dispatch(any(), any(), any(), any(), any(), any());
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+        verify(spilledBlob).close();
+    }
+
+    @Test
+    void should_delete_spilled_blob_when_its_dispatch_fails() throws Exception {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+
+        var spilledBlob = mock(SpilledBlob.class);
+        given(scratchSpace.spill(blobClient)).willReturn(Optional.of(spilledBlob));
+        given(spilledBlob.openInputStream()).willReturn(new ByteArrayInputStream(new byte[0]));
+        given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
+        given(blobDispatcher.dispatchSpilled(any(), any(), any(), any(), any(), any()))
+            .willThrow(new RuntimeException("Upload failed"));
+
+        // when
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(envelopeService, never()).markAsDispatched(any(), any());
+        verify(envelopeRetryService).recordFailure(id, SOURCE_CONTAINER, "envelope1.zip", null, "Upload failed");
+        verify(spilledBlob).close();
+    }
+
+    @Test
+    void should_not_spill_blob_again_when_its_verification_result_is_cached() throws Exception {
+        // given
+        var id = UUID.randomUUID();
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(id);
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        given(blobProperties.getETag()).willReturn("0x1");
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+
+        var spilledBlob = mock(SpilledBlob.class);
+        given(scratchSpace.spill(blobClient)).willReturn(Optional.of(spilledBlob));
+        given(spilledBlob.openInputStream()).willReturn(new ByteArrayInputStream(new byte[0]));
+        given(verifier.verifyZip(any(), any())).willReturn(VerificationResult.getOk("c0ffee"));
+        given(blobDispatcher.dispatchSpilled(blobClient, spilledBlob, TARGET_CONTAINER, CFT, id, "c0ffee"))
+            .willThrow(new RuntimeException("Upload failed"));
+        given(blobDispatcher.dispatch(blobClient, "0x1", TARGET_CONTAINER, CFT, id, "c0ffee")).willReturn("c0ffee");
+
+        // when
+        newBlobProcessor().process(blobClient);
+        newBlobProcessor().process(blobClient);
+
+        // then
+        verify(scratchSpace, times(1)).spill(blobClient);
+        verify(verifier, times(1)).verifyZip(any(), any());
+        verify(envelopeService).markAsDispatched(id, "c0ffee");
+    }
+
+    @Test
+    void should_verify_prefetched_content_when_blob_is_unchanged() {
+        // given
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(UUID.randomUUID());
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        given(blobProperties.getETag()).willReturn("0x1");
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+
+        var prefetchedContent = new ByteArrayInputStream(new byte[] {1, 2, 3});
+        var prefetchedBlob = new PrefetchedBlob(blobClient, "0x1", prefetchedContent, mock(BlobPrefetcher.class));
+        given(verifier.verifyZip("envelope1.zip", prefetchedContent)).willReturn(OK_VERIFICATION_RESULT);
+
+        // when
+        newBlobProcessor().process(blobClient, prefetchedBlob);
+
+        // then
+        verify(blobClient, never()).openInputStream(any(BlobInputStreamOptions.class));
+        verify(scratchSpace, never()).spill(any());
+        verify(blobDispatcher).dispatch(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_not_verify_prefetched_content_when_blob_changed_since_it_was_read() {
+        // given
+        given(envelopeService.createNewEnvelope(any(), any(), any(), anyLong())).willReturn(UUID.randomUUID());
+        blobExists("envelope1.zip", SOURCE_CONTAINER);
+        given(blobProperties.getETag()).willReturn("0x2");
+        setupContainerConfig(SOURCE_CONTAINER, TARGET_CONTAINER, CFT);
+
+        var prefetchedBlob = new PrefetchedBlob(
+            blobClient,
+            "0x1",
+            new ByteArrayInputStream(new byte[] {1, 2, 3}),
+            mock(BlobPrefetcher.class)
+        );
+        given(verifier.verifyZip(any(), any())).willReturn(OK_VERIFICATION_RESULT);
+
+        // when
+        newBlobProcessor().process(blobClient, prefetchedBlob);
+
+        // then
+        verify(blobClient).openInputStream(any(BlobInputStreamOptions.class));
+        assertThat(prefetchedBlob.claimContent()).isNotNull();
+    }
+
+    private void contentIsDuplicateOf(String originalFileName, UUID envelopeId, ContentDuplicatePolicy policy) {
+        given(contentDuplicateService.getPolicy()).willReturn(policy);
+        given(contentDuplicateService.findOriginal(envelopeId, SOURCE_CONTAINER, "envelope2.zip", "c0ffee"))
+            .willReturn(Optional.of(new EnvelopeFingerprint(
+                "c0ffee",
+                UUID.randomUUID(),
+                SOURCE_CONTAINER,
+                originalFileName,
+                Instant.now()
+            )));
     }
 
     private BlobProcessor newBlobProcessor() {
@@ -323,6 +845,13 @@ class BlobProcessorTest {
             this.blobDispatcher,
             this.envelopeService,
             this.verifier,
+            this.envelopeRetryService,
+            this.verificationResultCache,
+            this.contentDuplicateService,
+            this.scratchSpace,
+            new HedgedBlobReader(new SimpleMeterRegistry(), false, 4 * 1024 * 1024, 95, 100, 5),
+            this.circuitBreakers,
+            this.dispatchWaitRecorder,
             this.serviceConfiguration
         );
     }
@@ -1,31 +1,43 @@
 package uk.gov.hmcts.reform.blobrouter.tasks.processors;
 
-import com.azure.core.http.rest.PagedIterable;
 import com.azure.storage.blob.BlobClient;
-import com.azure.storage.blob.BlobContainerClient;
-import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.models.BlobErrorCode;
-import com.azure.storage.blob.models.BlobItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.config.TargetStorageAccount;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Envelope;
 import uk.gov.hmcts.reform.blobrouter.data.envelopes.Status;
 import uk.gov.hmcts.reform.blobrouter.services.EnvelopeService;
+import uk.gov.hmcts.reform.blobrouter.services.retry.EnvelopeRetryService;
+import uk.gov.hmcts.reform.blobrouter.services.storage.BlobPrefetcher;
 import uk.gov.hmcts.reform.blobrouter.services.storage.LeaseAcquirer;
+import uk.gov.hmcts.reform.blobrouter.services.storage.PrefetchedBlob;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.CircuitBreaker;
+import uk.gov.hmcts.reform.blobrouter.services.storage.circuitbreaker.DispatchCircuitBreakers;
 
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 import static java.time.Instant.now;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -34,24 +46,44 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 @ExtendWith(MockitoExtension.class)
 class ContainerProcessorTest {
 
-    @Mock BlobServiceClient storageClient;
     @Mock BlobProcessor blobProcessor;
     @Mock LeaseAcquirer leaseAcquirer;
     @Mock EnvelopeService envelopeService;
+    @Mock EnvelopeRetryService envelopeRetryService;
+    @Mock BlobPrefetcher blobPrefetcher;
 
-    @Mock BlobContainerClient containerClient;
     @Mock BlobClient blobClient;
-    @Mock PagedIterable<BlobItem> listBlobsResult;
 
+    DispatchCircuitBreakers circuitBreakers;
     ContainerProcessor containerProcessor;
 
     @BeforeEach
     void setUp() {
+        setUpWith(Clock.systemUTC());
+    }
+
+    private void setUpWith(Clock clock) {
+        var storageConfigItem = new StorageConfigItem();
+        storageConfigItem.setSourceContainer("some_container");
+        storageConfigItem.setTargetContainer("some_container");
+        storageConfigItem.setTargetStorageAccount(TargetStorageAccount.CRIME);
+        var serviceConfiguration = new ServiceConfiguration();
+        serviceConfiguration.setStorageConfig(List.of(storageConfigItem));
+
+        circuitBreakers = new DispatchCircuitBreakers(
+            serviceConfiguration,
+            () -> clock,
+            new SimpleMeterRegistry(),
+            1,
+            60_000
+        );
         containerProcessor = new ContainerProcessor(
-            storageClient,
             blobProcessor,
             leaseAcquirer,
-            envelopeService
+            envelopeService,
+            circuitBreakers,
+            envelopeRetryService,
+            blobPrefetcher
         );
     }
 
@@ -59,12 +91,13 @@ class ContainerProcessorTest {
     void should_continue_processing_blob_for_which_envelope_in_created_status_exists() {
         // given
         var envelope = envelope(Status.CREATED);
-        storageHasBlob(envelope.fileName, envelope.container);
+        blobIs(envelope.fileName, envelope.container);
+        retryIsDue(envelope);
         leaseCanBeAcquired();
         given(envelopeService.findEnvelopeNotInCreatedStatus(envelope.fileName, envelope.container))
             .willReturn(Optional.empty());
         // when
-        containerProcessor.process(envelope.container);
+        containerProcessor.processBlob(blobClient);
 
         // then
         verify(blobProcessor).process(blobClient);
@@ -75,27 +108,45 @@ class ContainerProcessorTest {
     void should_skip_blob_if_corresponding_envelope_is_not_in_created_status() {
         // given
         var envelope = envelope(Status.DISPATCHED);
-        storageHasBlob(envelope.fileName, envelope.container);
+        blobIs(envelope.fileName, envelope.container);
         dbHas(envelope);
 
         // when
-        containerProcessor.process(envelope.container);
+        containerProcessor.processBlob(blobClient);
 
         // then
         verifyNoInteractions(leaseAcquirer);
         verifyNoInteractions(blobProcessor);
     }
 
+    @Test
+    void should_process_blob_of_dispatched_envelope_which_has_not_reached_all_mirrors() {
+        // given
+        var envelope = envelope(Status.DISPATCHED);
+        blobIs(envelope.fileName, envelope.container);
+        dbHas(envelope);
+        given(envelopeService.isAwaitingMirrors(envelope)).willReturn(true);
+        retryIsDue(envelope);
+        leaseCanBeAcquired();
+
+        // when
+        containerProcessor.processBlob(blobClient);
+
+        // then
+        verify(blobProcessor).process(blobClient);
+        verifyNoMoreInteractions(blobProcessor);
+    }
 
     @Test
     void should_skip_blob_if_lease_cannot_be_acquired() {
         // given
         var envelope = envelope(Status.CREATED);
-        storageHasBlob(envelope.fileName, envelope.container);
+        blobIs(envelope.fileName, envelope.container);
+        retryIsDue(envelope);
         leaseCannotBeAcquired();
 
         // when
-        containerProcessor.process(envelope.container);
+        containerProcessor.processBlob(blobClient);
 
         // then
         verifyNoInteractions(blobProcessor);
@@ -103,17 +154,133 @@ class ContainerProcessorTest {
         verifyNoMoreInteractions(envelopeService);
     }
 
-    private void storageHasBlob(String fileName, String containerName) {
-        given(storageClient.getBlobContainerClient(containerName)).willReturn(containerClient);
-        given(containerClient.listBlobs()).willReturn(listBlobsResult);
+    @Test
+    void should_skip_blob_before_leasing_when_circuit_breaker_of_target_is_open() {
+        // given
+        var envelope = envelope(Status.CREATED);
+        given(blobClient.getContainerName()).willReturn(envelope.container);
+
+        circuitBreakers.target(TargetStorageAccount.CRIME).onFailure();
+
+        // when
+        containerProcessor.processBlob(blobClient);
+
+        // then
+        verifyNoInteractions(leaseAcquirer, envelopeService, blobProcessor);
+    }
+
+    @Test
+    void should_skip_blob_before_leasing_when_its_next_attempt_is_not_due() {
+        // given
+        var envelope = envelope(Status.CREATED);
+        blobIs(envelope.fileName, envelope.container);
+        given(envelopeRetryService.isEligible(eq(envelope.container), eq(envelope.fileName), any())).willReturn(false);
+
+        // when
+        containerProcessor.processBlob(blobClient);
+
+        // then
+        verifyNoInteractions(leaseAcquirer, blobProcessor);
+    }
+
+    @Test
+    void should_prefetch_blob_which_is_due_for_processing() {
+        // given
+        var envelope = envelope(Status.CREATED);
+        blobIs(envelope.fileName, envelope.container);
+        retryIsDue(envelope);
+        var prefetchedBlob = new PrefetchedBlob(blobClient, "0x1", InputStream.nullInputStream(), blobPrefetcher);
+        given(blobPrefetcher.prefetch(eq(blobClient), any())).willReturn(Optional.of(prefetchedBlob));
+
+        // when
+        var result = containerProcessor.prefetch(blobClient);
+
+        // then
+        assertThat(result).containsSame(prefetchedBlob);
+        verifyNoInteractions(blobProcessor, leaseAcquirer);
+    }
+
+    @Test
+    void should_not_prefetch_blob_if_corresponding_envelope_is_not_in_created_status() {
+        // given
+        var envelope = envelope(Status.DISPATCHED);
+        blobIs(envelope.fileName, envelope.container);
+        dbHas(envelope);
+
+        // when
+        var result = containerProcessor.prefetch(blobClient);
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(blobPrefetcher);
+    }
+
+    @Test
+    void should_process_prefetched_blob_and_release_it_afterwards() {
+        // given
+        given(blobClient.getContainerName()).willReturn("some_container");
+        var prefetchedBlob = new PrefetchedBlob(blobClient, "0x1", InputStream.nullInputStream(), blobPrefetcher);
+
+        // when
+        containerProcessor.processPrefetched(prefetchedBlob);
+
+        // then
+        InOrder inOrder = inOrder(blobProcessor, blobPrefetcher);
+        inOrder.verify(blobProcessor).process(blobClient, prefetchedBlob);
+        inOrder.verify(blobPrefetcher).release(prefetchedBlob);
+    }
+
+    @Test
+    void should_abandon_prefetched_blob_when_circuit_breaker_of_target_opened_in_the_meantime() {
+        // given
+        given(blobClient.getContainerName()).willReturn("some_container");
+        var prefetchedBlob = new PrefetchedBlob(blobClient, "0x1", InputStream.nullInputStream(), blobPrefetcher);
+        circuitBreakers.target(TargetStorageAccount.CRIME).onFailure();
+
+        // when
+        containerProcessor.processPrefetched(prefetchedBlob);
+
+        // then
+        verifyNoInteractions(blobProcessor);
+        verify(blobPrefetcher).release(prefetchedBlob);
+    }
+
+    @Test
+    void should_process_prefetched_blob_with_the_only_probe_permission_of_half_open_circuit_breaker() {
+        // given
+        Clock clock = mock(Clock.class);
+        Instant openedAt = Instant.parse("2024-03-01T10:00:00Z");
+        given(clock.instant()).willReturn(openedAt);
+        setUpWith(clock);
+        circuitBreakers.target(TargetStorageAccount.CRIME).onFailure();
+        given(clock.instant()).willReturn(openedAt.plusMillis(60_000));
 
-        var blob = blob(fileName);
-        given(listBlobsResult.stream()).willReturn(Stream.of(blob));
-        given(containerClient.getBlobClient(blob.getName())).willReturn(blobClient);
+        var envelope = envelope(Status.CREATED);
+        blobIs(envelope.fileName, envelope.container);
+        retryIsDue(envelope);
+        var prefetchedBlob = new PrefetchedBlob(blobClient, "0x1", InputStream.nullInputStream(), blobPrefetcher);
+        given(blobPrefetcher.prefetch(eq(blobClient), any())).willReturn(Optional.of(prefetchedBlob));
+
+        // when
+        containerProcessor.prefetch(blobClient).ifPresent(containerProcessor::processPrefetched);
+
+        // then
+        assertThat(circuitBreakers.target(TargetStorageAccount.CRIME).getState())
+            .isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        InOrder inOrder = inOrder(blobProcessor, blobPrefetcher);
+        inOrder.verify(blobProcessor).process(blobClient, prefetchedBlob);
+        inOrder.verify(blobPrefetcher).release(prefetchedBlob);
+    }
+
+    private void blobIs(String fileName, String containerName) {
         given(blobClient.getBlobName()).willReturn(fileName);
         given(blobClient.getContainerName()).willReturn(containerName);
     }
 
+    private void retryIsDue(Envelope envelope) {
+        given(envelopeRetryService.isEligible(eq(envelope.container), eq(envelope.fileName), any())).willReturn(true);
+    }
+
     private void dbHas(Envelope envelope) {
         given(envelopeService.findEnvelopeNotInCreatedStatus(envelope.fileName, envelope.container))
             .willReturn(Optional.of(envelope));
@@ -166,10 +333,4 @@ class ContainerProcessorTest {
             null
         );
     }
-
-    private BlobItem blob(String name) {
-        var blobItem = mock(BlobItem.class);
-        given(blobItem.getName()).willReturn(name);
-        return blobItem;
-    }
 }
@@ -0,0 +1,60 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ClockProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.OldestFirstPolicy;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class DispatchWaitRecorderTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Mock ClockProvider clockProvider;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DispatchWaitRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recorder = new DispatchWaitRecorder(meterRegistry, clockProvider, new OldestFirstPolicy());
+    }
+
+    @Test
+    void should_record_wait_of_dispatched_blob_tagged_with_policy_and_container() {
+        // given
+        given(clockProvider.getClock()).willReturn(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // when
+        recorder.recordDispatched("a", NOW.minusSeconds(60));
+        recorder.recordDispatched("a", NOW.minusSeconds(30));
+        recorder.recordDispatched("b", NOW.minusSeconds(600));
+
+        // then
+        var waitTimers = meterRegistry.get("blob.dispatch.wait").tag("policy", OldestFirstPolicy.NAME);
+        assertThat(waitTimers.tag("container", "a").timer().count()).isEqualTo(2);
+        assertThat(waitTimers.tag("container", "b").timer().max(TimeUnit.SECONDS)).isEqualTo(600);
+    }
+
+    @Test
+    void should_not_record_anything_when_creation_time_of_blob_is_not_known() {
+        // when
+        recorder.recordDispatched("a", null);
+
+        // then
+        assertThat(meterRegistry.find("blob.dispatch.wait").timers()).isEmpty();
+    }
+}
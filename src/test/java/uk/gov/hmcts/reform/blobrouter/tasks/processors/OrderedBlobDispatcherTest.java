@@ -0,0 +1,327 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors;
+
+import com.azure.core.http.rest.PagedIterable;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobItemProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.blobrouter.config.ServiceConfiguration;
+import uk.gov.hmcts.reform.blobrouter.config.StorageConfigItem;
+import uk.gov.hmcts.reform.blobrouter.services.storage.PrefetchedBlob;
+import uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering.OldestFirstPolicy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OrderedBlobDispatcherTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Mock BlobServiceClient storageClient;
+    @Mock ContainerProcessor containerProcessor;
+
+    private final Map<String, BlobContainerClient> containerClients = new HashMap<>();
+    private final Map<String, BlobItem> blobItems = new HashMap<>();
+    private final Map<String, StorageConfigItem> storageConfig = new HashMap<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderedBlobDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = dispatcher(false);
+    }
+
+    @Test
+    void should_dispatch_blobs_of_all_containers_oldest_first() {
+        // given
+        BlobClient newInA = storageHasBlob("a", "new.zip", 60);
+        BlobClient oldInB = storageHasBlob("b", "old.zip", 600);
+        BlobClient middleInA = storageHasBlob("a", "middle.zip", 300);
+        containerHas("a", "new.zip", "middle.zip");
+        containerHas("b", "old.zip");
+
+        // when
+        dispatcher.dispatch(List.of("a", "b"));
+
+        // then
+        InOrder inOrder = inOrder(containerProcessor);
+        inOrder.verify(containerProcessor).processBlob(oldInB);
+        inOrder.verify(containerProcessor).processBlob(middleInA);
+        inOrder.verify(containerProcessor).processBlob(newInA);
+        inOrder.verifyNoMoreInteractions();
+
+        assertThat(meterRegistry.get("blob.dispatch.candidates").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void should_continue_with_other_blobs_and_containers_when_one_fails() {
+        // given
+        given(storageClient.getBlobContainerClient("broken")).willThrow(new RuntimeException("listing failed"));
+        BlobClient failing = storageHasBlob("a", "failing.zip", 600);
+        BlobClient ok = storageHasBlob("a", "ok.zip", 60);
+        containerHas("a", "failing.zip", "ok.zip");
+        willThrow(new RuntimeException("processing failed")).given(containerProcessor).processBlob(failing);
+
+        // when
+        dispatcher.dispatch(List.of("broken", "a"));
+
+        // then
+        InOrder inOrder = inOrder(containerProcessor);
+        inOrder.verify(containerProcessor).processBlob(failing);
+        inOrder.verify(containerProcessor).processBlob(ok);
+    }
+
+    @Test
+    void should_share_dispatch_between_containers_by_weight_when_fair_queuing_is_enabled() {
+        // given
+        storageConfig.put("bulk", storageConfigItem("bulk", 2, 0));
+        storageConfig.put("small", storageConfigItem("small", 1, 0));
+        dispatcher = dispatcher(true);
+
+        BlobClient bulk1 = storageHasBlob("bulk", "1.zip", 900);
+        BlobClient bulk2 = storageHasBlob("bulk", "2.zip", 800);
+        BlobClient bulk3 = storageHasBlob("bulk", "3.zip", 700);
+        BlobClient bulk4 = storageHasBlob("bulk", "4.zip", 600);
+        BlobClient small1 = storageHasBlob("small", "1.zip", 10);
+        BlobClient small2 = storageHasBlob("small", "2.zip", 5);
+        containerHas("bulk", "4.zip", "3.zip", "2.zip", "1.zip");
+        containerHas("small", "2.zip", "1.zip");
+
+        // when
+        dispatcher.dispatch(List.of("bulk", "small"));
+
+        // then
+        InOrder inOrder = inOrder(containerProcessor);
+        inOrder.verify(containerProcessor).processBlob(bulk1);
+        inOrder.verify(containerProcessor).processBlob(bulk2);
+        inOrder.verify(containerProcessor).processBlob(small1);
+        inOrder.verify(containerProcessor).processBlob(bulk3);
+        inOrder.verify(containerProcessor).processBlob(bulk4);
+        inOrder.verify(containerProcessor).processBlob(small2);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void should_list_containers_again_between_rounds_once_relist_interval_elapsed() {
+        // given
+        dispatcher = dispatcher(true, 2, Duration.ZERO, 0);
+
+        BlobClient bulk1 = storageHasBlob("bulk", "1.zip", 900);
+        BlobClient bulk2 = storageHasBlob("bulk", "2.zip", 800);
+        BlobClient bulk3 = storageHasBlob("bulk", "3.zip", 700);
+        BlobClient bulk4 = storageHasBlob("bulk", "4.zip", 600);
+        containerHas("bulk", "1.zip", "2.zip", "3.zip", "4.zip");
+        // arrives once the first round has been listed
+        BlobClient small1 = storageHasBlob("small", "1.zip", 10);
+        containerHasAfterFirstListing("small", "1.zip");
+
+        // when
+        dispatcher.dispatch(List.of("bulk", "small"));
+
+        // then
+        InOrder inOrder = inOrder(containerProcessor);
+        inOrder.verify(containerProcessor).processBlob(bulk1);
+        inOrder.verify(containerProcessor).processBlob(bulk2);
+        inOrder.verify(containerProcessor).processBlob(bulk3);
+        inOrder.verify(containerProcessor).processBlob(small1);
+        inOrder.verify(containerProcessor).processBlob(bulk4);
+        inOrder.verifyNoMoreInteractions();
+        assertThat(meterRegistry.get("blob.dispatch.candidates").summary().count()).isEqualTo(3);
+    }
+
+    @Test
+    void should_not_list_containers_again_before_listed_blobs_run_out_or_relist_interval_elapses() {
+        // given
+        dispatcher = dispatcher(true, 2, Duration.ofMinutes(1), 0);
+
+        BlobClient bulk1 = storageHasBlob("bulk", "1.zip", 900);
+        BlobClient bulk2 = storageHasBlob("bulk", "2.zip", 800);
+        BlobClient bulk3 = storageHasBlob("bulk", "3.zip", 700);
+        BlobClient bulk4 = storageHasBlob("bulk", "4.zip", 600);
+        BlobClient bulk5 = storageHasBlob("bulk", "5.zip", 500);
+        BlobClient bulk6 = storageHasBlob("bulk", "6.zip", 400);
+        containerHas("bulk", "1.zip", "2.zip", "3.zip", "4.zip", "5.zip", "6.zip");
+        // arrives once the first round has been listed
+        BlobClient small1 = storageHasBlob("small", "1.zip", 10);
+        containerHasAfterFirstListing("small", "1.zip");
+
+        // when
+        dispatcher.dispatch(List.of("bulk", "small"));
+
+        // then
+        InOrder inOrder = inOrder(containerProcessor);
+        inOrder.verify(containerProcessor).processBlob(bulk1);
+        inOrder.verify(containerProcessor).processBlob(bulk2);
+        inOrder.verify(containerProcessor).processBlob(bulk3);
+        inOrder.verify(containerProcessor).processBlob(bulk4);
+        inOrder.verify(containerProcessor).processBlob(bulk5);
+        inOrder.verify(containerProcessor).processBlob(bulk6);
+        inOrder.verify(containerProcessor).processBlob(small1);
+        inOrder.verifyNoMoreInteractions();
+
+        // listed at the start, once the first listing has run out and once the second one has
+        verify(containerClients.get("bulk"), times(3)).listBlobs();
+        verify(containerClients.get("small"), times(3)).listBlobs();
+        assertThat(meterRegistry.get("blob.dispatch.candidates").summary().count()).isEqualTo(4);
+    }
+
+    @Test
+    void should_prefetch_blobs_ahead_of_the_one_being_processed() {
+        // given
+        dispatcher = dispatcher(false, 2);
+        BlobClient first = storageHasBlob("a", "1.zip", 900);
+        BlobClient second = storageHasBlob("a", "2.zip", 800);
+        BlobClient third = storageHasBlob("a", "3.zip", 700);
+        BlobClient fourth = storageHasBlob("a", "4.zip", 600);
+        containerHas("a", "1.zip", "2.zip", "3.zip", "4.zip");
+
+        var prefetchedSecond = mock(PrefetchedBlob.class);
+        var prefetchedFourth = mock(PrefetchedBlob.class);
+        given(containerProcessor.prefetch(second)).willReturn(Optional.of(prefetchedSecond));
+        given(containerProcessor.prefetch(third)).willReturn(Optional.empty());
+        given(containerProcessor.prefetch(fourth)).willReturn(Optional.of(prefetchedFourth));
+
+        // when
+        dispatcher.dispatch(List.of("a"));
+
+        // then
+        InOrder inOrder = inOrder(containerProcessor);
+        inOrder.verify(containerProcessor).prefetch(second);
+        inOrder.verify(containerProcessor).prefetch(third);
+        inOrder.verify(containerProcessor).processBlob(first);
+        inOrder.verify(containerProcessor).prefetch(fourth);
+        inOrder.verify(containerProcessor).processPrefetched(prefetchedSecond);
+        inOrder.verify(containerProcessor).processPrefetched(prefetchedFourth);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void should_abandon_prefetched_blobs_when_dispatching_stops() {
+        // given
+        dispatcher = dispatcher(false, 1);
+        BlobClient first = storageHasBlob("a", "1.zip", 900);
+        BlobClient second = storageHasBlob("a", "2.zip", 800);
+        containerHas("a", "1.zip", "2.zip");
+
+        var prefetchedSecond = mock(PrefetchedBlob.class);
+        given(containerProcessor.prefetch(second)).willReturn(Optional.of(prefetchedSecond));
+        willThrow(new Error("dispatch interrupted")).given(containerProcessor).processBlob(first);
+
+        // when
+        catchThrowable(() -> dispatcher.dispatch(List.of("a")));
+
+        // then
+        verify(prefetchedSecond).close();
+        verify(containerProcessor, never()).processPrefetched(any());
+    }
+
+    private OrderedBlobDispatcher dispatcher(boolean fairQueuing) {
+        return dispatcher(fairQueuing, 0);
+    }
+
+    private OrderedBlobDispatcher dispatcher(boolean fairQueuing, int prefetchDepth) {
+        return dispatcher(fairQueuing, 0, prefetchDepth);
+    }
+
+    private OrderedBlobDispatcher dispatcher(boolean fairQueuing, int roundSize, int prefetchDepth) {
+        return dispatcher(fairQueuing, roundSize, Duration.ofMinutes(1), prefetchDepth);
+    }
+
+    private OrderedBlobDispatcher dispatcher(
+        boolean fairQueuing,
+        int roundSize,
+        Duration relistInterval,
+        int prefetchDepth
+    ) {
+        var serviceConfiguration = new ServiceConfiguration();
+        serviceConfiguration.setStorageConfig(new ArrayList<>(storageConfig.values()));
+
+        return new OrderedBlobDispatcher(
+            storageClient,
+            containerProcessor,
+            new OldestFirstPolicy(),
+            serviceConfiguration,
+            () -> Clock.fixed(NOW, ZoneOffset.UTC),
+            meterRegistry,
+            fairQueuing,
+            roundSize,
+            relistInterval,
+            prefetchDepth
+        );
+    }
+
+    private static StorageConfigItem storageConfigItem(String container, int weight, int minSlots) {
+        var item = new StorageConfigItem();
+        item.setSourceContainer(container);
+        item.setWeight(weight);
+        item.setMinSlots(minSlots);
+        return item;
+    }
+
+    private BlobClient storageHasBlob(String container, String name, long waitingSeconds) {
+        BlobContainerClient containerClient = containerClients.computeIfAbsent(container, c -> {
+            var client = mock(BlobContainerClient.class);
+            given(storageClient.getBlobContainerClient(c)).willReturn(client);
+            return client;
+        });
+
+        var properties = new BlobItemProperties()
+            .setCreationTime(NOW.minusSeconds(waitingSeconds).atOffset(ZoneOffset.UTC))
+            .setContentLength(1024L);
+        var blobItem = new BlobItem().setName(name).setProperties(properties);
+        blobItems.put(container + "/" + name, blobItem);
+
+        BlobClient blobClient = mock(BlobClient.class);
+        given(containerClient.getBlobClient(name)).willReturn(blobClient);
+        return blobClient;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void containerHas(String container, String... names) {
+        PagedIterable<BlobItem> listing = mock(PagedIterable.class);
+        // every listing returns the same blobs
+        given(listing.stream()).willAnswer(
+            invocation -> Stream.of(names).map(name -> blobItems.get(container + "/" + name))
+        );
+        given(containerClients.get(container).listBlobs()).willReturn(listing);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void containerHasAfterFirstListing(String container, String... names) {
+        PagedIterable<BlobItem> listing = mock(PagedIterable.class);
+        given(listing.stream())
+            .willReturn(Stream.empty())
+            .willAnswer(invocation -> Stream.of(names).map(name -> blobItems.get(container + "/" + name)));
+        given(containerClients.get(container).listBlobs()).willReturn(listing);
+    }
+}
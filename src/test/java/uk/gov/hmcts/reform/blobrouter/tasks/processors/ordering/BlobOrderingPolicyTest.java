@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlobOrderingPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+    private static final long MB = 1024 * 1024;
+
+    private static final BlobCandidate OLD_LARGE = candidate("old-large.zip", 600, 50 * MB);
+    private static final BlobCandidate OLD_SMALL = candidate("old-small.zip", 300, MB);
+    private static final BlobCandidate NEW_SMALL = candidate("new-small.zip", 10, MB / 2);
+    private static final BlobCandidate NEW_LARGE = candidate("new-large.zip", 5, 20 * MB);
+    private static final BlobCandidate UNKNOWN_AGE = new BlobCandidate("c", "unknown.zip", null, MB);
+
+    private static final List<BlobCandidate> LISTED = List.of(NEW_LARGE, UNKNOWN_AGE, OLD_SMALL, NEW_SMALL, OLD_LARGE);
+
+    @Test
+    void listing_policy_should_keep_listing_order() {
+        assertThat(order(new ListingOrderPolicy())).containsExactlyElementsOf(LISTED);
+    }
+
+    @Test
+    void oldest_first_policy_should_order_by_creation_time_with_unknown_last() {
+        assertThat(order(new OldestFirstPolicy()))
+            .containsExactly(OLD_LARGE, OLD_SMALL, NEW_SMALL, NEW_LARGE, UNKNOWN_AGE);
+    }
+
+    @Test
+    void smallest_first_policy_should_order_by_size_then_age() {
+        assertThat(order(new SmallestFirstPolicy()))
+            .containsExactly(NEW_SMALL, OLD_SMALL, UNKNOWN_AGE, NEW_LARGE, OLD_LARGE);
+    }
+
+    @Test
+    void weighted_policy_should_prefer_small_blobs_without_starving_old_large_ones() {
+        // waiting seconds / (1 + size / 10MB): old-small 272.7, old-large 100, new-small 9.5, new-large 1.7
+        assertThat(order(new WeightedPolicy(10 * MB)))
+            .containsExactly(OLD_SMALL, OLD_LARGE, NEW_SMALL, NEW_LARGE, UNKNOWN_AGE);
+    }
+
+    @Test
+    void weighted_policy_should_require_positive_reference_size() {
+        assertThatThrownBy(() -> new WeightedPolicy(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<BlobCandidate> order(BlobOrderingPolicy policy) {
+        List<BlobCandidate> candidates = new ArrayList<>(LISTED);
+        candidates.sort(policy.comparator(NOW));
+        return candidates;
+    }
+
+    private static BlobCandidate candidate(String name, long waitingSeconds, long size) {
+        return new BlobCandidate("c", name, NOW.minusSeconds(waitingSeconds), size);
+    }
+}
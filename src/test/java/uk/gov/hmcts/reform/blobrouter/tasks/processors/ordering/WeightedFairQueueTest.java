@@ -0,0 +1,94 @@
+package uk.gov.hmcts.reform.blobrouter.tasks.processors.ordering;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeightedFairQueueTest {
+
+    @Test
+    void should_interleave_containers_round_robin_when_weights_are_equal() {
+        // given
+        var queue = new WeightedFairQueue(container -> 1, container -> 0);
+
+        // when
+        List<BlobCandidate> result = queue.merge(queues(Map.of("a", 3), Map.of("b", 2)));
+
+        // then
+        assertThat(names(result)).containsExactly("a-0", "b-0", "a-1", "b-1", "a-2");
+    }
+
+    @Test
+    void should_share_slots_in_proportion_to_weights() {
+        // given
+        var queue = new WeightedFairQueue(container -> container.equals("bulkscan") ? 3 : 1, container -> 0);
+
+        // when
+        List<BlobCandidate> result = queue.merge(queues(Map.of("bulkscan", 100), Map.of("pcq", 100)));
+
+        // then
+        List<String> firstEight = names(result.subList(0, 8));
+        assertThat(firstEight.stream().filter(name -> name.startsWith("bulkscan"))).hasSize(6);
+        assertThat(firstEight.stream().filter(name -> name.startsWith("pcq"))).hasSize(2);
+        assertThat(result).hasSize(200);
+    }
+
+    @Test
+    void should_give_guaranteed_slots_before_sharing_by_weight() {
+        // given
+        var queue = new WeightedFairQueue(
+            container -> container.equals("bulkscan") ? 10 : 1,
+            container -> container.equals("crime") ? 2 : 0
+        );
+
+        // when
+        List<BlobCandidate> result = queue.merge(queues(Map.of("bulkscan", 20), Map.of("crime", 3)));
+
+        // then
+        assertThat(names(result.subList(0, 2))).containsExactly("crime-0", "crime-1");
+        assertThat(names(result)).endsWith("crime-2").hasSize(23);
+    }
+
+    @Test
+    void should_give_share_of_idle_containers_to_busy_ones() {
+        // given
+        var queue = new WeightedFairQueue(container -> container.equals("pcq") ? 5 : 1, container -> 1);
+
+        // when
+        List<BlobCandidate> result = queue.merge(queues(Map.of("bulkscan", 4), Map.of("pcq", 0)));
+
+        // then
+        assertThat(names(result)).containsExactly("bulkscan-0", "bulkscan-1", "bulkscan-2", "bulkscan-3");
+    }
+
+    @Test
+    void should_return_empty_list_when_nothing_is_waiting() {
+        assertThat(new WeightedFairQueue(c -> 1, c -> 1).merge(Map.of("a", emptyList()))).isEmpty();
+    }
+
+    @SafeVarargs
+    private static Map<String, List<BlobCandidate>> queues(Map<String, Integer>... containers) {
+        Map<String, List<BlobCandidate>> queues = new LinkedHashMap<>();
+        for (Map<String, Integer> container : containers) {
+            container.forEach((name, size) -> queues.put(
+                name,
+                IntStream
+                    .range(0, size)
+                    .mapToObj(i -> new BlobCandidate(name, name + "-" + i, Instant.EPOCH, 0))
+                    .toList()
+            ));
+        }
+        return queues;
+    }
+
+    private static List<String> names(List<BlobCandidate> candidates) {
+        return candidates.stream().map(candidate -> candidate.blobName).toList();
+    }
+}
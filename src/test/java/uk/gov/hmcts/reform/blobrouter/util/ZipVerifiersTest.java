@@ -10,13 +10,16 @@ import uk.gov.hmcts.reform.blobrouter.exceptions.InvalidZipArchiveException;
 import uk.gov.hmcts.reform.blobrouter.util.zipverification.ZipVerifiers;
 
 import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
 import java.security.PublicKey;
 import java.security.SignatureException;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.zip.ZipInputStream;
 
 import static com.google.common.io.Resources.getResource;
 import static com.google.common.io.Resources.toByteArray;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -206,6 +209,24 @@ class ZipVerifiersTest {
             .hasMessage(INVALID_SIGNATURE_MESSAGE);
     }
 
+    @Test
+    void should_return_digest_of_envelope_when_signature_is_valid() throws Exception {
+        byte[] innerZip = zipDir("signature/sample_valid_content");
+        byte[] signature = signWithSha256Rsa(innerZip, toByteArray(getResource("signature/test_private_key.der")));
+
+        byte[] zipBytes = zipFiles(new HashMap<String, byte[]>() {
+            {
+                put(ZipVerifiers.ENVELOPE, innerZip);
+                put(ZipVerifiers.SIGNATURE, signature);
+            }
+        });
+
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zipBytes));
+
+        assertThat(ZipVerifiers.verifyZip(zis, publicKey))
+            .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(innerZip)));
+    }
+
     @Test
     void should_not_verify_signature_of_the_wrong_length() throws Exception {
         byte[] zipBytes = zipFiles(new HashMap<String, byte[]>() {